@@ -3,8 +3,17 @@ module plugin.javafxtools {
     requires javafx.controls;        // JavaFX控件模块
     requires javafx.fxml;           // FXML支持模块
     requires com.fasterxml.jackson.databind; // JSON处理
+    requires com.fasterxml.jackson.dataformat.cbor;   // 格式转换
+    requires com.fasterxml.jackson.dataformat.smile;
+    requires com.fasterxml.jackson.dataformat.yaml;
+    requires org.yaml.snakeyaml;     // YAML解析选项
+    requires com.fasterxml.jackson.dataformat.csv;
+    requires com.fasterxml.jackson.dataformat.xml;
+    requires com.ctc.wstx;           // XML格式转换使用的StAX实现
     requires org.java_websocket;    // WebSocket客户端
     requires java.xml;
+    requires java.management;       // 线程CPU时间统计
+    requires java.net.http;         // 健康检查共享HttpClient
     requires com.google.gson;
     requires org.json;              // XML处理
 
@@ -0,0 +1,94 @@
+package plugin.javafxtools.component;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+
+/**
+ * 十六进制查看器 - 每行16字节，列表项只是行号，仅在单元格可见时才格式化该行
+ * <p>
+ * 数据以只读ByteBuffer引用，不复制；数MB的帧也只格式化屏幕上的几十行。
+ */
+public class HexDumpView extends ListView<Integer> {
+
+    private static final int BYTES_PER_ROW = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ByteBuffer data = ByteBuffer.allocate(0);
+
+    public HexDumpView() {
+        setStyle("-fx-font-family: monospace;");
+        setCellFactory(list -> new ListCell<>() {
+            private final StringBuilder line = new StringBuilder(80);
+
+            @Override
+            protected void updateItem(Integer row, boolean empty) {
+                super.updateItem(row, empty);
+                if (empty || row == null) {
+                    setText(null);
+                } else {
+                    line.setLength(0);
+                    formatRow(row, line);
+                    setText(line.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * 显示数据（从position到limit）
+     */
+    public void setData(ByteBuffer buffer) {
+        this.data = buffer == null ? ByteBuffer.allocate(0) : buffer.slice();
+        int rows = (data.remaining() + BYTES_PER_ROW - 1) / BYTES_PER_ROW;
+        setItems(rowIndexList(rows));
+        scrollTo(0);
+    }
+
+    /**
+     * 行号列表 - 按需计算，不为每行创建对象
+     */
+    private static ObservableList<Integer> rowIndexList(int rows) {
+        return FXCollections.observableList(new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * 格式：偏移  十六进制(8+8)  ASCII
+     */
+    private void formatRow(int row, StringBuilder sb) {
+        int offset = row * BYTES_PER_ROW;
+        int n = Math.min(BYTES_PER_ROW, data.limit() - offset);
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            sb.append(HEX[(offset >>> shift) & 0xF]);
+        }
+        sb.append("  ");
+        for (int i = 0; i < BYTES_PER_ROW; i++) {
+            if (i == 8) sb.append(' ');
+            if (i < n) {
+                int b = data.get(offset + i) & 0xFF;
+                sb.append(HEX[b >>> 4]).append(HEX[b & 0xF]).append(' ');
+            } else {
+                sb.append("   ");
+            }
+        }
+        sb.append(' ');
+        for (int i = 0; i < n; i++) {
+            int b = data.get(offset + i) & 0xFF;
+            sb.append(b >= 0x20 && b < 0x7F ? (char) b : '.');
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package plugin.javafxtools.component;
+
+import javafx.collections.ObservableList;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import plugin.javafxtools.service.format.JsonTreeIndex;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON树形浏览 - 节点首次展开时才从索引文件解析其直接子项，大数组按页展开
+ * <p>
+ * 选中节点时在工具栏显示其路径（如 $.items[3].name）。
+ */
+public class JsonTreeView extends VBox {
+
+    private final TreeView<JsonTreeIndex.Node> treeView = new TreeView<>();
+    private final Label statusLabel = new Label();
+    private final Label pathLabel = new Label();
+
+    private JsonTreeIndex index;
+    private Runnable onClose;
+
+    public JsonTreeView() {
+        setSpacing(5);
+        treeView.setStyle("-fx-font-family: monospace;");
+        treeView.getSelectionModel().selectedItemProperty().addListener((obs, old, item) ->
+                pathLabel.setText(item == null ? "" : pathOf(item)));
+        VBox.setVgrow(treeView, Priority.ALWAYS);
+
+        Button closeButton = new Button("关闭树形浏览");
+        closeButton.setOnAction(e -> close());
+        HBox.setHgrow(pathLabel, Priority.ALWAYS);
+        pathLabel.setMaxWidth(Double.MAX_VALUE);
+        HBox toolBar = new HBox(10, statusLabel, pathLabel, closeButton);
+        toolBar.setAlignment(Pos.CENTER_LEFT);
+        getChildren().addAll(toolBar, treeView);
+    }
+
+    /**
+     * 显示索引，之前显示的索引随之关闭
+     */
+    public void show(JsonTreeIndex index) {
+        if (this.index != null) {
+            this.index.close();
+        }
+        this.index = index;
+        LazyItem root = new LazyItem(index.getRoot());
+        root.setExpanded(true);
+        treeView.setRoot(root);
+        statusLabel.setText(String.format("已索引 %d 个大容器", index.getIndexedCount()));
+    }
+
+    /**
+     * 关闭当前索引并通知关闭回调
+     */
+    public void close() {
+        if (index == null) {
+            return;
+        }
+        index.close();
+        index = null;
+        treeView.setRoot(null);
+        if (onClose != null) {
+            onClose.run();
+        }
+    }
+
+    public void setOnClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    private static String pathOf(TreeItem<JsonTreeIndex.Node> item) {
+        StringBuilder path = new StringBuilder();
+        for (TreeItem<JsonTreeIndex.Node> i = item; i != null && i.getParent() != null; i = i.getParent()) {
+            JsonTreeIndex.Node node = i.getValue();
+            if (node.getKind() == JsonTreeIndex.Kind.PAGE) {
+                continue;
+            }
+            String key = node.getKey();
+            path.insert(0, key.startsWith("[") ? key : "." + key);
+        }
+        return path.insert(0, "$").toString();
+    }
+
+    /**
+     * 首次取子项时才解析的树节点
+     */
+    private final class LazyItem extends TreeItem<JsonTreeIndex.Node> {
+        private boolean loaded;
+
+        LazyItem(JsonTreeIndex.Node node) {
+            super(node);
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return !getValue().hasChildren();
+        }
+
+        @Override
+        public ObservableList<TreeItem<JsonTreeIndex.Node>> getChildren() {
+            if (!loaded && index != null) {
+                loaded = true;
+                try {
+                    List<JsonTreeIndex.Node> nodes = index.children(getValue());
+                    List<TreeItem<JsonTreeIndex.Node>> items = new ArrayList<>(nodes.size());
+                    for (JsonTreeIndex.Node node : nodes) {
+                        items.add(new LazyItem(node));
+                    }
+                    super.getChildren().setAll(items);
+                } catch (IOException e) {
+                    statusLabel.setText("读取子节点失败: " + e.getMessage());
+                }
+            }
+            return super.getChildren();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package plugin.javafxtools.component;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import plugin.javafxtools.service.format.LineIndexedFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+
+/**
+ * 大文本查看器 - 只读显示按行索引的内存映射文件，列表项只是行号，仅在单元格可见时才解码该行
+ * <p>
+ * 用于格式化结果过大、放进TextArea会卡住界面的场景；支持跳转到行、向后查找（到末尾后从头继续）和另存为文件。
+ */
+public class LargeTextView extends VBox {
+
+    /**
+     * 结果超过该字符数时改用本查看器显示
+     */
+    public static final int AUTO_THRESHOLD_CHARS = 2 * 1024 * 1024;
+
+    private final ListView<Integer> listView = new ListView<>();
+    private final Label statusLabel = new Label();
+    private final TextField lineField = new TextField();
+    private final TextField searchField = new TextField();
+    private final CheckBox caseCheckBox = new CheckBox("区分大小写");
+    private final Button findButton = new Button("查找下一个");
+    private final Button saveButton = new Button("另存为");
+
+    private LineIndexedFile file;
+    private Runnable onClose;
+
+    public LargeTextView() {
+        setSpacing(5);
+        listView.setStyle("-fx-font-family: monospace;");
+        listView.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Integer line, boolean empty) {
+                super.updateItem(line, empty);
+                if (empty || line == null || file == null) {
+                    setText(null);
+                } else {
+                    setText(String.format("%8d  %s", line + 1, file.getLine(line)));
+                }
+            }
+        });
+        VBox.setVgrow(listView, Priority.ALWAYS);
+
+        lineField.setPromptText("行号");
+        lineField.setPrefWidth(100);
+        lineField.setOnAction(e -> jumpToLine());
+        Button jumpButton = new Button("跳转");
+        jumpButton.setOnAction(e -> jumpToLine());
+        searchField.setPromptText("查找内容");
+        searchField.setOnAction(e -> findNext());
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+        findButton.setOnAction(e -> findNext());
+        saveButton.setOnAction(e -> saveAs());
+        Button closeButton = new Button("关闭查看器");
+        closeButton.setOnAction(e -> close());
+
+        HBox toolBar = new HBox(10, statusLabel, lineField, jumpButton, searchField, caseCheckBox, findButton,
+                saveButton, closeButton);
+        toolBar.setAlignment(Pos.CENTER_LEFT);
+        getChildren().addAll(toolBar, listView);
+    }
+
+    /**
+     * 显示文件，之前显示的文件随之关闭
+     */
+    public void show(LineIndexedFile file) {
+        if (this.file != null) {
+            this.file.close();
+        }
+        this.file = file;
+        setItems(file.getLineCount());
+        listView.scrollTo(0);
+        showStatus(null);
+    }
+
+    /**
+     * 关闭当前文件并通知关闭回调
+     */
+    public void close() {
+        if (file == null) {
+            return;
+        }
+        file.close();
+        file = null;
+        setItems(0);
+        if (onClose != null) {
+            onClose.run();
+        }
+    }
+
+    public void setOnClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    public LineIndexedFile getFile() {
+        return file;
+    }
+
+    private void setItems(int lines) {
+        // 行号列表按需计算，不为每行创建对象
+        ObservableList<Integer> items = FXCollections.observableList(new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return lines;
+            }
+        });
+        listView.setItems(items);
+    }
+
+    private void jumpToLine() {
+        if (file == null) {
+            return;
+        }
+        try {
+            int line = Integer.parseInt(lineField.getText().trim());
+            selectLine(Math.max(1, Math.min(line, file.getLineCount())) - 1);
+            showStatus(null);
+        } catch (NumberFormatException e) {
+            showStatus("行号无效");
+        }
+    }
+
+    /**
+     * 从选中行的下一行开始查找，文件较大时在后台线程扫描
+     */
+    private void findNext() {
+        String text = searchField.getText();
+        if (file == null || text.isEmpty()) {
+            return;
+        }
+        LineIndexedFile target = file;
+        byte[] pattern = text.getBytes(StandardCharsets.UTF_8);
+        boolean ignoreCase = !caseCheckBox.isSelected();
+        int selected = listView.getSelectionModel().getSelectedIndex();
+        long from = selected >= 0 && selected + 1 < target.getLineCount() ? target.lineStart(selected + 1) : 0;
+        findButton.setDisable(true);
+        statusLabel.setText("查找中...");
+        Thread thread = new Thread(() -> {
+            long found = target.find(pattern, from, ignoreCase);
+            boolean wrapped = false;
+            if (found < 0 && from > 0) {
+                found = target.find(pattern, 0, ignoreCase);
+                wrapped = found >= 0;
+            }
+            int line = found < 0 ? -1 : target.lineOf(found);
+            boolean fromStart = wrapped;
+            Platform.runLater(() -> {
+                findButton.setDisable(false);
+                if (file != target) {
+                    return;
+                }
+                if (line < 0) {
+                    showStatus("未找到: " + text);
+                } else {
+                    selectLine(line);
+                    showStatus(fromStart ? "已到末尾，从头继续查找" : null);
+                }
+            });
+        }, "large-text-search");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 选择目标文件后把当前显示的内容复制过去，复制在后台线程进行
+     */
+    public void saveAs() {
+        if (file == null) {
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("另存为");
+        chooser.setInitialFileName("result.txt");
+        File target = chooser.showSaveDialog(getScene().getWindow());
+        if (target == null) {
+            return;
+        }
+        LineIndexedFile source = file;
+        saveButton.setDisable(true);
+        statusLabel.setText("保存中...");
+        Thread thread = new Thread(() -> {
+            String message;
+            try {
+                Files.copy(source.getPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                message = "已保存到 " + target;
+            } catch (IOException e) {
+                message = "保存失败: " + e.getMessage();
+            }
+            String status = message;
+            Platform.runLater(() -> {
+                saveButton.setDisable(false);
+                if (file == source) {
+                    showStatus(status);
+                }
+            });
+        }, "large-text-save");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void selectLine(int line) {
+        listView.getSelectionModel().select(line);
+        listView.scrollTo(Math.max(0, line - 3));
+    }
+
+    private void showStatus(String message) {
+        if (file == null) {
+            statusLabel.setText("");
+            return;
+        }
+        String summary = String.format("%d 行，%.1f MB", file.getLineCount(), file.getSize() / 1048576.0);
+        statusLabel.setText(message == null ? summary : summary + "  " + message);
+    }
+}
@@ -0,0 +1,125 @@
+package plugin.javafxtools.component;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * 基于Canvas的轻量折线图 - 直接从原始数组绘制，不创建图表节点，适合长时间实时刷新
+ * <p>
+ * 样本值小于0表示缺失（如丢包），以红色竖线标出。
+ */
+public class SparklineCanvas extends Canvas {
+
+    private static final Color[] PALETTE = {
+            Color.web("#3a7bd5"), Color.web("#e67e22"), Color.web("#27ae60"), Color.web("#8e44ad"),
+            Color.web("#16a085"), Color.web("#c0392b"), Color.web("#2c3e50"), Color.web("#d35400")
+    };
+    private static final Color LOSS_COLOR = Color.web("#e74c3c", 0.6);
+    private static final Color GRID_COLOR = Color.web("#dddddd");
+    private static final Font LABEL_FONT = Font.font(10);
+
+    private boolean showLabels = true;
+
+    public SparklineCanvas() {
+    }
+
+    public SparklineCanvas(double width, double height) {
+        super(width, height);
+    }
+
+    /**
+     * 是否绘制刻度和图例（表格单元格内的迷你图可关闭）
+     */
+    public void setShowLabels(boolean showLabels) {
+        this.showLabels = showLabels;
+    }
+
+    /**
+     * 获取第index条曲线的颜色
+     */
+    public static Color colorOf(int index) {
+        return PALETTE[index % PALETTE.length];
+    }
+
+    /**
+     * 绘制一条或多条曲线
+     *
+     * @param series   每条曲线的样本数组（旧到新）
+     * @param counts   每条曲线的有效样本数
+     * @param labels   图例文本，可为null
+     * @param capacity 横轴容纳的样本数，最新样本始终对齐右侧
+     * @param divisor  样本值到显示单位的除数（如纳秒转毫秒为1e6）
+     * @param unit     显示单位
+     */
+    public void render(long[][] series, int[] counts, String[] labels, int capacity, double divisor, String unit) {
+        GraphicsContext gc = getGraphicsContext2D();
+        double w = getWidth();
+        double h = getHeight();
+        gc.clearRect(0, 0, w, h);
+        if (w <= 0 || h <= 0 || capacity < 2) {
+            return;
+        }
+
+        long max = 0;
+        for (int s = 0; s < series.length; s++) {
+            for (int i = 0; i < counts[s]; i++) {
+                if (series[s][i] > max) max = series[s][i];
+            }
+        }
+        double top = showLabels ? 14 : 2;
+        double bottom = h - 2;
+        double scale = max == 0 ? 0 : (bottom - top) / max;
+        double step = w / (capacity - 1);
+
+        if (showLabels) {
+            gc.setStroke(GRID_COLOR);
+            gc.setLineWidth(1);
+            gc.strokeLine(0, top, w, top);
+            gc.strokeLine(0, (top + bottom) / 2, w, (top + bottom) / 2);
+            gc.setFill(Color.GRAY);
+            gc.setFont(LABEL_FONT);
+            gc.fillText(String.format("%.2f %s", max / divisor, unit), 2, top - 3);
+        }
+
+        for (int s = 0; s < series.length; s++) {
+            long[] data = series[s];
+            int n = counts[s];
+            double xOffset = (capacity - n) * step;
+            gc.setStroke(colorOf(s));
+            gc.setLineWidth(1.2);
+            boolean drawing = false;
+            gc.beginPath();
+            for (int i = 0; i < n; i++) {
+                double x = xOffset + i * step;
+                if (data[i] < 0) {
+                    drawing = false;
+                    continue;
+                }
+                double y = bottom - data[i] * scale;
+                if (drawing) {
+                    gc.lineTo(x, y);
+                } else {
+                    gc.moveTo(x, y);
+                    drawing = true;
+                }
+            }
+            gc.stroke();
+
+            // 缺失样本单独标红
+            gc.setStroke(LOSS_COLOR);
+            for (int i = 0; i < n; i++) {
+                if (data[i] < 0) {
+                    double x = xOffset + i * step;
+                    gc.strokeLine(x, top, x, bottom);
+                }
+            }
+
+            if (showLabels && labels != null && s < labels.length) {
+                gc.setFill(colorOf(s));
+                gc.fillText(labels[s], w - 160, top + 12 + s * 12, 156);
+            }
+        }
+    }
+}
@@ -1,32 +1,46 @@
 package plugin.javafxtools.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
-import plugin.javafxtools.base.ModuleLogger;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import plugin.javafxtools.component.JsonTreeView;
+import plugin.javafxtools.component.LargeTextView;
+import plugin.javafxtools.service.format.FileFormatter;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.JsonTreeIndex;
+import plugin.javafxtools.service.format.LineIndexedFile;
+import plugin.javafxtools.service.format.StaxXmlFormatter;
+import plugin.javafxtools.service.format.StreamingJsonFormatter;
 import plugin.javafxtools.util.TimeUtils;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.StringReader;
-import java.io.StringWriter;
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static plugin.javafxtools.controller.DataFormatWorkspace.formatSize;
 
 /**
- * 数据格式化工具控制器 - 提供JSON/XML格式化功能
+ * 数据格式化工具控制器 - JSON/XML格式化、树形浏览和文件模式，持有各子页共用的输入区、文件进度和结果查看器
+ * <p>
+ * JSON查询、NDJSON、Schema推断、格式转换和JSON对比各自是一个子页（fx:include），
+ * 初始化时以 {@link DataFormatWorkspace} 注入共用部分，日志都输出到本页的日志区。
  */
-public class DataFormatController implements ModuleLogger {
+public class DataFormatController implements DataFormatWorkspace {
 
     @FXML
     private ComboBox<String> formatTypeComboBox; // 格式化类型选择框
@@ -35,13 +49,54 @@ public class DataFormatController implements ModuleLogger {
     @FXML
     private TextArea formattedDataArea;         // 格式化结果区
     @FXML
+    private VBox resultBox;                     // 结果区容器，大结果时放入分页查看器
+    @FXML
     private Button formatButton;                // 格式化按钮
     @FXML
     private Button clearButton;                 // 清除按钮
+    @FXML
+    private Button formatCancelButton;          // 取消文本格式化
+    @FXML
+    private ProgressBar formatProgressBar;      // 文本格式化进度
+    @FXML
+    private TextField sourceFileField;          // 文件模式输入文件
+    @FXML
+    private TextField targetFileField;          // 文件模式输出文件
+    @FXML
+    private Button fileFormatButton;
+    @FXML
+    private Button fileCancelButton;
+    @FXML
+    private ProgressBar fileProgressBar;
+    @FXML
+    private Label fileProgressLabel;            // 已读/总大小、速度
+    @FXML
+    private TextArea compareDataArea;           // 对比数据输入区（右侧）
+    @FXML
+    private DataFormatQueryController queryTabController;       // JSON查询子页
+    @FXML
+    private DataFormatNdjsonController ndjsonTabController;     // NDJSON子页
+    @FXML
+    private DataFormatSchemaController schemaTabController;     // Schema推断子页
+    @FXML
+    private DataFormatConvertController convertTabController;   // 格式转换子页
+    @FXML
+    private DataFormatDiffController diffTabController;         // JSON对比子页
 
-    private final ObjectMapper jsonMapper = new ObjectMapper(); // JSON处理器
+    private final FormatTaskRunner textRunner = new FormatTaskRunner(Platform::runLater);  // 输入区格式化
+    private final FormatTaskRunner fileRunner = new FormatTaskRunner(Platform::runLater);  // 文件模式格式化
+    private final LargeTextView largeTextView = new LargeTextView();                       // 大结果分页查看器
+    private final JsonTreeView jsonTreeView = new JsonTreeView();                          // JSON树形浏览
 
+    /**
+     * 在工作线程中建立JSON树索引
+     */
+    @FunctionalInterface
+    private interface TreeIndexLoader {
+        JsonTreeIndex load(FormatTaskRunner.Progress progress) throws IOException;
+    }
 
+    @Override
     public TextArea getLogArea() {
         return formattedDataArea;
     }
@@ -71,17 +126,45 @@ public class DataFormatController implements ModuleLogger {
         formatTypeComboBox.getItems().addAll("JSON", "XML");
         formatTypeComboBox.setValue("JSON");
 
-        // 配置JSON美化输出
-        jsonMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        formatCancelButton.setDisable(true);
+        fileCancelButton.setDisable(true);
+
+        for (Region view : new Region[]{largeTextView, jsonTreeView}) {
+            view.setVisible(false);
+            view.setManaged(false);
+            VBox.setVgrow(view, Priority.ALWAYS);
+        }
+        largeTextView.setOnClose(() -> setResultViewVisible(largeTextView, false));
+        jsonTreeView.setOnClose(() -> setResultViewVisible(jsonTreeView, false));
+        resultBox.getChildren().addAll(0, List.of(largeTextView, jsonTreeView));
 
         // 设置提示文本
         rawDataArea.setPromptText("在此输入要格式化的JSON或XML数据...");
         formattedDataArea.setPromptText("格式化结果将显示在这里...");
+        compareDataArea.setPromptText("在此输入要与左侧对比的JSON数据...");
+
+        // 各子页共用输入区、文件模式和结果查看器
+        if (queryTabController != null) {
+            queryTabController.setWorkspace(this);
+        }
+        if (ndjsonTabController != null) {
+            ndjsonTabController.setWorkspace(this);
+        }
+        if (schemaTabController != null) {
+            schemaTabController.setWorkspace(this);
+        }
+        if (convertTabController != null) {
+            convertTabController.setWorkspace(this);
+        }
+        if (diffTabController != null) {
+            diffTabController.setWorkspace(this);
+        }
         info("数据格式化工具控制器模块初始化完成");
     }
 
     /**
-     * 处理格式化按钮点击事件
+     * 处理格式化按钮点击事件 - 在工作线程中格式化，再次点击会取代尚未完成的上一次格式化；
+     * 输入超过阈值时结果写入临时文件，在分页查看器中显示
      */
     @FXML
     private void handleFormat() {
@@ -92,69 +175,483 @@ public class DataFormatController implements ModuleLogger {
         }
 
         String type = formatTypeComboBox.getValue();
-        try {
-            String formatted;
-            if ("JSON".equals(type)) {
-                formatted = formatJson(rawData);
-                info("JSON格式化成功");
-            } else {
-                formatted = formatXml(rawData);
-                info("XML格式化成功");
-            }
-            formattedDataArea.setText(formatted);
-        } catch (JsonProcessingException e) {
-            formattedDataArea.setText("JSON格式错误: " + e.getMessage());
-            error("JSON格式化失败: " + e.getMessage());
-        } catch (Exception e) {
-            formattedDataArea.setText(type + "格式化错误: " + e.getMessage());
-            error(type + "格式化失败: " + e.getMessage());
+        boolean json = "JSON".equals(type);
+        boolean large = rawData.length() > LargeTextView.AUTO_THRESHOLD_CHARS;
+        AtomicReference<LineIndexedFile> largeResult = new AtomicReference<>();
+        setFormatRunning(true);
+        textRunner.submit(rawData.length(), progress -> {
+                    if (!large) {
+                        return json ? formatJson(rawData, progress) : formatXml(rawData, progress);
+                    }
+                    largeResult.set(progress.own(LineIndexedFile.fromTempFile(out -> {
+                        if (json) {
+                            formatJson(rawData, out, progress);
+                        } else {
+                            formatXml(rawData, out, progress);
+                        }
+                    })));
+                    return null;
+                },
+                new FormatTaskRunner.Listener() {
+                    @Override
+                    public void progress(long consumed, long total) {
+                        formatProgressBar.setProgress((double) consumed / total);
+                    }
+
+                    @Override
+                    public void chunk(String text, boolean first) {
+                        if (first) {
+                            largeTextView.close();
+                            jsonTreeView.close();
+                            formattedDataArea.clear();
+                        }
+                        formattedDataArea.appendText(text);
+                    }
+
+                    @Override
+                    public void completed(long resultLength, long elapsedNanos) {
+                        setFormatRunning(false);
+                        formatProgressBar.setProgress(1);
+                        LineIndexedFile file = largeResult.get();
+                        if (file != null) {
+                            formattedDataArea.clear();
+                            showLargeTextView(file);
+                            info(String.format("%s格式化成功，结果较大（%d 行，%s），已在查看器中显示，耗时 %.1f ms",
+                                    type, file.getLineCount(), formatSize(file.getSize()), elapsedNanos / 1e6));
+                        } else {
+                            info(String.format("%s格式化成功，%d 字符，耗时 %.1f ms", type, resultLength, elapsedNanos / 1e6));
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        setFormatRunning(false);
+                        if (e instanceof JsonProcessingException) {
+                            formattedDataArea.setText("JSON格式错误: " + e.getMessage());
+                            error("JSON格式化失败: " + e.getMessage());
+                        } else {
+                            formattedDataArea.setText(type + "格式化错误: " + e.getMessage());
+                            error(type + "格式化失败: " + e.getMessage());
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        setFormatRunning(false);
+                        info("已取消格式化");
+                    }
+                });
+    }
+
+    /**
+     * 处理格式化"取消"按钮点击事件
+     */
+    @FXML
+    private void handleCancelFormat() {
+        textRunner.cancel();
+    }
+
+    @Override
+    public void setFormatRunning(boolean running) {
+        formatCancelButton.setDisable(!running);
+        if (running) {
+            formatProgressBar.setProgress(0);
         }
     }
 
+    @Override
+    public void setFormatProgress(double progress) {
+        formatProgressBar.setProgress(progress);
+    }
+
     /**
      * 格式化JSON数据
      *
-     * @param json 原始JSON字符串
+     * @param json     原始JSON字符串
+     * @param progress 进度，按已解析的字符数上报
      * @return 格式化后的JSON字符串
-     * @throws JsonProcessingException 如果JSON解析失败
+     * @throws IOException 如果JSON解析失败
      */
-    private String formatJson(String json) throws JsonProcessingException {
-        // 解析并重新序列化以实现格式化
-        Object jsonObject = jsonMapper.readValue(json, Object.class);
-        return jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(jsonObject);
+    private String formatJson(String json, FormatTaskRunner.Progress progress) throws IOException {
+        // 记号流直接写入缩进生成器，不构建对象树
+        StreamingJsonFormatter formatter = new StreamingJsonFormatter();
+        formatter.setProgressListener(progress::update);
+        return formatter.format(json);
+    }
+
+    /**
+     * 格式化JSON数据并写入out
+     */
+    private void formatJson(String json, Writer out, FormatTaskRunner.Progress progress) throws IOException {
+        StreamingJsonFormatter formatter = new StreamingJsonFormatter();
+        formatter.setProgressListener(progress::update);
+        formatter.format(json, out);
     }
 
     /**
      * 格式化XML数据
      *
-     * @param xml 原始XML字符串
+     * @param xml      原始XML字符串
+     * @param progress 进度，按已解析的字符数上报
      * @return 格式化后的XML字符串
-     * @throws Exception 如果XML解析或转换失败
+     * @throws XMLStreamException 如果XML解析失败或包含DOCTYPE
+     */
+    private String formatXml(String xml, FormatTaskRunner.Progress progress) throws XMLStreamException {
+        // StAX事件流式读写，禁止DOCTYPE和外部实体防止XXE攻击
+        StaxXmlFormatter formatter = new StaxXmlFormatter();
+        formatter.setProgressListener(progress::update);
+        return formatter.format(xml);
+    }
+
+    /**
+     * 格式化XML数据并写入out
      */
-    private String formatXml(String xml) throws Exception {
-        // 创建文档构建器工厂（禁用外部实体引用防止XXE攻击）
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+    private void formatXml(String xml, Writer out, FormatTaskRunner.Progress progress) throws XMLStreamException {
+        StaxXmlFormatter formatter = new StaxXmlFormatter();
+        formatter.setProgressListener(progress::update);
+        formatter.format(xml, out);
+    }
+
+    /**
+     * 显示分页查看器，同时关闭树形浏览
+     */
+    @Override
+    public void showLargeTextView(LineIndexedFile file) {
+        jsonTreeView.close();
+        largeTextView.show(file);
+        setResultViewVisible(largeTextView, true);
+    }
 
-        // 解析XML字符串
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document document = builder.parse(new InputSource(new StringReader(xml)));
+    /**
+     * 显示树形浏览，同时关闭分页查看器
+     */
+    private void showJsonTreeView(JsonTreeIndex index) {
+        largeTextView.close();
+        jsonTreeView.show(index);
+        setResultViewVisible(jsonTreeView, true);
+    }
 
-        // 配置转换器
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+    /**
+     * 切换结果区查看器的显示，显示查看器时日志区缩小到下方
+     */
+    private void setResultViewVisible(Region view, boolean visible) {
+        view.setVisible(visible);
+        view.setManaged(visible);
+        if (visible) {
+            formattedDataArea.setPrefRowCount(4);
+        }
+        VBox.setVgrow(formattedDataArea, visible ? Priority.NEVER : Priority.ALWAYS);
+    }
 
-        // 执行格式化转换
-        StringWriter writer = new StringWriter();
-        transformer.transform(new DOMSource(document), new StreamResult(writer));
-        return writer.toString();
+    /**
+     * 处理"树形浏览"按钮点击事件 - 为输入区的JSON建立索引，展开节点时才解析其子项
+     */
+    @FXML
+    private void handleJsonTree() {
+        String rawData = rawDataArea.getText().trim();
+        if (rawData.isEmpty()) {
+            error("请输入要浏览的JSON数据");
+            return;
+        }
+        loadJsonTree("输入数据", rawData.length(), progress -> JsonTreeIndex.fromText(rawData, progress::update));
+    }
+
+    /**
+     * 处理"树形浏览文件"按钮点击事件 - 为文件模式的输入文件建立索引，文件可大于堆内存
+     */
+    @FXML
+    private void handleJsonTreeFile() {
+        String sourceText = sourceFileField.getText().trim();
+        if (sourceText.isEmpty()) {
+            error("请选择输入文件");
+            return;
+        }
+        Path source = Path.of(sourceText);
+        long fileSize;
+        try {
+            fileSize = Files.size(source);
+        } catch (IOException e) {
+            error("无法读取输入文件: " + e.getMessage());
+            return;
+        }
+        loadJsonTree(source.toString(), fileSize, progress -> JsonTreeIndex.open(source, progress::update));
+    }
+
+    private void loadJsonTree(String name, long total, TreeIndexLoader loader) {
+        AtomicReference<JsonTreeIndex> loaded = new AtomicReference<>();
+        setFormatRunning(true);
+        info("开始建立JSON树索引: " + name);
+        textRunner.submit(total, progress -> {
+            JsonTreeIndex index = loader.load(progress);
+            if (progress.isCancelled()) {
+                index.close();
+            } else {
+                loaded.set(index);
+            }
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                formatProgressBar.setProgress(Math.min(1, (double) consumed / total));
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                setFormatRunning(false);
+                formatProgressBar.setProgress(1);
+                JsonTreeIndex index = loaded.get();
+                showJsonTreeView(index);
+                info(String.format("JSON树索引完成，根节点 %d 项，已索引 %d 个大容器，耗时 %.1f ms",
+                        index.getRoot().getCount(), index.getIndexedCount(), elapsedNanos / 1e6));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                setFormatRunning(false);
+                error("建立JSON树索引失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                setFormatRunning(false);
+                info("已取消建立JSON树索引");
+            }
+        });
+    }
+
+    /**
+     * 选择文件模式的输入文件，输出文件默认放在同目录
+     */
+    @FXML
+    private void handleChooseSource() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("选择要格式化的文件");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("JSON文件", "*.json", "*.ndjson"),
+                new FileChooser.ExtensionFilter("XML文件", "*.xml"),
+                new FileChooser.ExtensionFilter("CSV/YAML/CBOR/Smile文件", "*.csv", "*.yaml", "*.yml", "*.cbor", "*.sml"),
+                new FileChooser.ExtensionFilter("所有文件", "*.*"));
+        File file = chooser.showOpenDialog(sourceFileField.getScene().getWindow());
+        if (file != null) {
+            sourceFileField.setText(file.getAbsolutePath());
+            String name = file.getName();
+            int dot = name.lastIndexOf('.');
+            String formattedName = dot > 0
+                    ? name.substring(0, dot) + ".formatted" + name.substring(dot)
+                    : name + ".formatted";
+            targetFileField.setText(new File(file.getParentFile(), formattedName).getAbsolutePath());
+            if (convertTabController != null) {
+                convertTabController.onSourceChosen(name);
+            }
+        }
+    }
+
+    /**
+     * 选择文件模式的输出文件
+     */
+    @FXML
+    private void handleChooseTarget() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("格式化结果另存为");
+        File file = chooser.showSaveDialog(targetFileField.getScene().getWindow());
+        if (file != null) {
+            targetFileField.setText(file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * 处理"格式化文件"按钮点击事件 - 在工作线程流式格式化，输入文件可大于堆内存
+     */
+    @FXML
+    private void handleFormatFile() {
+        if (fileRunner.isRunning()) {
+            return;
+        }
+        String type = formatTypeComboBox.getValue();
+        Path[] paths = resolveFilePaths();
+        if (paths == null) {
+            return;
+        }
+        Path source = paths[0];
+        Path target = paths[1];
+        long fileSize = source.toFile().length();
+
+        FileFormatter formatter = "JSON".equals(type) ? new StreamingJsonFormatter() : new StaxXmlFormatter();
+        long startNanos = System.nanoTime();
+        setFileRunning(true);
+        info("开始格式化文件: " + source + " (" + formatSize(fileSize) + ")");
+        fileRunner.submit(fileSize, progress -> {
+            formatter.setProgressListener(progress::update);
+            formatter.format(source, target);
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                updateFileProgress(consumed, total, startNanos);
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                setFileRunning(false);
+                updateFileProgress(fileSize, fileSize, startNanos);
+                double seconds = elapsedNanos / 1e9;
+                info(String.format("%s文件格式化完成: %s -> %s，耗时 %.2f 秒，%.1f MB/s", type,
+                        formatSize(fileSize), formatSize(formatter.getBytesWritten()), seconds,
+                        fileSize / 1048576.0 / Math.max(seconds, 1e-6)));
+                openInLargeTextView(target);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                setFileRunning(false);
+                error("文件格式化失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                setFileRunning(false);
+                info("文件格式化已取消，已删除不完整的输出文件");
+            }
+        });
+    }
+
+    @Override
+    public String getInputText() {
+        return rawDataArea.getText();
+    }
+
+    @Override
+    public String getCompareText() {
+        return compareDataArea.getText();
+    }
+
+    @Override
+    public void setCompareVisible(boolean visible) {
+        compareDataArea.setVisible(visible);
+        compareDataArea.setManaged(visible);
+    }
+
+    @Override
+    public String getSourceFileText() {
+        return sourceFileField.getText().trim();
+    }
+
+    @Override
+    public FormatTaskRunner getTextRunner() {
+        return textRunner;
+    }
+
+    @Override
+    public FormatTaskRunner getFileRunner() {
+        return fileRunner;
+    }
+
+    @Override
+    public Path[] resolveFilePaths() {
+        String sourceText = sourceFileField.getText().trim();
+        String targetText = targetFileField.getText().trim();
+        if (sourceText.isEmpty() || targetText.isEmpty()) {
+            error("请选择输入文件和输出文件");
+            return null;
+        }
+        Path source = Path.of(sourceText);
+        Path target = Path.of(targetText);
+        if (!Files.isReadable(source)) {
+            error("无法读取输入文件: " + source);
+            return null;
+        }
+        try {
+            if (Files.isSameFile(source, target)) {
+                error("输出文件不能与输入文件相同");
+                return null;
+            }
+        } catch (IOException e) {
+            // 输出文件尚不存在
+        }
+        return new Path[]{source, target};
+    }
+
+    @Override
+    public void openInLargeTextView(Path target) {
+        AtomicReference<LineIndexedFile> opened = new AtomicReference<>();
+        long size = target.toFile().length();
+        fileRunner.submit(size, progress -> {
+            opened.set(progress.own(LineIndexedFile.open(target, progress::update)));
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                fileProgressBar.setProgress(total == 0 ? 1 : (double) consumed / total);
+                fileProgressLabel.setText("正在建立行索引 " + formatSize(consumed)
+                        + " / " + formatSize(total));
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                fileProgressBar.setProgress(1);
+                fileProgressLabel.setText("");
+                showLargeTextView(opened.get());
+                info(String.format("已在查看器中打开输出文件（%d 行），建立索引耗时 %.1f ms",
+                        opened.get().getLineCount(), elapsedNanos / 1e6));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                error("打开输出文件失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                fileProgressLabel.setText("");
+            }
+        });
+    }
+
+    /**
+     * 处理文件模式"取消"按钮点击事件
+     */
+    @FXML
+    private void handleCancelFile() {
+        fileRunner.cancel();
+    }
+
+    @Override
+    public void setFileRunning(boolean running) {
+        fileFormatButton.setDisable(running);
+        fileCancelButton.setDisable(!running);
+        if (running) {
+            fileProgressBar.setProgress(0);
+        }
+    }
+
+    @Override
+    public void setFileProgress(double progress) {
+        fileProgressBar.setProgress(progress);
+    }
+
+    @Override
+    public void updateFileProgress(long read, long total, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        fileProgressBar.setProgress(total == 0 ? 1 : (double) read / total);
+        fileProgressLabel.setText(String.format("%s / %s，%.1f MB/s", formatSize(read),
+                formatSize(total), read / 1048576.0 / Math.max(seconds, 1e-6)));
+    }
+
+    @Override
+    public void clearFileProgressLabel() {
+        fileProgressLabel.setText("");
     }
 
     /**
@@ -163,6 +660,9 @@ public class DataFormatController implements ModuleLogger {
     @FXML
     private void handleClear() {
         rawDataArea.clear();
+        compareDataArea.clear();
+        largeTextView.close();
+        jsonTreeView.close();
         formattedDataArea.clear();
         info("已清除输入和格式化结果");
     }
@@ -181,5 +681,9 @@ public class DataFormatController implements ModuleLogger {
      * 清理资源
      */
     public void cleanup() {
+        textRunner.cancel();
+        fileRunner.cancel();
+        largeTextView.close();
+        jsonTreeView.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,346 @@
+package plugin.javafxtools.controller;
+
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextArea;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.format.FormatConverter;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.LineIndexedFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static plugin.javafxtools.controller.DataFormatWorkspace.formatSize;
+
+/**
+ * 格式转换控制器 - JSON、NDJSON、CSV、YAML、XML、CBOR、Smile之间流式转换，并对比各格式的大小和编解码耗时
+ */
+public class DataFormatConvertController implements ModuleLogger {
+
+    @FXML
+    private ComboBox<FormatConverter.Format> convertFromComboBox;  // 转换的来源格式
+    @FXML
+    private ComboBox<FormatConverter.Format> convertToComboBox;    // 转换的目标格式
+
+    private DataFormatWorkspace workspace;
+
+    /**
+     * 设置共用的输入区和结果查看器，由数据格式化主控制器在初始化时调用
+     */
+    public void setWorkspace(DataFormatWorkspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override
+    public TextArea getLogArea() {
+        return workspace.getLogArea();
+    }
+
+    /**
+     * 日志输出到数据格式化主页的日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        workspace.log(level, message);
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        convertFromComboBox.getItems().addAll(FormatConverter.Format.values());
+        convertFromComboBox.setValue(FormatConverter.Format.JSON);
+        convertToComboBox.getItems().addAll(FormatConverter.Format.values());
+        convertToComboBox.setValue(FormatConverter.Format.CSV);
+    }
+
+    /**
+     * 文件模式选择了输入文件，按扩展名设置来源格式，无法识别时保持不变
+     */
+    public void onSourceChosen(String fileName) {
+        FormatConverter.Format format = FormatConverter.Format.fromFileName(fileName);
+        if (format != null) {
+            convertFromComboBox.setValue(format);
+        }
+    }
+
+    /**
+     * 输出转换统计，CSV表头之外被丢弃的字段单独提示
+     */
+    private void logConvertResult(FormatConverter.Format from, FormatConverter.Format to, FormatConverter.Result result) {
+        info(from + " -> " + to + " 转换完成: " + result.summary());
+        if (result.getDroppedFields() > 0) {
+            error("有 " + result.getDroppedFields() + " 个字段不在第一条记录确定的CSV表头中，已丢弃");
+        }
+    }
+
+    /**
+     * 处理"转换"按钮点击事件 - 输入区按来源格式流式转换为目标格式，文本结果在分页查看器中显示，二进制结果显示十六进制转储
+     */
+    @FXML
+    private void handleConvert() {
+        String rawData = workspace.getInputText();
+        if (rawData.isBlank()) {
+            error("请输入要转换的数据");
+            return;
+        }
+        FormatConverter.Format from = convertFromComboBox.getValue();
+        FormatConverter.Format to = convertToComboBox.getValue();
+        if (from.isBinary()) {
+            error(from + " 是二进制格式，请在文件模式中转换");
+            return;
+        }
+        FormatConverter converter = new FormatConverter();
+        AtomicReference<FormatConverter.Result> result = new AtomicReference<>();
+        AtomicReference<LineIndexedFile> output = new AtomicReference<>();
+        workspace.setFormatRunning(true);
+        workspace.getTextRunner().submit(rawData.length(), progress -> {
+            converter.setProgressListener(progress::update);
+            Path target = Files.createTempFile("javafxtools-", "." + to.getExtension());
+            try {
+                try (OutputStream out = Files.newOutputStream(target)) {
+                    result.set(converter.convert(rawData, from, out, to));
+                }
+                output.set(progress.own(to.isBinary()
+                        ? LineIndexedFile.fromTempFile(out -> writeHexDump(target, out))
+                        : LineIndexedFile.openTemporary(target, null)));
+            } finally {
+                if (to.isBinary() || output.get() == null) {
+                    Files.deleteIfExists(target);
+                }
+            }
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.setFormatProgress(Math.min(1, (double) consumed / total));
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFormatRunning(false);
+                workspace.setFormatProgress(1);
+                workspace.showLargeTextView(output.get());
+                logConvertResult(from, to, result.get());
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFormatRunning(false);
+                error("格式转换失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFormatRunning(false);
+                info("已取消格式转换");
+            }
+        });
+    }
+
+    /**
+     * 处理"转换文件"按钮点击事件 - 文件模式的输入文件流式转换后写入输出文件，内存占用与文件大小无关
+     */
+    @FXML
+    private void handleConvertFile() {
+        if (workspace.getFileRunner().isRunning()) {
+            return;
+        }
+        Path[] paths = workspace.resolveFilePaths();
+        if (paths == null) {
+            return;
+        }
+        Path source = paths[0];
+        Path target = paths[1];
+        FormatConverter.Format from = convertFromComboBox.getValue();
+        FormatConverter.Format to = convertToComboBox.getValue();
+        FormatConverter converter = new FormatConverter();
+        long fileSize = source.toFile().length();
+        long startNanos = System.nanoTime();
+        AtomicReference<FormatConverter.Result> result = new AtomicReference<>();
+        workspace.setFileRunning(true);
+        info("开始转换文件: " + source + " (" + formatSize(fileSize) + ")，" + from + " -> " + to);
+        workspace.getFileRunner().submit(fileSize, progress -> {
+            converter.setProgressListener(progress::update);
+            boolean completed = false;
+            try {
+                result.set(converter.convert(source, from, target, to));
+                completed = true;
+            } finally {
+                if (!completed) {
+                    Files.deleteIfExists(target);
+                }
+            }
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.updateFileProgress(consumed, total, startNanos);
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFileRunning(false);
+                workspace.updateFileProgress(fileSize, fileSize, startNanos);
+                logConvertResult(from, to, result.get());
+                if (!to.isBinary()) {
+                    workspace.openInLargeTextView(target);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFileRunning(false);
+                error("文件转换失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFileRunning(false);
+                info("文件转换已取消，已删除不完整的输出文件");
+            }
+        });
+    }
+
+    /**
+     * 处理"格式对比"按钮点击事件 - 把文件模式的输入文件（未选择时为输入区数据）依次转换为每种格式，
+     * 在日志中列出输出大小、编码/解码耗时以及读回后能否还原
+     */
+    @FXML
+    private void handleCompareFormats() {
+        if (workspace.getFileRunner().isRunning()) {
+            return;
+        }
+        FormatConverter.Format from = convertFromComboBox.getValue();
+        String sourceText = workspace.getSourceFileText();
+        String rawData = workspace.getInputText();
+        Path sourceFile = sourceText.isEmpty() ? null : Path.of(sourceText);
+        if (sourceFile != null && !Files.isReadable(sourceFile)) {
+            error("无法读取输入文件: " + sourceFile);
+            return;
+        }
+        if (sourceFile == null && (rawData.isBlank() || from.isBinary())) {
+            error(rawData.isBlank() ? "请选择输入文件或输入要对比的数据" : from + " 是二进制格式，请在文件模式中对比");
+            return;
+        }
+        FormatConverter converter = new FormatConverter();
+        AtomicReference<List<FormatConverter.FormatStats>> report = new AtomicReference<>();
+        workspace.setFileRunning(true);
+        workspace.setFileProgress(-1);
+        info("开始格式对比: " + (sourceFile != null ? sourceFile.toString() : "输入区数据") + "，来源格式 " + from);
+        workspace.getFileRunner().submit(0, progress -> {
+            converter.setProgressListener(consumed -> progress.checkCancelled());
+            Path source = sourceFile;
+            if (source == null) {
+                source = Files.createTempFile("javafxtools-", "." + from.getExtension());
+                Files.writeString(source, rawData, StandardCharsets.UTF_8);
+            }
+            try {
+                report.set(converter.compare(source, from, List.of(FormatConverter.Format.values())));
+            } finally {
+                if (sourceFile == null) {
+                    Files.deleteIfExists(source);
+                }
+            }
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFileRunning(false);
+                workspace.setFileProgress(1);
+                logCompareReport(report.get(), elapsedNanos);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFileRunning(false);
+                workspace.setFileProgress(0);
+                error("格式对比失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFileRunning(false);
+                workspace.setFileProgress(0);
+                info("格式对比已取消");
+            }
+        });
+    }
+
+    /**
+     * 以表格形式输出格式对比报告，大小以JSON输出为基准
+     */
+    private void logCompareReport(List<FormatConverter.FormatStats> report, long elapsedNanos) {
+        long jsonSize = report.stream()
+                .filter(stats -> stats.getFormat() == FormatConverter.Format.JSON)
+                .mapToLong(FormatConverter.FormatStats::getSize)
+                .findFirst().orElse(0);
+        StringBuilder table = new StringBuilder(String.format("格式对比完成，耗时 %.2f 秒%n", elapsedNanos / 1e9));
+        table.append(String.format("%-8s %12s %8s %12s %12s  %s%n", "格式", "大小", "相对JSON", "编码(ms)", "解码(ms)", "可还原"));
+        for (FormatConverter.FormatStats stats : report) {
+            if (stats.getError() != null) {
+                table.append(String.format("%-8s 转换失败: %s%n", stats.getFormat(), stats.getError()));
+                continue;
+            }
+            table.append(String.format("%-8s %12s %7.1f%% %12.1f %12.1f  %s%n", stats.getFormat(),
+                    formatSize(stats.getSize()), jsonSize == 0 ? 0 : stats.getSize() * 100.0 / jsonSize,
+                    stats.getEncodeNanos() / 1e6, stats.getDecodeNanos() / 1e6, stats.isRoundTrip() ? "是" : "否"));
+        }
+        info(table.toString().stripTrailing());
+    }
+
+    /**
+     * 二进制文件的十六进制转储，每行16字节，右侧为可打印的ASCII字符
+     */
+    private static void writeHexDump(Path file, Writer out) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            byte[] bytes = new byte[16];
+            long offset = 0;
+            int n;
+            StringBuilder line = new StringBuilder();
+            while ((n = in.readNBytes(bytes, 0, bytes.length)) > 0) {
+                line.setLength(0);
+                line.append(String.format("%08x  ", offset));
+                for (int i = 0; i < bytes.length; i++) {
+                    line.append(i < n ? String.format("%02x ", bytes[i] & 0xFF) : "   ");
+                    if (i == 7) {
+                        line.append(' ');
+                    }
+                }
+                line.append(" |");
+                for (int i = 0; i < n; i++) {
+                    int c = bytes[i] & 0xFF;
+                    line.append(c >= 0x20 && c < 0x7F ? (char) c : '.');
+                }
+                out.write(line.append("|\n").toString());
+                offset += n;
+            }
+        }
+    }
+}
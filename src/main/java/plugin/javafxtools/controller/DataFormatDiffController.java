@@ -0,0 +1,232 @@
+package plugin.javafxtools.controller;
+
+import javafx.fxml.FXML;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.stage.FileChooser;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.JsonDiff;
+import plugin.javafxtools.service.format.LineIndexedFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * JSON对比控制器 - 对比输入区左右两份JSON或两个文件，数组可按位置、LCS或键匹配，可忽略指定路径
+ */
+public class DataFormatDiffController implements ModuleLogger {
+
+    @FXML
+    private CheckBox diffModeCheckBox;          // 显示对比数据输入区
+    @FXML
+    private ComboBox<JsonDiff.ArrayMode> diffArrayModeComboBox;
+    @FXML
+    private TextField diffArrayKeyField;        // 按键匹配时的数组元素键字段
+    @FXML
+    private TextField diffIgnoreField;          // 对比时忽略的路径
+
+    private DataFormatWorkspace workspace;
+
+    /**
+     * 在工作线程执行对比，差异逐条交给sink
+     */
+    @FunctionalInterface
+    private interface DiffJob {
+        void run(JsonDiff diff, Consumer<JsonDiff.Change> sink) throws IOException;
+    }
+
+    /**
+     * 设置共用的输入区和结果查看器，由数据格式化主控制器在初始化时调用
+     */
+    public void setWorkspace(DataFormatWorkspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override
+    public TextArea getLogArea() {
+        return workspace.getLogArea();
+    }
+
+    /**
+     * 日志输出到数据格式化主页的日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        workspace.log(level, message);
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        diffArrayModeComboBox.getItems().addAll(JsonDiff.ArrayMode.values());
+        diffArrayModeComboBox.setValue(JsonDiff.ArrayMode.LCS);
+    }
+
+    /**
+     * 显示或隐藏右侧的对比数据输入区
+     */
+    @FXML
+    private void handleToggleDiffMode() {
+        workspace.setCompareVisible(diffModeCheckBox.isSelected());
+    }
+
+    /**
+     * 按界面选项创建对比器，忽略路径有语法错误时输出错误并返回null
+     */
+    private JsonDiff createJsonDiff() {
+        JsonDiff.ArrayMode mode = diffArrayModeComboBox.getValue();
+        String key = diffArrayKeyField.getText().trim();
+        if (mode == JsonDiff.ArrayMode.KEY && key.isEmpty()) {
+            error("按键匹配数组时请输入匹配键，如 id");
+            return null;
+        }
+        try {
+            return new JsonDiff(mode, key, JsonDiff.parseIgnorePaths(diffIgnoreField.getText()));
+        } catch (IllegalArgumentException e) {
+            error("忽略路径" + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 处理"对比"按钮点击事件 - 对比原始数据区（左）与对比数据区（右）的JSON
+     */
+    @FXML
+    private void handleDiff() {
+        if (!diffModeCheckBox.isSelected()) {
+            diffModeCheckBox.setSelected(true);
+            handleToggleDiffMode();
+        }
+        String left = workspace.getInputText().trim();
+        String right = workspace.getCompareText().trim();
+        if (left.isEmpty() || right.isEmpty()) {
+            error("请在左侧输入原始JSON，在右侧输入要对比的JSON");
+            return;
+        }
+        JsonDiff diff = createJsonDiff();
+        if (diff == null) {
+            return;
+        }
+        workspace.setFormatRunning(true);
+        runDiff(workspace.getTextRunner(), (long) left.length() + right.length(), diff,
+                (d, sink) -> d.diff(left, right, sink), false);
+    }
+
+    /**
+     * 处理"对比文件..."按钮点击事件 - 以文件模式的输入文件为左侧，选择另一个文件作为右侧
+     */
+    @FXML
+    private void handleDiffFile() {
+        if (workspace.getFileRunner().isRunning()) {
+            return;
+        }
+        String sourceText = workspace.getSourceFileText();
+        if (sourceText.isEmpty() || !Files.isReadable(Path.of(sourceText))) {
+            error("请先在文件模式中选择左侧的输入文件");
+            return;
+        }
+        JsonDiff diff = createJsonDiff();
+        if (diff == null) {
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("选择要与输入文件对比的文件");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("JSON文件", "*.json"),
+                new FileChooser.ExtensionFilter("所有文件", "*.*"));
+        File file = chooser.showOpenDialog(diffIgnoreField.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        Path left = Path.of(sourceText);
+        Path right = file.toPath();
+        workspace.setFileRunning(true);
+        info("开始对比文件: " + left + " 与 " + right);
+        runDiff(workspace.getFileRunner(), left.toFile().length() + right.toFile().length(), diff,
+                (d, sink) -> d.diff(left, right, sink), true);
+    }
+
+    /**
+     * 在工作线程执行对比，差异每行一条写入临时文件，在分页查看器中显示
+     */
+    private void runDiff(FormatTaskRunner runner, long total, JsonDiff diff, DiffJob job, boolean fileMode) {
+        long[] counts = new long[JsonDiff.ChangeType.values().length];
+        AtomicReference<LineIndexedFile> result = new AtomicReference<>();
+        long startNanos = System.nanoTime();
+        runner.submit(total, progress -> {
+            diff.setProgressListener(progress::update);
+            result.set(progress.own(LineIndexedFile.fromTempFile(out -> job.run(diff, change -> {
+                counts[change.getType().ordinal()]++;
+                try {
+                    out.write(change.toString());
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }))));
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                if (fileMode) {
+                    workspace.updateFileProgress(consumed, total, startNanos);
+                } else {
+                    workspace.setFormatProgress((double) consumed / total);
+                }
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                finish();
+                LineIndexedFile file = result.get();
+                if (diff.getChanges() == 0) {
+                    file.close();
+                    info(String.format("对比完成: 两份数据相同，忽略 %d 处，耗时 %.1f ms",
+                            diff.getIgnored(), elapsedNanos / 1e6));
+                    return;
+                }
+                workspace.showLargeTextView(file);
+                info(String.format("对比完成: %d 处差异（新增 %d，删除 %d，修改 %d），展开 %d 个节点，忽略 %d 处，耗时 %.1f ms",
+                        diff.getChanges(), counts[JsonDiff.ChangeType.ADDED.ordinal()],
+                        counts[JsonDiff.ChangeType.REMOVED.ordinal()], counts[JsonDiff.ChangeType.CHANGED.ordinal()],
+                        diff.getNodes(), diff.getIgnored(), elapsedNanos / 1e6));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                finish();
+                error("对比失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                finish();
+                info("已取消对比");
+            }
+
+            private void finish() {
+                if (fileMode) {
+                    workspace.setFileRunning(false);
+                    workspace.clearFileProgressLabel();
+                } else {
+                    workspace.setFormatRunning(false);
+                    workspace.setFormatProgress(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,249 @@
+package plugin.javafxtools.controller;
+
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.LineIndexedFile;
+import plugin.javafxtools.service.format.NdjsonProcessor;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static plugin.javafxtools.controller.DataFormatWorkspace.formatSize;
+
+/**
+ * NDJSON控制器 - 每行一个JSON，按行边界分块并行校验、压缩、美化或提取字段
+ */
+public class DataFormatNdjsonController implements ModuleLogger {
+
+    @FXML
+    private ComboBox<NdjsonProcessor.Operation> ndjsonOperationComboBox;
+    @FXML
+    private TextField ndjsonFieldsField;        // NDJSON提取的字段
+
+    private DataFormatWorkspace workspace;
+
+    /**
+     * 设置共用的输入区和结果查看器，由数据格式化主控制器在初始化时调用
+     */
+    public void setWorkspace(DataFormatWorkspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override
+    public TextArea getLogArea() {
+        return workspace.getLogArea();
+    }
+
+    /**
+     * 日志输出到数据格式化主页的日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        workspace.log(level, message);
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        ndjsonOperationComboBox.getItems().addAll(NdjsonProcessor.Operation.values());
+        ndjsonOperationComboBox.setValue(NdjsonProcessor.Operation.VALIDATE);
+    }
+
+    /**
+     * 按界面选项创建NDJSON处理器，字段为空等错误时输出错误并返回null
+     */
+    private NdjsonProcessor createNdjsonProcessor() {
+        List<String> fields = Arrays.stream(ndjsonFieldsField.getText().split(","))
+                .map(String::trim)
+                .filter(f -> !f.isEmpty())
+                .toList();
+        try {
+            return new NdjsonProcessor(ndjsonOperationComboBox.getValue(), fields,
+                    Runtime.getRuntime().availableProcessors());
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 输出NDJSON处理统计和前若干个无效行
+     */
+    private void logNdjsonResult(NdjsonProcessor.Result result) {
+        info(ndjsonOperationComboBox.getValue() + "完成: " + result.summary());
+        workspace.logLineErrors(result.getErrors(), result.getInvalid());
+    }
+
+    /**
+     * 处理"处理输入"按钮点击事件 - 输入区每行一个JSON，并行处理后在分页查看器中显示结果
+     */
+    @FXML
+    private void handleNdjson() {
+        String rawData = workspace.getInputText();
+        if (rawData.isBlank()) {
+            error("请输入NDJSON数据");
+            return;
+        }
+        NdjsonProcessor processor = createNdjsonProcessor();
+        if (processor == null) {
+            return;
+        }
+        boolean validateOnly = ndjsonOperationComboBox.getValue() == NdjsonProcessor.Operation.VALIDATE;
+        AtomicReference<NdjsonProcessor.Result> result = new AtomicReference<>();
+        AtomicReference<LineIndexedFile> output = new AtomicReference<>();
+        workspace.setFormatRunning(true);
+        workspace.getTextRunner().submit(rawData.length(), progress -> {
+            Path source = Files.createTempFile("javafxtools-", ".ndjson");
+            Path target = validateOnly ? null : Files.createTempFile("javafxtools-", ".ndjson");
+            try {
+                Files.writeString(source, rawData, StandardCharsets.UTF_8);
+                processor.setProgressListener(progress::update);
+                if (target == null) {
+                    result.set(processor.process(source, null));
+                } else {
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                        result.set(processor.process(source, out));
+                    }
+                    output.set(progress.own(LineIndexedFile.openTemporary(target, null)));
+                }
+            } catch (Exception e) {
+                if (target != null) {
+                    Files.deleteIfExists(target);
+                }
+                throw e;
+            } finally {
+                Files.deleteIfExists(source);
+            }
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.setFormatProgress(Math.min(1, (double) consumed / total));
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFormatRunning(false);
+                workspace.setFormatProgress(1);
+                if (output.get() != null) {
+                    workspace.showLargeTextView(output.get());
+                }
+                logNdjsonResult(result.get());
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFormatRunning(false);
+                error("NDJSON处理失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFormatRunning(false);
+                info("已取消NDJSON处理");
+            }
+        });
+    }
+
+    /**
+     * 处理"处理文件"按钮点击事件 - 文件按行边界分块并行处理，结果按原顺序写入输出文件（校验时不需要输出文件）
+     */
+    @FXML
+    private void handleNdjsonFile() {
+        if (workspace.getFileRunner().isRunning()) {
+            return;
+        }
+        NdjsonProcessor processor = createNdjsonProcessor();
+        if (processor == null) {
+            return;
+        }
+        boolean validateOnly = ndjsonOperationComboBox.getValue() == NdjsonProcessor.Operation.VALIDATE;
+        Path source;
+        Path target;
+        if (validateOnly) {
+            String sourceText = workspace.getSourceFileText();
+            if (sourceText.isEmpty() || !Files.isReadable(Path.of(sourceText))) {
+                error("请选择可读取的输入文件");
+                return;
+            }
+            source = Path.of(sourceText);
+            target = null;
+        } else {
+            Path[] paths = workspace.resolveFilePaths();
+            if (paths == null) {
+                return;
+            }
+            source = paths[0];
+            target = paths[1];
+        }
+        long fileSize = source.toFile().length();
+        long startNanos = System.nanoTime();
+        AtomicReference<NdjsonProcessor.Result> result = new AtomicReference<>();
+        workspace.setFileRunning(true);
+        info("开始NDJSON" + ndjsonOperationComboBox.getValue() + ": " + source + " (" + formatSize(fileSize) + ")");
+        workspace.getFileRunner().submit(fileSize, progress -> {
+            processor.setProgressListener(progress::update);
+            if (target == null) {
+                result.set(processor.process(source, null));
+                return null;
+            }
+            boolean completed = false;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                result.set(processor.process(source, out));
+                completed = true;
+            } finally {
+                if (!completed) {
+                    Files.deleteIfExists(target);
+                }
+            }
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.updateFileProgress(consumed, total, startNanos);
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFileRunning(false);
+                workspace.updateFileProgress(fileSize, fileSize, startNanos);
+                logNdjsonResult(result.get());
+                if (target != null) {
+                    workspace.openInLargeTextView(target);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFileRunning(false);
+                error("NDJSON处理失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFileRunning(false);
+                info("NDJSON处理已取消");
+            }
+        });
+    }
+}
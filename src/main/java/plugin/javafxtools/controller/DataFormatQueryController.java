@@ -0,0 +1,183 @@
+package plugin.javafxtools.controller;
+
+import javafx.fxml.FXML;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.JsonPathQuery;
+import plugin.javafxtools.service.format.LineIndexedFile;
+
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static plugin.javafxtools.controller.DataFormatWorkspace.formatSize;
+
+/**
+ * JSON查询控制器 - 对输入区或文件模式的输入文件流式求值JSONPath/jq风格表达式
+ */
+public class DataFormatQueryController implements ModuleLogger {
+
+    @FXML
+    private TextField queryField;               // JSON查询表达式
+
+    private DataFormatWorkspace workspace;
+
+    /**
+     * 设置共用的输入区和结果查看器，由数据格式化主控制器在初始化时调用
+     */
+    public void setWorkspace(DataFormatWorkspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override
+    public TextArea getLogArea() {
+        return workspace.getLogArea();
+    }
+
+    /**
+     * 日志输出到数据格式化主页的日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        workspace.log(level, message);
+    }
+
+    /**
+     * 编译查询表达式，语法错误时输出错误并返回null
+     */
+    private JsonPathQuery compileQuery() {
+        String expression = queryField.getText().trim();
+        if (expression.isEmpty()) {
+            error("请输入查询表达式");
+            return null;
+        }
+        try {
+            return JsonPathQuery.compile(expression);
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 处理"查询"按钮点击事件 - 对输入区的JSON流式求值，匹配结果每行一个，在分页查看器中显示
+     */
+    @FXML
+    private void handleQuery() {
+        String rawData = workspace.getInputText().trim();
+        if (rawData.isEmpty()) {
+            error("请输入要查询的JSON数据");
+            return;
+        }
+        JsonPathQuery query = compileQuery();
+        if (query == null) {
+            return;
+        }
+        AtomicReference<LineIndexedFile> result = new AtomicReference<>();
+        workspace.setFormatRunning(true);
+        workspace.getTextRunner().submit(rawData.length(), progress -> {
+            query.setProgressListener(progress::update);
+            result.set(progress.own(LineIndexedFile.fromTempFile(out -> query.evaluate(rawData, out))));
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.setFormatProgress((double) consumed / total);
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFormatRunning(false);
+                workspace.setFormatProgress(1);
+                workspace.showLargeTextView(result.get());
+                info(String.format("查询 %s 完成: %d 个匹配，跳过 %d 个不可能匹配的子树，耗时 %.1f ms",
+                        query, query.getMatches(), query.getSkipped(), elapsedNanos / 1e6));
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFormatRunning(false);
+                error("查询失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFormatRunning(false);
+                info("已取消查询");
+            }
+        });
+    }
+
+    /**
+     * 处理"查询文件"按钮点击事件 - 对文件模式的输入文件流式求值，匹配结果写入输出文件
+     */
+    @FXML
+    private void handleQueryFile() {
+        if (workspace.getFileRunner().isRunning()) {
+            return;
+        }
+        JsonPathQuery query = compileQuery();
+        Path[] paths = query == null ? null : workspace.resolveFilePaths();
+        if (paths == null) {
+            return;
+        }
+        Path source = paths[0];
+        Path target = paths[1];
+        long fileSize = source.toFile().length();
+        long startNanos = System.nanoTime();
+        workspace.setFileRunning(true);
+        info("开始查询文件: " + source + " (" + formatSize(fileSize) + ")，表达式 " + query);
+        workspace.getFileRunner().submit(fileSize, progress -> {
+            query.setProgressListener(progress::update);
+            boolean completed = false;
+            try (Writer out = Files.newBufferedWriter(target)) {
+                query.evaluate(source, out);
+                completed = true;
+            } finally {
+                if (!completed) {
+                    Files.deleteIfExists(target);
+                }
+            }
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.updateFileProgress(consumed, total, startNanos);
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFileRunning(false);
+                workspace.updateFileProgress(fileSize, fileSize, startNanos);
+                double seconds = elapsedNanos / 1e9;
+                info(String.format("文件查询完成: %d 个匹配，跳过 %d 个子树，耗时 %.2f 秒，%.1f MB/s",
+                        query.getMatches(), query.getSkipped(), seconds,
+                        fileSize / 1048576.0 / Math.max(seconds, 1e-6)));
+                workspace.openInLargeTextView(target);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFileRunning(false);
+                error("文件查询失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFileRunning(false);
+                info("文件查询已取消，已删除不完整的输出文件");
+            }
+        });
+    }
+}
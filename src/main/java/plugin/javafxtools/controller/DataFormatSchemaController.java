@@ -0,0 +1,162 @@
+package plugin.javafxtools.controller;
+
+import javafx.fxml.FXML;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TextArea;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.LineIndexedFile;
+import plugin.javafxtools.service.format.SchemaInferrer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static plugin.javafxtools.controller.DataFormatWorkspace.formatSize;
+
+/**
+ * Schema推断控制器 - 从JSON数组、单个JSON或NDJSON推断JSON Schema，可附加统计注解
+ */
+public class DataFormatSchemaController implements ModuleLogger {
+
+    @FXML
+    private CheckBox schemaStatisticsCheckBox;  // Schema中附加统计注解
+
+    private DataFormatWorkspace workspace;
+
+    /**
+     * 设置共用的输入区和结果查看器，由数据格式化主控制器在初始化时调用
+     */
+    public void setWorkspace(DataFormatWorkspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override
+    public TextArea getLogArea() {
+        return workspace.getLogArea();
+    }
+
+    /**
+     * 日志输出到数据格式化主页的日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        workspace.log(level, message);
+    }
+
+    /**
+     * 输出Schema推断统计和前若干个无效行
+     */
+    private void logSchemaResult(SchemaInferrer.Result result) {
+        info("Schema推断完成: " + result.summary());
+        workspace.logLineErrors(result.getErrors(), result.getInvalid());
+    }
+
+    /**
+     * 处理"推断输入"按钮点击事件 - 输入区为JSON数组、单个JSON或NDJSON，推断出的JSON Schema在分页查看器中显示
+     */
+    @FXML
+    private void handleInferSchema() {
+        String rawData = workspace.getInputText().trim();
+        if (rawData.isEmpty()) {
+            error("请输入要推断Schema的JSON数据");
+            return;
+        }
+        SchemaInferrer inferrer = new SchemaInferrer(1, schemaStatisticsCheckBox.isSelected());
+        AtomicReference<SchemaInferrer.Result> result = new AtomicReference<>();
+        AtomicReference<LineIndexedFile> output = new AtomicReference<>();
+        workspace.setFormatRunning(true);
+        workspace.getTextRunner().submit(rawData.length(), progress -> {
+            inferrer.setProgressListener(progress::update);
+            output.set(progress.own(LineIndexedFile.fromTempFile(out -> result.set(inferrer.infer(rawData, out)))));
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.setFormatProgress(Math.min(1, (double) consumed / total));
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFormatRunning(false);
+                workspace.setFormatProgress(1);
+                workspace.showLargeTextView(output.get());
+                logSchemaResult(result.get());
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFormatRunning(false);
+                error("Schema推断失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFormatRunning(false);
+                info("已取消Schema推断");
+            }
+        });
+    }
+
+    /**
+     * 处理"推断文件"按钮点击事件 - 文件模式的输入文件（JSON数组或NDJSON）分块并行汇总，推断出的Schema在分页查看器中显示
+     */
+    @FXML
+    private void handleInferSchemaFile() {
+        if (workspace.getFileRunner().isRunning()) {
+            return;
+        }
+        String sourceText = workspace.getSourceFileText();
+        if (sourceText.isEmpty() || !Files.isReadable(Path.of(sourceText))) {
+            error("请选择可读取的输入文件");
+            return;
+        }
+        Path source = Path.of(sourceText);
+        SchemaInferrer inferrer = new SchemaInferrer(Runtime.getRuntime().availableProcessors(),
+                schemaStatisticsCheckBox.isSelected());
+        long fileSize = source.toFile().length();
+        long startNanos = System.nanoTime();
+        AtomicReference<SchemaInferrer.Result> result = new AtomicReference<>();
+        AtomicReference<LineIndexedFile> output = new AtomicReference<>();
+        workspace.setFileRunning(true);
+        info("开始推断Schema: " + source + " (" + formatSize(fileSize) + ")");
+        workspace.getFileRunner().submit(fileSize, progress -> {
+            inferrer.setProgressListener(progress::update);
+            output.set(progress.own(LineIndexedFile.fromTempFile(out -> result.set(inferrer.infer(source, out)))));
+            return null;
+        }, new FormatTaskRunner.Listener() {
+            @Override
+            public void progress(long consumed, long total) {
+                workspace.updateFileProgress(consumed, total, startNanos);
+            }
+
+            @Override
+            public void chunk(String text, boolean first) {
+            }
+
+            @Override
+            public void completed(long resultLength, long elapsedNanos) {
+                workspace.setFileRunning(false);
+                workspace.updateFileProgress(fileSize, fileSize, startNanos);
+                workspace.showLargeTextView(output.get());
+                logSchemaResult(result.get());
+            }
+
+            @Override
+            public void failed(Exception e) {
+                workspace.setFileRunning(false);
+                error("Schema推断失败: " + e.getMessage());
+            }
+
+            @Override
+            public void cancelled() {
+                workspace.setFileRunning(false);
+                info("Schema推断已取消");
+            }
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package plugin.javafxtools.controller;
+
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.LineError;
+import plugin.javafxtools.service.format.LineIndexedFile;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 数据格式化各子页共用的输入区、文件模式、任务执行器和结果查看器，由数据格式化主控制器实现并注入子页
+ */
+public interface DataFormatWorkspace extends ModuleLogger {
+
+    int MAX_LOGGED_ERRORS = 20;    // 日志中列出的无效行数
+
+    /**
+     * 原始数据输入区的文本
+     */
+    String getInputText();
+
+    /**
+     * 对比数据输入区（右侧）的文本
+     */
+    String getCompareText();
+
+    /**
+     * 显示或隐藏对比数据输入区
+     */
+    void setCompareVisible(boolean visible);
+
+    /**
+     * 文件模式的输入文件路径，未选择时为空字符串
+     */
+    String getSourceFileText();
+
+    /**
+     * 校验文件模式的输入、输出文件，不合法时输出错误并返回null
+     *
+     * @return 输入文件和输出文件
+     */
+    Path[] resolveFilePaths();
+
+    /**
+     * 输入区任务的执行器
+     */
+    FormatTaskRunner getTextRunner();
+
+    /**
+     * 文件模式任务的执行器
+     */
+    FormatTaskRunner getFileRunner();
+
+    void setFormatRunning(boolean running);
+
+    void setFormatProgress(double progress);
+
+    void setFileRunning(boolean running);
+
+    /**
+     * 设置文件进度条，负数表示进度未知
+     */
+    void setFileProgress(double progress);
+
+    /**
+     * 更新文件进度条和已读/总大小、速度
+     */
+    void updateFileProgress(long read, long total, long startNanos);
+
+    void clearFileProgressLabel();
+
+    /**
+     * 在分页查看器中显示结果
+     */
+    void showLargeTextView(LineIndexedFile file);
+
+    /**
+     * 在分页查看器中打开文件模式的输出文件，行索引在工作线程建立
+     */
+    void openInLargeTextView(Path target);
+
+    /**
+     * 输出前若干个无效行
+     */
+    default void logLineErrors(List<LineError> errors, long invalid) {
+        for (int i = 0; i < Math.min(errors.size(), MAX_LOGGED_ERRORS); i++) {
+            error(errors.get(i).toString());
+        }
+        if (invalid > MAX_LOGGED_ERRORS) {
+            error("…共 " + invalid + " 个无效行");
+        }
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / 1048576.0);
+    }
+}
@@ -0,0 +1,402 @@
+package plugin.javafxtools.controller;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.component.SparklineCanvas;
+import plugin.javafxtools.service.http.HealthCheckService;
+import plugin.javafxtools.service.http.HealthEndpoint;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * HTTP健康看板控制器 - 对一组URL并行做轻量检查，展示状态、延迟迷你图和可用率
+ * <p>
+ * 检查结果写入端点自身的定长序列，界面定时只刷新版本号发生变化的行，数百个端点也不会卡顿。
+ */
+public class HealthDashboardController implements ModuleLogger {
+
+    private static final long REFRESH_INTERVAL_MS = 500;
+    private static final int MAX_CONCURRENT = 64;
+    private static final String ENDPOINT_FILE = "health_endpoints.json";
+
+    @FXML
+    private TextArea endpointsArea;        // 端点列表，每行一个
+    @FXML
+    private TextField intervalField;       // 检查间隔(秒)
+    @FXML
+    private TextField timeoutField;        // 请求超时(ms)
+    @FXML
+    private TextField windowField;         // 统计窗口样本数
+    @FXML
+    private Button startButton;
+    @FXML
+    private Button stopButton;
+    @FXML
+    private Label summaryLabel;            // 汇总：正常/异常/未检查
+    @FXML
+    private TableView<EndpointRow> dashboardTable;
+    @FXML
+    private TextArea dashboardLogArea;
+
+    private final HealthCheckService service = new HealthCheckService(MAX_CONCURRENT);
+    private final List<EndpointRow> rows = new ArrayList<>();
+    private Timeline refreshTimeline;
+
+    // 迷你图绘制时复用的缓冲区（仅在FX线程使用）
+    private long[][] sparkSeries = new long[1][2];
+    private final int[] sparkCounts = new int[1];
+
+    @Override
+    public TextArea getLogArea() {
+        return dashboardLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (dashboardLogArea != null && dashboardLogArea.getScene() != null) {
+                dashboardLogArea.appendText(formattedMessage);
+                dashboardLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        endpointsArea.setPromptText("每行一个端点：URL 或 METHOD URL（仅支持HEAD/GET，默认HEAD）\n例如：\nhttps://www.baidu.com\nGET https://example.com/health");
+        intervalField.setText("10");
+        timeoutField.setText("3000");
+        windowField.setText("60");
+        stopButton.setDisable(true);
+        summaryLabel.setText("未开始");
+
+        addColumn("端点", 260, row -> row.url);
+        addColumn("状态", 70, row -> row.status);
+        addColumn("当前(ms)", 70, row -> row.last);
+        addColumn("平均(ms)", 70, row -> row.avg);
+        addColumn("窗口可用率", 80, row -> row.windowUptime);
+        addColumn("累计可用率", 80, row -> row.totalUptime);
+        addColumn("检查次数", 70, row -> row.checks);
+        addSparklineColumn();
+        addColumn("错误", 200, row -> row.error);
+
+        refreshTimeline = new Timeline(new KeyFrame(Duration.millis(REFRESH_INTERVAL_MS), e -> refreshView()));
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+
+        loadEndpoints();
+        dashboardLogArea.setPromptText("健康检查日志将显示在这里...");
+        info("HTTP健康看板模块初始化完成");
+    }
+
+    private void addColumn(String title, double width, Function<EndpointRow, StringProperty> property) {
+        TableColumn<EndpointRow, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        // 直接绑定行属性，属性值不变时单元格不会重绘
+        column.setCellValueFactory(cd -> property.apply(cd.getValue()));
+        dashboardTable.getColumns().add(column);
+    }
+
+    /**
+     * 延迟迷你图列 - 单元格值为端点版本号，版本变化时才重新绘制
+     */
+    private void addSparklineColumn() {
+        TableColumn<EndpointRow, Long> column = new TableColumn<>("延迟趋势");
+        column.setPrefWidth(140);
+        column.setSortable(false);
+        column.setCellValueFactory(cd -> cd.getValue().version);
+        column.setCellFactory(col -> new TableCell<>() {
+            private final SparklineCanvas canvas = new SparklineCanvas(130, 22);
+
+            {
+                canvas.setShowLabels(false);
+            }
+
+            @Override
+            protected void updateItem(Long item, boolean empty) {
+                super.updateItem(item, empty);
+                EndpointRow row = empty ? null : getTableRow().getItem();
+                if (row == null) {
+                    setGraphic(null);
+                    return;
+                }
+                HealthEndpoint endpoint = row.endpoint;
+                if (sparkSeries[0].length != endpoint.getWindowSize()) {
+                    sparkSeries = new long[1][endpoint.getWindowSize()];
+                }
+                sparkCounts[0] = endpoint.copyLatencies(sparkSeries[0]);
+                canvas.render(sparkSeries, sparkCounts, null, endpoint.getWindowSize(), 1e6, "ms");
+                setGraphic(canvas);
+            }
+        });
+        dashboardTable.getColumns().add(column);
+    }
+
+    /**
+     * 处理"开始"按钮点击事件
+     */
+    @FXML
+    private void handleStart() {
+        long intervalSeconds;
+        int timeout;
+        int window;
+        try {
+            intervalSeconds = Long.parseLong(intervalField.getText().trim());
+            timeout = Integer.parseInt(timeoutField.getText().trim());
+            window = Integer.parseInt(windowField.getText().trim());
+            if (intervalSeconds < 1 || timeout < 1 || window < 2) {
+                error("间隔不能小于1秒，超时需大于0，窗口样本数不能小于2");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            error("请输入有效的间隔、超时和窗口样本数");
+            return;
+        }
+
+        List<HealthEndpoint> endpoints = new ArrayList<>();
+        for (String line : endpointsArea.getText().split("\n")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                endpoints.add(HealthEndpoint.parse(line, window));
+            } catch (IllegalArgumentException e) {
+                error(e.getMessage());
+                return;
+            }
+        }
+        if (endpoints.isEmpty()) {
+            error("请至少输入一个端点");
+            return;
+        }
+
+        rows.clear();
+        for (HealthEndpoint endpoint : endpoints) {
+            rows.add(new EndpointRow(endpoint));
+        }
+        dashboardTable.getItems().setAll(rows);
+        saveEndpoints();
+        service.start(endpoints, intervalSeconds * 1000, timeout);
+        refreshTimeline.play();
+        startButton.setDisable(true);
+        stopButton.setDisable(false);
+        endpointsArea.setDisable(true);
+        info(String.format("健康检查已启动: %d 个端点，间隔 %ds，超时 %dms，最大并发 %d",
+                endpoints.size(), intervalSeconds, timeout, MAX_CONCURRENT));
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleStop() {
+        stopService();
+        refreshView();
+        info("健康检查已停止");
+    }
+
+    private void stopService() {
+        service.stop();
+        if (refreshTimeline != null) {
+            refreshTimeline.stop();
+        }
+        startButton.setDisable(false);
+        stopButton.setDisable(true);
+        endpointsArea.setDisable(false);
+    }
+
+    /**
+     * 从HTTP请求模板导入URL，已存在的端点不重复添加
+     */
+    @FXML
+    private void handleImportTemplates() {
+        File file = new File(HttpRequestController.TEMPLATE_FILE);
+        if (!file.exists()) {
+            info("未找到请求模板文件: " + HttpRequestController.TEMPLATE_FILE);
+            return;
+        }
+        Map<String, HttpRequestController.HttpTemplate> templates;
+        try (Reader reader = new FileReader(file)) {
+            templates = new Gson().fromJson(reader,
+                    new TypeToken<Map<String, HttpRequestController.HttpTemplate>>(){}.getType());
+        } catch (Exception e) {
+            error("读取请求模板失败: " + e.getMessage());
+            return;
+        }
+        if (templates == null || templates.isEmpty()) {
+            info("请求模板为空");
+            return;
+        }
+
+        Set<String> lines = new LinkedHashSet<>();
+        for (String line : endpointsArea.getText().split("\n")) {
+            if (!line.trim().isEmpty()) {
+                lines.add(line.trim());
+            }
+        }
+        int before = lines.size();
+        for (HttpRequestController.HttpTemplate tpl : templates.values()) {
+            if (tpl.url == null || tpl.url.trim().isEmpty()) {
+                continue;
+            }
+            // 有副作用的方法只做GET检查，避免看板误触发写操作
+            String method = "HEAD".equalsIgnoreCase(tpl.method) ? "HEAD" : "GET";
+            lines.add(method + " " + tpl.url.trim());
+        }
+        endpointsArea.setText(String.join("\n", lines));
+        info(String.format("从请求模板导入 %d 个端点", lines.size() - before));
+    }
+
+    /**
+     * 定时刷新 - 只更新版本号变化的行
+     */
+    private void refreshView() {
+        int healthy = 0;
+        int unhealthy = 0;
+        int pending = 0;
+        for (EndpointRow row : rows) {
+            HealthEndpoint endpoint = row.endpoint;
+            long v = endpoint.getVersion();
+            if (v != row.version.get()) {
+                row.update();
+                row.version.set(v);
+            }
+            if (endpoint.getTotalChecks() == 0) {
+                pending++;
+            } else if (endpoint.getLastError().isEmpty()) {
+                healthy++;
+            } else {
+                unhealthy++;
+            }
+        }
+        summaryLabel.setText(String.format("正常 %d / 异常 %d / 未检查 %d", healthy, unhealthy, pending));
+    }
+
+    /**
+     * 保存端点列表到本地文件
+     */
+    private void saveEndpoints() {
+        List<String> lines = new ArrayList<>();
+        for (EndpointRow row : rows) {
+            lines.add(row.endpoint.getMethod() + " " + row.endpoint.getUrl());
+        }
+        try (Writer writer = new FileWriter(ENDPOINT_FILE)) {
+            new Gson().toJson(lines, writer);
+        } catch (Exception e) {
+            error("保存端点列表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 从本地加载端点列表
+     */
+    private void loadEndpoints() {
+        File file = new File(ENDPOINT_FILE);
+        if (!file.exists()) return;
+        try (Reader reader = new FileReader(file)) {
+            List<String> lines = new Gson().fromJson(reader, new TypeToken<List<String>>(){}.getType());
+            if (lines != null) endpointsArea.setText(String.join("\n", lines));
+        } catch (Exception e) {
+            error("加载端点列表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (dashboardLogArea != null) {
+                dashboardLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        service.stop();
+        if (refreshTimeline != null) {
+            refreshTimeline.stop();
+        }
+    }
+
+    /**
+     * 表格行 - 持有显示属性和已渲染的版本号
+     */
+    private static class EndpointRow {
+        final HealthEndpoint endpoint;
+        final StringProperty url = new SimpleStringProperty();
+        final StringProperty status = new SimpleStringProperty("-");
+        final StringProperty last = new SimpleStringProperty("-");
+        final StringProperty avg = new SimpleStringProperty("-");
+        final StringProperty windowUptime = new SimpleStringProperty("-");
+        final StringProperty totalUptime = new SimpleStringProperty("-");
+        final StringProperty checks = new SimpleStringProperty("0");
+        final StringProperty error = new SimpleStringProperty("");
+        final ObjectProperty<Long> version = new SimpleObjectProperty<>(0L);
+
+        EndpointRow(HealthEndpoint endpoint) {
+            this.endpoint = endpoint;
+            url.set(endpoint.getMethod() + " " + endpoint.getUrl());
+        }
+
+        void update() {
+            int code = endpoint.getLastStatus();
+            String err = endpoint.getLastError();
+            status.set(code > 0 ? String.valueOf(code) : (err.isEmpty() ? "-" : "失败"));
+            last.set(formatMillis(endpoint.lastLatencyMillis()));
+            avg.set(formatMillis(endpoint.averageLatencyMillis()));
+            windowUptime.set(formatPercent(endpoint.windowUptimePercent()));
+            totalUptime.set(formatPercent(endpoint.totalUptimePercent()));
+            checks.set(String.valueOf(endpoint.getTotalChecks()));
+            error.set(err);
+        }
+
+        private static String formatMillis(double v) {
+            return Double.isNaN(v) ? "-" : String.format("%.1f", v);
+        }
+
+        private static String formatPercent(double v) {
+            return Double.isNaN(v) ? "-" : String.format("%.1f%%", v);
+        }
+    }
+}
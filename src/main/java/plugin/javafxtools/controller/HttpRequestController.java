@@ -46,6 +46,7 @@ public class HttpRequestController implements ModuleLogger {
     @FXML private ComboBox<String> templateComboBox;
     @FXML private TextField connectTimeoutField;
     @FXML private TextField readTimeoutField;
+    @FXML private HealthDashboardController healthDashboardTabController; // 健康看板子页
 
     // ----------- 业务字段 -----------
     private ScheduledExecutorService scheduler;
@@ -57,7 +58,7 @@ public class HttpRequestController implements ModuleLogger {
 
     // 请求模板存档
     private final Map<String, HttpTemplate> templates = new HashMap<>();
-    private static final String TEMPLATE_FILE = "http_templates.json";
+    static final String TEMPLATE_FILE = "http_templates.json";
 
     // ----------- 日志输出重定向 -----------
     @Override
@@ -523,6 +524,7 @@ public class HttpRequestController implements ModuleLogger {
      */
     public void cleanup() {
         stopScheduler();
+        if (healthDashboardTabController != null) healthDashboardTabController.cleanup();
         System.out.println("HttpRequestController 资源已清理");
     }
 
@@ -0,0 +1,255 @@
+package plugin.javafxtools.controller;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.Pane;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.component.SparklineCanvas;
+import plugin.javafxtools.service.network.LatencyMonitor;
+import plugin.javafxtools.service.network.LatencyStats;
+import plugin.javafxtools.service.network.ProbeTarget;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 延迟监控控制器 - 持续探测多个目标，展示滚动 min/avg/max/抖动/丢包率 和实时曲线
+ */
+public class LatencyMonitorController implements ModuleLogger {
+
+    private static final long REFRESH_INTERVAL_MS = 250;
+    private static final int MAX_CHART_SERIES = 8;
+
+    @FXML
+    private TextArea targetsArea;          // 监控目标，每行一个
+    @FXML
+    private TextField intervalField;       // 探测间隔(ms)
+    @FXML
+    private TextField timeoutField;        // 探测超时(ms)
+    @FXML
+    private TextField windowField;         // 统计窗口样本数
+    @FXML
+    private Button startButton;
+    @FXML
+    private Button stopButton;
+    @FXML
+    private TableView<ProbeTarget> statsTable;
+    @FXML
+    private Pane chartPane;                // 曲线容器
+    @FXML
+    private TextArea monitorLogArea;
+
+    private final LatencyMonitor monitor = new LatencyMonitor();
+    private final SparklineCanvas chart = new SparklineCanvas();
+    private Timeline refreshTimeline;
+
+    // 刷新时复用的缓冲区，避免长时间运行产生垃圾
+    private final double[] statsBuffer = new double[LatencyStats.SNAPSHOT_SIZE];
+    private long[][] chartSeries = new long[0][];
+    private int[] chartCounts = new int[0];
+    private String[] chartLabels = new String[0];
+    private int chartCapacity = 2;
+
+    @Override
+    public TextArea getLogArea() {
+        return monitorLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (monitorLogArea != null && monitorLogArea.getScene() != null) {
+                monitorLogArea.appendText(formattedMessage);
+                monitorLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        targetsArea.setPromptText("每行一个目标：host:port 使用TCP连接计时，仅host使用ICMP\n例如：\nbaidu.com:443\n8.8.8.8");
+        intervalField.setText("500");
+        timeoutField.setText("1000");
+        windowField.setText("600");
+        stopButton.setDisable(true);
+
+        addColumn("目标", 150, ProbeTarget::getLabel);
+        addColumn("方式", 50, ProbeTarget::getMethod);
+        addStatColumn("当前(ms)", LatencyStats.LAST);
+        addStatColumn("最小(ms)", LatencyStats.MIN);
+        addStatColumn("平均(ms)", LatencyStats.AVG);
+        addStatColumn("最大(ms)", LatencyStats.MAX);
+        addStatColumn("抖动(ms)", LatencyStats.JITTER);
+        addColumn("丢包率", 60, t -> {
+            t.getStats().snapshot(statsBuffer);
+            return String.format("%.1f%%", statsBuffer[LatencyStats.LOSS_PERCENT]);
+        });
+        addColumn("累计探测", 70, t -> String.valueOf(t.getStats().getTotalSent()));
+        addColumn("状态", 120, ProbeTarget::getStatus);
+
+        // 曲线随容器尺寸变化
+        chartPane.getChildren().add(chart);
+        chart.widthProperty().bind(chartPane.widthProperty());
+        chart.heightProperty().bind(chartPane.heightProperty());
+
+        refreshTimeline = new Timeline(new KeyFrame(Duration.millis(REFRESH_INTERVAL_MS), e -> refreshView()));
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+
+        monitorLogArea.setPromptText("监控日志将显示在这里...");
+        info("延迟监控模块初始化完成");
+    }
+
+    private void addColumn(String title, double width, Function<ProbeTarget, String> getter) {
+        TableColumn<ProbeTarget, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        column.setCellValueFactory(cd -> new SimpleStringProperty(getter.apply(cd.getValue())));
+        statsTable.getColumns().add(column);
+    }
+
+    private void addStatColumn(String title, int statIndex) {
+        addColumn(title, 70, t -> {
+            t.getStats().snapshot(statsBuffer);
+            double v = statsBuffer[statIndex];
+            return Double.isNaN(v) ? "-" : String.format("%.2f", v);
+        });
+    }
+
+    /**
+     * 处理"开始"按钮点击事件
+     */
+    @FXML
+    private void handleStart() {
+        long interval;
+        int timeout;
+        int window;
+        try {
+            interval = Long.parseLong(intervalField.getText().trim());
+            timeout = Integer.parseInt(timeoutField.getText().trim());
+            window = Integer.parseInt(windowField.getText().trim());
+            if (interval < 50 || timeout < 1 || window < 2) {
+                error("间隔不能小于50ms，超时需大于0，窗口样本数不能小于2");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            error("请输入有效的间隔、超时和窗口样本数");
+            return;
+        }
+
+        List<ProbeTarget> targets = new ArrayList<>();
+        for (String line : targetsArea.getText().split("\n")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                targets.add(ProbeTarget.parse(line, window));
+            } catch (IllegalArgumentException e) {
+                error(e.getMessage());
+                return;
+            }
+        }
+        if (targets.isEmpty()) {
+            error("请至少输入一个监控目标");
+            return;
+        }
+
+        prepareChartBuffers(targets, window);
+        statsTable.getItems().setAll(targets);
+        monitor.start(targets, interval, timeout);
+        refreshTimeline.play();
+        startButton.setDisable(true);
+        stopButton.setDisable(false);
+        targetsArea.setDisable(true);
+        info(String.format("延迟监控已启动: %d 个目标，间隔 %dms，超时 %dms，窗口 %d 个样本",
+                targets.size(), interval, timeout, window));
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleStop() {
+        stopMonitor();
+        info("延迟监控已停止");
+    }
+
+    private void stopMonitor() {
+        monitor.stop();
+        if (refreshTimeline != null) {
+            refreshTimeline.stop();
+        }
+        startButton.setDisable(false);
+        stopButton.setDisable(true);
+        targetsArea.setDisable(false);
+    }
+
+    /**
+     * 按目标数预分配曲线缓冲区，之后每次刷新只复制数据不分配
+     */
+    private void prepareChartBuffers(List<ProbeTarget> targets, int window) {
+        int series = Math.min(targets.size(), MAX_CHART_SERIES);
+        chartSeries = new long[series][window];
+        chartCounts = new int[series];
+        chartLabels = new String[series];
+        for (int i = 0; i < series; i++) {
+            chartLabels[i] = targets.get(i).getLabel();
+        }
+        chartCapacity = window;
+        if (targets.size() > MAX_CHART_SERIES) {
+            info("曲线仅显示前 " + MAX_CHART_SERIES + " 个目标，表格显示全部目标");
+        }
+    }
+
+    /**
+     * 定时刷新表格和曲线
+     */
+    private void refreshView() {
+        List<ProbeTarget> targets = monitor.getTargets();
+        for (int i = 0; i < chartSeries.length && i < targets.size(); i++) {
+            chartCounts[i] = targets.get(i).getStats().copySamples(chartSeries[i]);
+        }
+        chart.render(chartSeries, chartCounts, chartLabels, chartCapacity, 1e6, "ms");
+        statsTable.refresh();
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (monitorLogArea != null) {
+                monitorLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        monitor.stop();
+        if (refreshTimeline != null) {
+            refreshTimeline.stop();
+        }
+    }
+}
@@ -14,7 +14,7 @@ import java.net.UnknownHostException;
 import java.util.concurrent.Executors;
 
 /**
- * 网络查询工具控制器 - 提供IP/DNS查询功能
+ * 网络查询工具控制器 - 提供IP/DNS查询功能，并承载延迟监控等子模块
  */
 public class NetworkToolsController implements ModuleLogger {
 
@@ -27,6 +27,15 @@ public class NetworkToolsController implements ModuleLogger {
     @FXML
     private TextArea lookupResultArea;  // 结果显示区域
 
+    @FXML
+    private LatencyMonitorController latencyMonitorTabController; // 对应 latencyMonitorTab
+    @FXML
+    private ServiceCheckController serviceCheckTabController;     // 对应 serviceCheckTab
+    @FXML
+    private ThroughputController throughputTabController;         // 对应 throughputTab
+    @FXML
+    private SocketInspectorController socketInspectorTabController; // 对应 socketInspectorTab
+
 
     public TextArea getLogArea() {
         return lookupResultArea;
@@ -161,5 +170,17 @@ public class NetworkToolsController implements ModuleLogger {
      * 清理资源
      */
     public void cleanup() {
+        if (latencyMonitorTabController != null) {
+            latencyMonitorTabController.cleanup();
+        }
+        if (serviceCheckTabController != null) {
+            serviceCheckTabController.cleanup();
+        }
+        if (throughputTabController != null) {
+            throughputTabController.cleanup();
+        }
+        if (socketInspectorTabController != null) {
+            socketInspectorTabController.cleanup();
+        }
     }
 }
\ No newline at end of file
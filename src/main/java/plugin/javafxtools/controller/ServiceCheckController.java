@@ -0,0 +1,242 @@
+package plugin.javafxtools.controller;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.network.ServiceCheckResult;
+import plugin.javafxtools.service.network.TcpServiceChecker;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * 端口检测控制器 - 批量检测 host:port 的TCP可达性，报告连接延迟/拒绝/超时
+ */
+public class ServiceCheckController implements ModuleLogger {
+
+    private static final long UI_FLUSH_INTERVAL_MS = 100;
+
+    @FXML
+    private TextArea checkTargetsArea;     // 检测目标
+    @FXML
+    private TextField checkTimeoutField;   // 连接超时(ms)
+    @FXML
+    private TextField maxInFlightField;    // 最大并发
+    @FXML
+    private CheckBox openOnlyCheckBox;     // 仅显示开放端口
+    @FXML
+    private Button checkStartButton;
+    @FXML
+    private Button checkStopButton;
+    @FXML
+    private TableView<ServiceCheckResult> checkResultTable;
+    @FXML
+    private Label checkSummaryLabel;
+    @FXML
+    private TextArea checkLogArea;
+
+    private volatile TcpServiceChecker checker;   // 当前检测，每次开始时新建
+    // 检测线程产生的结果先入队，再由UI定时批量取出，避免每个结果一次runLater
+    private final ConcurrentLinkedQueue<ServiceCheckResult> pendingResults = new ConcurrentLinkedQueue<>();
+    private Timeline flushTimeline;
+
+    private int total;
+    private int completed;
+    private final int[] stateCounts = new int[ServiceCheckResult.State.values().length];
+    private long startNanos;
+
+    @Override
+    public TextArea getLogArea() {
+        return checkLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (checkLogArea != null && checkLogArea.getScene() != null) {
+                checkLogArea.appendText(formattedMessage);
+                checkLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        checkTargetsArea.setPromptText("每行一个：host:port、host:8000-8100、host:22,80,443、[::1]:8080\n仅检测自己拥有或已获授权的主机");
+        checkTimeoutField.setText("1000");
+        maxInFlightField.setText("1000");
+        checkStopButton.setDisable(true);
+
+        addColumn("主机", 220, ServiceCheckResult::getHost);
+        addColumn("端口", 70, r -> String.valueOf(r.getPort()));
+        addColumn("结果", 70, r -> r.getState().getDisplayName());
+        addColumn("延迟(ms)", 90, r -> r.getLatencyNanos() < 0 ? "-" : String.format("%.2f", r.getLatencyNanos() / 1e6));
+        addColumn("详情", 300, ServiceCheckResult::getDetail);
+
+        flushTimeline = new Timeline(new KeyFrame(Duration.millis(UI_FLUSH_INTERVAL_MS), e -> flushResults()));
+        flushTimeline.setCycleCount(Timeline.INDEFINITE);
+
+        checkSummaryLabel.setText("就绪");
+        checkLogArea.setPromptText("检测日志将显示在这里...");
+        info("端口检测模块初始化完成");
+    }
+
+    private void addColumn(String title, double width, Function<ServiceCheckResult, String> getter) {
+        TableColumn<ServiceCheckResult, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cd -> new SimpleStringProperty(getter.apply(cd.getValue())));
+        checkResultTable.getColumns().add(column);
+    }
+
+    /**
+     * 处理"开始"按钮点击事件
+     */
+    @FXML
+    private void handleCheckStart() {
+        int timeout;
+        int maxInFlight;
+        try {
+            timeout = Integer.parseInt(checkTimeoutField.getText().trim());
+            maxInFlight = Integer.parseInt(maxInFlightField.getText().trim());
+            if (timeout < 1 || maxInFlight < 1) {
+                error("超时和并发数必须大于0");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            error("请输入有效的超时和并发数");
+            return;
+        }
+
+        List<TcpServiceChecker.Target> targets;
+        try {
+            targets = TcpServiceChecker.parseTargets(checkTargetsArea.getText());
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+            return;
+        }
+        if (targets.isEmpty()) {
+            error("请至少输入一个检测目标");
+            return;
+        }
+
+        checkResultTable.getItems().clear();
+        pendingResults.clear();
+        total = targets.size();
+        completed = 0;
+        Arrays.fill(stateCounts, 0);
+        startNanos = System.nanoTime();
+        checkStartButton.setDisable(true);
+        checkStopButton.setDisable(false);
+        flushTimeline.play();
+        info(String.format("开始检测 %d 个目标，超时 %dms，最大并发 %d", total, timeout, maxInFlight));
+
+        TcpServiceChecker current = new TcpServiceChecker();
+        checker = current;
+        Thread checkThread = new Thread(() -> {
+            try {
+                current.run(targets, timeout, maxInFlight, pendingResults::add);
+            } catch (Exception e) {
+                error("检测失败: " + e.getMessage());
+            } finally {
+                Platform.runLater(this::onCheckFinished);
+            }
+        }, "tcp-service-check");
+        checkThread.setDaemon(true);
+        checkThread.start();
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleCheckStop() {
+        cancelCheck();
+        info("已请求停止检测");
+    }
+
+    private void cancelCheck() {
+        TcpServiceChecker current = checker;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void onCheckFinished() {
+        flushResults();
+        flushTimeline.stop();
+        checkStartButton.setDisable(false);
+        checkStopButton.setDisable(true);
+        info("检测结束: " + checkSummaryLabel.getText());
+    }
+
+    /**
+     * 批量把检测结果追加到表格并刷新汇总
+     */
+    private void flushResults() {
+        List<ServiceCheckResult> batch = new ArrayList<>();
+        boolean openOnly = openOnlyCheckBox.isSelected();
+        ServiceCheckResult r;
+        while ((r = pendingResults.poll()) != null) {
+            completed++;
+            stateCounts[r.getState().ordinal()]++;
+            if (!openOnly || r.getState() == ServiceCheckResult.State.OPEN) {
+                batch.add(r);
+            }
+        }
+        if (!batch.isEmpty()) {
+            checkResultTable.getItems().addAll(batch);
+        }
+        checkSummaryLabel.setText(String.format("完成 %d/%d  开放 %d  拒绝 %d  超时 %d  错误 %d  用时 %s",
+                completed, total,
+                stateCounts[ServiceCheckResult.State.OPEN.ordinal()],
+                stateCounts[ServiceCheckResult.State.REFUSED.ordinal()],
+                stateCounts[ServiceCheckResult.State.TIMEOUT.ordinal()],
+                stateCounts[ServiceCheckResult.State.ERROR.ordinal()],
+                TimeUtils.formatDuration((System.nanoTime() - startNanos) / 1_000_000L)));
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (checkLogArea != null) {
+                checkLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        cancelCheck();
+        if (flushTimeline != null) {
+            flushTimeline.stop();
+        }
+    }
+}
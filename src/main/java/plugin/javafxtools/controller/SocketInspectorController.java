@@ -0,0 +1,448 @@
+package plugin.javafxtools.controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.network.ProcNetParser;
+import plugin.javafxtools.service.network.SocketOwnerResolver;
+import plugin.javafxtools.service.network.SocketTable;
+import plugin.javafxtools.util.LongIntHashMap;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 连接表检查控制器 - 每秒解析 /proc/net 并按差异更新表格，统计各进程的连接状态分布（仅Linux）
+ */
+public class SocketInspectorController implements ModuleLogger {
+
+    private static final long REFRESH_INTERVAL_MS = 1000;
+    private static final long OWNER_SCAN_MIN_INTERVAL_NANOS = 5_000_000_000L;
+    private static final int OTHER_STATES = -1;
+    // 进程统计表中单独成列的状态
+    private static final int[] COUNTED_STATES = {1, 10, 6, 8, 2};
+
+    @FXML
+    private Button inspectStartButton;
+    @FXML
+    private Button inspectStopButton;
+    @FXML
+    private TextField socketFilterField;    // 过滤条件
+    @FXML
+    private CheckBox includeUdpCheckBox;    // 包含UDP
+    @FXML
+    private Label socketSummaryLabel;       // 全局状态统计
+    @FXML
+    private TableView<SocketRow> socketTable;
+    @FXML
+    private TableView<ProcessStateRow> processStateTable;
+    @FXML
+    private TextArea inspectLogArea;
+
+    private final ProcNetParser parser = new ProcNetParser();
+    private final SocketOwnerResolver ownerResolver = new SocketOwnerResolver();
+    private final SocketTable table = new SocketTable();
+    private final AtomicBoolean applying = new AtomicBoolean(); // UI应用差异期间后台不写表
+    private ScheduledExecutorService scheduler;
+    private volatile boolean includeUdp = true;
+
+    // 差异比对状态：身份键 -> 行下标，前后两次刷新交替使用
+    private LongIntHashMap previousIndex = new LongIntHashMap(1024, -1);
+    private LongIntHashMap currentIndex = new LongIntHashMap(1024, -1);
+    private SocketRow[] previousRows = new SocketRow[0];
+    private int generation;
+
+    private final ObservableList<SocketRow> socketRows = FXCollections.observableArrayList();
+    private final FilteredList<SocketRow> filteredRows = new FilteredList<>(socketRows);
+    private final Map<Integer, ProcessStateRow> processRows = new HashMap<>();
+    private final ObservableList<ProcessStateRow> processRowList = FXCollections.observableArrayList();
+    private final int[] stateTotals = new int[SocketTable.STATE_COUNT];
+
+    @Override
+    public TextArea getLogArea() {
+        return inspectLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (inspectLogArea != null && inspectLogArea.getScene() != null) {
+                inspectLogArea.appendText(formattedMessage);
+                inspectLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        addSocketColumn("协议", 50, r -> r.proto);
+        addSocketColumn("本地地址", 190, r -> r.local);
+        addSocketColumn("远端地址", 190, r -> r.remote);
+        addSocketPropertyColumn("状态", 95, r -> r.state);
+        addSocketPropertyColumn("发送队列", 65, r -> r.txQueue);
+        addSocketPropertyColumn("接收队列", 65, r -> r.rxQueue);
+        addSocketPropertyColumn("PID", 60, r -> r.pid);
+        addSocketPropertyColumn("进程", 120, r -> r.process);
+
+        SortedList<SocketRow> sortedRows = new SortedList<>(filteredRows);
+        sortedRows.comparatorProperty().bind(socketTable.comparatorProperty());
+        socketTable.setItems(sortedRows);
+        socketFilterField.textProperty().addListener((obs, oldVal, newVal) -> applyFilter(newVal));
+
+        addProcessColumn("PID", 60, r -> r.pid);
+        addProcessColumn("进程", 140, r -> r.name);
+        for (int i = 0; i < COUNTED_STATES.length; i++) {
+            int column = i;
+            addProcessColumn(SocketTable.stateName(COUNTED_STATES[i]), 95, r -> r.counts[column]);
+        }
+        addProcessColumn("其他", 60, r -> r.counts[COUNTED_STATES.length]);
+        addProcessColumn("合计", 60, r -> r.counts[COUNTED_STATES.length + 1]);
+        SortedList<ProcessStateRow> sortedProcesses = new SortedList<>(processRowList);
+        sortedProcesses.comparatorProperty().bind(processStateTable.comparatorProperty());
+        processStateTable.setItems(sortedProcesses);
+
+        includeUdpCheckBox.setSelected(true);
+        includeUdpCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> includeUdp = newVal);
+        inspectStopButton.setDisable(true);
+        socketFilterField.setPromptText("按进程名/PID/端口/状态过滤");
+        socketSummaryLabel.setText(ProcNetParser.isSupported() ? "就绪" : "当前系统不支持 /proc/net（仅Linux可用）");
+        inspectLogArea.setPromptText("日志将显示在这里...");
+        info("连接表检查模块初始化完成");
+    }
+
+    private void addSocketColumn(String title, double width, Function<SocketRow, String> getter) {
+        TableColumn<SocketRow, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cd -> new SimpleStringProperty(getter.apply(cd.getValue())));
+        socketTable.getColumns().add(column);
+    }
+
+    private void addSocketPropertyColumn(String title, double width, Function<SocketRow, StringProperty> getter) {
+        TableColumn<SocketRow, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        // 直接绑定行属性：值变化时只有对应单元格重绘
+        column.setCellValueFactory(cd -> getter.apply(cd.getValue()));
+        socketTable.getColumns().add(column);
+    }
+
+    private void addProcessColumn(String title, double width, Function<ProcessStateRow, StringProperty> getter) {
+        TableColumn<ProcessStateRow, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cd -> getter.apply(cd.getValue()));
+        if (!"进程".equals(title)) {
+            column.setComparator(Comparator.comparingLong(SocketInspectorController::parseLongOrZero));
+        }
+        processStateTable.getColumns().add(column);
+    }
+
+    private static long parseLongOrZero(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 处理"开始"按钮点击事件
+     */
+    @FXML
+    private void handleInspectStart() {
+        if (!ProcNetParser.isSupported()) {
+            error("当前系统不支持 /proc/net，连接表检查仅在Linux下可用");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "proc-net-inspector");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::refreshInBackground, 0, REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        inspectStartButton.setDisable(true);
+        inspectStopButton.setDisable(false);
+        info("开始每秒刷新连接表");
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleInspectStop() {
+        stopScheduler();
+        inspectStartButton.setDisable(false);
+        inspectStopButton.setDisable(true);
+        info("已停止刷新");
+    }
+
+    private void stopScheduler() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 后台线程：解析 /proc/net 并按需更新inode归属，然后交给UI线程比对差异
+     */
+    private void refreshInBackground() {
+        if (!applying.compareAndSet(false, true)) {
+            return; // 上一次差异尚未应用完，跳过本次
+        }
+        try {
+            parser.parseAll(table, includeUdp);
+            ownerResolver.refreshIfNeeded(table, OWNER_SCAN_MIN_INTERVAL_NANOS);
+            Platform.runLater(this::applyDiff);
+        } catch (Exception e) {
+            applying.set(false);
+            error("解析 /proc/net 失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * UI线程：按连接身份键与上次结果比对，仅新增/删除/更新发生变化的行
+     */
+    private void applyDiff() {
+        try {
+            generation++;
+            int n = table.size();
+            SocketRow[] currentRows = new SocketRow[n];
+            List<SocketRow> added = new ArrayList<>();
+            currentIndex.clear();
+            Arrays.fill(stateTotals, 0);
+            for (ProcessStateRow p : processRows.values()) {
+                p.resetCounts();
+            }
+
+            for (int i = 0; i < n; i++) {
+                long key = table.identityKey(i);
+                // 同一身份键出现多次时按出现顺序派生新键，重复的连接每次刷新都对应到同一行，原地更新而不是删除后重新加入
+                while (currentIndex.containsKey(key)) {
+                    key = key * 0x9E3779B97F4A7C15L + 1;
+                }
+                int prev = previousIndex.get(key);
+                SocketRow row = prev >= 0 ? previousRows[prev] : null;
+                if (row == null) {
+                    row = new SocketRow(SocketTable.protoName(table.getProto(i)),
+                            table.formatLocal(i), table.formatRemote(i));
+                    added.add(row);
+                }
+                row.generation = generation;
+                currentRows[i] = row;
+                currentIndex.put(key, i);
+
+                int pid = ownerResolver.pidOf(table.getInode(i));
+                row.update(table.getState(i), table.getTxQueue(i), table.getRxQueue(i), pid,
+                        pid < 0 ? "" : ownerResolver.nameOf(pid));
+
+                int state = table.getState(i);
+                if (state >= 0 && state < stateTotals.length) {
+                    stateTotals[state]++;
+                }
+                if (pid >= 0) {
+                    processRows.computeIfAbsent(pid, id -> new ProcessStateRow(id, ownerResolver.nameOf(id)))
+                            .count(state);
+                }
+            }
+
+            // 删除已消失的连接，追加新连接（各触发一次列表变更）
+            int gen = generation;
+            socketRows.removeIf(r -> r.generation != gen);
+            if (!added.isEmpty()) {
+                socketRows.addAll(added);
+            }
+            previousRows = currentRows;
+            LongIntHashMap swap = previousIndex;
+            previousIndex = currentIndex;
+            currentIndex = swap;
+
+            updateProcessRows();
+            updateSummary(n);
+            // 过滤条件依赖原地更新的状态和进程列，FilteredList不会感知属性变化，需重新设置条件
+            applyFilter(socketFilterField.getText());
+        } finally {
+            applying.set(false);
+        }
+    }
+
+    private void updateProcessRows() {
+        List<ProcessStateRow> newProcesses = new ArrayList<>();
+        processRows.values().removeIf(p -> p.total() == 0);
+        for (ProcessStateRow p : processRows.values()) {
+            p.publish();
+            if (!p.listed) {
+                p.listed = true;
+                newProcesses.add(p);
+            }
+        }
+        processRowList.removeIf(p -> p.total() == 0);
+        processRowList.addAll(newProcesses);
+    }
+
+    private void updateSummary(int total) {
+        StringBuilder sb = new StringBuilder("连接总数 ").append(total);
+        for (int s = 0; s < stateTotals.length; s++) {
+            if (stateTotals[s] > 0) {
+                sb.append("  ").append(SocketTable.stateName(s)).append(' ').append(stateTotals[s]);
+            }
+        }
+        socketSummaryLabel.setText(sb.toString());
+    }
+
+    private void applyFilter(String text) {
+        String f = text == null ? "" : text.trim().toLowerCase();
+        if (f.isEmpty()) {
+            filteredRows.setPredicate(null);
+            return;
+        }
+        filteredRows.setPredicate(r -> r.local.contains(f) || r.remote.contains(f)
+                || r.state.get().toLowerCase().contains(f)
+                || r.pid.get().equals(f)
+                || r.process.get().toLowerCase().contains(f));
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (inspectLogArea != null) {
+                inspectLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        stopScheduler();
+    }
+
+    // ----------- 内部类 -----------
+
+    /**
+     * 连接表中的一行，身份字段不可变，可变字段只在值变化时更新属性
+     */
+    public static class SocketRow {
+        final String proto;
+        final String local;
+        final String remote;
+        final StringProperty state = new SimpleStringProperty("");
+        final StringProperty txQueue = new SimpleStringProperty("");
+        final StringProperty rxQueue = new SimpleStringProperty("");
+        final StringProperty pid = new SimpleStringProperty("");
+        final StringProperty process = new SimpleStringProperty("");
+        int generation;
+        private int lastState = -1;
+        private long lastTx = -1;
+        private long lastRx = -1;
+        private int lastPid = Integer.MIN_VALUE;
+
+        SocketRow(String proto, String local, String remote) {
+            this.proto = proto;
+            this.local = local;
+            this.remote = remote;
+        }
+
+        void update(int newState, long tx, long rx, int newPid, String processName) {
+            if (newState != lastState) {
+                lastState = newState;
+                state.set(SocketTable.stateName(newState));
+            }
+            if (tx != lastTx) {
+                lastTx = tx;
+                txQueue.set(String.valueOf(tx));
+            }
+            if (rx != lastRx) {
+                lastRx = rx;
+                rxQueue.set(String.valueOf(rx));
+            }
+            if (newPid != lastPid) {
+                lastPid = newPid;
+                pid.set(newPid < 0 ? "-" : String.valueOf(newPid));
+                process.set(processName);
+            }
+        }
+    }
+
+    /**
+     * 进程维度的连接状态统计行
+     */
+    public static class ProcessStateRow {
+        final StringProperty pid;
+        final StringProperty name;
+        // 各状态列、其他、合计
+        final StringProperty[] counts = new StringProperty[COUNTED_STATES.length + 2];
+        private final int[] values = new int[COUNTED_STATES.length + 2];
+        boolean listed;
+
+        ProcessStateRow(int pid, String name) {
+            this.pid = new SimpleStringProperty(String.valueOf(pid));
+            this.name = new SimpleStringProperty(name);
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new SimpleStringProperty("0");
+            }
+        }
+
+        void resetCounts() {
+            Arrays.fill(values, 0);
+        }
+
+        void count(int state) {
+            int column = OTHER_STATES;
+            for (int i = 0; i < COUNTED_STATES.length; i++) {
+                if (COUNTED_STATES[i] == state) {
+                    column = i;
+                    break;
+                }
+            }
+            values[column == OTHER_STATES ? COUNTED_STATES.length : column]++;
+            values[COUNTED_STATES.length + 1]++;
+        }
+
+        int total() {
+            return values[COUNTED_STATES.length + 1];
+        }
+
+        /**
+         * 把本轮计数写入属性（值不变时属性不会触发重绘）
+         */
+        void publish() {
+            for (int i = 0; i < values.length; i++) {
+                counts[i].set(String.valueOf(values[i]));
+            }
+        }
+    }
+}
@@ -4,26 +4,49 @@ import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextArea;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.component.LargeTextView;
+import plugin.javafxtools.service.format.FormatTaskRunner;
+import plugin.javafxtools.service.format.LineIndexedFile;
+import plugin.javafxtools.service.format.TextTransformer;
 import plugin.javafxtools.util.TimeUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * 字符串工具控制器
  */
 public class StrDataFormatController implements ModuleLogger {
 
     @FXML
-    private ComboBox<String> formatTypeComboBox; // 格式化类型选择框
+    private ComboBox<TextTransformer.Operation> formatTypeComboBox; // 格式化类型选择框
     @FXML
     private TextArea rawDataArea;               // 原始数据输入区
     @FXML
     private TextArea formattedDataArea;         // 格式化结果区
     @FXML
+    private VBox resultBox;                     // 结果区容器，大结果时放入分页查看器
+    @FXML
     private Button formatButton;                // 格式化按钮
     @FXML
     private Button clearButton;                 // 清除按钮
+    @FXML
+    private Button formatCancelButton;          // 取消格式化
+    @FXML
+    private ProgressBar formatProgressBar;      // 格式化进度
 
+    private final FormatTaskRunner runner = new FormatTaskRunner(Platform::runLater);
+    private final LargeTextView largeTextView = new LargeTextView();   // 大结果分页查看器
+    private String lastResult;                  // 最近一次在文本区显示的结果（文本区同时输出日志，保存时用它）
 
     public TextArea getLogArea() {
         return formattedDataArea;
@@ -51,8 +74,15 @@ public class StrDataFormatController implements ModuleLogger {
     @FXML
     public void initialize() {
         // 初始化格式化类型选项
-        formatTypeComboBox.getItems().addAll("普通", "转大写", "转小写");
-        formatTypeComboBox.setValue("普通");
+        formatTypeComboBox.getItems().addAll(TextTransformer.Operation.values());
+        formatTypeComboBox.setValue(TextTransformer.Operation.REMOVE_WHITESPACE);
+        formatCancelButton.setDisable(true);
+
+        largeTextView.setVisible(false);
+        largeTextView.setManaged(false);
+        largeTextView.setOnClose(this::hideLargeTextView);
+        VBox.setVgrow(largeTextView, Priority.ALWAYS);
+        resultBox.getChildren().add(0, largeTextView);
 
         // 设置提示文本
         rawDataArea.setPromptText("在此输入要格式化的数据...");
@@ -61,7 +91,8 @@ public class StrDataFormatController implements ModuleLogger {
     }
 
     /**
-     * 处理格式化按钮点击事件
+     * 处理格式化按钮点击事件 - 在工作线程中转换，再次点击会取代尚未完成的上一次转换；
+     * 输入超过阈值时结果写入临时文件，在分页查看器中显示
      */
     @FXML
     private void handleFormat() {
@@ -70,32 +101,119 @@ public class StrDataFormatController implements ModuleLogger {
             error("请输入要格式化的数据");
             return;
         }
-        String type = formatTypeComboBox.getValue();
+        TextTransformer.Operation type = formatTypeComboBox.getValue();
+        formatCancelButton.setDisable(false);
+        formatProgressBar.setProgress(0);
+        boolean large = rawData.length() > LargeTextView.AUTO_THRESHOLD_CHARS;
+        AtomicReference<LineIndexedFile> largeResult = new AtomicReference<>();
+        AtomicReference<String> smallResult = new AtomicReference<>();
+        lastResult = null;
+        runner.submit(rawData.length(), progress -> {
+                    if (!large) {
+                        smallResult.set(TextTransformer.transform(rawData, type, progress::update));
+                        return smallResult.get();
+                    }
+                    largeResult.set(progress.own(LineIndexedFile.fromTempFile(
+                            out -> TextTransformer.transform(rawData, type, out, progress::update))));
+                    return null;
+                },
+                new FormatTaskRunner.Listener() {
+                    @Override
+                    public void progress(long consumed, long total) {
+                        formatProgressBar.setProgress((double) consumed / total);
+                    }
+
+                    @Override
+                    public void chunk(String text, boolean first) {
+                        if (first) {
+                            largeTextView.close();
+                            formattedDataArea.clear();
+                        }
+                        formattedDataArea.appendText(text);
+                    }
+
+                    @Override
+                    public void completed(long resultLength, long elapsedNanos) {
+                        formatCancelButton.setDisable(true);
+                        formatProgressBar.setProgress(1);
+                        LineIndexedFile file = largeResult.get();
+                        if (file != null) {
+                            formattedDataArea.clear();
+                            showLargeTextView(file);
+                            info("格式化成功,结果较大,已在查看器中显示,字节数:" + file.getSize());
+                        } else {
+                            lastResult = smallResult.get();
+                            info("格式化成功,数量:" + resultLength);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        formatCancelButton.setDisable(true);
+                        formattedDataArea.setText(type + "格式化错误: " + e.getMessage());
+                        error(type + "格式化失败: " + e.getMessage());
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        formatCancelButton.setDisable(true);
+                        info("已取消格式化");
+                    }
+                });
+    }
+
+    /**
+     * 处理"取消"按钮点击事件
+     */
+    @FXML
+    private void handleCancelFormat() {
+        runner.cancel();
+    }
+
+    /**
+     * 处理"保存结果"按钮点击事件 - 大结果从分页查看器另存，小结果直接写入选择的文件
+     */
+    @FXML
+    private void handleSaveResult() {
+        if (largeTextView.getFile() != null) {
+            largeTextView.saveAs();
+            return;
+        }
+        if (lastResult == null) {
+            error("没有可保存的格式化结果");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("保存格式化结果");
+        chooser.setInitialFileName("result.txt");
+        File target = chooser.showSaveDialog(formattedDataArea.getScene().getWindow());
+        if (target == null) {
+            return;
+        }
         try {
-            String formatted;
-            switch (type) {
-                case "普通" -> {
-                    // 去除多余空格
-                    formatted = rawData.replaceAll("\\s+", "");
-                    info("格式化成功,数量:" + formatted.length());
-                }
-                case "转大写" -> {
-                    formatted = rawData.toUpperCase();
-                    info("格式化成功,数量:" + formatted.length());
-                }
-                case "转小写" -> {
-                    formatted = rawData.toLowerCase();
-                    info("格式化成功,数量:" + formatted.length());
-                }
-                case null, default -> formatted = rawData;
-            }
-            formattedDataArea.setText(formatted);
-        } catch (Exception e) {
-            formattedDataArea.setText(type + "格式化错误: " + e.getMessage());
-            error(type + "格式化失败: " + e.getMessage());
+            Files.writeString(target.toPath(), lastResult, StandardCharsets.UTF_8);
+            info("结果已保存到 " + target);
+        } catch (IOException e) {
+            error("保存结果失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 显示分页查看器，日志区缩小到下方
+     */
+    private void showLargeTextView(LineIndexedFile file) {
+        largeTextView.show(file);
+        largeTextView.setVisible(true);
+        largeTextView.setManaged(true);
+        formattedDataArea.setPrefRowCount(4);
+        VBox.setVgrow(formattedDataArea, Priority.NEVER);
+    }
+
+    private void hideLargeTextView() {
+        largeTextView.setVisible(false);
+        largeTextView.setManaged(false);
+        VBox.setVgrow(formattedDataArea, Priority.ALWAYS);
+    }
 
     /**
      * 处理清除按钮点击事件
@@ -103,6 +221,8 @@ public class StrDataFormatController implements ModuleLogger {
     @FXML
     private void handleClear() {
         rawDataArea.clear();
+        largeTextView.close();
+        lastResult = null;
         formattedDataArea.clear();
         info("已清除输入和格式化结果");
     }
@@ -121,5 +241,7 @@ public class StrDataFormatController implements ModuleLogger {
      * 清理资源
      */
     public void cleanup() {
+        runner.cancel();
+        largeTextView.close();
     }
 }
\ No newline at end of file
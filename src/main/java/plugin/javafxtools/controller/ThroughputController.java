@@ -0,0 +1,260 @@
+package plugin.javafxtools.controller;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.network.ThroughputClient;
+import plugin.javafxtools.service.network.ThroughputReport;
+import plugin.javafxtools.service.network.ThroughputServer;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 吞吐测试控制器 - 类iperf的TCP带宽测试，支持本地回环自测、服务端和客户端三种模式
+ */
+public class ThroughputController implements ModuleLogger {
+
+    private static final String MODE_SELF_TEST = "本地自测(回环)";
+    private static final String MODE_SERVER = "服务端";
+    private static final String MODE_CLIENT = "客户端";
+
+    @FXML
+    private ComboBox<String> throughputModeComboBox; // 测试模式
+    @FXML
+    private TextField throughputHostField;           // 监听/目标地址
+    @FXML
+    private TextField throughputPortField;           // 端口
+    @FXML
+    private TextField streamsField;                  // 并行流数
+    @FXML
+    private TextField bufferSizeField;               // 缓冲区(KB)
+    @FXML
+    private TextField durationField;                 // 时长(秒)
+    @FXML
+    private Button throughputStartButton;
+    @FXML
+    private Button throughputStopButton;
+    @FXML
+    private TextArea throughputLogArea;              // 报告输出
+
+    private volatile ThroughputServer server;
+    private volatile ThroughputClient client;
+    private Timeline serverReportTimeline;           // 服务端模式下的每秒接收统计
+    private long lastServerBytes;
+    private long lastServerCpu;
+    private long lastServerTime;
+
+    @Override
+    public TextArea getLogArea() {
+        return throughputLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (throughputLogArea != null && throughputLogArea.getScene() != null) {
+                throughputLogArea.appendText(formattedMessage);
+                throughputLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        throughputModeComboBox.getItems().addAll(MODE_SELF_TEST, MODE_SERVER, MODE_CLIENT);
+        throughputModeComboBox.setValue(MODE_SELF_TEST);
+        throughputModeComboBox.valueProperty().addListener((obs, oldVal, newVal) -> updateModeFields());
+        throughputHostField.setText("127.0.0.1");
+        throughputPortField.setText("5201");
+        streamsField.setText("4");
+        bufferSizeField.setText("128");
+        durationField.setText("10");
+        throughputStopButton.setDisable(true);
+        updateModeFields();
+
+        serverReportTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> reportServerInterval()));
+        serverReportTimeline.setCycleCount(Timeline.INDEFINITE);
+
+        throughputLogArea.setPromptText("区间报告将显示在这里...\n服务端默认只监听127.0.0.1，如需跨机测试请显式填写网卡地址");
+        info("吞吐测试模块初始化完成");
+    }
+
+    private void updateModeFields() {
+        boolean selfTest = MODE_SELF_TEST.equals(throughputModeComboBox.getValue());
+        boolean serverMode = MODE_SERVER.equals(throughputModeComboBox.getValue());
+        throughputHostField.setDisable(selfTest);
+        throughputPortField.setDisable(selfTest);
+        streamsField.setDisable(serverMode);
+        durationField.setDisable(serverMode);
+    }
+
+    /**
+     * 处理"开始"按钮点击事件
+     */
+    @FXML
+    private void handleThroughputStart() {
+        String mode = throughputModeComboBox.getValue();
+        int port;
+        int streams;
+        int bufferSize;
+        int duration;
+        try {
+            port = Integer.parseInt(throughputPortField.getText().trim());
+            streams = Integer.parseInt(streamsField.getText().trim());
+            bufferSize = Integer.parseInt(bufferSizeField.getText().trim()) * 1024;
+            duration = Integer.parseInt(durationField.getText().trim());
+            if (streams < 1 || bufferSize < 1024 || duration < 1 || port < 0 || port > 65535) {
+                error("参数超出范围：并行流≥1，缓冲区≥1KB，时长≥1秒，端口0-65535");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            error("请输入有效的端口、并行流数、缓冲区大小和时长");
+            return;
+        }
+        String host = throughputHostField.getText().trim();
+
+        setRunning(true);
+        if (MODE_SERVER.equals(mode)) {
+            startServerMode(host, port, bufferSize);
+            return;
+        }
+
+        Thread testThread = new Thread(() -> {
+            ThroughputServer localPeer = null;
+            try {
+                InetSocketAddress target;
+                if (MODE_SELF_TEST.equals(mode)) {
+                    localPeer = new ThroughputServer(new InetSocketAddress("127.0.0.1", 0), bufferSize);
+                    localPeer.start();
+                    server = localPeer;
+                    target = new InetSocketAddress("127.0.0.1", localPeer.getPort());
+                } else {
+                    target = new InetSocketAddress(host, port);
+                }
+                info(String.format("开始测试 -> %s，%d 个并行流，缓冲区 %dKB，时长 %d 秒",
+                        target, streams, bufferSize / 1024, duration));
+                client = new ThroughputClient();
+                ThroughputReport total = client.run(target, streams, bufferSize, duration, localPeer,
+                        report -> info(report.format()));
+                info("汇总: " + total.format());
+                info(String.format("共发送 %.2f MB，服务端确认接收 %.2f MB",
+                        total.getSentBytes() / 1048576.0, total.getReceivedBytes() / 1048576.0));
+            } catch (Exception e) {
+                error("吞吐测试失败: " + e.getMessage());
+            } finally {
+                if (localPeer != null) {
+                    localPeer.stop();
+                    server = null;
+                }
+                client = null;
+                Platform.runLater(() -> setRunning(false));
+            }
+        }, "throughput-test");
+        testThread.setDaemon(true);
+        testThread.start();
+    }
+
+    /**
+     * 服务端模式：持续监听，每秒输出一次接收速率
+     */
+    private void startServerMode(String host, int port, int bufferSize) {
+        try {
+            ThroughputServer s = new ThroughputServer(new InetSocketAddress(host, port), bufferSize);
+            s.start();
+            server = s;
+            lastServerBytes = 0;
+            lastServerCpu = Math.max(0, s.getCpuNanos());
+            lastServerTime = System.nanoTime();
+            serverReportTimeline.play();
+            info("吞吐测试服务端已启动: " + host + ":" + s.getPort());
+        } catch (Exception e) {
+            error("服务端启动失败: " + e.getMessage());
+            setRunning(false);
+        }
+    }
+
+    private void reportServerInterval() {
+        ThroughputServer s = server;
+        if (s == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long bytes = s.getReceivedBytes();
+        long cpu = s.getCpuNanos();
+        if (s.getActiveStreams() > 0 || bytes != lastServerBytes) {
+            double seconds = (now - lastServerTime) / 1e9;
+            info(String.format("接收 %8.3f Gbit/s  活动流 %d  服务端CPU %6.1f%%",
+                    ThroughputReport.toGbps(bytes - lastServerBytes, seconds), s.getActiveStreams(),
+                    cpu < 0 ? 0 : (cpu - lastServerCpu) / 1e7 / seconds));
+        }
+        lastServerBytes = bytes;
+        lastServerCpu = Math.max(0, cpu);
+        lastServerTime = now;
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleThroughputStop() {
+        stopAll();
+        setRunning(false);
+        info("吞吐测试已停止");
+    }
+
+    private void stopAll() {
+        ThroughputClient c = client;
+        if (c != null) {
+            c.cancel();
+        }
+        ThroughputServer s = server;
+        if (s != null) {
+            s.stop();
+            server = null;
+        }
+        if (serverReportTimeline != null) {
+            serverReportTimeline.stop();
+        }
+    }
+
+    private void setRunning(boolean running) {
+        throughputStartButton.setDisable(running);
+        throughputStopButton.setDisable(!running);
+        throughputModeComboBox.setDisable(running);
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (throughputLogArea != null) {
+                throughputLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        stopAll();
+    }
+}
@@ -1,17 +1,53 @@
 package plugin.javafxtools.controller;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
+import javafx.scene.layout.StackPane;
+import javafx.stage.FileChooser;
+import org.java_websocket.WebSocket;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.framing.Framedata;
 import org.java_websocket.handshake.ServerHandshake;
 import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.component.HexDumpView;
+import plugin.javafxtools.component.SparklineCanvas;
+import plugin.javafxtools.service.websocket.CompressionStats;
+import plugin.javafxtools.service.websocket.ConnectionSupervisor;
+import plugin.javafxtools.service.websocket.MessageBuffer;
+import plugin.javafxtools.service.websocket.MessageHistory;
+import plugin.javafxtools.service.websocket.MessageWriter;
+import plugin.javafxtools.service.websocket.MeteredDeflateExtension;
+import plugin.javafxtools.service.websocket.SessionRecorder;
+import plugin.javafxtools.service.websocket.WsMessage;
 import plugin.javafxtools.util.TimeUtils;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * WebSocket客户端控制器 - 处理WebSocket连接和消息通信
@@ -32,8 +68,82 @@ public class WebSocketController implements ModuleLogger {
     private Button wsSendButton;           // 发送按钮
     @FXML
     private Button wsClearButton;          // 清除按钮
+    @FXML
+    private ComboBox<MessageBuffer.Policy> wsPolicyComboBox; // 积压时的丢弃/采样策略
+    @FXML
+    private Label wsStatsLabel;            // 接收/渲染/丢弃计数
+    @FXML
+    private CheckBox wsDeflateCheckBox;    // 协商permessage-deflate
+    @FXML
+    private CheckBox wsServerNoContextCheckBox; // 请求server_no_context_takeover
+    @FXML
+    private CheckBox wsClientNoContextCheckBox; // client_no_context_takeover
+    @FXML
+    private TextField wsDeflateThresholdField;  // 压缩阈值
+    @FXML
+    private Label wsCompressionLabel;      // 压缩统计
+    @FXML
+    private CheckBox wsSuperviseCheckBox;  // 启用连接守护
+    @FXML
+    private TextField wsMaxBackoffField;   // 最大退避（秒）
+    @FXML
+    private TextField wsPingIntervalField; // ping间隔（秒）
+    @FXML
+    private TextField wsStallTimeoutField; // 停滞超时（秒）
+    @FXML
+    private StackPane wsRttPane;           // RTT历史图容器
+    @FXML
+    private Label wsSupervisorLabel;       // 在线时长/RTT/重连统计
+    @FXML
+    private Button wsRecordButton;         // 开始/停止录制
+    @FXML
+    private Button wsSendFileButton;       // 发送文件（二进制帧）
+    @FXML
+    private ListView<WsMessage> wsBinaryListView; // 最近收到的二进制帧
+    @FXML
+    private ComboBox<String> wsBinaryViewComboBox; // 二进制查看方式
+    @FXML
+    private StackPane wsBinaryPane;        // 十六进制/解码视图容器
+    @FXML
+    private WsLoadTestController wsLoadTestTabController; // 压力测试子页
+    @FXML
+    private WsReplayController wsReplayTabController;     // 会话回放子页
+    @FXML
+    private WsServerController wsServerTabController;     // 内嵌服务端子页
+    @FXML
+    private WsHistoryController wsHistoryTabController;   // 历史检索子页
+    @FXML
+    private WsFieldTableController wsFieldTabController;  // 字段表子页
+    @FXML
+    private WsSequenceController wsSequenceTabController; // 消息序列子页
+
+    private static final int BUFFER_CAPACITY = 10_000;        // 待渲染消息上限
+    private static final int MAX_LINES_PER_PULSE = 500;       // 每帧最多渲染条数
+    private static final int MAX_AREA_CHARS = 500_000;        // 消息区保留的最大字符数
+    private static final long STATS_INTERVAL_NANOS = 250_000_000L;
+    private static final int MAX_BINARY_FRAMES = 200;         // 保留的二进制帧数
+    private static final int MAX_DECODE_BYTES = 1024 * 1024;  // 文本解码视图最多解码的字节数
+    private static final long MAX_SEND_FILE_BYTES = 256L * 1024 * 1024;
+    private static final String VIEW_HEX = "十六进制";
+    private static final String VIEW_UTF8 = "UTF-8解码";
+    private static final String RECORDING_DIR = "ws_recordings";
+    private static final int WRITER_CAPACITY = 100_000;       // 发送队列容量
 
     private WebSocketClient webSocketClient;     // WebSocket客户端实例
+    private final MessageBuffer<WsMessage> messageBuffer = new MessageBuffer<>(BUFFER_CAPACITY);
+    private final MessageHistory history = new MessageHistory();   // 全部收发消息，供历史检索
+    private MessageWriter writer;                // 文本消息统一经此发送
+    private final HexDumpView hexDumpView = new HexDumpView();
+    private final TextArea decodedArea = new TextArea();
+    private final StringBuilder renderBatch = new StringBuilder();
+    private AnimationTimer renderTimer;          // 每帧批量渲染收到的消息
+    private long lastStatsNanos;
+    private volatile SessionRecorder recorder;   // 非null时录制收发的消息
+    private volatile CompressionStats compressionStats; // 当前连接的压缩统计，未启用压缩为null
+    private volatile ConnectionSupervisor supervisor;   // 连接守护，未启用为null
+    private final SparklineCanvas rttChart = new SparklineCanvas();
+    private final long[][] rttSeries = new long[1][ConnectionSupervisor.getRttHistoryCapacity()];
+    private final int[] rttCounts = new int[1];
 
 
     /**
@@ -63,12 +173,160 @@ public class WebSocketController implements ModuleLogger {
         // 初始化按钮状态
         wsDisconnectButton.setDisable(true);
         wsSendButton.setDisable(true);
+        wsSendFileButton.setDisable(true);
         // 设置默认WebSocket服务器地址
         wsUrlField.setText("ws://echo.websocket.org");
         wsMessageField.setPromptText("输入要发送的消息...");
+        wsDeflateThresholdField.setText("1024");
+        wsServerNoContextCheckBox.disableProperty().bind(wsDeflateCheckBox.selectedProperty().not());
+        wsClientNoContextCheckBox.disableProperty().bind(wsDeflateCheckBox.selectedProperty().not());
+        wsDeflateThresholdField.disableProperty().bind(wsDeflateCheckBox.selectedProperty().not());
+        wsMaxBackoffField.setText("30");
+        wsPingIntervalField.setText("5");
+        wsStallTimeoutField.setText("30");
+        wsMaxBackoffField.disableProperty().bind(wsSuperviseCheckBox.selectedProperty().not());
+        wsPingIntervalField.disableProperty().bind(wsSuperviseCheckBox.selectedProperty().not());
+        wsStallTimeoutField.disableProperty().bind(wsSuperviseCheckBox.selectedProperty().not());
+        rttChart.widthProperty().bind(wsRttPane.widthProperty());
+        rttChart.heightProperty().bind(wsRttPane.heightProperty());
+        rttChart.setShowLabels(false);
+        wsRttPane.getChildren().add(rttChart);
+
+        wsPolicyComboBox.getItems().addAll(MessageBuffer.Policy.values());
+        wsPolicyComboBox.setValue(MessageBuffer.Policy.DROP_OLDEST);
+        wsPolicyComboBox.valueProperty().addListener((obs, oldVal, newVal) -> messageBuffer.setPolicy(newVal));
+        updateStatsLabel();
+
+        // 二进制帧查看
+        decodedArea.setEditable(false);
+        decodedArea.setWrapText(true);
+        wsBinaryPane.getChildren().addAll(hexDumpView, decodedArea);
+        wsBinaryViewComboBox.getItems().addAll(VIEW_HEX, VIEW_UTF8);
+        wsBinaryViewComboBox.setValue(VIEW_HEX);
+        wsBinaryViewComboBox.valueProperty().addListener((obs, oldVal, newVal) -> showBinaryFrame());
+        wsBinaryListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> showBinaryFrame());
+        showBinaryFrame();
+
+        writer = new MessageWriter(WRITER_CAPACITY, this::onTextSent);
+        if (wsHistoryTabController != null) {
+            wsHistoryTabController.setHistory(history);
+        }
+        if (wsSequenceTabController != null) {
+            wsSequenceTabController.setWriter(writer);
+        }
+        writer.start();
+
+        renderTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                renderPulse(now);
+            }
+        };
+        renderTimer.start();
         info("WebSocket客户端控制器模块初始化完成");
     }
 
+    /**
+     * 每个渲染帧调用一次：批量取出积压消息，合并为一次appendText
+     */
+    private void renderPulse(long now) {
+        int n = messageBuffer.drain(MAX_LINES_PER_PULSE, this::appendToBatch);
+        if (n > 0) {
+            wsMessageArea.appendText(renderBatch.toString());
+            renderBatch.setLength(0);
+            int length = wsMessageArea.getLength();
+            if (length > MAX_AREA_CHARS) {
+                // 一次裁掉一半，避免每帧都删除文本
+                wsMessageArea.deleteText(0, length - MAX_AREA_CHARS / 2);
+            }
+        }
+        if (now - lastStatsNanos >= STATS_INTERVAL_NANOS) {
+            lastStatsNanos = now;
+            updateStatsLabel();
+        }
+    }
+
+    private void appendToBatch(WsMessage message) {
+        if (!message.isBinary()) {
+            renderBatch.append("收到: ").append(message.getText()).append('\n');
+            return;
+        }
+        renderBatch.append("收到二进制: ").append(message.getSize()).append(" 字节 [")
+                .append(message.hexPreview(16)).append("]\n");
+        wsBinaryListView.getItems().add(message);
+        if (wsBinaryListView.getItems().size() > MAX_BINARY_FRAMES) {
+            wsBinaryListView.getItems().remove(0);
+        }
+    }
+
+    /**
+     * 按当前查看方式显示选中的二进制帧
+     */
+    private void showBinaryFrame() {
+        WsMessage message = wsBinaryListView.getSelectionModel().getSelectedItem();
+        boolean hex = VIEW_HEX.equals(wsBinaryViewComboBox.getValue());
+        hexDumpView.setVisible(hex);
+        decodedArea.setVisible(!hex);
+        if (message == null) {
+            hexDumpView.setData(null);
+            decodedArea.clear();
+        } else if (hex) {
+            hexDumpView.setData(message.getData());
+        } else {
+            decodedArea.setText(decodeUtf8(message.getData()));
+        }
+    }
+
+    /**
+     * 解码前MAX_DECODE_BYTES字节，非法序列替换为占位符
+     */
+    private static String decodeUtf8(ByteBuffer data) {
+        boolean truncated = data.remaining() > MAX_DECODE_BYTES;
+        if (truncated) {
+            data.limit(data.position() + MAX_DECODE_BYTES);
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try {
+            CharBuffer chars = decoder.decode(data);
+            return truncated ? chars + "\n... (仅解码前 " + MAX_DECODE_BYTES + " 字节)" : chars.toString();
+        } catch (CharacterCodingException e) {
+            return "解码失败: " + e.getMessage();
+        }
+    }
+
+    private void updateStatsLabel() {
+        wsStatsLabel.setText(String.format("接收 %d / 渲染 %d / 丢弃 %d / 积压 %d",
+                messageBuffer.getReceived(), messageBuffer.getRendered(),
+                messageBuffer.getDropped(), messageBuffer.getBacklog()));
+        CompressionStats stats = compressionStats;
+        wsCompressionLabel.setText(stats == null ? "" : stats.isNegotiated() ? stats.format() : "未协商压缩");
+        ConnectionSupervisor s = supervisor;
+        if (s != null) {
+            wsSupervisorLabel.setText(s.format());
+            rttCounts[0] = s.copyRttHistory(rttSeries[0]);
+            rttChart.render(rttSeries, rttCounts, null, rttSeries[0].length, 1e6, "ms");
+        }
+    }
+
+    /**
+     * 根据连接选项创建协议草案，启用压缩时附带带统计的permessage-deflate扩展
+     *
+     * @throws NumberFormatException 压缩阈值不是有效整数
+     */
+    private Draft createDraft() {
+        if (!wsDeflateCheckBox.isSelected()) {
+            compressionStats = null;
+            return new Draft_6455();
+        }
+        int threshold = Integer.parseInt(wsDeflateThresholdField.getText().trim());
+        CompressionStats stats = new CompressionStats();
+        compressionStats = stats;
+        return new Draft_6455(new MeteredDeflateExtension(wsServerNoContextCheckBox.isSelected(),
+                wsClientNoContextCheckBox.isSelected(), Math.max(0, threshold), stats));
+    }
+
     /**
      * 处理"连接"按钮点击事件
      */
@@ -79,50 +337,179 @@ public class WebSocketController implements ModuleLogger {
             error("请输入WebSocket服务器URL");
             return;
         }
+        URI uri;
         try {
-            // 创建WebSocket客户端
-            webSocketClient = new WebSocketClient(new URI(url)) {
-                @Override
-                public void onOpen(ServerHandshake handshakedata) {
-                    Platform.runLater(() -> {
-                        wsConnectButton.setDisable(true);
-                        wsDisconnectButton.setDisable(false);
-                        wsSendButton.setDisable(false);
-                    });
-                    info("WebSocket连接已建立");
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            error("无效的WebSocket URL: " + e.getMessage());
+            return;
+        }
+        stopSupervisor();
+        if (wsSuperviseCheckBox.isSelected()) {
+            try {
+                long maxBackoff = Math.round(Double.parseDouble(wsMaxBackoffField.getText().trim()) * 1000);
+                long pingInterval = Math.round(Double.parseDouble(wsPingIntervalField.getText().trim()) * 1000);
+                long stallTimeout = Math.round(Double.parseDouble(wsStallTimeoutField.getText().trim()) * 1000);
+                if (maxBackoff < 0 || pingInterval < 0 || stallTimeout < 0) {
+                    error("守护参数不能为负数");
+                    return;
                 }
+                // 重连在守护线程触发，切回FX线程以读取当前的连接选项；排队期间守护可能已停止或被替换
+                AtomicReference<ConnectionSupervisor> self = new AtomicReference<>();
+                ConnectionSupervisor s = new ConnectionSupervisor(() -> Platform.runLater(() -> {
+                    ConnectionSupervisor current = self.get();
+                    if (current == supervisor && current.isRunning()) {
+                        connect(uri);
+                    }
+                }), this::info, maxBackoff, pingInterval, stallTimeout);
+                self.set(s);
+                supervisor = s;
+                s.start();
+            } catch (NumberFormatException e) {
+                error("请输入有效的守护参数（秒）");
+                return;
+            }
+        }
+        wsConnectButton.setDisable(true);
+        wsDisconnectButton.setDisable(false);
+        connect(uri);
+    }
 
-                @Override
-                public void onMessage(String message) {
-                    Platform.runLater(() -> {
-                        wsMessageArea.appendText("收到: " + message + "\n");
-                    });
+    /**
+     * 创建新的客户端并发起连接（首次连接和守护重连共用）
+     */
+    private void connect(URI uri) {
+        try {
+            webSocketClient = createClient(uri);
+            webSocketClient.connect();
+            info("正在连接WebSocket服务器: " + uri);
+        } catch (NumberFormatException e) {
+            error("请输入有效的压缩阈值");
+            stopSupervisor();
+            setDisconnectedState();
+        } catch (Exception e) {
+            error("连接WebSocket失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 客户端工厂 - 按当前连接选项创建客户端，回调中同步消息区、录制、压缩统计和连接守护
+     *
+     * @throws NumberFormatException 压缩阈值不是有效整数
+     */
+    private WebSocketClient createClient(URI uri) {
+        ConnectionSupervisor s = supervisor;
+        WebSocketClient client = new WebSocketClient(uri, createDraft()) {
+            @Override
+            public void onOpen(ServerHandshake handshakedata) {
+                if (s != null) {
+                    s.connected(this);
+                }
+                writer.setTarget(this);
+                CompressionStats stats = compressionStats;
+                if (stats != null) {
+                    String accepted = handshakedata.getFieldValue("Sec-WebSocket-Extensions");
+                    info(stats.isNegotiated() ? "已协商压缩: " + accepted : "服务端未接受permessage-deflate，按不压缩通信");
                 }
+                Platform.runLater(() -> {
+                    wsConnectButton.setDisable(true);
+                    wsDisconnectButton.setDisable(false);
+                    wsSendButton.setDisable(false);
+                    wsSendFileButton.setDisable(false);
+                });
+                info("WebSocket连接已建立");
+            }
+
+            @Override
+            public void onMessage(String message) {
+                if (s != null) {
+                    s.traffic();
+                }
+                // 只入队，由渲染帧批量显示
+                messageBuffer.offer(WsMessage.text(message));
+                history.add(SessionRecorder.DIRECTION_IN, message);
+                if (wsFieldTabController != null) {
+                    wsFieldTabController.onText(message);
+                }
+                if (wsSequenceTabController != null) {
+                    wsSequenceTabController.onText(message);
+                }
+                SessionRecorder r = recorder;
+                if (r != null) {
+                    recordSafely(() -> r.recordText(SessionRecorder.DIRECTION_IN, message));
+                }
+            }
+
+            @Override
+            public void onMessage(ByteBuffer bytes) {
+                if (s != null) {
+                    s.traffic();
+                }
+                // 每帧的缓冲区由库新分配，直接保留只读视图，不复制
+                WsMessage binary = WsMessage.binary(bytes);
+                messageBuffer.offer(binary);
+                history.add(SessionRecorder.DIRECTION_IN, "[二进制 " + binary.getSize() + " 字节] " + binary.hexPreview(32));
+                SessionRecorder r = recorder;
+                if (r != null) {
+                    recordSafely(() -> r.record(SessionRecorder.DIRECTION_IN, SessionRecorder.OPCODE_BINARY, bytes));
+                }
+            }
 
-                @Override
-                public void onClose(int code, String reason, boolean remote) {
+            @Override
+            public void onWebsocketPong(WebSocket conn, Framedata f) {
+                super.onWebsocketPong(conn, f);
+                if (s != null) {
+                    s.pong(f);
+                }
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+                info("WebSocket连接已关闭: " + reason + " (code: " + code + ")");
+                writer.setTarget(null);
+                CompressionStats stats = compressionStats;
+                if (stats != null && stats.isNegotiated()) {
+                    info("压缩统计: " + stats.format());
+                }
+                if (s != null && s.isRunning()) {
+                    // 守护中保持"断开"可用，用于停止重连
                     Platform.runLater(() -> {
-                        wsConnectButton.setDisable(false);
-                        wsDisconnectButton.setDisable(true);
                         wsSendButton.setDisable(true);
+                        wsSendFileButton.setDisable(true);
                     });
-                    info("WebSocket连接已关闭: " + reason + " (code: " + code + ")");
+                    s.closed(code, reason);
+                } else {
+                    if (s != null) {
+                        s.closed(code, reason);
+                    }
+                    Platform.runLater(WebSocketController.this::setDisconnectedState);
                 }
+            }
 
-                @Override
-                public void onError(Exception ex) {
-                    error("WebSocket错误: " + ex.getMessage());
-                }
-            };
+            @Override
+            public void onError(Exception ex) {
+                error("WebSocket错误: " + ex.getMessage());
+            }
+        };
+        if (s != null) {
+            // 由守护负责心跳和停滞检测，关闭库自带的断线检测
+            client.setConnectionLostTimeout(0);
+        }
+        return client;
+    }
 
-            // 发起连接
-            webSocketClient.connect();
-            info("正在连接WebSocket服务器: " + url);
+    private void setDisconnectedState() {
+        wsConnectButton.setDisable(false);
+        wsDisconnectButton.setDisable(true);
+        wsSendButton.setDisable(true);
+        wsSendFileButton.setDisable(true);
+    }
 
-        } catch (URISyntaxException e) {
-            error("无效的WebSocket URL: " + e.getMessage());
-        } catch (Exception e) {
-            error("连接WebSocket失败: " + e.getMessage());
+    private void stopSupervisor() {
+        ConnectionSupervisor s = supervisor;
+        supervisor = null;
+        if (s != null) {
+            s.stop();
         }
     }
 
@@ -131,9 +518,36 @@ public class WebSocketController implements ModuleLogger {
      */
     @FXML
     private void handleWsDisconnect() {
-        if (webSocketClient != null) {
+        // 先停止守护，否则关闭后会被重连
+        stopSupervisor();
+        if (webSocketClient != null && !webSocketClient.isClosed()) {
             webSocketClient.close();
+        } else {
+            setDisconnectedState();
+        }
+    }
+
+    /**
+     * 处理"连接历史"按钮点击事件 - 输出守护期间每次连接的在线时长和关闭原因
+     */
+    @FXML
+    private void handleWsHistory() {
+        ConnectionSupervisor s = supervisor;
+        if (s == null) {
+            info("未启用连接守护，没有连接历史");
+            return;
+        }
+        List<ConnectionSupervisor.Session> sessions = s.getSessions();
+        StringBuilder sb = new StringBuilder("连接历史（共 " + sessions.size() + " 次）:");
+        for (ConnectionSupervisor.Session session : sessions) {
+            sb.append(String.format("\n  %s 起在线 %s，关闭: %s (code: %d)",
+                    TimeUtils.formatDateTime(new Date(session.getOpenedAt())),
+                    TimeUtils.formatDuration(session.getDurationMillis()), session.getReason(), session.getCode()));
+        }
+        if (s.getCurrentUptimeMillis() > 0) {
+            sb.append("\n  当前连接已在线 ").append(TimeUtils.formatDuration(s.getCurrentUptimeMillis()));
         }
+        info(sb.toString());
     }
 
     /**
@@ -148,7 +562,10 @@ public class WebSocketController implements ModuleLogger {
         }
 
         if (webSocketClient != null && webSocketClient.isOpen()) {
-            webSocketClient.send(message);
+            if (!writer.offer(message)) {
+                error("发送队列已满，消息未发送");
+                return;
+            }
             wsMessageArea.appendText("发送: " + message + "\n");
             wsMessageField.clear();
         } else {
@@ -156,12 +573,112 @@ public class WebSocketController implements ModuleLogger {
         }
     }
 
+    /**
+     * 文本消息写出后的回调（在发送线程调用）- 记入历史和录制
+     */
+    private void onTextSent(String message) {
+        history.add(SessionRecorder.DIRECTION_OUT, message);
+        SessionRecorder r = recorder;
+        if (r != null) {
+            recordSafely(() -> r.recordText(SessionRecorder.DIRECTION_OUT, message));
+        }
+    }
+
+    /**
+     * 处理"发送文件"按钮点击事件 - 以内存映射方式读取文件，作为一个二进制帧发送
+     */
+    @FXML
+    private void handleWsSendFile() {
+        if (webSocketClient == null || !webSocketClient.isOpen()) {
+            error("WebSocket连接未建立，无法发送文件");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("选择要发送的二进制文件");
+        File file = chooser.showOpenDialog(wsSendFileButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAX_SEND_FILE_BYTES) {
+                error(String.format("文件过大: %d 字节，上限 %d 字节", size, MAX_SEND_FILE_BYTES));
+                return;
+            }
+            // 映射后由库直接从映射区组帧，不先读入堆数组
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            webSocketClient.send(mapped.duplicate());
+            SessionRecorder r = recorder;
+            if (r != null) {
+                recordSafely(() -> r.record(SessionRecorder.DIRECTION_OUT, SessionRecorder.OPCODE_BINARY, mapped));
+            }
+            wsMessageArea.appendText("发送二进制: " + file.getName() + " " + size + " 字节 ["
+                    + WsMessage.binary(mapped).hexPreview(16) + "]\n");
+            history.add(SessionRecorder.DIRECTION_OUT, "[二进制 " + size + " 字节] " + file.getName());
+        } catch (IOException e) {
+            error("读取文件失败: " + e.getMessage());
+        } catch (Exception e) {
+            error("发送文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 处理"录制"按钮点击事件 - 切换录制状态
+     */
+    @FXML
+    private void handleWsRecord() {
+        if (recorder == null) {
+            try {
+                recorder = new SessionRecorder(Path.of(RECORDING_DIR));
+                wsRecordButton.setText("停止录制");
+                info("开始录制会话: " + recorder.getFirstSegment().toAbsolutePath());
+            } catch (IOException e) {
+                error("创建录制文件失败: " + e.getMessage());
+            }
+        } else {
+            stopRecording();
+        }
+    }
+
+    private void stopRecording() {
+        SessionRecorder r = recorder;
+        if (r == null) {
+            return;
+        }
+        recorder = null;
+        try {
+            r.close();
+            info(String.format("录制已停止: %d 条消息，%d 字节负载，文件 %s",
+                    r.getRecordCount(), r.getTotalBytes(), r.getFirstSegment().toAbsolutePath()));
+        } catch (IOException e) {
+            error("结束录制失败: " + e.getMessage());
+        }
+        if (wsRecordButton != null) {
+            Platform.runLater(() -> wsRecordButton.setText("开始录制"));
+        }
+    }
+
+    /**
+     * 写入录制，失败时停止录制而不影响收发
+     */
+    private void recordSafely(Runnable action) {
+        try {
+            action.run();
+        } catch (IllegalStateException e) {
+            error("录制失败，已停止录制: " + e.getMessage());
+            stopRecording();
+        }
+    }
+
     /**
      * 处理"清除"按钮点击事件
      */
     @FXML
     private void handleWsClear() {
         wsMessageArea.clear();
+        messageBuffer.reset();
+        wsBinaryListView.getItems().clear();
+        updateStatsLabel();
         info("已清除消息记录");
     }
 
@@ -169,11 +686,38 @@ public class WebSocketController implements ModuleLogger {
      * 清理资源
      */
     public void cleanup() {
+        stopSupervisor();
+        if (writer != null) {
+            writer.stop();
+        }
         // 关闭WebSocket连接
         if (webSocketClient != null) {
             webSocketClient.close();
             webSocketClient = null;
         }
+        if (renderTimer != null) {
+            renderTimer.stop();
+        }
+        stopRecording();
+        if (wsLoadTestTabController != null) {
+            wsLoadTestTabController.cleanup();
+        }
+        if (wsReplayTabController != null) {
+            wsReplayTabController.cleanup();
+        }
+        if (wsServerTabController != null) {
+            wsServerTabController.cleanup();
+        }
+        if (wsHistoryTabController != null) {
+            wsHistoryTabController.cleanup();
+        }
+        history.close();
+        if (wsFieldTabController != null) {
+            wsFieldTabController.cleanup();
+        }
+        if (wsSequenceTabController != null) {
+            wsSequenceTabController.cleanup();
+        }
         System.out.println("WebSocketController 资源已清理");
     }
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package plugin.javafxtools.controller;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.websocket.FieldStats;
+import plugin.javafxtools.service.websocket.JsonFieldExtractor;
+import plugin.javafxtools.service.websocket.MessageBuffer;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 字段表控制器 - 按用户定义的列路径从收到的JSON消息中流式取值，实时显示在有界表格中并统计各列聚合值
+ */
+public class WsFieldTableController implements ModuleLogger {
+
+    private static final int MAX_ROWS = 5000;                 // 表格保留行数
+    private static final int BUFFER_CAPACITY = 10_000;        // 待显示行上限
+    private static final int MAX_ROWS_PER_PULSE = 1000;       // 每帧最多加入的行数
+    private static final long STATS_INTERVAL_NANOS = 500_000_000L;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern(TimeUtils.DEFAULT_TIME_FORMAT)
+            .withZone(ZoneId.systemDefault());
+    private static final String[] STATS_COLUMNS = {"字段", "出现", "缺失", "最小", "最大", "最新", "速率/s"};
+
+    @FXML
+    private TextField fieldPathsField;       // 列路径，逗号分隔
+    @FXML
+    private CheckBox fieldPauseCheckBox;     // 暂停表格刷新（统计继续）
+    @FXML
+    private Label fieldSummaryLabel;         // 消息数/非JSON/丢弃/解析耗时
+    @FXML
+    private TableView<String[]> fieldRowTable;
+    @FXML
+    private TableView<String[]> fieldStatsTable;
+    @FXML
+    private TextArea fieldLogArea;
+
+    /**
+     * 一组列路径对应的提取状态，重新应用路径时整体替换
+     */
+    private static final class Extraction {
+        final JsonFieldExtractor extractor;
+        final FieldStats[] stats;
+        final MessageBuffer<String[]> rows = new MessageBuffer<>(BUFFER_CAPACITY);
+        final String[] text;
+        final double[] numbers;
+        final long[] lastCounts;
+        final LongAdder nonJson = new LongAdder();
+        final LongAdder parseNanos = new LongAdder();
+
+        Extraction(JsonFieldExtractor extractor) {
+            this.extractor = extractor;
+            int columns = extractor.getColumnCount();
+            stats = new FieldStats[columns];
+            for (int i = 0; i < columns; i++) {
+                stats[i] = new FieldStats();
+            }
+            text = new String[columns];
+            numbers = new double[columns];
+            lastCounts = new long[columns];
+        }
+    }
+
+    private volatile Extraction extraction;
+    private final List<String[]> pulseRows = new ArrayList<>();
+    private AnimationTimer renderTimer;
+    private long lastStatsNanos;
+
+    @Override
+    public TextArea getLogArea() {
+        return fieldLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (fieldLogArea != null && fieldLogArea.getScene() != null) {
+                fieldLogArea.appendText(formattedMessage);
+                fieldLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        fieldPathsField.setPromptText("逗号分隔的字段路径，如: symbol, data.bid, data.ask, trades[0].qty");
+        for (int i = 0; i < STATS_COLUMNS.length; i++) {
+            fieldStatsTable.getColumns().add(column(STATS_COLUMNS[i], i, i == 0 ? 160 : 90));
+        }
+        fieldSummaryLabel.setText("未应用字段路径");
+
+        renderTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                renderPulse(now);
+            }
+        };
+        renderTimer.start();
+        info("字段表模块初始化完成");
+    }
+
+    private static TableColumn<String[], String> column(String title, int index, double width) {
+        TableColumn<String[], String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        column.setCellValueFactory(cd -> new SimpleStringProperty(cd.getValue()[index]));
+        return column;
+    }
+
+    /**
+     * 处理"应用"按钮点击事件 - 编译列路径并重建表格列
+     */
+    @FXML
+    private void handleApply() {
+        List<String> paths = new ArrayList<>();
+        for (String p : fieldPathsField.getText().split(",")) {
+            if (!p.trim().isEmpty()) {
+                paths.add(p.trim());
+            }
+        }
+        JsonFieldExtractor extractor;
+        try {
+            extractor = new JsonFieldExtractor(paths);
+        } catch (IllegalArgumentException e) {
+            error("字段路径无效: " + e.getMessage());
+            return;
+        }
+        fieldRowTable.getItems().clear();
+        fieldRowTable.getColumns().clear();
+        fieldRowTable.getColumns().add(column("时间", 0, 100));
+        for (int i = 0; i < paths.size(); i++) {
+            fieldRowTable.getColumns().add(column(paths.get(i), i + 1, 120));
+        }
+        extraction = new Extraction(extractor);
+        lastStatsNanos = System.nanoTime();
+        updateStats(lastStatsNanos);
+        info("已应用字段路径: " + String.join(", ", paths));
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleStop() {
+        extraction = null;
+        fieldSummaryLabel.setText("已停止提取");
+        info("已停止字段提取");
+    }
+
+    /**
+     * 处理"清空"按钮点击事件 - 清空表格和统计，保留列路径
+     */
+    @FXML
+    private void handleClearRows() {
+        fieldRowTable.getItems().clear();
+        Extraction ex = extraction;
+        if (ex != null) {
+            extraction = new Extraction(ex.extractor);
+        }
+        fieldStatsTable.getItems().clear();
+    }
+
+    /**
+     * 收到一条文本消息（在WebSocket接收线程调用），未应用字段路径时直接返回
+     */
+    public void onText(String message) {
+        Extraction ex = extraction;
+        if (ex == null) {
+            return;
+        }
+        long begin = System.nanoTime();
+        int found = ex.extractor.extract(message, ex.text, ex.numbers);
+        ex.parseNanos.add(System.nanoTime() - begin);
+        if (found < 0) {
+            ex.nonJson.increment();
+            return;
+        }
+        String[] row = new String[ex.text.length + 1];
+        row[0] = TIME_FORMAT.format(Instant.now());
+        for (int c = 0; c < ex.text.length; c++) {
+            ex.stats[c].record(ex.text[c], ex.numbers[c]);
+            row[c + 1] = ex.text[c];
+        }
+        ex.rows.offer(row);
+    }
+
+    /**
+     * 每个渲染帧批量加入新行，超过上限时一次裁掉最旧的行
+     */
+    private void renderPulse(long now) {
+        Extraction ex = extraction;
+        if (ex == null) {
+            return;
+        }
+        if (!fieldPauseCheckBox.isSelected()) {
+            ex.rows.drain(MAX_ROWS_PER_PULSE, pulseRows::add);
+            if (!pulseRows.isEmpty()) {
+                ObservableList<String[]> items = fieldRowTable.getItems();
+                items.addAll(pulseRows);
+                pulseRows.clear();
+                if (items.size() > MAX_ROWS) {
+                    items.remove(0, items.size() - MAX_ROWS);
+                }
+                fieldRowTable.scrollTo(items.size() - 1);
+            }
+        }
+        if (now - lastStatsNanos >= STATS_INTERVAL_NANOS) {
+            updateStats(now);
+        }
+    }
+
+    private void updateStats(long now) {
+        Extraction ex = extraction;
+        if (ex == null) {
+            return;
+        }
+        double seconds = Math.max(1e-3, (now - lastStatsNanos) / 1e9);
+        lastStatsNanos = now;
+        List<String> paths = ex.extractor.getPaths();
+        List<String[]> rows = new ArrayList<>(paths.size());
+        for (int c = 0; c < paths.size(); c++) {
+            FieldStats s = ex.stats[c];
+            long count = s.getCount();
+            rows.add(new String[]{paths.get(c), String.valueOf(count), String.valueOf(s.getMissing()),
+                    formatNumber(s.getMin()), formatNumber(s.getMax()), s.getLast() == null ? "-" : s.getLast(),
+                    String.format("%.1f", (count - ex.lastCounts[c]) / seconds)});
+            ex.lastCounts[c] = count;
+        }
+        fieldStatsTable.getItems().setAll(rows);
+
+        long messages = ex.rows.getReceived();
+        long total = messages + ex.nonJson.sum();
+        fieldSummaryLabel.setText(String.format("JSON消息 %d，非JSON %d，表格丢弃 %d，待显示 %d，平均解析 %.1f µs/条",
+                messages, ex.nonJson.sum(), ex.rows.getDropped(), ex.rows.getBacklog(),
+                total == 0 ? 0.0 : ex.parseNanos.sum() / 1e3 / total));
+    }
+
+    private static String formatNumber(double v) {
+        if (Double.isNaN(v)) {
+            return "-";
+        }
+        return v == Math.rint(v) && Math.abs(v) < 1e15 ? String.valueOf((long) v) : String.valueOf(v);
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (fieldLogArea != null) {
+                fieldLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        extraction = null;
+        if (renderTimer != null) {
+            renderTimer.stop();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package plugin.javafxtools.controller;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.websocket.MessageHistory;
+import plugin.javafxtools.service.websocket.SessionRecorder;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.util.AbstractList;
+import java.util.Date;
+
+/**
+ * 消息历史检索控制器 - 在客户端收发的全部消息中按子串和JSON字段值检索，结果以虚拟化列表浏览
+ */
+public class WsHistoryController implements ModuleLogger {
+
+    private static final int MAX_RESULTS = 100_000;
+    private static final int PREVIEW_CHARS = 200;
+    private static final String DIRECTION_ALL = "全部";
+    private static final String DIRECTION_IN = "收到";
+    private static final String DIRECTION_OUT = "发出";
+
+    @FXML
+    private TextField historyQueryField;     // 查询条件
+    @FXML
+    private ComboBox<String> historyDirectionComboBox;
+    @FXML
+    private Label historySizeLabel;          // 历史容量统计
+    @FXML
+    private Label historyResultLabel;        // 查询结果统计
+    @FXML
+    private ListView<Integer> historyResultList; // 命中的消息编号
+    @FXML
+    private TextArea historyDetailArea;      // 选中消息正文
+    @FXML
+    private TextArea historyLogArea;
+
+    private MessageHistory history;
+    private Timeline sizeTimeline;
+    private volatile int searchSeq;          // 只显示最近一次查询的结果
+
+    @Override
+    public TextArea getLogArea() {
+        return historyLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (historyLogArea != null && historyLogArea.getScene() != null) {
+                historyLogArea.appendText(formattedMessage);
+                historyLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        historyQueryField.setPromptText("空格分隔多个条件，如: ORD-1001  或  status=failed user=alice");
+        historyDirectionComboBox.getItems().addAll(DIRECTION_ALL, DIRECTION_IN, DIRECTION_OUT);
+        historyDirectionComboBox.setValue(DIRECTION_ALL);
+        historyDetailArea.setEditable(false);
+        historyDetailArea.setWrapText(true);
+
+        // 单元格按需读取正文，只有可见行会解码
+        historyResultList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Integer id, boolean empty) {
+                super.updateItem(id, empty);
+                setText(empty || id == null ? null : formatRow(id));
+            }
+        });
+        historyResultList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
+            String text = newVal == null || history == null ? null : history.getText(newVal);
+            historyDetailArea.setText(newVal == null ? "" : text == null ? "（消息已被淘汰）" : text);
+        });
+
+        sizeTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateSize()));
+        sizeTimeline.setCycleCount(Timeline.INDEFINITE);
+        sizeTimeline.play();
+        info("消息历史检索模块初始化完成");
+    }
+
+    /**
+     * 由WebSocket客户端控制器注入共享的消息历史
+     */
+    public void setHistory(MessageHistory history) {
+        this.history = history;
+        updateSize();
+    }
+
+    private String formatRow(int id) {
+        String text = history.getText(id);
+        if (text == null) {
+            return "#" + id + " （已淘汰）";
+        }
+        String preview = text.length() > PREVIEW_CHARS ? text.substring(0, PREVIEW_CHARS) + "..." : text;
+        return String.format("#%d %s %s %s", id,
+                TimeUtils.formatDateTime(new Date(history.getTimestamp(id)), TimeUtils.DEFAULT_TIME_FORMAT),
+                history.getDirection(id) == SessionRecorder.DIRECTION_IN ? "←" : "→",
+                preview.replace('\n', ' ').replace('\r', ' '));
+    }
+
+    /**
+     * 处理"检索"按钮点击事件 - 在后台线程执行，结果只保存编号数组
+     */
+    @FXML
+    private void handleSearch() {
+        if (history == null) {
+            return;
+        }
+        String query = historyQueryField.getText();
+        String directionName = historyDirectionComboBox.getValue();
+        int direction = DIRECTION_IN.equals(directionName) ? SessionRecorder.DIRECTION_IN
+                : DIRECTION_OUT.equals(directionName) ? SessionRecorder.DIRECTION_OUT : -1;
+        int seq = ++searchSeq;
+        Thread thread = new Thread(() -> {
+            long begin = System.nanoTime();
+            MessageHistory.Result result = history.search(query, direction, MAX_RESULTS);
+            double millis = (System.nanoTime() - begin) / 1e6;
+            Platform.runLater(() -> {
+                if (seq != searchSeq) {
+                    return;
+                }
+                int[] ids = result.getIds();
+                historyResultList.getItems().setAll(new AbstractList<Integer>() {
+                    @Override
+                    public Integer get(int index) {
+                        return ids[index];
+                    }
+
+                    @Override
+                    public int size() {
+                        return ids.length;
+                    }
+                });
+                historyResultLabel.setText(String.format("命中 %s%d 条%s，耗时 %.1f ms%s%s",
+                        result.isApproximate() ? "至多 " : "", result.getTotal(),
+                        ids.length < result.getTotal() ? "（显示最新 " + ids.length + " 条）" : "",
+                        millis, result.isFullScan() ? "，条件无法分词，已逐条比对正文" : "",
+                        result.getPending() > 0 ? "，最新 " + result.getPending() + " 条尚在建立索引" : ""));
+            });
+        }, "ws-history-search");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 处理"清空历史"按钮点击事件
+     */
+    @FXML
+    private void handleClearHistory() {
+        if (history != null) {
+            history.clear();
+        }
+        searchSeq++;
+        historyResultList.getItems().clear();
+        historyResultLabel.setText("");
+        updateSize();
+        info("已清空消息历史");
+    }
+
+    private void updateSize() {
+        if (history != null) {
+            historySizeLabel.setText(history.format());
+        }
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (historyLogArea != null) {
+                historyLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        if (sizeTimeline != null) {
+            sizeTimeline.stop();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package plugin.javafxtools.controller;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.websocket.LoadGenerator;
+import plugin.javafxtools.util.LatencyHistogram;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * WebSocket压测控制器 - 建立大量并发连接按速率发送消息，实时展示吞吐、往返延迟百分位和建连耗时
+ */
+public class WsLoadTestController implements ModuleLogger {
+
+    private static final int MAX_REPORT_ROWS = 600;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    // 报告列下标：时间, 在线连接, 发送/s, 接收/s, p50, p90, p99, p99.9, 最大, 发送跳过
+    private static final String[] REPORT_COLUMNS = {"时间", "在线连接", "发送/s", "接收/s",
+            "P50(ms)", "P90(ms)", "P99(ms)", "P99.9(ms)", "最大(ms)", "发送跳过"};
+
+    @FXML
+    private TextField loadUrlField;          // 目标地址
+    @FXML
+    private TextField connectionsField;      // 连接数
+    @FXML
+    private TextField rampField;             // 每秒新建连接数
+    @FXML
+    private TextField rateField;             // 每连接每秒消息数
+    @FXML
+    private TextField payloadField;          // 消息填充字节数
+    @FXML
+    private Button loadStartButton;
+    @FXML
+    private Button loadStopButton;
+    @FXML
+    private Label connectSummaryLabel;       // 建连统计
+    @FXML
+    private TableView<String[]> loadReportTable;
+    @FXML
+    private TextArea loadLogArea;
+
+    private final LoadGenerator generator = new LoadGenerator();
+    private final double[] percentileBuffer = new double[PERCENTILES.length];
+    private Timeline reportTimeline;
+    private int targetConnections;
+    private long lastSent;
+    private long lastReceived;
+    private long lastSkipped;
+    private long lastReportNanos;
+
+    @Override
+    public TextArea getLogArea() {
+        return loadLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (loadLogArea != null && loadLogArea.getScene() != null) {
+                loadLogArea.appendText(formattedMessage);
+                loadLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        loadUrlField.setText("ws://127.0.0.1:8787");
+        connectionsField.setText("1000");
+        rampField.setText("200");
+        rateField.setText("1");
+        payloadField.setText("64");
+        loadStopButton.setDisable(true);
+        connectSummaryLabel.setText("未开始");
+
+        for (int i = 0; i < REPORT_COLUMNS.length; i++) {
+            final int index = i;
+            TableColumn<String[], String> column = new TableColumn<>(REPORT_COLUMNS[i]);
+            column.setPrefWidth(i == 0 ? 80 : 75);
+            column.setSortable(false);
+            column.setCellValueFactory(cd -> new SimpleStringProperty(cd.getValue()[index]));
+            loadReportTable.getColumns().add(column);
+        }
+
+        reportTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> report()));
+        reportTimeline.setCycleCount(Timeline.INDEFINITE);
+
+        loadLogArea.setPromptText("压测日志将显示在这里...\n目标服务需回显收到的消息（echo），延迟按 LG|连接|序号|时间戳 匹配计算");
+        info("WebSocket压测模块初始化完成");
+    }
+
+    /**
+     * 处理"开始"按钮点击事件
+     */
+    @FXML
+    private void handleLoadStart() {
+        URI uri;
+        int connections;
+        int ramp;
+        double rate;
+        int payload;
+        try {
+            uri = new URI(loadUrlField.getText().trim());
+            if (!"ws".equalsIgnoreCase(uri.getScheme()) && !"wss".equalsIgnoreCase(uri.getScheme())) {
+                error("地址必须以ws://或wss://开头");
+                return;
+            }
+            connections = Integer.parseInt(connectionsField.getText().trim());
+            ramp = Integer.parseInt(rampField.getText().trim());
+            rate = Double.parseDouble(rateField.getText().trim());
+            payload = Integer.parseInt(payloadField.getText().trim());
+            if (connections < 1 || ramp < 0 || rate < 0 || rate > 1000 || payload < 0) {
+                error("参数超出范围：连接数≥1，爬坡≥0（0为一次性建立），速率0-1000条/秒，消息大小≥0");
+                return;
+            }
+        } catch (URISyntaxException e) {
+            error("无效的WebSocket URL: " + e.getMessage());
+            return;
+        } catch (NumberFormatException e) {
+            error("请输入有效的连接数、爬坡速率、发送速率和消息大小");
+            return;
+        }
+
+        targetConnections = connections;
+        lastSent = 0;
+        lastReceived = 0;
+        lastSkipped = 0;
+        lastReportNanos = System.nanoTime();
+        loadReportTable.getItems().clear();
+        generator.start(uri, connections, ramp, rate, payload);
+        reportTimeline.play();
+        loadStartButton.setDisable(true);
+        loadStopButton.setDisable(false);
+        info(String.format("压测已启动: %s，%d 个连接，爬坡 %d/秒，每连接 %.1f 条/秒，消息填充 %d 字节",
+                uri, connections, ramp, rate, payload));
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleLoadStop() {
+        generator.stop();
+        reportTimeline.stop();
+        report();
+        loadStartButton.setDisable(false);
+        loadStopButton.setDisable(true);
+
+        LatencyHistogram total = generator.getRttTotal();
+        total.percentilesMillis(PERCENTILES, percentileBuffer);
+        info(String.format("压测已停止: 发送 %d，接收 %d，错误 %d，建连失败 %d；往返延迟 样本 %d 平均 %.2fms P50 %.2fms P90 %.2fms P99 %.2fms P99.9 %.2fms 最大 %.2fms",
+                generator.getSent(), generator.getReceived(), generator.getErrors(), generator.getConnectFailures(),
+                total.getCount(), total.getMeanMillis(), percentileBuffer[0], percentileBuffer[1],
+                percentileBuffer[2], percentileBuffer[3], total.getMaxMillis()));
+    }
+
+    /**
+     * 每秒输出一行区间统计，并刷新建连统计
+     */
+    private void report() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastReportNanos) / 1e9);
+        long sent = generator.getSent();
+        long received = generator.getReceived();
+        long skipped = generator.getSendSkipped();
+
+        LatencyHistogram interval = generator.getRttInterval();
+        interval.percentilesMillis(PERCENTILES, percentileBuffer);
+        String[] row = new String[REPORT_COLUMNS.length];
+        row[0] = TimeUtils.getCurrentDateTime().substring(11);
+        row[1] = String.valueOf(generator.getOpenCount());
+        row[2] = String.format("%.0f", (sent - lastSent) / seconds);
+        row[3] = String.format("%.0f", (received - lastReceived) / seconds);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            row[4 + i] = formatMillis(percentileBuffer[i]);
+        }
+        row[8] = formatMillis(interval.getMaxMillis());
+        row[9] = String.valueOf(skipped - lastSkipped);
+        interval.reset();
+
+        lastSent = sent;
+        lastReceived = received;
+        lastSkipped = skipped;
+        lastReportNanos = now;
+
+        loadReportTable.getItems().add(row);
+        if (loadReportTable.getItems().size() > MAX_REPORT_ROWS) {
+            loadReportTable.getItems().remove(0);
+        }
+        loadReportTable.scrollTo(loadReportTable.getItems().size() - 1);
+
+        LatencyHistogram connect = generator.getConnectTimes();
+        connect.percentilesMillis(PERCENTILES, percentileBuffer);
+        connectSummaryLabel.setText(String.format("在线 %d / 目标 %d，已建连 %d，失败 %d；建连耗时 平均 %s P50 %s P99 %s 最大 %s ms",
+                generator.getOpenCount(), targetConnections, connect.getCount(), generator.getConnectFailures(),
+                formatMillis(connect.getMeanMillis()), formatMillis(percentileBuffer[0]),
+                formatMillis(percentileBuffer[2]), formatMillis(connect.getMaxMillis())));
+    }
+
+    private static String formatMillis(double v) {
+        return Double.isNaN(v) ? "-" : String.format("%.2f", v);
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (loadLogArea != null) {
+                loadLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        generator.stop();
+        if (reportTimeline != null) {
+            reportTimeline.stop();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package plugin.javafxtools.controller;
+
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.stage.FileChooser;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.websocket.SessionReader;
+import plugin.javafxtools.service.websocket.SessionRecorder;
+import plugin.javafxtools.service.websocket.SessionReplayer;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 会话回放控制器 - 分析录制文件，并按原始时间/倍速/尽快回放到目标服务
+ */
+public class WsReplayController implements ModuleLogger {
+
+    private static final DateTimeFormatter START_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    @FXML
+    private TextField replayFileField;       // 录制文件
+    @FXML
+    private TextField replayUrlField;        // 回放目标
+    @FXML
+    private ComboBox<SessionReplayer.Mode> replayModeComboBox;
+    @FXML
+    private TextField replaySpeedField;      // 倍速
+    @FXML
+    private ComboBox<SessionReplayer.DirectionFilter> replayDirectionComboBox;
+    @FXML
+    private Button replayStartButton;
+    @FXML
+    private Button replayStopButton;
+    @FXML
+    private TextArea replayLogArea;
+
+    private volatile SessionReplayer replayer;
+
+    @Override
+    public TextArea getLogArea() {
+        return replayLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (replayLogArea != null && replayLogArea.getScene() != null) {
+                replayLogArea.appendText(formattedMessage);
+                replayLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        replayFileField.setPromptText("选择录制分段文件（*.wsrec），同一会话的后续分段自动读取");
+        replayUrlField.setText("ws://127.0.0.1:8787");
+        replayModeComboBox.getItems().addAll(SessionReplayer.Mode.values());
+        replayModeComboBox.setValue(SessionReplayer.Mode.ORIGINAL);
+        replayModeComboBox.valueProperty().addListener((obs, oldVal, newVal) ->
+                replaySpeedField.setDisable(newVal != SessionReplayer.Mode.SPEED));
+        replaySpeedField.setText("2");
+        replaySpeedField.setDisable(true);
+        replayDirectionComboBox.getItems().addAll(SessionReplayer.DirectionFilter.values());
+        replayDirectionComboBox.setValue(SessionReplayer.DirectionFilter.OUTGOING);
+        replayStopButton.setDisable(true);
+        replayLogArea.setPromptText("在\"客户端\"页点击\"开始录制\"后收发的消息会写入 ws_recordings 目录");
+        info("会话回放模块初始化完成");
+    }
+
+    /**
+     * 选择录制文件
+     */
+    @FXML
+    private void handleBrowse() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("选择录制文件");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("WebSocket录制", "*" + SessionRecorder.FILE_SUFFIX));
+        File dir = new File("ws_recordings");
+        if (dir.isDirectory()) {
+            chooser.setInitialDirectory(dir);
+        }
+        File file = chooser.showOpenDialog(replayFileField.getScene().getWindow());
+        if (file != null) {
+            replayFileField.setText(file.getAbsolutePath());
+            handleAnalyze();
+        }
+    }
+
+    /**
+     * 分析录制文件：记录数、方向分布、时长和每秒峰值
+     */
+    @FXML
+    private void handleAnalyze() {
+        Path session = sessionPath();
+        if (session == null) {
+            return;
+        }
+        new Thread(() -> {
+            long in = 0;
+            long out = 0;
+            long bytes = 0;
+            long first = -1;
+            long last = 0;
+            long second = -1;
+            long inSecond = 0;
+            long peak = 0;
+            try (SessionReader reader = new SessionReader(session)) {
+                while (reader.next()) {
+                    long nanos = reader.getNanos();
+                    if (first < 0) first = nanos;
+                    last = nanos;
+                    if (reader.getDirection() == SessionRecorder.DIRECTION_IN) in++; else out++;
+                    bytes += reader.getPayload().remaining();
+                    long s = nanos / 1_000_000_000L;
+                    if (s != second) {
+                        second = s;
+                        inSecond = 0;
+                    }
+                    peak = Math.max(peak, ++inSecond);
+                }
+                info(String.format("录制开始于 %s，%d 个分段；收到 %d 条，发出 %d 条，负载 %d 字节，时长 %s，每秒峰值 %d 条",
+                        START_FORMAT.format(Instant.ofEpochMilli(reader.getStartEpochMillis())),
+                        reader.getSegments().size(), in, out, bytes,
+                        first < 0 ? "0" : TimeUtils.formatDuration((last - first) / 1_000_000), peak));
+            } catch (Exception e) {
+                error("分析录制文件失败: " + e.getMessage());
+            }
+        }, "ws-replay-analyze").start();
+    }
+
+    /**
+     * 处理"开始回放"按钮点击事件
+     */
+    @FXML
+    private void handleReplayStart() {
+        Path session = sessionPath();
+        if (session == null) {
+            return;
+        }
+        URI target;
+        double speed;
+        try {
+            target = new URI(replayUrlField.getText().trim());
+            speed = Double.parseDouble(replaySpeedField.getText().trim());
+            if (speed <= 0) {
+                error("倍速必须大于0");
+                return;
+            }
+        } catch (URISyntaxException e) {
+            error("无效的WebSocket URL: " + e.getMessage());
+            return;
+        } catch (NumberFormatException e) {
+            error("请输入有效的倍速");
+            return;
+        }
+        SessionReplayer.Mode mode = replayModeComboBox.getValue();
+        SessionReplayer.DirectionFilter filter = replayDirectionComboBox.getValue();
+
+        SessionReplayer r = new SessionReplayer();
+        replayer = r;
+        setRunning(true);
+        Thread thread = new Thread(() -> {
+            try {
+                r.run(target, session, mode, speed, filter, this::info);
+            } catch (Exception e) {
+                error("回放失败: " + e.getMessage());
+            } finally {
+                replayer = null;
+                Platform.runLater(() -> setRunning(false));
+            }
+        }, "ws-replay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleReplayStop() {
+        SessionReplayer r = replayer;
+        if (r != null) {
+            r.cancel();
+        }
+    }
+
+    private Path sessionPath() {
+        String file = replayFileField.getText().trim();
+        if (file.isEmpty()) {
+            error("请选择录制文件");
+            return null;
+        }
+        Path path = Path.of(file);
+        if (!Files.isRegularFile(path)) {
+            error("录制文件不存在: " + file);
+            return null;
+        }
+        return path;
+    }
+
+    private void setRunning(boolean running) {
+        replayStartButton.setDisable(running);
+        replayStopButton.setDisable(!running);
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (replayLogArea != null) {
+                replayLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        SessionReplayer r = replayer;
+        if (r != null) {
+            r.cancel();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package plugin.javafxtools.controller;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.websocket.MessageWriter;
+import plugin.javafxtools.service.websocket.SequenceRunner;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 消息序列控制器 - 编辑、保存并执行WebSocket发送脚本（登录、订阅、周期消息、等待响应）
+ */
+public class WsSequenceController implements ModuleLogger {
+
+    static final String SEQUENCE_FILE = "ws_sequences.json";
+    private static final String EXAMPLE_SCRIPT = "# 每行一条命令，'#' 开头为注释\n"
+            + "send {\"op\":\"login\",\"id\":\"${uuid}\"}\n"
+            + "expect \"login\" 5000\n"
+            + "send {\"op\":\"subscribe\",\"channel\":\"ticker\"}\n"
+            + "wait 500\n"
+            + "# 每100毫秒发送一次，共50次（次数为0表示直到停止）\n"
+            + "every 100 50 {\"op\":\"ping\",\"seq\":${counter},\"ts\":${timestamp}}";
+
+    @FXML
+    private ComboBox<String> sequenceComboBox;   // 已保存的序列，可编辑输入名称
+    @FXML
+    private TextArea sequenceScriptArea;
+    @FXML
+    private Button sequenceRunButton;
+    @FXML
+    private Button sequenceStopButton;
+    @FXML
+    private Label sequenceStatusLabel;           // 发送队列统计
+    @FXML
+    private TextArea sequenceLogArea;
+
+    private final Map<String, String> sequences = new TreeMap<>();
+    private MessageWriter writer;
+    private volatile SequenceRunner runner;
+    private Timeline statsTimeline;
+
+    @Override
+    public TextArea getLogArea() {
+        return sequenceLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (sequenceLogArea != null && sequenceLogArea.getScene() != null) {
+                sequenceLogArea.appendText(formattedMessage);
+                sequenceLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        sequenceScriptArea.setText(EXAMPLE_SCRIPT);
+        sequenceStopButton.setDisable(true);
+        loadSequences();
+        updateSequenceComboBox();
+
+        statsTimeline = new Timeline(new KeyFrame(Duration.millis(500), e -> updateStats()));
+        statsTimeline.setCycleCount(Timeline.INDEFINITE);
+        statsTimeline.play();
+        info("消息序列模块初始化完成");
+    }
+
+    /**
+     * 设置发送器，由WebSocket主控制器在初始化时调用
+     */
+    public void setWriter(MessageWriter writer) {
+        this.writer = writer;
+        updateStats();
+    }
+
+    /**
+     * 收到一条文本消息（在WebSocket接收线程调用），转给执行中的序列做 expect 匹配
+     */
+    public void onText(String message) {
+        SequenceRunner r = runner;
+        if (r != null) {
+            r.onIncoming(message);
+        }
+    }
+
+    /**
+     * 处理"执行"按钮点击事件
+     */
+    @FXML
+    private void handleRun() {
+        if (writer == null || runner != null) {
+            return;
+        }
+        SequenceRunner r;
+        try {
+            r = new SequenceRunner(sequenceScriptArea.getText());
+        } catch (IllegalArgumentException e) {
+            error("脚本错误: " + e.getMessage());
+            return;
+        }
+        runner = r;
+        setRunning(true);
+        info("开始执行序列，共 " + r.getStepCount() + " 条命令");
+        Thread thread = new Thread(() -> {
+            try {
+                r.run(writer, this::info);
+            } catch (Exception e) {
+                error("序列执行失败: " + e.getMessage());
+            } finally {
+                runner = null;
+                Platform.runLater(() -> setRunning(false));
+            }
+        }, "ws-sequence");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleStop() {
+        SequenceRunner r = runner;
+        if (r != null) {
+            r.cancel();
+        }
+    }
+
+    private void setRunning(boolean running) {
+        sequenceRunButton.setDisable(running);
+        sequenceStopButton.setDisable(!running);
+    }
+
+    private void updateStats() {
+        MessageWriter w = writer;
+        if (w == null) {
+            return;
+        }
+        sequenceStatusLabel.setText(String.format("已发送 %d，批次 %d，排队 %d，丢弃(未连接) %d",
+                w.getSent(), w.getBatches(), w.getBacklog(), w.getDropped()));
+    }
+
+    /**
+     * 保存序列按钮
+     */
+    @FXML
+    private void handleSaveSequence() {
+        String name = sequenceComboBox.getEditor().getText().trim();
+        if (name.isEmpty()) {
+            error("请输入序列名称");
+            return;
+        }
+        sequences.put(name, sequenceScriptArea.getText());
+        saveSequences();
+        updateSequenceComboBox();
+        info("已保存序列: " + name);
+    }
+
+    /**
+     * 加载序列按钮
+     */
+    @FXML
+    private void handleLoadSequence() {
+        String name = sequenceComboBox.getValue();
+        if (name == null || !sequences.containsKey(name)) {
+            error("请选择要加载的序列");
+            return;
+        }
+        sequenceScriptArea.setText(sequences.get(name));
+        info("已载入序列: " + name);
+    }
+
+    /**
+     * 删除序列按钮
+     */
+    @FXML
+    private void handleDeleteSequence() {
+        String name = sequenceComboBox.getValue();
+        if (name == null || !sequences.containsKey(name)) {
+            error("请选择要删除的序列");
+            return;
+        }
+        sequences.remove(name);
+        saveSequences();
+        updateSequenceComboBox();
+        info("已删除序列: " + name);
+    }
+
+    /**
+     * 保存序列到本地文件
+     */
+    private void saveSequences() {
+        try (Writer fileWriter = new FileWriter(SEQUENCE_FILE)) {
+            new Gson().toJson(sequences, fileWriter);
+        } catch (Exception e) {
+            error("保存序列失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 从本地加载序列
+     */
+    private void loadSequences() {
+        sequences.clear();
+        File file = new File(SEQUENCE_FILE);
+        if (!file.exists()) return;
+        try (Reader reader = new FileReader(file)) {
+            Map<String, String> map = new Gson().fromJson(reader,
+                    new TypeToken<Map<String, String>>(){}.getType());
+            if (map != null) sequences.putAll(map);
+        } catch (Exception e) {
+            error("加载序列失败: " + e.getMessage());
+        }
+    }
+
+    private void updateSequenceComboBox() {
+        sequenceComboBox.getItems().setAll(sequences.keySet());
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (sequenceLogArea != null) {
+                sequenceLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        handleStop();
+        if (statsTimeline != null) {
+            statsTimeline.stop();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package plugin.javafxtools.controller;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import plugin.javafxtools.base.ModuleLogger;
+import plugin.javafxtools.service.websocket.EmbeddedWsServer;
+import plugin.javafxtools.util.TimeUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * 内嵌WebSocket服务端控制器 - 在本机启动回显/广播/合成推送服务，配合客户端和压力测试离线使用
+ */
+public class WsServerController implements ModuleLogger {
+
+    @FXML
+    private TextField serverHostField;       // 监听地址
+    @FXML
+    private TextField serverPortField;       // 监听端口
+    @FXML
+    private ComboBox<EmbeddedWsServer.InboundMode> serverModeComboBox; // 入站消息处理
+    @FXML
+    private TextField feedRateField;         // 推送速率
+    @FXML
+    private TextField feedPayloadField;      // 推送填充字节数
+    @FXML
+    private Button serverStartButton;
+    @FXML
+    private Button serverStopButton;
+    @FXML
+    private Label serverStatsLabel;          // 连接数与收发速率
+    @FXML
+    private TextArea serverLogArea;
+
+    private EmbeddedWsServer server;
+    private Timeline statsTimeline;
+    private long lastReceived;
+    private long lastSent;
+    private long lastStatsNanos;
+
+    @Override
+    public TextArea getLogArea() {
+        return serverLogArea;
+    }
+
+    /**
+     * 自定义日志方法 - 只输出到本模块日志区
+     */
+    @Override
+    public void log(String level, String message) {
+        String formattedMessage = String.format("\n" + "[%s][%s] %s",
+                TimeUtils.getCurrentDateTime(), level, message);
+        Platform.runLater(() -> {
+            if (serverLogArea != null && serverLogArea.getScene() != null) {
+                serverLogArea.appendText(formattedMessage);
+                serverLogArea.setScrollTop(Double.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * 初始化方法 - 由JavaFX自动调用
+     */
+    @FXML
+    public void initialize() {
+        server = new EmbeddedWsServer(this::info);
+        serverHostField.setText("127.0.0.1");
+        serverPortField.setText("8787");
+        serverModeComboBox.getItems().addAll(EmbeddedWsServer.InboundMode.values());
+        serverModeComboBox.setValue(EmbeddedWsServer.InboundMode.ECHO);
+        // 运行中也可切换入站处理方式
+        serverModeComboBox.valueProperty().addListener((obs, oldVal, newVal) -> server.setInboundMode(newVal));
+        feedRateField.setText("0");
+        feedPayloadField.setText("64");
+        serverStopButton.setDisable(true);
+        serverStatsLabel.setText("未启动");
+
+        statsTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateStats()));
+        statsTimeline.setCycleCount(Timeline.INDEFINITE);
+
+        serverLogArea.setPromptText("测扇出延迟：推送速率设为大于0，在\"压力测试\"页连接本服务并把发送速率设为0，"
+                + "延迟按 FEED|序号|时间戳 计算");
+        info("内嵌WebSocket服务端模块初始化完成");
+    }
+
+    /**
+     * 处理"启动"按钮点击事件
+     */
+    @FXML
+    private void handleServerStart() {
+        String host = serverHostField.getText().trim();
+        int port;
+        double rate;
+        int payload;
+        try {
+            port = Integer.parseInt(serverPortField.getText().trim());
+            rate = Double.parseDouble(feedRateField.getText().trim());
+            payload = Integer.parseInt(feedPayloadField.getText().trim());
+            if (port < 1 || port > 65535 || rate < 0 || rate > 100_000 || payload < 0) {
+                error("参数超出范围：端口1-65535，推送速率0-100000条/秒，填充≥0");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            error("请输入有效的端口、推送速率和填充字节数");
+            return;
+        }
+        if (host.isEmpty()) {
+            error("请输入监听地址");
+            return;
+        }
+
+        try {
+            server.start(new InetSocketAddress(host, port), serverModeComboBox.getValue(), rate, payload);
+        } catch (IOException e) {
+            error("启动内嵌服务端失败: " + e.getMessage());
+            return;
+        }
+        lastReceived = 0;
+        lastSent = 0;
+        lastStatsNanos = System.nanoTime();
+        statsTimeline.play();
+        setRunning(true);
+        info(String.format("入站消息: %s，合成推送: %s", serverModeComboBox.getValue(),
+                rate > 0 ? String.format("%.1f 条/秒，填充 %d 字节", rate, payload) : "关闭"));
+    }
+
+    /**
+     * 处理"停止"按钮点击事件
+     */
+    @FXML
+    private void handleServerStop() {
+        server.stop();
+        statsTimeline.stop();
+        updateStats();
+        setRunning(false);
+        info(String.format("内嵌服务端已停止: 共收到 %d 条，发出 %d 条，推送跳过 %d 条",
+                server.getReceived(), server.getSent(), server.getFeedSkipped()));
+    }
+
+    private void updateStats() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastStatsNanos) / 1e9);
+        long received = server.getReceived();
+        long sent = server.getSent();
+        serverStatsLabel.setText(String.format("连接 %d | 收 %.0f 条/秒 | 发 %.0f 条/秒 | 累计收 %d 发 %d | 推送跳过 %d",
+                server.getConnectionCount(), (received - lastReceived) / seconds, (sent - lastSent) / seconds,
+                received, sent, server.getFeedSkipped()));
+        lastReceived = received;
+        lastSent = sent;
+        lastStatsNanos = now;
+    }
+
+    private void setRunning(boolean running) {
+        serverStartButton.setDisable(running);
+        serverStopButton.setDisable(!running);
+        serverHostField.setDisable(running);
+        serverPortField.setDisable(running);
+        feedRateField.setDisable(running);
+        feedPayloadField.setDisable(running);
+    }
+
+    /**
+     * 清空日志按钮
+     */
+    @FXML
+    private void handleClearLog() {
+        Platform.runLater(() -> {
+            if (serverLogArea != null) {
+                serverLogArea.clear();
+            }
+        });
+    }
+
+    /**
+     * 清理资源
+     */
+    public void cleanup() {
+        if (server != null) {
+            server.stop();
+        }
+        if (statsTimeline != null) {
+            statsTimeline.stop();
+        }
+    }
+}
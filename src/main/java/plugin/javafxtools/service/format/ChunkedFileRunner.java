@@ -0,0 +1,175 @@
+package plugin.javafxtools.service.format;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+
+/**
+ * 文件分块并行处理 - 调用方决定块边界，各块在ForkJoin线程池中并行处理，结果按原顺序交给合并方
+ * <p>
+ * 同一时刻只有约两倍线程数的块在处理或等待合并，内存占用与文件大小无关。块以 {@link CompletableFuture}
+ * 提交，合并时拿到的是工作线程抛出的原异常，而不是ForkJoinTask跨线程重建的副本。
+ * 块内的无效行按块内行号（从0开始）记录，合并时用 {@link #rebase} 换算为全局行号。
+ */
+final class ChunkedFileRunner {
+
+    static final int CHUNK_BYTES = 4 * 1024 * 1024;
+    static final int MAX_ERRORS = 1000;         // 最多保留的错误明细数，计数不受限
+
+    /**
+     * 块边界：返回从start开始的块的结束位置
+     */
+    @FunctionalInterface
+    interface Boundary {
+        long next(long start) throws IOException;
+    }
+
+    /**
+     * 处理一块，在工作线程调用
+     */
+    @FunctionalInterface
+    interface Worker<R> {
+        R process(long start, long end) throws IOException;
+    }
+
+    /**
+     * 合并一块的结果，按块的原顺序在调用线程调用；end为该块的结束位置，可作为进度
+     */
+    @FunctionalInterface
+    interface Merger<R> {
+        void merge(R result, long end) throws IOException;
+    }
+
+    private record Chunk<R>(Future<R> future, long end) {
+    }
+
+    private ChunkedFileRunner() {
+    }
+
+    /**
+     * 从start开始切块处理，直到limit返回的位置（limit可在切块过程中变化，如扫描到顶层数组的结尾）
+     *
+     * @return 块数
+     */
+    static <R> int run(int parallelism, long start, LongSupplier limit, Boundary boundary,
+                       Worker<R> worker, Merger<R> merger) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        int chunks = 0;
+        try {
+            Deque<Chunk<R>> window = new ArrayDeque<>();
+            while (start < limit.getAsLong()) {
+                long chunkStart = start;
+                long chunkEnd = boundary.next(start);
+                window.add(new Chunk<>(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return worker.process(chunkStart, chunkEnd);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, pool), chunkEnd));
+                chunks++;
+                start = chunkEnd;
+                if (window.size() >= parallelism * 2) {
+                    merge(window.poll(), merger);
+                }
+            }
+            while (!window.isEmpty()) {
+                merge(window.poll(), merger);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return chunks;
+    }
+
+    private static <R> void merge(Chunk<R> chunk, Merger<R> merger) throws IOException {
+        R result;
+        try {
+            result = chunk.future().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("处理已中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+        merger.merge(result, chunk.end());
+    }
+
+    /**
+     * 按行切块的结束位置：从start向后约CHUNK_BYTES处的下一个换行之后
+     */
+    static long lineChunkEnd(FileChannel channel, long start, long size) throws IOException {
+        long pos = start + CHUNK_BYTES;
+        if (pos >= size) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (pos < size) {
+            buffer.clear();
+            int n = channel.read(buffer, pos);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    /**
+     * 把文件从position开始的length个字节读入bytes[offset]
+     */
+    static void read(FileChannel channel, long position, byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - offset) < 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 把一块的错误按全局行号加入target，baseLines为之前各块的总行数
+     */
+    static void rebase(List<LineError> chunkErrors, long baseLines, List<LineError> target) {
+        for (LineError error : chunkErrors) {
+            if (target.size() >= MAX_ERRORS) {
+                return;
+            }
+            target.add(new LineError(baseLines + error.getLine() + 1, error.getMessage()));
+        }
+    }
+
+    /**
+     * 异常信息的第一行（Jackson的信息带有多行源码位置）
+     */
+    static String firstLine(IOException e) {
+        String message = e.getMessage();
+        int newline = message == null ? -1 : message.indexOf('\n');
+        return newline > 0 ? message.substring(0, newline) : message;
+    }
+}
@@ -0,0 +1,362 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV读写（RFC 4180）- 基于jackson-dataformat-csv的 {@link CsvParser} 和 {@link CsvGenerator}
+ * <p>
+ * 每条记录写一行，嵌套对象展开为 {@code a.b} 列，数组以JSON文本写入单元格；
+ * 表头取自第一条记录，之后出现的新字段无法追加列，只计数。读取时按表头的点号路径还原嵌套对象，
+ * 以 [ 或 { 开头且能解析的单元格还原为JSON值；其余单元格按字面量推断类型：空为null，true/false，数字，其它为字符串
+ * （解析器不区分是否加了引号，看起来像数字、布尔的字符串读回后类型会变，空字符串读回为null）。
+ * 多列文件中的空行被跳过；只有一列时空行就是一条值为null的记录。
+ */
+final class CsvCodec {
+
+    private static final CsvFactory FACTORY = new CsvFactory();
+
+    private CsvCodec() {
+    }
+
+    static void read(Reader in, TokenSink sink) throws IOException {
+        try (CsvParser parser = FACTORY.createParser(in)) {
+            parser.setSchema(CsvSchema.emptySchema());     // 没有列定义时每行是一个数组
+            List<String> header = new ArrayList<>();
+            if (!nextRow(parser, header)) {
+                return;
+            }
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+            Column root = new Column(null);
+            for (int i = 0; i < header.size(); i++) {
+                Column column = root;
+                for (String name : header.get(i).split("\\.", -1)) {
+                    column = column.child(name);
+                }
+                column.index = i;
+            }
+            EventBuffer cellBuffer = new EventBuffer();
+            List<String> row = new ArrayList<>();
+            while (nextRow(parser, row)) {
+                if (row.size() == 1 && row.get(0).isEmpty() && header.size() > 1) {
+                    continue;   // 空行；只有一列时空行是null或空对象记录写出的空单元格，不能跳过
+                }
+                if (row.size() > header.size()) {
+                    throw new IOException("第" + parser.getCurrentLocation().getLineNr() + "行: 列数 " + row.size()
+                            + " 多于表头的 " + header.size() + " 列");
+                }
+                writeObject(root, row, sink, cellBuffer);
+            }
+        }
+    }
+
+    /**
+     * 读取下一行的单元格到 row，没有更多行时返回false
+     */
+    private static boolean nextRow(CsvParser parser, List<String> row) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        row.clear();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("第" + parser.getCurrentLocation().getLineNr() + "行: 记录不完整");
+            }
+            row.add(parser.getText());
+        }
+        return true;
+    }
+
+    /**
+     * 表头按点号路径还原成的字段树，只在读表头时构建一次
+     */
+    private static final class Column {
+        final String name;
+        int index = -1;
+        List<Column> children;
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        Column child(String childName) {
+            if (children == null) {
+                children = new ArrayList<>();
+            }
+            for (Column child : children) {
+                if (child.name.equals(childName)) {
+                    return child;
+                }
+            }
+            Column child = new Column(childName);
+            children.add(child);
+            return child;
+        }
+    }
+
+    private static void writeObject(Column column, List<String> row, TokenSink sink, EventBuffer cellBuffer)
+            throws IOException {
+        sink.startObject();
+        for (Column child : column.children) {
+            sink.field(child.name);
+            if (child.children != null) {
+                writeObject(child, row, sink, cellBuffer);
+            } else if (child.index < row.size()) {
+                writeCell(row.get(child.index), sink, cellBuffer);
+            } else {
+                sink.nullValue();
+            }
+        }
+        sink.endObject();
+    }
+
+    private static void writeCell(String text, TokenSink sink, EventBuffer cellBuffer) throws IOException {
+        if (!text.isEmpty() && (text.charAt(0) == '[' || text.charAt(0) == '{') && parseJson(text, cellBuffer)) {
+            cellBuffer.replay(sink);
+        } else if (text.isEmpty()) {
+            sink.nullValue();
+        } else if (text.equals("true") || text.equals("false")) {
+            sink.bool(text.equals("true"));
+        } else if (JsonCodec.isNumber(text)) {
+            sink.number(text);
+        } else {
+            sink.string(text);
+        }
+    }
+
+    private static boolean parseJson(String text, EventBuffer buffer) {
+        buffer.clear();
+        try {
+            JsonCodec.read(text, buffer);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static Sink writer(Writer out) {
+        return new Sink(out);
+    }
+
+    /**
+     * CSV写出：逐条收集展开后的单元格，记录结束时写一行；表头在第一条记录结束时确定并建立生成器
+     */
+    static final class Sink implements TokenSink {
+        private final Writer out;
+        private final JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        /** 记录内每层打开的对象当前字段的完整列名（a、a.b …） */
+        private final List<String> path = new ArrayList<>();
+        /** 第一条记录展开后的单元格，用来确定表头 */
+        private final Map<String, String> record = new LinkedHashMap<>();
+        /** 表头确定后按列序号收集单元格，避免每条记录重建映射 */
+        private Map<String, Integer> columnIndex;
+        private String[] cells;
+        private CsvGenerator generator;
+        private StringBuilder json;     // 记录内数组的JSON文本
+        private int jsonDepth;
+        private boolean jsonNeedComma;
+        private long droppedFields;
+        private long rows;
+
+        Sink(Writer out) {
+            this.out = out;
+        }
+
+        /**
+         * 第一条记录之后出现、表头里没有而被丢弃的字段数
+         */
+        long getDroppedFields() {
+            return droppedFields;
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        private boolean atRecordLevel() {
+            return path.isEmpty();
+        }
+
+        private String currentKey() {
+            if (path.isEmpty()) {
+                return "value";     // 记录本身是标量
+            }
+            return path.get(path.size() - 1);
+        }
+
+        private void cell(String text) throws IOException {
+            String key = currentKey();
+            if (columnIndex == null) {
+                record.put(key, text);
+            } else {
+                Integer index = columnIndex.get(key);
+                if (index == null) {
+                    droppedFields++;
+                } else {
+                    cells[index] = text;
+                }
+            }
+            if (atRecordLevel()) {
+                endRecord();
+            }
+        }
+
+        private void jsonValue(String text) {
+            if (jsonNeedComma) {
+                json.append(',');
+            }
+            json.append(text);
+            jsonNeedComma = true;
+        }
+
+        @Override
+        public void startObject() {
+            if (json != null) {
+                jsonValue("{");
+                jsonDepth++;
+                jsonNeedComma = false;
+                return;
+            }
+            path.add(null);
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            if (json != null) {
+                json.append('}');
+                jsonDepth--;
+                jsonNeedComma = true;
+                return;
+            }
+            path.remove(path.size() - 1);
+            if (atRecordLevel()) {
+                endRecord();
+            }
+        }
+
+        @Override
+        public void startArray() {
+            if (json != null) {
+                jsonValue("[");
+                jsonDepth++;
+                jsonNeedComma = false;
+                return;
+            }
+            json = new StringBuilder("[");
+            jsonDepth = 1;
+            jsonNeedComma = false;
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            json.append(']');
+            jsonNeedComma = true;
+            if (--jsonDepth == 0) {
+                String text = json.toString();
+                json = null;
+                cell(text);
+            }
+        }
+
+        @Override
+        public void field(String name) {
+            if (json != null) {
+                if (jsonNeedComma) {
+                    json.append(',');
+                }
+                json.append('"').append(encoder.quoteAsString(name)).append("\":");
+                jsonNeedComma = false;
+                return;
+            }
+            int level = path.size() - 1;
+            path.set(level, level == 0 ? name : path.get(level - 1) + "." + name);
+        }
+
+        @Override
+        public void string(String value) throws IOException {
+            if (json != null) {
+                jsonValue("\"" + new String(encoder.quoteAsString(value)) + "\"");
+                return;
+            }
+            cell(value);
+        }
+
+        @Override
+        public void number(String text) throws IOException {
+            if (json != null) {
+                jsonValue(text);
+                return;
+            }
+            cell(text);
+        }
+
+        @Override
+        public void bool(boolean value) throws IOException {
+            if (json != null) {
+                jsonValue(String.valueOf(value));
+                return;
+            }
+            cell(String.valueOf(value));
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            if (json != null) {
+                jsonValue("null");
+                return;
+            }
+            cell(null);
+        }
+
+        private void endRecord() throws IOException {
+            if (columnIndex == null) {
+                columnIndex = new HashMap<>();
+                cells = new String[record.size()];
+                CsvSchema.Builder schema = CsvSchema.builder()
+                        .setUseHeader(true)
+                        .setLineSeparator("\r\n");
+                for (Map.Entry<String, String> entry : record.entrySet()) {
+                    int index = columnIndex.size();
+                    schema.addColumn(entry.getKey());
+                    columnIndex.put(entry.getKey(), index);
+                    cells[index] = entry.getValue();
+                }
+                record.clear();
+                generator = FACTORY.createGenerator(out);
+                generator.setSchema(schema.build());
+            }
+            generator.writeStartArray();
+            for (String cell : cells) {
+                generator.writeString(cell == null ? "" : cell);   // 数组行中的writeNull会被挪到行尾，null写为空单元格
+            }
+            generator.writeEndArray();
+            Arrays.fill(cells, null);
+            rows++;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (generator != null) {
+                generator.flush();
+            }
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package plugin.javafxtools.service.format;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在内存中暂存一段记号流，稍后按原顺序重放
+ */
+final class EventBuffer implements TokenSink {
+
+    private static final byte START_OBJECT = 0;
+    private static final byte END_OBJECT = 1;
+    private static final byte START_ARRAY = 2;
+    private static final byte END_ARRAY = 3;
+    private static final byte FIELD = 4;
+    private static final byte STRING = 5;
+    private static final byte NUMBER = 6;
+    private static final byte TRUE = 7;
+    private static final byte FALSE = 8;
+    private static final byte NULL = 9;
+
+    private byte[] types = new byte[16];
+    private final List<String> texts = new ArrayList<>();
+    private int size;
+
+    private void add(byte type) {
+        if (size == types.length) {
+            types = java.util.Arrays.copyOf(types, size * 2);
+        }
+        types[size++] = type;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 暂存的记号数
+     */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+        texts.clear();
+    }
+
+    /**
+     * 把暂存的记号依次写入另一个接收方
+     */
+    void replay(TokenSink sink) throws IOException {
+        int text = 0;
+        for (int i = 0; i < size; i++) {
+            switch (types[i]) {
+                case START_OBJECT -> sink.startObject();
+                case END_OBJECT -> sink.endObject();
+                case START_ARRAY -> sink.startArray();
+                case END_ARRAY -> sink.endArray();
+                case FIELD -> sink.field(texts.get(text++));
+                case STRING -> sink.string(texts.get(text++));
+                case NUMBER -> sink.number(texts.get(text++));
+                case TRUE -> sink.bool(true);
+                case FALSE -> sink.bool(false);
+                default -> sink.nullValue();
+            }
+        }
+    }
+
+    @Override
+    public void startObject() {
+        add(START_OBJECT);
+    }
+
+    @Override
+    public void endObject() {
+        add(END_OBJECT);
+    }
+
+    @Override
+    public void startArray() {
+        add(START_ARRAY);
+    }
+
+    @Override
+    public void endArray() {
+        add(END_ARRAY);
+    }
+
+    @Override
+    public void field(String name) {
+        add(FIELD);
+        texts.add(name);
+    }
+
+    @Override
+    public void string(String value) {
+        add(STRING);
+        texts.add(value);
+    }
+
+    @Override
+    public void number(String text) {
+        add(NUMBER);
+        texts.add(text);
+    }
+
+    @Override
+    public void bool(boolean value) {
+        add(value ? TRUE : FALSE);
+    }
+
+    @Override
+    public void nullValue() {
+        add(NULL);
+    }
+}
@@ -0,0 +1,38 @@
+package plugin.javafxtools.service.format;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * 文件格式化器 - 流式读取输入文件并写出格式化结果，输入可大于堆内存
+ */
+public interface FileFormatter {
+
+    /**
+     * 格式化文件（阻塞直到完成，应在后台线程调用）。失败或取消时删除不完整的输出文件
+     *
+     * @throws IOException           读写失败或语法错误
+     * @throws CancellationException 已取消
+     */
+    void format(Path source, Path target) throws IOException;
+
+    /**
+     * 设置进度监听，格式化过程中定期以已消费的输入量（文件为字节数，字符串为字符数）回调；
+     * 监听抛出 {@link CancellationException} 时终止格式化
+     */
+    void setProgressListener(LongConsumer listener);
+
+    /**
+     * 已读取的输入字节数，可在其他线程读取
+     */
+    long getBytesRead();
+
+    /**
+     * 输出文件字节数，完成后有效
+     */
+    long getBytesWritten();
+
+    void cancel();
+}
@@ -0,0 +1,689 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * 流式格式转换 - 在JSON、NDJSON、CSV、YAML、XML和二进制的CBOR、Smile之间转换
+ * <p>
+ * 各格式的解析器和生成器来自Jackson（jackson-core和jackson-dataformat-cbor/smile/yaml/csv/xml），
+ * 通过同一套记号流（{@link TokenSink}）对接：解析器边读边产生记号，生成器边接收边输出，
+ * 不构建对象树，内存占用与数据大小无关（CSV每次只保留一条记录，XML只暂存判断数组所需的单个元素）。
+ * NDJSON和CSV是按记录组织的格式：由文档格式写出时顶层数组的每个元素为一条记录；转换为文档格式时，记录合并为一个数组；
+ * 记录格式之间转换时记录原样对应。
+ */
+public class FormatConverter {
+
+    private static final int CHECK_INTERVAL = 4096;    // 每处理这么多记号检查一次取消并回调进度
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+    /**
+     * 支持的数据格式
+     */
+    public enum Format {
+        JSON("JSON", "json", false, false),
+        NDJSON("NDJSON", "ndjson", false, true),
+        CSV("CSV", "csv", false, true),
+        YAML("YAML", "yaml", false, false),
+        XML("XML", "xml", false, false),
+        CBOR("CBOR", "cbor", true, false),
+        SMILE("Smile", "sml", true, false);
+
+        private final String displayName;
+        private final String extension;
+        private final boolean binary;
+        private final boolean recordOriented;
+
+        Format(String displayName, String extension, boolean binary, boolean recordOriented) {
+            this.displayName = displayName;
+            this.extension = extension;
+            this.binary = binary;
+            this.recordOriented = recordOriented;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 常用的文件扩展名（不含点）
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        public boolean isBinary() {
+            return binary;
+        }
+
+        /**
+         * 按记录组织（每行/每条一个值）
+         */
+        public boolean isRecordOriented() {
+            return recordOriented;
+        }
+
+        /**
+         * 按文件扩展名识别格式，无法识别时返回null
+         */
+        public static Format fromFileName(String fileName) {
+            int dot = fileName.lastIndexOf('.');
+            if (dot < 0) {
+                return null;
+            }
+            String extension = fileName.substring(dot + 1).toLowerCase();
+            return switch (extension) {
+                case "json" -> JSON;
+                case "ndjson", "jsonl" -> NDJSON;
+                case "csv" -> CSV;
+                case "yaml", "yml" -> YAML;
+                case "xml" -> XML;
+                case "cbor" -> CBOR;
+                case "sml", "smile" -> SMILE;
+                default -> null;
+            };
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 一次转换的统计
+     */
+    public static final class Result {
+        private long tokens;
+        private long inputBytes;
+        private long outputBytes;
+        private long droppedFields;
+        private long elapsedNanos;
+
+        public long getTokens() {
+            return tokens;
+        }
+
+        public long getInputBytes() {
+            return inputBytes;
+        }
+
+        public long getOutputBytes() {
+            return outputBytes;
+        }
+
+        /**
+         * 写CSV时表头之外被丢弃的字段数
+         */
+        public long getDroppedFields() {
+            return droppedFields;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public String summary() {
+            return String.format("%d 个记号，读取 %d 字节，写出 %d 字节，耗时 %.2f 秒，%.1f MB/s",
+                    tokens, inputBytes, outputBytes, elapsedNanos / 1e9,
+                    inputBytes / 1048576.0 / Math.max(elapsedNanos / 1e9, 1e-6));
+        }
+    }
+
+    /**
+     * 格式对比报告中的一行
+     */
+    public static final class FormatStats {
+        private final Format format;
+        private long size;
+        private long encodeNanos;
+        private long decodeNanos;
+        private boolean roundTrip;
+        private String error;
+
+        FormatStats(Format format) {
+            this.format = format;
+        }
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getEncodeNanos() {
+            return encodeNanos;
+        }
+
+        public long getDecodeNanos() {
+            return decodeNanos;
+        }
+
+        /**
+         * 读回后与原数据的记号流完全一致
+         */
+        public boolean isRoundTrip() {
+            return roundTrip;
+        }
+
+        /**
+         * 转换失败时的原因，成功为null
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    private LongConsumer progressListener;
+    private volatile boolean cancelled;
+
+    /**
+     * 以已读取的输入字节数回调进度，可在回调中抛出取消异常终止
+     */
+    public void setProgressListener(LongConsumer listener) {
+        this.progressListener = listener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 转换一个流（阻塞，应在后台线程调用），不关闭输入输出
+     */
+    public Result convert(InputStream in, Format from, OutputStream out, Format to) throws IOException {
+        Result result = new Result();
+        long begin = System.nanoTime();
+        CountingInputStream input = new CountingInputStream(in);
+        CountingOutputStream output = new CountingOutputStream(out);
+        OutputStream buffered = new BufferedOutputStream(output, 65536);
+        TokenSink target = writer(to, buffered);
+        result.tokens = transfer(input, from, to, target);
+        target.finish();
+        buffered.flush();
+        result.inputBytes = input.count;
+        result.outputBytes = output.count;
+        if (target instanceof CsvCodec.Sink csv) {
+            result.droppedFields = csv.getDroppedFields();
+        }
+        result.elapsedNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    public Result convert(Path source, Format from, Path target, Format to) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = Files.newOutputStream(target)) {
+            return convert(in, from, out, to);
+        }
+    }
+
+    /**
+     * 文本输入的转换，二进制格式不能作为文本来源
+     */
+    public Result convert(String text, Format from, OutputStream out, Format to) throws IOException {
+        if (from.isBinary()) {
+            throw new IllegalArgumentException(from + " 是二进制格式，请使用文件模式转换");
+        }
+        return convert(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), from, out, to);
+    }
+
+    /**
+     * 把来源依次转换为每种格式，统计输出大小、编码/解码耗时，并检查读回后是否与原数据一致（阻塞）
+     * <p>
+     * 每种格式写入一个临时文件再读回，完成后删除；编码耗时已扣除解析来源本身的时间。
+     *
+     * @param source  来源文件
+     * @param from    来源格式
+     * @param formats 参与对比的格式
+     */
+    public List<FormatStats> compare(Path source, Format from, List<Format> formats) throws IOException {
+        List<FormatStats> stats = new ArrayList<>();
+        byte[] sameShape = null;        // 目标与来源同为（或同不为）记录格式时的期望摘要
+        byte[] otherShape = null;       // 需要合并记录或展开顶层数组时的期望摘要
+        long parseNanos = Math.min(timeRead(source, from), timeRead(source, from));    // 前几遍兼作预热
+        for (Format format : formats) {
+            FormatStats stat = new FormatStats(format);
+            stats.add(stat);
+            Path temp = Files.createTempFile("convert-", "." + format.getExtension());
+            try {
+                long begin = System.nanoTime();
+                Result result = convert(source, from, temp, format);
+                stat.encodeNanos = Math.max(0, System.nanoTime() - begin - parseNanos);
+                stat.size = result.getOutputBytes();
+                stat.decodeNanos = timeRead(temp, format);
+                boolean reshaped = format.isRecordOriented() != from.isRecordOriented();
+                if (reshaped && otherShape == null) {
+                    otherShape = digest(source, from, format);
+                } else if (!reshaped && sameShape == null) {
+                    sameShape = digest(source, from, format);
+                }
+                stat.roundTrip = Arrays.equals(reshaped ? otherShape : sameShape, digest(temp, format, format));
+            } catch (IOException | IllegalArgumentException e) {
+                stat.error = e.getMessage();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 解析文件到空接收方所用的时间
+     */
+    private long timeRead(Path file, Format format) throws IOException {
+        long begin = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file)) {
+            CountingInputStream input = new CountingInputStream(in);
+            read(format, input, new CheckingSink(DiscardSink.INSTANCE, input));
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * 按convert的规则读取来源交给接收方，返回记号数
+     * <p>
+     * 记录格式转为文档格式时把所有记录合并为一个数组；文档格式转为记录格式时展开顶层数组，每个元素为一条记录。
+     */
+    private long transfer(CountingInputStream input, Format from, Format to, TokenSink target) throws IOException {
+        boolean wrap = from.isRecordOriented() && !to.isRecordOriented();
+        boolean unwrap = to.isRecordOriented() && !from.isRecordOriented();
+        CheckingSink sink = new CheckingSink(unwrap ? new RecordSink(target) : target, input);
+        if (wrap) {
+            sink.startArray();
+        }
+        read(from, input, sink);
+        if (wrap) {
+            sink.endArray();
+        }
+        return sink.tokens;
+    }
+
+    /**
+     * 文件按convert转换为目标格式时所见记号流（压缩JSON表示）的SHA-256
+     * <p>
+     * 顶层结构按 {@link #transfer} 的规则调整，因此来源的期望摘要与转换结果读回后的摘要（{@code to} 取结果自身的格式）可直接比较。
+     */
+    private byte[] digest(Path file, Format format, Format to) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                digest.update((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                digest.update(b, off, len);
+            }
+        };
+        try (InputStream in = Files.newInputStream(file)) {
+            CountingInputStream input = new CountingInputStream(in);
+            TokenSink json = JsonCodec.writer(out);
+            transfer(input, format, to, new FloatNormalizingSink(json));
+            json.finish();
+        }
+        return digest.digest();
+    }
+
+    private static void read(Format format, InputStream in, TokenSink sink) throws IOException {
+        InputStream buffered = new BufferedInputStream(in, 65536);
+        switch (format) {
+            case JSON, NDJSON -> JsonCodec.read(buffered, sink);
+            case CSV -> CsvCodec.read(new InputStreamReader(buffered, StandardCharsets.UTF_8), sink);
+            case YAML -> YamlCodec.read(new InputStreamReader(buffered, StandardCharsets.UTF_8), sink);
+            case XML -> XmlCodec.read(buffered, sink);
+            case CBOR -> readBinary(CBOR_FACTORY, buffered, sink);
+            case SMILE -> readBinary(SMILE_FACTORY, buffered, sink);
+        }
+    }
+
+    private static void readBinary(JsonFactory factory, InputStream in, TokenSink sink) throws IOException {
+        try (JsonParser parser = factory.createParser(in)) {
+            TokenReader.read(parser, sink);
+        }
+    }
+
+    private static TokenSink writer(Format format, OutputStream out) throws IOException {
+        return switch (format) {
+            case JSON -> JsonCodec.writer(out);
+            case NDJSON -> JsonCodec.ndjsonWriter(out);
+            case CSV -> CsvCodec.writer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            case YAML -> YamlCodec.writer(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            case XML -> XmlCodec.writer(out);
+            case CBOR -> new GeneratorSink(CBOR_FACTORY.createGenerator(out, JsonEncoding.UTF8), false, true);
+            case SMILE -> new GeneratorSink(SMILE_FACTORY.createGenerator(out, JsonEncoding.UTF8), false, true);
+        };
+    }
+
+    /**
+     * 转发记号并计数，定期检查取消、回调进度
+     */
+    private final class CheckingSink implements TokenSink {
+        private final TokenSink target;
+        private final CountingInputStream input;
+        long tokens;
+
+        CheckingSink(TokenSink target, CountingInputStream input) {
+            this.target = target;
+            this.input = input;
+        }
+
+        private void tick() {
+            if (++tokens % CHECK_INTERVAL == 0) {
+                if (cancelled) {
+                    throw new CancellationException("转换已取消");
+                }
+                if (progressListener != null) {
+                    progressListener.accept(input.count);
+                }
+            }
+        }
+
+        @Override
+        public void startObject() throws IOException {
+            tick();
+            target.startObject();
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            tick();
+            target.endObject();
+        }
+
+        @Override
+        public void startArray() throws IOException {
+            tick();
+            target.startArray();
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            tick();
+            target.endArray();
+        }
+
+        @Override
+        public void field(String name) throws IOException {
+            tick();
+            target.field(name);
+        }
+
+        @Override
+        public void string(String value) throws IOException {
+            tick();
+            target.string(value);
+        }
+
+        @Override
+        public void number(String text) throws IOException {
+            tick();
+            target.number(text);
+        }
+
+        @Override
+        public void bool(boolean value) throws IOException {
+            tick();
+            target.bool(value);
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            tick();
+            target.nullValue();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            target.finish();
+        }
+    }
+
+    /**
+     * 文档格式写为按记录组织的格式时展开顶层数组，每个元素为一条记录
+     */
+    private static final class RecordSink implements TokenSink {
+        private final TokenSink target;
+        private int depth;
+
+        RecordSink(TokenSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void startObject() throws IOException {
+            depth++;
+            target.startObject();
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            depth--;
+            target.endObject();
+        }
+
+        @Override
+        public void startArray() throws IOException {
+            if (depth++ > 0) {
+                target.startArray();
+            }
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            if (--depth > 0) {
+                target.endArray();
+            }
+        }
+
+        @Override
+        public void field(String name) throws IOException {
+            target.field(name);
+        }
+
+        @Override
+        public void string(String value) throws IOException {
+            target.string(value);
+        }
+
+        @Override
+        public void number(String text) throws IOException {
+            target.number(text);
+        }
+
+        @Override
+        public void bool(boolean value) throws IOException {
+            target.bool(value);
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            target.nullValue();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            target.finish();
+        }
+    }
+
+    /**
+     * 比较往返结果时把数字统一为规范形式（如 1.50 与 1.5、1e2 与 100.0）
+     */
+    private static final class FloatNormalizingSink implements TokenSink {
+        private final TokenSink target;
+
+        FloatNormalizingSink(TokenSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public void startObject() throws IOException {
+            target.startObject();
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            target.endObject();
+        }
+
+        @Override
+        public void startArray() throws IOException {
+            target.startArray();
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            target.endArray();
+        }
+
+        @Override
+        public void field(String name) throws IOException {
+            target.field(name);
+        }
+
+        @Override
+        public void string(String value) throws IOException {
+            target.string(value);
+        }
+
+        @Override
+        public void number(String text) throws IOException {
+            if (GeneratorSink.isIntegral(text)) {
+                target.number(text);
+            } else {
+                target.number(new java.math.BigDecimal(text).stripTrailingZeros().toString());
+            }
+        }
+
+        @Override
+        public void bool(boolean value) throws IOException {
+            target.bool(value);
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            target.nullValue();
+        }
+    }
+
+    /**
+     * 丢弃所有记号，只用于计时
+     */
+    private static final class DiscardSink implements TokenSink {
+        static final DiscardSink INSTANCE = new DiscardSink();
+
+        @Override
+        public void startObject() {
+        }
+
+        @Override
+        public void endObject() {
+        }
+
+        @Override
+        public void startArray() {
+        }
+
+        @Override
+        public void endArray() {
+        }
+
+        @Override
+        public void field(String name) {
+        }
+
+        @Override
+        public void string(String value) {
+        }
+
+        @Override
+        public void number(String text) {
+        }
+
+        @Override
+        public void bool(boolean value) {
+        }
+
+        @Override
+        public void nullValue() {
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    private static final class CountingOutputStream extends java.io.FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
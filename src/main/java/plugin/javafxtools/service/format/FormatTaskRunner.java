@@ -0,0 +1,259 @@
+package plugin.javafxtools.service.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 格式化任务调度器 - 在共享的工作线程池中执行格式化，界面线程只接收进度和结果
+ * <p>
+ * 同一调度器上提交新任务会取消仍在执行的旧任务，旧任务之后的回调全部丢弃。进度按已消费的输入量上报，
+ * 同一时刻最多一个进度更新在界面队列中排队；结果按块交给界面，上一块处理完才投递下一块，避免一次性
+ * setText 巨大字符串，也不会让界面事件队列积压。任务通过 {@link Progress#own} 登记的结果资源（如结果临时文件）
+ * 只有完成回调确定投递时才交给界面，被取消、取代或失败时由调度器关闭。
+ */
+public class FormatTaskRunner {
+
+    private static final int CHUNK_CHARS = 64 * 1024;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+                Thread t = new Thread(r, "format-worker-" + THREAD_COUNTER.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    /**
+     * 格式化工作，在工作线程执行
+     */
+    @FunctionalInterface
+    public interface Job {
+        /**
+         * @return 要显示的结果，不需要显示时返回null
+         */
+        String run(Progress progress) throws Exception;
+    }
+
+    /**
+     * 任务回调，均在界面线程调用
+     */
+    public interface Listener {
+        void progress(long consumed, long total);
+
+        /**
+         * 一块结果，first为true时界面应先清空旧内容
+         */
+        void chunk(String text, boolean first);
+
+        void completed(long resultLength, long elapsedNanos);
+
+        void failed(Exception e);
+
+        void cancelled();
+    }
+
+    /**
+     * 单个任务的进度和取消状态
+     */
+    public final class Progress {
+        private final long total;
+        private final Listener listener;
+        private final AtomicBoolean progressPosted = new AtomicBoolean();
+        private final List<AutoCloseable> results = new ArrayList<>();
+        private volatile long consumed;
+        private volatile boolean cancelled;
+
+        private Progress(long total, Listener listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        /**
+         * 上报已消费的输入量，已取消时抛出异常以终止格式化
+         *
+         * @throws CancellationException 任务已被取消或取代
+         */
+        public void update(long consumed) {
+            this.consumed = consumed;
+            checkCancelled();
+            // 合并进度：上一次更新尚未在界面线程处理时不再投递
+            if (progressPosted.compareAndSet(false, true)) {
+                uiExecutor.execute(() -> {
+                    progressPosted.set(false);
+                    if (isCurrent()) {
+                        listener.progress(this.consumed, total);
+                    }
+                });
+            }
+        }
+
+        public void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException("格式化已取消");
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * 登记任务的结果资源，任务未能完成（取消、被取代或失败）时自动关闭；只应在工作线程调用
+         *
+         * @return 传入的资源
+         */
+        public <T extends AutoCloseable> T own(T resource) {
+            results.add(resource);
+            return resource;
+        }
+
+        private void discardResults() {
+            for (AutoCloseable resource : results) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    // 丢弃的结果，关闭失败不影响界面
+                }
+            }
+            results.clear();
+        }
+
+        private boolean isCurrent() {
+            return current == this && !cancelled;
+        }
+    }
+
+    private final Executor uiExecutor;
+    private volatile Progress current;
+    private Future<?> future;
+
+    /**
+     * @param uiExecutor 投递到界面线程的执行器，如 {@code Platform::runLater}
+     */
+    public FormatTaskRunner(Executor uiExecutor) {
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * 提交任务，取代仍在执行的旧任务
+     *
+     * @param total    输入总量（字节或字符），用于计算进度
+     * @param job      格式化工作
+     * @param listener 回调
+     */
+    public synchronized void submit(long total, Job job, Listener listener) {
+        stop(false);
+        Progress progress = new Progress(total, listener);
+        current = progress;
+        future = WORKERS.submit(() -> execute(progress, job, listener));
+    }
+
+    /**
+     * 取消当前任务
+     */
+    public synchronized void cancel() {
+        stop(true);
+    }
+
+    /**
+     * @param notify 是否回调cancelled；被新任务取代时不回调，以免覆盖新任务的界面状态
+     */
+    private void stop(boolean notify) {
+        Progress p = current;
+        if (p != null) {
+            p.cancelled = true;
+            current = null;
+            if (notify) {
+                uiExecutor.execute(p.listener::cancelled);
+            }
+        }
+        if (future != null) {
+            future.cancel(true);
+            future = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return current != null;
+    }
+
+    private void execute(Progress progress, Job job, Listener listener) {
+        long begin = System.nanoTime();
+        boolean completed = false;
+        try {
+            String result = job.run(progress);
+            progress.checkCancelled();
+            if (result != null && !deliver(progress, result, listener)) {
+                return;
+            }
+            long elapsed = System.nanoTime() - begin;
+            long length = result == null ? 0 : result.length();
+            completed = finish(progress, () -> listener.completed(length, elapsed));
+        } catch (CancellationException | InterruptedException e) {
+            // 已由cancel()通知界面，或已被新任务取代
+        } catch (Exception e) {
+            finish(progress, () -> listener.failed(e));
+        } finally {
+            if (!completed) {
+                progress.discardResults();
+            }
+        }
+    }
+
+    /**
+     * 按块投递结果，每块在界面线程处理完后再投递下一块
+     *
+     * @return 是否全部投递（中途被取代时返回false）
+     */
+    private boolean deliver(Progress progress, String result, Listener listener) throws InterruptedException {
+        Semaphore handled = new Semaphore(0);
+        int length = result.length();
+        int start = 0;
+        do {
+            int end = Math.min(length, start + CHUNK_CHARS);
+            if (end < length && Character.isHighSurrogate(result.charAt(end - 1))) {
+                end--;   // 不拆开代理对
+            }
+            String chunk = result.substring(start, end);
+            boolean first = start == 0;
+            uiExecutor.execute(() -> {
+                if (progress.isCurrent()) {
+                    listener.chunk(chunk, first);
+                }
+                handled.release();
+            });
+            handled.acquire();
+            if (progress.cancelled) {
+                return false;
+            }
+            start = end;
+        } while (start < length);
+        return true;
+    }
+
+    /**
+     * @return 回调是否投递（任务已被取消或取代时不投递）
+     */
+    private boolean finish(Progress progress, Runnable callback) {
+        synchronized (this) {
+            if (current != progress) {
+                return false;
+            }
+            current = null;
+            future = null;
+        }
+        uiExecutor.execute(callback);
+        return true;
+    }
+}
@@ -0,0 +1,165 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 把记号流交给Jackson生成器输出，JSON、NDJSON、YAML、CBOR和Smile共用
+ * <p>
+ * 文本格式的数字按原文写出；CBOR等二进制格式的生成器把数字文本当作字符串，需按类型写出：
+ * 整数写为long或BigInteger，能由double精确往返的小数写为float/double，其余写为BigDecimal以保留精度。
+ */
+final class GeneratorSink implements TokenSink {
+
+    private final JsonGenerator generator;
+    private final boolean lineDelimited;
+    private final boolean typedNumbers;
+    private int depth;
+
+    /**
+     * @param lineDelimited 每个顶层值后换行（NDJSON）
+     * @param typedNumbers  数字按类型写出（二进制格式）
+     */
+    GeneratorSink(JsonGenerator generator, boolean lineDelimited, boolean typedNumbers) {
+        this.generator = generator;
+        this.lineDelimited = lineDelimited;
+        this.typedNumbers = typedNumbers;
+        if (lineDelimited) {
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    private void afterValue() throws IOException {
+        if (depth == 0 && lineDelimited) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    @Override
+    public void startObject() throws IOException {
+        depth++;
+        generator.writeStartObject();
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        generator.writeEndObject();
+        depth--;
+        afterValue();
+    }
+
+    @Override
+    public void startArray() throws IOException {
+        depth++;
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        generator.writeEndArray();
+        depth--;
+        afterValue();
+    }
+
+    @Override
+    public void field(String name) throws IOException {
+        generator.writeFieldName(name);
+    }
+
+    @Override
+    public void string(String value) throws IOException {
+        generator.writeString(value);
+        afterValue();
+    }
+
+    @Override
+    public void number(String text) throws IOException {
+        if (typedNumbers) {
+            writeTyped(generator, text);
+        } else {
+            generator.writeNumber(text);
+        }
+        afterValue();
+    }
+
+    @Override
+    public void bool(boolean value) throws IOException {
+        generator.writeBoolean(value);
+        afterValue();
+    }
+
+    @Override
+    public void nullValue() throws IOException {
+        generator.writeNull();
+        afterValue();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+
+    private static void writeTyped(JsonGenerator generator, String text) throws IOException {
+        if (isIntegral(text)) {
+            if (text.length() <= 18) {
+                generator.writeNumber(Long.parseLong(text));
+            } else {
+                BigInteger value = new BigInteger(text);
+                if (value.bitLength() < 64) {
+                    generator.writeNumber(value.longValue());
+                } else {
+                    generator.writeNumber(value);
+                }
+            }
+            return;
+        }
+        double value = Double.parseDouble(text);
+        int digits = significantDigits(text);
+        if (Double.isInfinite(value)
+                || digits > 15 && new BigDecimal(Double.toString(value)).compareTo(new BigDecimal(text)) != 0) {
+            generator.writeNumber(new BigDecimal(text));
+        } else if (digits <= 6 && (value == 0 || Math.abs(value) >= Float.MIN_NORMAL && Math.abs(value) <= Float.MAX_VALUE)) {
+            generator.writeNumber((float) value);
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    /**
+     * 文本不含小数点和指数
+     */
+    static boolean isIntegral(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 有效数字位数；指数超出double常规范围时返回 {@link Integer#MAX_VALUE}，交给精确比较
+     * <p>
+     * 不超过15位的十进制数总能由double精确往返，不超过6位的也能由float往返。
+     */
+    private static int significantDigits(String text) {
+        int digits = 0;
+        boolean leading = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 'e' || c == 'E') {
+                int exponent = Integer.parseInt(text, i + 1, text.length(), 10);
+                return Math.abs(exponent) > 290 ? Integer.MAX_VALUE : digits;
+            }
+            if (c >= '0' && c <= '9' && (c != '0' || !leading)) {
+                leading = false;
+                digits++;
+            }
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,119 @@
+package plugin.javafxtools.service.format;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog基数估计 - 2^14个寄存器（约16KB，标准误差约0.8%），可合并
+ * <p>
+ * 不同值较少时先精确保存哈希，超过 {@link #SPARSE_LIMIT} 个才分配寄存器，大量低基数字段不占用寄存器内存。
+ */
+final class HyperLogLog {
+
+    private static final int P = 14;
+    private static final int M = 1 << P;
+    private static final int SPARSE_LIMIT = 64;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    private long[] sparse = new long[8];
+    private int sparseSize;
+    private byte[] registers;
+
+    /**
+     * 加入一个值的64位哈希
+     */
+    void add(long hash) {
+        if (registers != null) {
+            addToRegisters(hash);
+            return;
+        }
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparse[i] == hash) {
+                return;
+            }
+        }
+        if (sparseSize == SPARSE_LIMIT) {
+            toRegisters();
+            addToRegisters(hash);
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        sparse[sparseSize++] = hash;
+    }
+
+    /**
+     * 合并另一个估计器，结果等同于两边的值都加入本估计器
+     */
+    void merge(HyperLogLog other) {
+        if (other.registers == null) {
+            for (int i = 0; i < other.sparseSize; i++) {
+                add(other.sparse[i]);
+            }
+            return;
+        }
+        if (registers == null) {
+            toRegisters();
+        }
+        for (int i = 0; i < M; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * 不同值个数的估计，未超过精确保存上限时为准确值
+     */
+    long estimate() {
+        if (registers == null) {
+            return sparseSize;
+        }
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * M * M / sum;
+        if (estimate <= 2.5 * M && zeros > 0) {
+            estimate = M * Math.log((double) M / zeros);   // 小基数时改用线性计数
+        }
+        return Math.round(estimate);
+    }
+
+    private void toRegisters() {
+        registers = new byte[M];
+        for (int i = 0; i < sparseSize; i++) {
+            addToRegisters(sparse[i]);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private void addToRegisters(long hash) {
+        int index = (int) (hash >>> (64 - P));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * 字符序列的64位哈希（FNV-1a后再做一次混合）
+     */
+    static long hash(CharSequence text, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,101 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * JSON/NDJSON读写 - 基于Jackson的流式解析器和生成器，数字按原文传递
+ */
+final class JsonCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonCodec() {
+    }
+
+    /**
+     * 读取一个或多个以空白分隔的顶层值（NDJSON即每行一个）
+     */
+    static void read(InputStream in, TokenSink sink) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            TokenReader.read(parser, sink);
+        }
+    }
+
+    static void read(String text, TokenSink sink) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(text)) {
+            TokenReader.read(parser, sink);
+        }
+    }
+
+    /**
+     * 文本是否符合JSON数字语法（-?int frac? exp?）
+     */
+    static boolean isNumber(String text) {
+        int length = text.length();
+        int i = 0;
+        if (i < length && text.charAt(i) == '-') {
+            i++;
+        }
+        if (i == length) {
+            return false;
+        }
+        if (text.charAt(i) == '0') {
+            i++;
+        } else {
+            int start = i;
+            while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && text.charAt(i) == '.') {
+            int start = ++i;
+            while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == start) {
+                return false;
+            }
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i++;
+            }
+            int start = i;
+            while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == start) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    /**
+     * 压缩格式的JSON输出，多个顶层值之间换行
+     */
+    static TokenSink writer(OutputStream out) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        return new GeneratorSink(generator, false, false);
+    }
+
+    /**
+     * NDJSON输出：每个顶层值一行
+     */
+    static TokenSink ndjsonWriter(OutputStream out) throws IOException {
+        return new GeneratorSink(JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8), true, false);
+    }
+}
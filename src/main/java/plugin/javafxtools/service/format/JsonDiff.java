@@ -0,0 +1,876 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * JSON结构化对比 - 两份文档先解析为紧凑结构（键名共享、每个容器预先算好子树哈希），
+ * 哈希相同的子树直接跳过；对象字段按哈希表匹配，数组按最长公共子序列（Myers算法）或指定的键字段对齐
+ * <p>
+ * 差异按路径输出：{@code + $.a: 值} 新增、{@code - $.a: 值} 删除、{@code ~ $.a: 旧值 -> 新值} 修改。
+ * 忽略路径使用与 {@link JsonPathQuery} 相同的语法，如 {@code $..timestamp}、{@code $.meta.requestId}。
+ * 按键匹配的数组元素在输出路径中写作 {@code $.items[id=3]}，这只是便于阅读的显示写法，不是JSONPath，
+ * 不能用作查询或忽略路径；忽略路径对这些元素按左侧数组的下标判断。差异按左侧元素的顺序输出，右侧新增的排在最后。
+ */
+public final class JsonDiff {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_EDIT_DISTANCE = 2000;  // 超过后数组改为按位置对比，限制回溯表内存
+    private static final int MAX_VALUE_CHARS = 200;     // 输出中每个值最多显示的字符数
+    private static final int CHECK_INTERVAL = 4096;
+    private static final Object NULL = new Object();
+    private static final long[] NO_STATES = new long[0];
+
+    /**
+     * 数组对齐方式
+     */
+    public enum ArrayMode {
+        LCS("按顺序对齐"),
+        KEY("按键匹配");
+
+        private final String displayName;
+
+        ArrayMode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 差异类型
+     */
+    public enum ChangeType {
+        ADDED("+"),
+        REMOVED("-"),
+        CHANGED("~");
+
+        private final String symbol;
+
+        ChangeType(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    /**
+     * 一条差异，值为截断后的紧凑JSON文本
+     */
+    public static final class Change {
+        private final ChangeType type;
+        private final String path;
+        private final String left;
+        private final String right;
+
+        Change(ChangeType type, String path, String left, String right) {
+            this.type = type;
+            this.path = path;
+            this.left = left;
+            this.right = right;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getLeft() {
+            return left;
+        }
+
+        public String getRight() {
+            return right;
+        }
+
+        @Override
+        public String toString() {
+            return switch (type) {
+                case ADDED -> "+ " + path + ": " + right;
+                case REMOVED -> "- " + path + ": " + left;
+                case CHANGED -> "~ " + path + ": " + left + " -> " + right;
+            };
+        }
+    }
+
+    /**
+     * 紧凑结构中的数字，保留原文，数值相等即视为相同（1.0 与 1）
+     */
+    private static final class Num {
+        final String text;
+        BigDecimal value;
+        long hash;
+
+        Num(String text) {
+            this.text = text;
+        }
+
+        BigDecimal value() {
+            if (value == null) {
+                value = new BigDecimal(text);
+            }
+            return value;
+        }
+
+        long hash() {
+            if (hash == 0) {
+                // 按规范文本计算，1.0、1e0 与 1 的哈希相同；普通整数本身就是规范文本，不必转换
+                String canonical = isPlainInteger(text) ? text
+                        : value().signum() == 0 ? "0" : value().stripTrailingZeros().toPlainString();
+                hash = mix(canonical.hashCode() + 2L);
+            }
+            return hash;
+        }
+    }
+
+    private static boolean isPlainInteger(String text) {
+        int start = text.startsWith("-") ? 1 : 0;
+        if (text.length() - start > 18 || text.equals("-0")) {
+            return false;
+        }
+        for (int i = start; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Obj {
+        final String[] keys;
+        final Object[] values;
+        final long hash;
+
+        Obj(String[] keys, Object[] values, long hash) {
+            this.keys = keys;
+            this.values = values;
+            this.hash = hash;
+        }
+    }
+
+    private static final class Arr {
+        final Object[] items;
+        final long hash;
+
+        Arr(Object[] items, long hash) {
+            this.items = items;
+            this.hash = hash;
+        }
+    }
+
+    private final ArrayMode arrayMode;
+    private final String arrayKey;
+    private final List<JsonPathQuery> ignorePaths;
+    private volatile boolean cancelled;
+    private long nodes;
+    private long changes;
+    private long ignored;
+    private Object[] stack = new Object[1024];  // 解析时暂存容器子项
+    private int top;
+    private LongConsumer progressListener;
+    private long parsedBefore;                  // 已解析完的文档长度
+    private long tokens;
+
+    public JsonDiff(ArrayMode arrayMode, String arrayKey, List<JsonPathQuery> ignorePaths) {
+        this.arrayMode = arrayMode;
+        this.arrayKey = arrayKey == null || arrayKey.isEmpty() ? null : arrayKey;
+        this.ignorePaths = ignorePaths;
+    }
+
+    /**
+     * 解析逗号分隔的忽略路径，方括号和引号内的逗号不作分隔
+     */
+    public static List<JsonPathQuery> parseIgnorePaths(String text) {
+        List<JsonPathQuery> queries = new ArrayList<>();
+        if (text == null) {
+            return queries;
+        }
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ',';
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == ',' && depth <= 0) {
+                String expr = text.substring(start, i).trim();
+                if (!expr.isEmpty()) {
+                    queries.add(JsonPathQuery.compile(expr));
+                }
+                start = i + 1;
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * 对比两份文本，逐条回调差异，返回差异数
+     */
+    public long diff(String left, String right, Consumer<Change> sink) throws IOException {
+        Object a;
+        Object b;
+        try (JsonParser parser = JSON_FACTORY.createParser(left)) {
+            a = parseDocument(parser, "左侧");
+        }
+        parsedBefore = left.length();
+        try (JsonParser parser = JSON_FACTORY.createParser(right)) {
+            b = parseDocument(parser, "右侧");
+        }
+        return diff(a, b, sink, parsedBefore + right.length());
+    }
+
+    /**
+     * 对比两个文件，逐条回调差异，返回差异数
+     */
+    public long diff(Path left, Path right, Consumer<Change> sink) throws IOException {
+        Object a;
+        Object b;
+        try (InputStream in = Files.newInputStream(left); JsonParser parser = JSON_FACTORY.createParser(in)) {
+            a = parseDocument(parser, "左侧");
+        }
+        parsedBefore = Files.size(left);
+        try (InputStream in = Files.newInputStream(right); JsonParser parser = JSON_FACTORY.createParser(in)) {
+            b = parseDocument(parser, "右侧");
+        }
+        return diff(a, b, sink, parsedBefore + Files.size(right));
+    }
+
+    private long diff(Object a, Object b, Consumer<Change> sink, long total) {
+        long[] states = new long[ignorePaths.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = ignorePaths.get(i).initialStates();
+        }
+        parsedBefore = total;
+        diff("$", a, b, states, sink);
+        return changes;
+    }
+
+    /**
+     * 进度回调，参数为两份文档合计已解析的字符数（文件为字节数），对比阶段保持为总量并用于响应取消
+     */
+    public void setProgressListener(LongConsumer listener) {
+        this.progressListener = listener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void checkProgress(JsonParser parser) {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        if (progressListener != null) {
+            long offset = 0;
+            if (parser != null) {
+                offset = parser.currentLocation().getByteOffset();
+                if (offset < 0) {
+                    offset = parser.currentLocation().getCharOffset();
+                }
+            }
+            progressListener.accept(parsedBefore + offset);
+        }
+    }
+
+    /**
+     * 对比时实际展开的节点数（哈希相同的子树不计入）
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * 因命中忽略路径而跳过的节点数
+     */
+    public long getIgnored() {
+        return ignored;
+    }
+
+    // ---------------------------------------------------------------- 解析
+
+    private Object parseDocument(JsonParser parser, String side) throws IOException {
+        if (parser.nextToken() == null) {
+            throw new IOException(side + "数据为空");
+        }
+        Object root = parseValue(parser);
+        if (parser.nextToken() != null) {
+            throw new IOException(side + "数据包含多个顶层值，第" + parser.getCurrentLocation().getLineNr() + "行");
+        }
+        return root;
+    }
+
+    /**
+     * 递归解析，容器的子项先压入共享栈，结束时按实际个数复制出来，不为每个容器分配可变列表；
+     * 字段名由Jackson的符号表规范化，相同键名共享同一个字符串
+     */
+    private Object parseValue(JsonParser parser) throws IOException {
+        if ((++tokens % CHECK_INTERVAL) == 0) {
+            checkProgress(parser);
+        }
+        return switch (parser.currentToken()) {
+            case START_OBJECT -> {
+                int base = top;
+                long hash = 0x9E3779B97F4A7C15L;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    Object value = parseValue(parser);
+                    push(name);
+                    push(value);
+                    // 字段顺序无关：各字段哈希相加
+                    hash += mix(name.hashCode() * 0x100000001B3L ^ hashOf(value));
+                }
+                int count = (top - base) / 2;
+                String[] names = new String[count];
+                Object[] values = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    names[i] = (String) stack[base + 2 * i];
+                    values[i] = stack[base + 2 * i + 1];
+                }
+                Arrays.fill(stack, base, top, null);
+                top = base;
+                yield new Obj(names, values, mix(hash));
+            }
+            case START_ARRAY -> {
+                int base = top;
+                long hash = 0xC2B2AE3D27D4EB4FL;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    Object item = parseValue(parser);
+                    push(item);
+                    hash = mix(hash * 31 + hashOf(item));
+                }
+                Object[] items = Arrays.copyOfRange(stack, base, top);
+                Arrays.fill(stack, base, top, null);
+                top = base;
+                yield new Arr(items, hash);
+            }
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> new Num(parser.getText());
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> NULL;
+            default -> throw new IOException("无法识别的记号: " + parser.currentToken());
+        };
+    }
+
+    private void push(Object value) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top++] = value;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static long hashOf(Object value) {
+        if (value instanceof Obj obj) {
+            return obj.hash;
+        }
+        if (value instanceof Arr arr) {
+            return arr.hash;
+        }
+        if (value instanceof String) {
+            return mix(value.hashCode() + 1L);
+        }
+        if (value instanceof Num num) {
+            return num.hash();
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? 3L : 4L;
+        }
+        return 5L;
+    }
+
+    private static boolean deepEquals(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (hashOf(a) != hashOf(b)) {
+            return false;
+        }
+        if (a instanceof Obj x && b instanceof Obj y) {
+            if (x.keys.length != y.keys.length) {
+                return false;
+            }
+            Map<String, Integer> index = indexOf(y);
+            for (int i = 0; i < x.keys.length; i++) {
+                Integer j = index.get(x.keys[i]);
+                if (j == null || !deepEquals(x.values[i], y.values[j])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof Arr arrA && b instanceof Arr arrB) {
+            Object[] x = arrA.items;
+            Object[] y = arrB.items;
+            if (x.length != y.length) {
+                return false;
+            }
+            for (int i = 0; i < x.length; i++) {
+                if (!deepEquals(x[i], y[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof Num x && b instanceof Num y) {
+            return x.text.equals(y.text) || x.value().compareTo(y.value()) == 0;
+        }
+        return a.equals(b);
+    }
+
+    private static Map<String, Integer> indexOf(Obj obj) {
+        Map<String, Integer> index = new HashMap<>(obj.keys.length * 2);
+        for (int i = 0; i < obj.keys.length; i++) {
+            index.put(obj.keys[i], i);
+        }
+        return index;
+    }
+
+    // ---------------------------------------------------------------- 对比
+
+    private void diff(String path, Object a, Object b, long[] states, Consumer<Change> sink) {
+        if ((++nodes % CHECK_INTERVAL) == 0) {
+            checkProgress(null);
+        }
+        if (deepEquals(a, b)) {
+            return;
+        }
+        if (a instanceof Obj x && b instanceof Obj y) {
+            diffObjects(path, x, y, states, sink);
+        } else if (a instanceof Arr x && b instanceof Arr y) {
+            diffArrays(path, x.items, y.items, states, sink);
+        } else {
+            emit(sink, ChangeType.CHANGED, path, a, b);
+        }
+    }
+
+    private void diffObjects(String path, Obj a, Obj b, long[] states, Consumer<Change> sink) {
+        Map<String, Integer> right = indexOf(b);
+        boolean[] matched = new boolean[b.keys.length];
+        for (int i = 0; i < a.keys.length; i++) {
+            String key = a.keys[i];
+            Integer j = right.get(key);
+            long[] child = step(states, key, -1);
+            if (child == null) {
+                if (j != null) {
+                    matched[j] = true;
+                }
+                continue;
+            }
+            String childPath = path + formatKey(key);
+            if (j == null) {
+                emit(sink, ChangeType.REMOVED, childPath, a.values[i], null);
+            } else {
+                matched[j] = true;
+                diff(childPath, a.values[i], b.values[j], child, sink);
+            }
+        }
+        for (int j = 0; j < b.keys.length; j++) {
+            if (!matched[j] && step(states, b.keys[j], -1) != null) {
+                emit(sink, ChangeType.ADDED, path + formatKey(b.keys[j]), null, b.values[j]);
+            }
+        }
+    }
+
+    private void diffArrays(String path, Object[] a, Object[] b, long[] states, Consumer<Change> sink) {
+        if (arrayMode == ArrayMode.KEY && arrayKey != null) {
+            Map<Object, Integer> left = keyIndex(a);
+            Map<Object, Integer> right = left == null ? null : keyIndex(b);
+            if (right != null) {
+                diffArraysByKey(path, a, b, left, right, states, sink);
+                return;
+            }
+        }
+        // 去掉相同的首尾再求编辑脚本
+        int start = 0;
+        while (start < a.length && start < b.length && deepEquals(a[start], b[start])) {
+            start++;
+        }
+        int endA = a.length;
+        int endB = b.length;
+        while (endA > start && endB > start && deepEquals(a[endA - 1], b[endB - 1])) {
+            endA--;
+            endB--;
+        }
+        long[] x = new long[endA - start];
+        long[] y = new long[endB - start];
+        for (int i = 0; i < x.length; i++) {
+            long[] child = childStates(states, null, start + i);
+            x[i] = child == null ? 0 : alignHash(a[start + i], child);
+        }
+        for (int i = 0; i < y.length; i++) {
+            long[] child = childStates(states, null, start + i);
+            y[i] = child == null ? 0 : alignHash(b[start + i], child);
+        }
+        int[] script = editScript(x, y);
+        if (script == null) {
+            // 差异过多，按位置对比
+            int common = Math.min(x.length, y.length);
+            for (int i = 0; i < common; i++) {
+                diffItem(path, start + i, a[start + i], b[start + i], states, sink);
+            }
+            for (int i = common; i < x.length; i++) {
+                removeItem(path, start + i, a[start + i], states, sink);
+            }
+            for (int i = common; i < y.length; i++) {
+                addItem(path, start + i, b[start + i], states, sink);
+            }
+            return;
+        }
+        // 脚本中相邻的删除与新增依次配对为修改，多出的部分才算删除或新增
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (k <= script.length) {
+            int deletes = 0;
+            int inserts = 0;
+            while (k < script.length && script[k] != 0) {
+                if (script[k] < 0) {
+                    deletes++;
+                } else {
+                    inserts++;
+                }
+                k++;
+            }
+            int pairs = Math.min(deletes, inserts);
+            for (int p = 0; p < pairs; p++) {
+                diffItem(path, start + i + p, a[start + i + p], b[start + j + p], states, sink);
+            }
+            for (int p = pairs; p < deletes; p++) {
+                removeItem(path, start + i + p, a[start + i + p], states, sink);
+            }
+            for (int p = pairs; p < inserts; p++) {
+                addItem(path, start + j + p, b[start + j + p], states, sink);
+            }
+            i += deletes + 1;
+            j += inserts + 1;
+            k++;
+        }
+    }
+
+    private void diffItem(String path, int index, Object a, Object b, long[] states, Consumer<Change> sink) {
+        long[] child = step(states, null, index);
+        if (child != null) {
+            diff(path + "[" + index + "]", a, b, child, sink);
+        }
+    }
+
+    private void removeItem(String path, int index, Object a, long[] states, Consumer<Change> sink) {
+        if (step(states, null, index) != null) {
+            emit(sink, ChangeType.REMOVED, path + "[" + index + "]", a, null);
+        }
+    }
+
+    private void addItem(String path, int index, Object b, long[] states, Consumer<Change> sink) {
+        if (step(states, null, index) != null) {
+            emit(sink, ChangeType.ADDED, path + "[" + index + "]", null, b);
+        }
+    }
+
+    /**
+     * 对齐用的元素哈希，不计入命中忽略路径的子项，只差在忽略字段上的元素仍视为相同
+     */
+    private long alignHash(Object value, long[] states) {
+        if (states.length == 0) {
+            return hashOf(value);
+        }
+        if (value instanceof Obj obj) {
+            long hash = 0x9E3779B97F4A7C15L;
+            for (int i = 0; i < obj.keys.length; i++) {
+                long[] child = childStates(states, obj.keys[i], -1);
+                if (child != null) {
+                    hash += mix(obj.keys[i].hashCode() * 0x100000001B3L ^ alignHash(obj.values[i], child));
+                }
+            }
+            return mix(hash);
+        }
+        if (!(value instanceof Arr arr)) {
+            return hashOf(value);
+        }
+        Object[] items = arr.items;
+        long hash = 0xC2B2AE3D27D4EB4FL;
+        for (int i = 0; i < items.length; i++) {
+            long[] child = childStates(states, null, i);
+            if (child != null) {
+                hash = mix(hash * 31 + alignHash(items[i], child));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * 数组元素均为含键字段（标量值）的对象且键值不重复时返回 键值→下标（按数组顺序），否则返回null
+     */
+    private Map<Object, Integer> keyIndex(Object[] items) {
+        Map<Object, Integer> index = new LinkedHashMap<>(items.length * 2);
+        for (int i = 0; i < items.length; i++) {
+            if (!(items[i] instanceof Obj obj)) {
+                return null;
+            }
+            Object key = null;
+            for (int f = 0; f < obj.keys.length; f++) {
+                if (obj.keys[f].equals(arrayKey)) {
+                    key = obj.values[f];
+                    break;
+                }
+            }
+            if (key == null || key instanceof Obj || key instanceof Arr) {
+                return null;
+            }
+            Object normalized = key instanceof Num num ? num.value().stripTrailingZeros() : key;
+            if (index.put(normalized, i) != null) {
+                return null;
+            }
+        }
+        return index;
+    }
+
+    private void diffArraysByKey(String path, Object[] a, Object[] b, Map<Object, Integer> left,
+                                 Map<Object, Integer> right, long[] states, Consumer<Change> sink) {
+        for (Map.Entry<Object, Integer> entry : left.entrySet()) {
+            // 忽略路径按左侧下标判断
+            int i = entry.getValue();
+            long[] child = step(states, null, i);
+            if (child == null) {
+                continue;
+            }
+            String childPath = path + "[" + arrayKey + "=" + render(keyValue(entry.getKey())) + "]";
+            Integer j = right.get(entry.getKey());
+            if (j == null) {
+                emit(sink, ChangeType.REMOVED, childPath, a[i], null);
+            } else {
+                diff(childPath, a[i], b[j], child, sink);
+            }
+        }
+        for (Map.Entry<Object, Integer> entry : right.entrySet()) {
+            if (!left.containsKey(entry.getKey()) && step(states, null, entry.getValue()) != null) {
+                String childPath = path + "[" + arrayKey + "=" + render(keyValue(entry.getKey())) + "]";
+                emit(sink, ChangeType.ADDED, childPath, null, b[entry.getValue()]);
+            }
+        }
+    }
+
+    private static Object keyValue(Object key) {
+        return key instanceof BigDecimal decimal ? new Num(decimal.toPlainString()) : key;
+    }
+
+    /**
+     * Myers差分：返回编辑脚本，0为相同、-1为删除左侧元素、1为插入右侧元素；编辑距离超过上限时返回null
+     */
+    private int[] editScript(long[] a, long[] b) {
+        int n = a.length;
+        int m = b.length;
+        List<int[]> trace = new ArrayList<>();
+        int distance = -1;
+        for (int d = 0; d <= Math.min(n + m, MAX_EDIT_DISTANCE) && distance < 0; d++) {
+            if ((d & 63) == 63) {
+                checkProgress(null);
+            }
+            int[] previous = d == 0 ? null : trace.get(d - 1);
+            int[] v = new int[2 * d + 1];
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (d == 0) {
+                    x = 0;
+                } else if (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) {
+                    x = previous[k + 1 + d - 1];
+                } else {
+                    x = previous[k - 1 + d - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[k + d] = x;
+                if (x >= n && y >= m) {
+                    distance = d;
+                    break;
+                }
+            }
+            trace.add(v);
+        }
+        if (distance < 0) {
+            return null;
+        }
+        // 从终点回溯
+        int[] script = new int[n + m];
+        int length = 0;
+        int x = n;
+        int y = m;
+        for (int d = distance; d > 0; d--) {
+            int[] previous = trace.get(d - 1);
+            int k = x - y;
+            int prevK = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]) ? k + 1 : k - 1;
+            int prevX = previous[prevK + d - 1];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                script[length++] = 0;
+                x--;
+                y--;
+            }
+            script[length++] = x == prevX ? 1 : -1;
+            x = prevX;
+            y = prevY;
+        }
+        while (x > 0 && y > 0) {
+            script[length++] = 0;
+            x--;
+            y--;
+        }
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = script[length - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * 对比中进入子项，命中忽略路径时计数并返回null
+     */
+    private long[] step(long[] states, String name, int index) {
+        long[] child = childStates(states, name, index);
+        if (child == null) {
+            ignored++;
+        }
+        return child;
+    }
+
+    /**
+     * 所有忽略路径在子项处的状态；命中任一忽略路径时返回null
+     */
+    private long[] childStates(long[] states, String name, int index) {
+        if (states.length == 0) {
+            return states;
+        }
+        long[] child = new long[states.length];
+        boolean live = false;
+        for (int i = 0; i < states.length; i++) {
+            child[i] = ignorePaths.get(i).step(states[i], name, index);
+            if (ignorePaths.get(i).isMatch(child[i])) {
+                return null;
+            }
+            live |= child[i] != 0;
+        }
+        // 所有忽略路径都不可能再命中时，子树按无忽略处理
+        return live ? child : NO_STATES;
+    }
+
+    private void emit(Consumer<Change> sink, ChangeType type, String path, Object left, Object right) {
+        changes++;
+        sink.accept(new Change(type, path, left == null ? null : render(left), right == null ? null : render(right)));
+    }
+
+    private static String formatKey(String key) {
+        if (!key.isEmpty() && Character.isJavaIdentifierStart(key.charAt(0))) {
+            boolean plain = true;
+            for (int i = 1; i < key.length() && plain; i++) {
+                plain = Character.isJavaIdentifierPart(key.charAt(i));
+            }
+            if (plain) {
+                return "." + key;
+            }
+        }
+        return "['" + key.replace("\\", "\\\\").replace("'", "\\'") + "']";
+    }
+
+    /**
+     * 输出紧凑JSON，超过 {@link #MAX_VALUE_CHARS} 时截断
+     */
+    private static String render(Object value) {
+        StringBuilder sb = new StringBuilder();
+        render(value, sb);
+        if (sb.length() > MAX_VALUE_CHARS) {
+            sb.setLength(MAX_VALUE_CHARS);
+            sb.append("...");
+        }
+        return sb.toString();
+    }
+
+    private static void render(Object value, StringBuilder sb) {
+        if (sb.length() > MAX_VALUE_CHARS) {
+            return;
+        }
+        if (value instanceof Obj obj) {
+            sb.append('{');
+            for (int i = 0; i < obj.keys.length && sb.length() <= MAX_VALUE_CHARS; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendString(obj.keys[i], sb);
+                sb.append(':');
+                render(obj.values[i], sb);
+            }
+            sb.append('}');
+        } else if (value instanceof Arr arr) {
+            Object[] items = arr.items;
+            sb.append('[');
+            for (int i = 0; i < items.length && sb.length() <= MAX_VALUE_CHARS; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                render(items[i], sb);
+            }
+            sb.append(']');
+        } else if (value instanceof String text) {
+            appendString(text, sb);
+        } else if (value instanceof Num num) {
+            sb.append(num.text);
+        } else if (value == NULL) {
+            sb.append("null");
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private static void appendString(String text, StringBuilder sb) {
+        sb.append('"');
+        JsonStringEncoder.getInstance().quoteAsString(text, sb);
+        sb.append('"');
+    }
+}
@@ -0,0 +1,429 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * 流式JSON查询 - JSONPath子集，表达式编译一次后在记号流上求值，不构建对象树
+ * <p>
+ * 支持 {@code $}、{@code .name}、{@code ['name','other']}、{@code [0]}、{@code [0,2]}、{@code [1:5]}、
+ * {@code .*}、{@code [*]} 和递归下降 {@code ..name}；也接受jq风格的 {@code .items[].id}。
+ * 求值时为每个值维护可能匹配到的路径状态集合，集合为空的子树直接跳过。匹配到的值整体输出（数字按原文），
+ * 每行一个，不再在其内部查找嵌套匹配；多个顶层值（如NDJSON）分别求值。
+ */
+public final class JsonPathQuery {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int CHECK_INTERVAL = 4096;     // 每N个记号检查一次取消并更新进度
+    private static final int MAX_SEGMENTS = 63;         // 状态集合用long位图表示
+
+    /**
+     * 路径中的一段
+     */
+    private static final class Segment {
+        boolean descendant;     // 前面是 ..，可匹配任意深度的后代
+        boolean wildcard;
+        String[] names;
+        int[] indexes;
+        int sliceStart = -1;    // 切片 [start:end)，end为-1表示到末尾
+        int sliceEnd = -1;
+
+        boolean matches(String name, int index) {
+            if (wildcard) {
+                return true;
+            }
+            if (name != null) {
+                if (names != null) {
+                    for (String n : names) {
+                        if (n.equals(name)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            if (indexes != null) {
+                for (int i : indexes) {
+                    if (i == index) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return sliceStart >= 0 && index >= sliceStart && (sliceEnd < 0 || index < sliceEnd);
+        }
+    }
+
+    private final String expression;
+    private final Segment[] segments;
+    private final long finalState;
+    private LongConsumer progressListener;
+    private volatile boolean cancelled;
+    private long tokens;
+    private long matches;
+    private long skipped;       // 因不可能匹配而跳过的子树数
+
+    private JsonPathQuery(String expression, Segment[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+        this.finalState = 1L << segments.length;
+    }
+
+    /**
+     * 编译查询表达式
+     *
+     * @throws IllegalArgumentException 表达式语法错误
+     */
+    public static JsonPathQuery compile(String expression) {
+        String expr = expression.trim();
+        List<Segment> segments = new ArrayList<>();
+        int pos = 0;
+        if (expr.startsWith("$")) {
+            pos = 1;
+        } else if (!expr.startsWith(".") && !expr.startsWith("[")) {
+            throw error(expression, 0, "表达式应以 $、. 或 [ 开头");
+        }
+        // jq风格的单独一个点表示整个文档
+        if (expr.equals(".")) {
+            pos = 1;
+        }
+        while (pos < expr.length()) {
+            Segment segment = new Segment();
+            char c = expr.charAt(pos);
+            if (c == '.') {
+                pos++;
+                if (pos < expr.length() && expr.charAt(pos) == '.') {
+                    segment.descendant = true;
+                    pos++;
+                }
+                if (pos >= expr.length()) {
+                    throw error(expression, pos, "缺少字段名");
+                }
+                if (expr.charAt(pos) == '[') {
+                    if (!segment.descendant) {
+                        continue;   // jq风格 .[0] 与 [0] 相同
+                    }
+                    pos = parseBracket(expression, expr, pos, segment);
+                } else if (expr.charAt(pos) == '*') {
+                    segment.wildcard = true;
+                    pos++;
+                } else {
+                    int start = pos;
+                    while (pos < expr.length() && ".[]*'\" ".indexOf(expr.charAt(pos)) < 0) {
+                        pos++;
+                    }
+                    if (pos == start) {
+                        throw error(expression, pos, "缺少字段名");
+                    }
+                    segment.names = new String[]{expr.substring(start, pos)};
+                }
+            } else if (c == '[') {
+                pos = parseBracket(expression, expr, pos, segment);
+            } else {
+                throw error(expression, pos, "无法识别的字符 '" + c + "'");
+            }
+            segments.add(segment);
+            if (segments.size() > MAX_SEGMENTS) {
+                throw error(expression, pos, "路径过长");
+            }
+        }
+        return new JsonPathQuery(expr, segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * 解析方括号段，返回 ] 之后的位置
+     */
+    private static int parseBracket(String expression, String expr, int pos, Segment segment) {
+        int close = findClose(expr, pos + 1);
+        if (close < 0) {
+            throw error(expression, pos, "缺少 ]");
+        }
+        String body = expr.substring(pos + 1, close).trim();
+        if (body.isEmpty() || body.equals("*")) {
+            segment.wildcard = true;     // [] 为jq风格的全部元素
+        } else if (body.startsWith("'") || body.startsWith("\"")) {
+            List<String> names = new ArrayList<>();
+            for (String part : splitUnion(body)) {
+                if (part.length() < 2 || part.charAt(0) != part.charAt(part.length() - 1)
+                        || (part.charAt(0) != '\'' && part.charAt(0) != '"')) {
+                    throw error(expression, pos, "字段名应加引号: " + part);
+                }
+                names.add(part.substring(1, part.length() - 1));
+            }
+            segment.names = names.toArray(new String[0]);
+        } else if (body.contains(":")) {
+            String[] range = body.split(":", -1);
+            if (range.length != 2) {
+                throw error(expression, pos, "切片格式应为 [start:end]");
+            }
+            segment.sliceStart = range[0].isBlank() ? 0 : parseIndex(expression, pos, range[0]);
+            segment.sliceEnd = range[1].isBlank() ? -1 : parseIndex(expression, pos, range[1]);
+        } else {
+            List<String> parts = splitUnion(body);
+            segment.indexes = new int[parts.size()];
+            for (int i = 0; i < parts.size(); i++) {
+                segment.indexes[i] = parseIndex(expression, pos, parts.get(i));
+            }
+        }
+        return close + 1;
+    }
+
+    private static int findClose(String expr, int from) {
+        char quote = 0;
+        for (int i = from; i < expr.length(); i++) {
+            char c = expr.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> splitUnion(String body) {
+        List<String> parts = new ArrayList<>();
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == ',') {
+                parts.add(body.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(body.substring(start).trim());
+        return parts;
+    }
+
+    private static int parseIndex(String expression, int pos, String text) {
+        try {
+            int index = Integer.parseInt(text.trim());
+            if (index < 0) {
+                throw error(expression, pos, "不支持负数下标（流式求值时数组长度未知）");
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw error(expression, pos, "无效的下标: " + text.trim());
+        }
+    }
+
+    private static IllegalArgumentException error(String expression, int pos, String message) {
+        return new IllegalArgumentException("查询表达式第" + (pos + 1) + "个字符: " + message + "（" + expression + "）");
+    }
+
+    /**
+     * 对文件求值，匹配结果每行一个写入out
+     *
+     * @return 匹配数
+     */
+    public long evaluate(Path source, Writer out) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             JsonParser parser = JSON_FACTORY.createParser(in)) {
+            return evaluate(parser, out);
+        }
+    }
+
+    /**
+     * 对字符串求值，匹配结果每行一个写入out
+     *
+     * @return 匹配数
+     */
+    public long evaluate(String json, Writer out) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return evaluate(parser, out);
+        }
+    }
+
+    private long evaluate(JsonParser parser, Writer out) throws IOException {
+        tokens = 0;
+        matches = 0;
+        skipped = 0;
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.setRootValueSeparator(null);   // 由每个匹配后的换行分隔
+            while (parser.nextToken() != null) {
+                value(parser, 1L, generator);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * 对当前值求值，states为到达该值时已匹配的段数集合（第i位表示已匹配前i段）
+     */
+    private void value(JsonParser parser, long states, JsonGenerator out) throws IOException {
+        tick(parser);
+        if ((states & finalState) != 0) {
+            matches++;
+            copyValue(parser, out);
+            out.writeRaw('\n');
+            return;
+        }
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                long next = step(states, name, -1);
+                if (next == 0) {
+                    skip(parser);
+                } else {
+                    value(parser, next, out);
+                }
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                long next = step(states, null, index++);
+                if (next == 0) {
+                    skip(parser);
+                } else {
+                    value(parser, next, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * 根节点处的状态集合，与 {@link #step} 和 {@link #isMatch} 配合用于判断已知路径是否匹配
+     */
+    public long initialStates() {
+        return 1L;
+    }
+
+    /**
+     * 状态集合所在的节点是否匹配表达式
+     */
+    public boolean isMatch(long states) {
+        return (states & finalState) != 0;
+    }
+
+    /**
+     * 子项（对象字段name或数组下标index）处的状态集合，为0表示其下不可能再匹配
+     */
+    public long step(long states, String name, int index) {
+        long next = 0;
+        for (int s = 0; s < segments.length; s++) {
+            if ((states & (1L << s)) == 0) {
+                continue;
+            }
+            Segment segment = segments[s];
+            if (segment.matches(name, index)) {
+                next |= 1L << (s + 1);
+            }
+            if (segment.descendant) {
+                next |= 1L << s;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * 跳过当前值（容器则跳到其结束记号），不解析字符串内容
+     */
+    private void skip(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isStructStart()) {
+            return;
+        }
+        skipped++;
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new IOException("JSON意外结束");
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            tick(parser);
+        }
+    }
+
+    /**
+     * 复制当前值，数字按原文输出
+     */
+    private void copyValue(JsonParser parser, JsonGenerator out) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                out.writeNumber(parser.getText());
+            } else {
+                out.copyCurrentEvent(parser);
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth > 0) {
+                parser.nextToken();
+                tick(parser);
+            }
+        } while (depth > 0);
+    }
+
+    private void tick(JsonParser parser) {
+        if (++tokens % CHECK_INTERVAL == 0) {
+            if (cancelled) {
+                throw new CancellationException("查询已取消");
+            }
+            if (progressListener != null) {
+                long offset = parser.currentLocation().getByteOffset();
+                progressListener.accept(offset >= 0 ? offset : parser.currentLocation().getCharOffset());
+            }
+        }
+    }
+
+    /**
+     * 以已消费的输入量（文件为字节，字符串为字符）回调进度，可在回调中抛出取消异常终止
+     */
+    public void setProgressListener(LongConsumer listener) {
+        this.progressListener = listener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public long getMatches() {
+        return matches;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,454 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * JSON树索引 - 一次流式扫描记录较大容器（对象/数组）的字节区间、子项数和分页偏移，展开节点时才从文件中解析其直接子项
+ * <p>
+ * 只索引不小于 {@value #MIN_INDEXED_BYTES} 字节或子项多于一页的容器，索引大小约为文件大小的千分之几；
+ * 小容器展开时直接从其起始偏移解析。解析子项遇到已索引的大容器时按索引跳过，不再扫描其内容。
+ * 子项多于 {@value #PAGE_SIZE} 个的容器按页展开。只浏览第一个顶层值。
+ */
+public class JsonTreeIndex implements AutoCloseable {
+
+    public static final int PAGE_SIZE = 1000;
+    static final int MIN_INDEXED_BYTES = 4096;
+    private static final int CHECK_INTERVAL = 4096;     // 每N个记号检查一次取消并更新进度
+    private static final int MAX_VALUE_CHARS = 200;     // 标量值显示的最大长度
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * 节点类型
+     */
+    public enum Kind {
+        OBJECT, ARRAY, VALUE, PAGE
+    }
+
+    /**
+     * 树节点 - 容器只保存区间和子项数，子项由 {@link #children(Node)} 按需解析
+     */
+    public static final class Node {
+        private final String key;
+        private final Kind kind;
+        private final String value;        // 标量值的显示文本
+        private final long start;          // 容器起始括号的偏移
+        private final long end;            // 容器结束括号的偏移
+        private final int count;           // 直接子项数
+        private final long[] pages;        // 各页第一个子项的偏移（仅分页容器）
+        private final Node owner;          // 分页节点所属的容器
+        private final int page;
+
+        private Node(String key, Kind kind, String value, long start, long end, int count, long[] pages,
+                     Node owner, int page) {
+            this.key = key;
+            this.kind = kind;
+            this.value = value;
+            this.start = start;
+            this.end = end;
+            this.count = count;
+            this.pages = pages;
+            this.owner = owner;
+            this.page = page;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 子树的字节数
+         */
+        public long getSize() {
+            return end - start + 1;
+        }
+
+        public boolean hasChildren() {
+            return kind != Kind.VALUE && count > 0;
+        }
+
+        @Override
+        public String toString() {
+            return switch (kind) {
+                case VALUE -> key + " : " + value;
+                case PAGE -> key + "  (" + count + " 项)";
+                case OBJECT -> key + " : {…}  " + count + " 项，" + formatSize(getSize());
+                case ARRAY -> key + " : […]  " + count + " 项，" + formatSize(getSize());
+            };
+        }
+    }
+
+    /**
+     * 扫描时的容器栈帧
+     */
+    private static final class Frame {
+        final long start;
+        final boolean array;
+        int count;
+        long[] pages;      // 第2页起各页首个子项的偏移，按需分配
+
+        Frame(long start, boolean array) {
+            this.start = start;
+            this.array = array;
+        }
+    }
+
+    private final Path path;
+    private final boolean temporary;
+    private final FileChannel channel;
+    private final long[] starts;        // 已索引容器的起始偏移，升序
+    private final Node[] containers;    // 与starts一一对应
+    private final Node root;
+
+    private JsonTreeIndex(Path path, boolean temporary, LongConsumer progress) throws IOException {
+        this.path = path;
+        this.temporary = temporary;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            List<Node> indexed = new ArrayList<>();
+            root = scan(indexed, progress);
+            indexed.sort(Comparator.comparingLong(n -> n.start));
+            containers = indexed.toArray(new Node[0]);
+            starts = new long[containers.length];
+            for (int i = 0; i < containers.length; i++) {
+                starts[i] = containers[i].start;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 为文件建立索引（耗时与文件大小成正比，应在后台线程调用）
+     *
+     * @param progress 以已扫描的字节数回调，可在回调中抛出取消异常终止
+     */
+    public static JsonTreeIndex open(Path path, LongConsumer progress) throws IOException {
+        return new JsonTreeIndex(path, false, progress);
+    }
+
+    /**
+     * 文本写入临时文件后建立索引，关闭时删除该临时文件
+     */
+    public static JsonTreeIndex fromText(String json, LongConsumer progress) throws IOException {
+        Path temp = Files.createTempFile("javafxtools-", ".json");
+        temp.toFile().deleteOnExit();
+        try {
+            Files.writeString(temp, json, StandardCharsets.UTF_8);
+            return new JsonTreeIndex(temp, true, progress);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * 扫描第一个顶层值，记录需要索引的容器
+     *
+     * @return 根节点
+     */
+    private Node scan(List<Node> indexed, LongConsumer progress) throws IOException {
+        Deque<Frame> stack = new ArrayDeque<>();
+        long tokens = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(new RangeInputStream(0, -1))) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                long offset = parser.currentTokenLocation().getByteOffset();
+                Frame parent = stack.peek();
+                if (parent != null && (parent.array ? token != JsonToken.END_ARRAY : token == JsonToken.FIELD_NAME)) {
+                    // 新的子项：数组的每个值，或对象的每个字段名
+                    if (parent.count > 0 && parent.count % PAGE_SIZE == 0) {
+                        int page = parent.count / PAGE_SIZE;
+                        if (parent.pages == null) {
+                            parent.pages = new long[4];
+                        } else if (page >= parent.pages.length) {
+                            parent.pages = Arrays.copyOf(parent.pages, parent.pages.length * 2);
+                        }
+                        parent.pages[page] = offset;
+                    }
+                    parent.count++;
+                }
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    stack.push(new Frame(offset, token == JsonToken.START_ARRAY));
+                } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    Frame frame = stack.pop();
+                    if (stack.isEmpty() || offset - frame.start + 1 >= MIN_INDEXED_BYTES || frame.count > PAGE_SIZE) {
+                        long[] pages = null;
+                        if (frame.count > PAGE_SIZE) {
+                            pages = Arrays.copyOf(frame.pages, (frame.count + PAGE_SIZE - 1) / PAGE_SIZE);
+                            pages[0] = frame.start + 1;
+                        }
+                        indexed.add(new Node(null, frame.array ? Kind.ARRAY : Kind.OBJECT, null,
+                                frame.start, offset, frame.count, pages, null, 0));
+                    }
+                }
+                if (stack.isEmpty() && token != JsonToken.FIELD_NAME) {
+                    // 第一个顶层值结束
+                    if (token.isScalarValue()) {
+                        return new Node("根", Kind.VALUE, displayValue(parser, token), offset, offset, 0, null, null, 0);
+                    }
+                    Node top = indexed.get(indexed.size() - 1);
+                    return new Node("根", top.kind, null, top.start, top.end, top.count, top.pages, null, 0);
+                }
+                if (++tokens % CHECK_INTERVAL == 0 && progress != null) {
+                    progress.accept(offset);
+                }
+            }
+        }
+        throw new IOException("没有JSON内容");
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * 节点的直接子项：分页容器返回页节点，页节点和普通容器从文件解析
+     */
+    public List<Node> children(Node node) throws IOException {
+        if (!node.hasChildren()) {
+            return Collections.emptyList();
+        }
+        if (node.kind != Kind.PAGE && node.pages != null) {
+            List<Node> pages = new ArrayList<>(node.pages.length);
+            for (int p = 0; p < node.pages.length; p++) {
+                int first = p * PAGE_SIZE;
+                int n = Math.min(PAGE_SIZE, node.count - first);
+                pages.add(new Node("[" + first + " … " + (first + n - 1) + "]", Kind.PAGE, null,
+                        node.start, node.end, n, null, node, p));
+            }
+            return pages;
+        }
+        Node container = node.kind == Kind.PAGE ? node.owner : node;
+        int page = node.kind == Kind.PAGE ? node.page : 0;
+        long from = container.pages == null ? container.start + 1 : container.pages[page];
+        return parseChildren(container.kind == Kind.ARRAY, from, page * PAGE_SIZE, node.count);
+    }
+
+    /**
+     * 从from开始解析limit个直接子项，from之前补一个起始括号使解析器处于容器内部
+     */
+    private List<Node> parseChildren(boolean array, long from, int firstIndex, int limit) throws IOException {
+        List<Node> children = new ArrayList<>(limit);
+        long base = from - 1;
+        JsonParser parser = openAt(array, from);
+        try {
+            for (int i = 0; i < limit; i++) {
+                String key;
+                if (array) {
+                    key = "[" + (firstIndex + i) + "]";
+                } else {
+                    parser.nextToken();
+                    key = parser.currentName();
+                }
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    throw new IOException("JSON意外结束");
+                }
+                if (token.isScalarValue()) {
+                    children.add(new Node(key, Kind.VALUE, displayValue(parser, token), 0, -1, 0, null, null, 0));
+                    continue;
+                }
+                long start = base + parser.currentTokenLocation().getByteOffset();
+                int slot = Arrays.binarySearch(starts, start);
+                if (slot < 0) {
+                    // 小容器：数出直接子项数并跳过其内容
+                    int count = countChildren(parser);
+                    long end = base + parser.currentTokenLocation().getByteOffset();
+                    children.add(new Node(key, token == JsonToken.START_ARRAY ? Kind.ARRAY : Kind.OBJECT, null,
+                            start, end, count, null, null, 0));
+                    continue;
+                }
+                // 已索引的大容器：不扫描内容，从其结束括号之后重新开始解析
+                Node c = containers[slot];
+                children.add(new Node(key, c.kind, null, c.start, c.end, c.count, c.pages, null, 0));
+                long next = nextSibling(c.end + 1);
+                if (next < 0) {
+                    break;
+                }
+                parser.close();
+                base = next - 1;
+                parser = openAt(array, next);
+            }
+        } finally {
+            parser.close();
+        }
+        return children;
+    }
+
+    private JsonParser openAt(boolean array, long from) throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(new RangeInputStream(from, array ? '[' : '{'));
+        parser.nextToken();   // 补上的起始括号
+        return parser;
+    }
+
+    /**
+     * 当前记号为容器开始，读到其结束记号，返回直接子项数
+     */
+    private static int countChildren(JsonParser parser) throws IOException {
+        int depth = 0;
+        int count = 0;
+        boolean array = parser.currentToken() == JsonToken.START_ARRAY;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token.isStructEnd()) {
+                if (depth == 0) {
+                    return count;
+                }
+                depth--;
+                continue;
+            }
+            if (depth == 0 && (array || token == JsonToken.FIELD_NAME)) {
+                count++;
+            }
+            if (token.isStructStart()) {
+                depth++;
+            }
+        }
+        throw new IOException("JSON意外结束");
+    }
+
+    /**
+     * 从pos起跳过空白，遇到逗号返回下一个子项的偏移，遇到结束括号返回-1
+     */
+    private long nextSibling(long pos) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (true) {
+            buffer.clear();
+            int n = channel.read(buffer, pos);
+            if (n <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < n; i++) {
+                byte b = buffer.get(i);
+                if (b == ',') {
+                    return pos + i + 1;
+                }
+                if (b == '}' || b == ']') {
+                    return -1;
+                }
+            }
+            pos += n;
+        }
+    }
+
+    /**
+     * 节点标签中的值：字符串按JSON转义（换行、引号等不会使标签跨行或含义不清），过长时截断
+     */
+    private static String displayValue(JsonParser parser, JsonToken token) throws IOException {
+        String text = parser.getText();
+        String suffix = "";
+        if (text.length() > MAX_VALUE_CHARS) {
+            suffix = "…（共 " + text.length() + " 字符）";
+            text = text.substring(0, MAX_VALUE_CHARS);
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(text)) + "\"" + suffix;
+        }
+        return text + suffix;
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / 1048576.0);
+    }
+
+    public int getIndexedCount() {
+        return containers.length;
+    }
+
+    public long getFileSize() throws IOException {
+        return channel.size();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            // 临时文件已登记deleteOnExit
+        }
+    }
+
+    /**
+     * 从指定偏移按位置读取文件的输入流，可在最前面补一个字节；多个流共用通道互不影响
+     */
+    private final class RangeInputStream extends InputStream {
+        private long position;
+        private int prefix;
+
+        RangeInputStream(long position, int prefix) {
+            this.position = position;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int written = 0;
+            if (prefix >= 0) {
+                b[off++] = (byte) prefix;
+                prefix = -1;
+                len--;
+                written = 1;
+                if (len == 0) {
+                    return written;
+                }
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (n < 0) {
+                return written > 0 ? written : -1;
+            }
+            position += n;
+            return written + n;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package plugin.javafxtools.service.format;
+
+/**
+ * 按行处理时的无效行（块内处理时暂存块内行号，合并后为从1开始的全局行号）
+ */
+public final class LineError {
+    private final long line;
+    private final String message;
+
+    LineError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "第" + line + "行: " + message;
+    }
+}
@@ -0,0 +1,252 @@
+package plugin.javafxtools.service.format;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * 按行索引的只读文本文件 - 内存映射UTF-8文件，一次扫描建立行偏移索引，按需解码单行
+ * <p>
+ * 索引为long数组，每 {@value #STRIDE} 行记录一个起始偏移，取第n行时从最近的记录点向后扫描，
+ * 千万行的文件索引也只占几MB。文件按1GB分段映射，可超过2GB。
+ * <p>
+ * 这里的"行"是显示行：超过 {@value #MAX_LINE_BYTES} 字节的行在UTF-8字符边界处折成多个显示行，
+ * 压缩后只有一行的大JSON也能完整查看，行号、跳转和查找都按显示行计算。
+ */
+public class LineIndexedFile implements AutoCloseable {
+
+    private static final int STRIDE_SHIFT = 4;
+    static final int STRIDE = 1 << STRIDE_SHIFT;                 // 每隔多少行记录一个偏移
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;  // 每段映射1GB
+    static final int MAX_LINE_BYTES = 16 * 1024;                   // 超过该字节数的行折成多个显示行
+    private static final long PROGRESS_INTERVAL = 64L * 1024 * 1024;
+
+    /**
+     * 写入临时文件的内容
+     */
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(Writer writer) throws Exception;
+    }
+
+    private final Path path;
+    private final boolean temporary;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+    private long[] checkpoints = new long[1024];
+    private int lineCount;
+
+    private LineIndexedFile(Path path, boolean temporary, LongConsumer progress) throws IOException {
+        this.path = path;
+        this.temporary = temporary;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+        buildIndex(progress);
+    }
+
+    /**
+     * 打开文件并建立行索引（耗时与文件大小成正比，应在后台线程调用）
+     *
+     * @param progress 以已扫描的字节数回调，可为null
+     */
+    public static LineIndexedFile open(Path path, LongConsumer progress) throws IOException {
+        return new LineIndexedFile(path, false, progress);
+    }
+
+    /**
+     * 打开临时文件并建立行索引，关闭时删除该文件
+     */
+    public static LineIndexedFile openTemporary(Path path, LongConsumer progress) throws IOException {
+        return new LineIndexedFile(path, true, progress);
+    }
+
+    /**
+     * 把内容写入临时文件后打开，关闭时删除该临时文件
+     */
+    public static LineIndexedFile fromTempFile(Content content) throws Exception {
+        Path temp = Files.createTempFile("javafxtools-", ".txt");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                content.writeTo(writer);
+            }
+            return new LineIndexedFile(temp, true, null);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private void buildIndex(LongConsumer progress) {
+        int lines = 0;
+        long nextReport = PROGRESS_INTERVAL;
+        for (long pos = 0; pos < size && lines < Integer.MAX_VALUE; lines++) {
+            if ((lines & (STRIDE - 1)) == 0) {
+                int slot = lines >>> STRIDE_SHIFT;
+                if (slot == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, slot * 2);
+                }
+                checkpoints[slot] = pos;
+            }
+            pos = nextLineStart(pos);   // 末尾换行不产生空行
+            if (progress != null && pos >= nextReport) {
+                progress.accept(pos);
+                nextReport += PROGRESS_INTERVAL;
+            }
+        }
+        lineCount = lines;
+    }
+
+    /**
+     * 从start开始的显示行之后下一行的起始偏移：换行符之后，行过长时为不超过 {@value #MAX_LINE_BYTES}
+     * 字节的最后一个字符边界，最后一行为文件末尾
+     */
+    private long nextLineStart(long start) {
+        long limit = Math.min(size, start + MAX_LINE_BYTES);
+        for (long pos = start; pos < limit; pos++) {
+            if (byteAt(pos) == '\n') {
+                return pos + 1;
+            }
+        }
+        if (limit == size) {
+            return size;
+        }
+        if (byteAt(limit) == '\n') {
+            return limit + 1;   // 恰好满长的行不折出空行
+        }
+        long cut = limit;
+        while (cut > start && (byteAt(cut) & 0xC0) == 0x80) {
+            cut--;   // 不拆开多字节字符
+        }
+        return cut > start ? cut : limit;
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    /**
+     * 第line行的起始偏移
+     */
+    public long lineStart(int line) {
+        long pos = checkpoints[line >>> STRIDE_SHIFT];
+        for (int skip = line & (STRIDE - 1); skip > 0; skip--) {
+            pos = nextLineStart(pos);
+        }
+        return pos;
+    }
+
+    /**
+     * 解码一个显示行，去掉行尾换行和\r
+     */
+    public String getLine(int line) {
+        long start = lineStart(line);
+        long end = nextLineStart(start);
+        if (end > start && byteAt(end - 1) == '\n') {
+            end--;
+            if (end > start && byteAt(end - 1) == '\r') {
+                end--;
+            }
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 偏移所在的行号
+     */
+    public int lineOf(long offset) {
+        int slot = Arrays.binarySearch(checkpoints, 0, (lineCount + STRIDE - 1) >>> STRIDE_SHIFT, offset);
+        if (slot < 0) {
+            slot = -slot - 2;
+        }
+        int line = slot << STRIDE_SHIFT;
+        long next = nextLineStart(checkpoints[slot]);
+        while (next <= offset && next < size) {
+            next = nextLineStart(next);
+            line++;
+        }
+        return line;
+    }
+
+    /**
+     * 从指定偏移向后查找
+     *
+     * @param pattern    UTF-8编码的查找内容
+     * @param from       起始偏移
+     * @param ignoreCase 是否忽略大小写（仅对ASCII字母生效）
+     * @return 匹配的起始偏移，未找到为-1
+     */
+    public long find(byte[] pattern, long from, boolean ignoreCase) {
+        if (pattern.length == 0) {
+            return -1;
+        }
+        byte first = ignoreCase ? lower(pattern[0]) : pattern[0];
+        long last = size - pattern.length;
+        for (long pos = Math.max(0, from); pos <= last; pos++) {
+            byte b = byteAt(pos);
+            if ((ignoreCase ? lower(b) : b) != first) {
+                continue;
+            }
+            int i = 1;
+            while (i < pattern.length) {
+                byte c = byteAt(pos + i);
+                if (ignoreCase ? lower(c) != lower(pattern[i]) : c != pattern[i]) {
+                    break;
+                }
+                i++;
+            }
+            if (i == pattern.length) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 关闭；临时文件同时删除（映射在GC回收前仍占用文件，删除失败时改由退出时删除）
+     */
+    @Override
+    public void close() {
+        if (temporary) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                path.toFile().deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * NDJSON并行处理 - 文件按行边界切成若干块，在线程池中并行校验/格式化/压缩/提取字段，再按原顺序合并输出
+ * <p>
+ * 同一时刻只有约两倍线程数的块在处理或等待写出，内存占用与文件大小无关。无效行不输出，按全局行号报告；空行忽略。
+ */
+public class NdjsonProcessor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .configure(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES, false);
+
+    /**
+     * 处理方式
+     */
+    public enum Operation {
+        VALIDATE("校验"),
+        PRETTY("格式化"),
+        MINIFY("压缩"),
+        PROJECT("提取字段");
+
+        private final String displayName;
+
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 处理结果统计
+     */
+    public static final class Result {
+        private long lines;
+        private long valid;
+        private long invalid;
+        private long bytes;
+        private long outputBytes;
+        private long elapsedNanos;
+        private int chunks;
+        private int parallelism;
+        private final List<LineError> errors = new ArrayList<>();
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getValid() {
+            return valid;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public long getOutputBytes() {
+            return outputBytes;
+        }
+
+        public List<LineError> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public double getMegabytesPerSecond() {
+            return bytes / 1048576.0 / Math.max(elapsedNanos / 1e9, 1e-6);
+        }
+
+        public String summary() {
+            return String.format("%d 行（有效 %d，无效 %d），%d 块，%d 线程，耗时 %.2f 秒，%.1f MB/s",
+                    lines, valid, invalid, chunks, parallelism, elapsedNanos / 1e9, getMegabytesPerSecond());
+        }
+    }
+
+    /**
+     * 单块的输出缓冲，出错时可回退到行首
+     */
+    private static final class ChunkOutput extends ByteArrayOutputStream {
+        ChunkOutput(int size) {
+            super(size);
+        }
+
+        void truncate(int length) {
+            count = length;
+        }
+    }
+
+    /**
+     * 单块的处理结果，行号为块内行号（从0开始）
+     */
+    private static final class ChunkResult {
+        ChunkOutput output;
+        int lines;
+        int valid;
+        int invalid;
+        final List<LineError> errors = new ArrayList<>();
+    }
+
+    private final Operation operation;
+    private final List<String> fieldNames;
+    private final List<JsonPointer> fieldPointers;
+    private final int parallelism;
+    private LongConsumer progressListener;
+    private volatile boolean cancelled;
+
+    /**
+     * @param operation   处理方式
+     * @param fields      提取的字段，支持 a.b 形式的嵌套路径，仅PROJECT使用
+     * @param parallelism 并行线程数
+     */
+    public NdjsonProcessor(Operation operation, List<String> fields, int parallelism) {
+        this.operation = operation;
+        this.fieldNames = List.copyOf(fields);
+        this.fieldPointers = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            fieldPointers.add(JsonPointer.compile("/" + field.replace("~", "~0").replace("/", "~1").replace('.', '/')));
+        }
+        this.parallelism = Math.max(1, parallelism);
+        if (operation == Operation.PROJECT && fields.isEmpty()) {
+            throw new IllegalArgumentException("请指定要提取的字段");
+        }
+    }
+
+    /**
+     * 处理文件（阻塞，应在后台线程调用）
+     *
+     * @param source 输入文件
+     * @param out    输出，校验模式可为null
+     */
+    public Result process(Path source, OutputStream out) throws IOException {
+        Result result = new Result();
+        result.parallelism = parallelism;
+        long begin = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            result.bytes = size;
+            result.chunks = ChunkedFileRunner.run(parallelism, 0, () -> size,
+                    start -> ChunkedFileRunner.lineChunkEnd(channel, start, size),
+                    (start, end) -> processChunk(channel, start, end),
+                    (chunk, end) -> merge(chunk, end, result, out));
+        } finally {
+            cancelled = true;   // 异常退出时让未完成的块尽快结束
+        }
+        if (out != null) {
+            out.flush();
+        }
+        result.elapsedNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    /**
+     * 按顺序合并一块的结果，块内行号换算为全局行号
+     */
+    private void merge(ChunkResult chunk, long end, Result result, OutputStream out) throws IOException {
+        ChunkedFileRunner.rebase(chunk.errors, result.lines, result.errors);
+        result.lines += chunk.lines;
+        result.valid += chunk.valid;
+        result.invalid += chunk.invalid;
+        if (out != null && chunk.output != null) {
+            chunk.output.writeTo(out);
+            result.outputBytes += chunk.output.size();
+        }
+        if (progressListener != null) {
+            progressListener.accept(end);
+        }
+    }
+
+    /**
+     * 处理一块：读入字节，逐行解析
+     */
+    private ChunkResult processChunk(FileChannel channel, long start, long end) throws IOException {
+        int length = (int) (end - start);
+        byte[] bytes = new byte[length];
+        ChunkedFileRunner.read(channel, start, bytes, 0, length);
+        ChunkResult result = new ChunkResult();
+        if (operation != Operation.VALIDATE) {
+            result.output = new ChunkOutput(operation == Operation.PRETTY ? length * 2 : length);
+        }
+        processLines(bytes, length, result);
+        return result;
+    }
+
+    private void processLines(byte[] bytes, int length, ChunkResult result) throws IOException {
+        JsonGenerator generator = createGenerator(result.output);
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (cancelled) {
+                throw new CancellationException("处理已取消");
+            }
+            int lineEnd = lineStart;
+            while (lineEnd < length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int line = result.lines++;
+            String error = processLine(bytes, lineStart, lineEnd - lineStart, generator, result);
+            if (error != null) {
+                result.invalid++;
+                if (result.errors.size() < ChunkedFileRunner.MAX_ERRORS) {
+                    result.errors.add(new LineError(line, error));
+                }
+                // 生成器可能停在半个值中，丢弃该行已写出的内容并重建
+                generator = createGenerator(result.output);
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (generator != null) {
+            generator.close();
+        }
+    }
+
+    private JsonGenerator createGenerator(ChunkOutput output) throws IOException {
+        if (output == null) {
+            return null;
+        }
+        JsonGenerator generator = MAPPER.createGenerator(output);
+        generator.setRootValueSeparator(null);
+        if (operation == Operation.PRETTY) {
+            generator.setPrettyPrinter(new DefaultPrettyPrinter().withRootSeparator((String) null));
+        }
+        return generator;
+    }
+
+    /**
+     * 处理一行
+     *
+     * @return 错误描述，有效行或空行返回null
+     */
+    private String processLine(byte[] bytes, int offset, int length, JsonGenerator generator, ChunkResult result)
+            throws IOException {
+        int mark = result.output == null ? 0 : result.output.size();
+        try (JsonParser parser = MAPPER.createParser(bytes, offset, length)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;    // 空行：计入行号，不算有效或无效
+            }
+            switch (operation) {
+                case VALIDATE -> validateValue(parser);
+                case PRETTY, MINIFY -> copyValue(parser, generator);
+                case PROJECT -> project(parser, generator);
+            }
+            if (parser.nextToken() != null) {
+                throw new IOException("一行只能包含一个JSON值");
+            }
+            if (generator != null) {
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+            result.valid++;
+            return null;
+        } catch (IOException e) {
+            if (result.output != null) {
+                if (generator != null) {
+                    try {
+                        generator.flush();
+                    } catch (IOException ignored) {
+                        // 生成器将被重建
+                    }
+                }
+                result.output.truncate(mark);
+            }
+            return ChunkedFileRunner.firstLine(e);
+        }
+    }
+
+    /**
+     * 完整解析当前值（包括字符串内容和转义），不输出
+     */
+    private static void validateValue(JsonParser parser) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = parser.currentToken();
+            parser.finishToken();
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth > 0 && parser.nextToken() == null) {
+                throw new IOException("JSON意外结束");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * 复制当前值，数字按原文输出
+     */
+    private static void copyValue(JsonParser parser, JsonGenerator generator) throws IOException {
+        int depth = 0;
+        do {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                generator.writeNumber(parser.getText());
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth > 0 && parser.nextToken() == null) {
+                throw new IOException("JSON意外结束");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * 只输出指定字段，缺失的字段省略
+     */
+    private void project(JsonParser parser, JsonGenerator generator) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            throw new IOException("不是JSON对象，无法提取字段");
+        }
+        JsonNode node = MAPPER.readTree(parser);
+        ObjectNode projected = MAPPER.createObjectNode();
+        for (int i = 0; i < fieldPointers.size(); i++) {
+            JsonNode value = node.at(fieldPointers.get(i));
+            if (!value.isMissingNode()) {
+                projected.set(fieldNames.get(i), value);
+            }
+        }
+        generator.writeTree(projected);
+    }
+
+    /**
+     * 以已处理的字节数回调进度，可在回调中抛出取消异常终止
+     */
+    public void setProgressListener(LongConsumer listener) {
+        this.progressListener = listener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+}
@@ -0,0 +1,818 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * JSON Schema推断 - 流式读取记录，各块在线程池中并行生成可合并的结构摘要，再按原顺序合并输出JSON Schema
+ * <p>
+ * 文件以 {@code [} 开头时按顶层数组元素切块（字节级扫描顶层逗号），否则按NDJSON行切块，无效行按行号报告。
+ * 摘要记录每个路径出现的类型及次数、是否必需、数值范围、字符串长度与格式、数组长度，不同值个数用HyperLogLog估计；
+ * 每个对象最多跟踪 {@link #MAX_PROPERTIES} 个字段，其余并入 additionalProperties，内存与记录数无关。
+ */
+public class SchemaInferrer {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAX_PROPERTIES = 1000;     // 每个对象跟踪的字段上限，防止以ID为键的对象撑大摘要
+    private static final int MAX_ENUM_VALUES = 16;      // 不同值不超过此数时精确保留，可输出为enum
+    private static final int MAX_ENUM_LENGTH = 64;
+    private static final String SCHEMA_URI = "https://json-schema.org/draft/2020-12/schema";
+
+    /**
+     * 值的类型，顺序即JSON Schema中type的输出顺序
+     */
+    private enum Type {
+        OBJECT("object"), ARRAY("array"), STRING("string"), INTEGER("integer"),
+        NUMBER("number"), BOOLEAN("boolean"), NULL("null");
+
+        final String schemaName;
+
+        Type(String schemaName) {
+            this.schemaName = schemaName;
+        }
+    }
+
+    /**
+     * 字符串格式，按位记录尚未被否定的候选格式
+     */
+    private enum Format {
+        DATE_TIME("date-time"), DATE("date"), UUID("uuid"), EMAIL("email"), URI("uri");
+
+        final String schemaName;
+
+        Format(String schemaName) {
+            this.schemaName = schemaName;
+        }
+    }
+
+    /**
+     * 推断结果统计
+     */
+    public static final class Result {
+        private long records;
+        private long invalid;
+        private long lines;
+        private long bytes;
+        private long elapsedNanos;
+        private int chunks;
+        private int parallelism;
+        private int paths;
+        private final List<LineError> errors = new ArrayList<>();
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public int getPaths() {
+            return paths;
+        }
+
+        public List<LineError> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public String summary() {
+            return String.format("%d 条记录（无效 %d），%d 个路径，%d 块，%d 线程，耗时 %.2f 秒，%.1f MB/s",
+                    records, invalid, paths, chunks, parallelism, elapsedNanos / 1e9,
+                    bytes / 1048576.0 / Math.max(elapsedNanos / 1e9, 1e-6));
+        }
+    }
+
+    /**
+     * 一个路径上所有值的可合并摘要
+     */
+    private static final class Summary {
+        long count;                                 // 出现次数（含null）
+        final long[] types = new long[Type.values().length];
+        Map<String, Summary> properties;
+        Summary additional;                         // 超出字段上限的其余字段
+        Summary items;
+        long minItems = Long.MAX_VALUE;
+        long maxItems = -1;
+        double minimum = Double.POSITIVE_INFINITY;
+        double maximum = Double.NEGATIVE_INFINITY;
+        int minLength = Integer.MAX_VALUE;
+        int maxLength = -1;
+        int formats = (1 << Format.values().length) - 1;
+        HyperLogLog distinct;
+        Set<String> values;                         // 少量不同值时精确保留
+        boolean manyValues;                         // 不同值超过上限，values已丢弃
+
+        Summary property(String name) {
+            if (properties == null) {
+                properties = new LinkedHashMap<>();
+            }
+            Summary child = properties.get(name);
+            if (child == null) {
+                if (properties.size() >= MAX_PROPERTIES) {
+                    if (additional == null) {
+                        additional = new Summary();
+                    }
+                    return additional;
+                }
+                child = new Summary();
+                properties.put(name, child);
+            }
+            return child;
+        }
+
+        Summary items() {
+            if (items == null) {
+                items = new Summary();
+            }
+            return items;
+        }
+
+        void addScalar(String text, long seed) {
+            if (distinct == null) {
+                distinct = new HyperLogLog();
+            }
+            distinct.add(HyperLogLog.hash(text, seed));
+            if (manyValues) {
+                return;
+            }
+            if (values == null) {
+                values = new LinkedHashSet<>();
+            }
+            if (text.length() > MAX_ENUM_LENGTH || (values.add(text) && values.size() > MAX_ENUM_VALUES)) {
+                values = null;
+                manyValues = true;
+            }
+        }
+
+        /**
+         * 合并另一块的摘要，新字段追加在已有字段之后
+         */
+        void merge(Summary other) {
+            count += other.count;
+            for (int i = 0; i < types.length; i++) {
+                types[i] += other.types[i];
+            }
+            if (other.properties != null) {
+                for (Map.Entry<String, Summary> entry : other.properties.entrySet()) {
+                    property(entry.getKey()).merge(entry.getValue());
+                }
+            }
+            if (other.additional != null) {
+                if (additional == null) {
+                    additional = new Summary();
+                }
+                additional.merge(other.additional);
+            }
+            if (other.items != null) {
+                items().merge(other.items);
+            }
+            minItems = Math.min(minItems, other.minItems);
+            maxItems = Math.max(maxItems, other.maxItems);
+            minimum = Math.min(minimum, other.minimum);
+            maximum = Math.max(maximum, other.maximum);
+            minLength = Math.min(minLength, other.minLength);
+            maxLength = Math.max(maxLength, other.maxLength);
+            formats &= other.formats;
+            if (other.distinct != null) {
+                if (distinct == null) {
+                    distinct = new HyperLogLog();
+                }
+                distinct.merge(other.distinct);
+            }
+            if (other.manyValues) {
+                values = null;
+                manyValues = true;
+            } else if (other.values != null && !manyValues) {
+                if (values == null) {
+                    values = new LinkedHashSet<>();
+                }
+                values.addAll(other.values);
+                if (values.size() > MAX_ENUM_VALUES) {
+                    values = null;
+                    manyValues = true;
+                }
+            }
+        }
+
+        int paths() {
+            int paths = 1;
+            if (properties != null) {
+                for (Summary child : properties.values()) {
+                    paths += child.paths();
+                }
+            }
+            if (additional != null) {
+                paths += additional.paths();
+            }
+            if (items != null) {
+                paths += items.paths();
+            }
+            return paths;
+        }
+    }
+
+    /**
+     * 单块的摘要，行号为块内行号（从0开始）
+     */
+    private static final class ChunkResult {
+        Summary summary = new Summary();
+        long records;
+        int lines;
+        int invalid;
+        final List<LineError> errors = new ArrayList<>();
+    }
+
+    private final int parallelism;
+    private final boolean statistics;
+    private LongConsumer progressListener;
+    private volatile boolean cancelled;
+
+    /**
+     * @param parallelism 并行线程数
+     * @param statistics  是否在Schema中附加 x-count、x-distinct 等统计注解
+     */
+    public SchemaInferrer(int parallelism, boolean statistics) {
+        this.parallelism = Math.max(1, parallelism);
+        this.statistics = statistics;
+    }
+
+    public void setProgressListener(LongConsumer listener) {
+        this.progressListener = listener;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 推断文本的Schema（单线程）：顶层为数组时每个元素是一条记录，否则每个顶层值是一条记录
+     */
+    public Result infer(String json, Writer out) throws IOException {
+        Result result = new Result();
+        result.parallelism = 1;
+        result.bytes = json.length();
+        long begin = System.nanoTime();
+        Summary root = new Summary();
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    addRecord(parser, root);
+                    recordAdded(parser, result);
+                }
+                if (parser.nextToken() != null) {
+                    throw new IOException("顶层数组之后还有内容");
+                }
+            } else {
+                for (; token != null; token = parser.nextToken()) {
+                    addRecord(parser, root);
+                    recordAdded(parser, result);
+                }
+            }
+        }
+        result.chunks = 1;
+        result.paths = root.paths();
+        writeSchema(root, result.records, out);
+        result.elapsedNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    private void recordAdded(JsonParser parser, Result result) {
+        if ((++result.records & 1023) == 0) {
+            if (cancelled) {
+                throw new CancellationException("推断已取消");
+            }
+            if (progressListener != null) {
+                progressListener.accept(parser.currentLocation().getCharOffset());
+            }
+        }
+    }
+
+    /**
+     * 推断文件的Schema（阻塞，应在后台线程调用）
+     *
+     * @param source JSON数组或NDJSON文件
+     * @param out    Schema输出
+     */
+    public Result infer(Path source, Writer out) throws IOException {
+        Result result = new Result();
+        result.parallelism = parallelism;
+        long begin = System.nanoTime();
+        Summary root = new Summary();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            result.bytes = size;
+            ArrayScanner scanner = ArrayScanner.open(channel, size);
+            boolean array = scanner != null;
+            // 数组的结束位置在扫描到顶层 ] 时才确定
+            result.chunks = ChunkedFileRunner.run(parallelism, array ? scanner.position : 0,
+                    () -> array ? scanner.end : size,
+                    start -> {
+                        if (cancelled) {
+                            throw new CancellationException("推断已取消");
+                        }
+                        return array ? scanner.next(start) : ChunkedFileRunner.lineChunkEnd(channel, start, size);
+                    },
+                    (start, end) -> processChunk(channel, start, end, array),
+                    (chunk, end) -> merge(chunk, end, root, result));
+        } finally {
+            cancelled = true;   // 异常退出时让未完成的块尽快结束
+        }
+        result.paths = root.paths();
+        writeSchema(root, result.records, out);
+        result.elapsedNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    /**
+     * 顶层数组的切块扫描：跟踪字符串和嵌套深度，在深度1的逗号之后切开，保证每块只含完整的元素
+     */
+    private static final class ArrayScanner {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        private long bufferStart;
+        private long position;      // 第一个元素的起始位置
+        private long end;           // 顶层数组结束的 ] 所在位置
+        private long scanned;       // 已扫描到的位置
+        private int depth = 1;
+        private boolean inString;
+        private boolean escaped;
+
+        private ArrayScanner(FileChannel channel, long size) {
+            this.channel = channel;
+            this.end = size;
+            buffer.limit(0);
+        }
+
+        /**
+         * 文件以 [ 开头时返回扫描器，否则返回null（按NDJSON处理）
+         */
+        static ArrayScanner open(FileChannel channel, long size) throws IOException {
+            ByteBuffer head = ByteBuffer.allocate(4096);
+            long pos = 0;
+            while (pos < size) {
+                head.clear();
+                int n = channel.read(head, pos);
+                if (n <= 0) {
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    byte b = head.get(i);
+                    if (b == ' ' || b == '\t' || b == '\r' || b == '\n' || (pos == 0 && i < 3 && (b & 0x80) != 0)) {
+                        continue;   // 空白和UTF-8 BOM
+                    }
+                    if (b != '[') {
+                        return null;
+                    }
+                    ArrayScanner scanner = new ArrayScanner(channel, size);
+                    scanner.position = pos + i + 1;
+                    scanner.scanned = scanner.position;
+                    return scanner;
+                }
+                pos += n;
+            }
+            return null;
+        }
+
+        /**
+         * 从start向后约 {@link ChunkedFileRunner#CHUNK_BYTES} 处之后的第一个顶层逗号之后；到达顶层 ] 时返回其位置
+         */
+        long next(long start) throws IOException {
+            long target = start + ChunkedFileRunner.CHUNK_BYTES;
+            if (depth == 0) {
+                return end;
+            }
+            while (scanned < end) {
+                int offset = (int) (scanned - bufferStart);
+                if (offset < 0 || offset >= buffer.limit()) {
+                    buffer.clear();
+                    if (channel.read(buffer, scanned) <= 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    bufferStart = scanned;
+                    offset = 0;
+                }
+                byte b = buffer.get(offset);
+                scanned++;
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                } else if (b == '"') {
+                    inString = true;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    if (--depth == 0) {
+                        end = scanned - 1;
+                        return end;
+                    }
+                } else if (b == ',' && depth == 1 && scanned >= target) {
+                    return scanned;
+                }
+            }
+            end = scanned;
+            return end;
+        }
+    }
+
+    /**
+     * 按顺序合并一块的摘要，块内行号换算为全局行号
+     */
+    private void merge(ChunkResult chunk, long end, Summary root, Result result) {
+        ChunkedFileRunner.rebase(chunk.errors, result.lines, result.errors);
+        result.lines += chunk.lines;
+        result.records += chunk.records;
+        result.invalid += chunk.invalid;
+        root.merge(chunk.summary);
+        if (progressListener != null) {
+            progressListener.accept(end);
+        }
+    }
+
+    /**
+     * 处理一块：读入字节，数组块整体解析，NDJSON块逐行解析
+     */
+    private ChunkResult processChunk(FileChannel channel, long start, long end, boolean array) throws IOException {
+        int length = (int) (end - start);
+        // 数组块前后补上方括号，作为一个数组解析
+        int offset = array ? 1 : 0;
+        byte[] bytes = new byte[length + 2 * offset];
+        ChunkedFileRunner.read(channel, start, bytes, offset, length);
+        ChunkResult result = new ChunkResult();
+        if (array) {
+            processElements(bytes, length, start, result);
+        } else {
+            processLines(bytes, length, result);
+        }
+        return result;
+    }
+
+    /**
+     * 数组块补上方括号后整体解析，出错时报告文件中的字节位置
+     */
+    private void processElements(byte[] bytes, int length, long start, ChunkResult result) {
+        int last = length;
+        while (last > 0 && bytes[last] <= ' ') {
+            last--;
+        }
+        if (last > 0 && bytes[last] == ',') {
+            bytes[last] = ']';          // 块末尾的逗号
+        } else {
+            bytes[++last] = ']';
+        }
+        bytes[0] = '[';
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes, 0, last + 1)) {
+            parser.nextToken();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (cancelled) {
+                    throw new CancellationException("推断已取消");
+                }
+                addRecord(parser, result.summary);
+                result.records++;
+            }
+        } catch (IOException e) {
+            // 位置按块内偏移计算，减去补上的 [
+            long offset = e instanceof JsonProcessingException jpe && jpe.getLocation() != null
+                    ? Math.max(0, jpe.getLocation().getByteOffset() - 1) : 0;
+            throw new IllegalStateException(String.format("第 %d 字节附近: %s", start + offset, ChunkedFileRunner.firstLine(e)), e);
+        }
+    }
+
+    /**
+     * 逐行计入摘要；无效行可能已计入一部分，块内出现无效行时跳过这些行重新汇总一遍
+     */
+    private void processLines(byte[] bytes, int length, ChunkResult result) {
+        Set<Integer> invalidLines = summarizeLines(bytes, length, result, null);
+        if (!invalidLines.isEmpty()) {
+            result.summary = new Summary();
+            result.records = 0;
+            result.lines = 0;
+            summarizeLines(bytes, length, result, invalidLines);
+        }
+    }
+
+    private Set<Integer> summarizeLines(byte[] bytes, int length, ChunkResult result, Set<Integer> skip) {
+        Set<Integer> invalidLines = new HashSet<>();
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (cancelled) {
+                throw new CancellationException("推断已取消");
+            }
+            int lineEnd = lineStart;
+            while (lineEnd < length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int line = result.lines++;
+            if (skip == null || !skip.contains(line)) {
+                try (JsonParser parser = JSON_FACTORY.createParser(bytes, lineStart, lineEnd - lineStart)) {
+                    if (parser.nextToken() != null) {
+                        addRecord(parser, result.summary);
+                        if (parser.nextToken() != null) {
+                            throw new IOException("一行只能包含一个JSON值");
+                        }
+                        result.records++;
+                    }
+                } catch (IOException e) {
+                    invalidLines.add(line);
+                    result.invalid++;
+                    if (result.errors.size() < ChunkedFileRunner.MAX_ERRORS) {
+                        result.errors.add(new LineError(line, ChunkedFileRunner.firstLine(e)));
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return invalidLines;
+    }
+
+    /**
+     * 把解析器当前位置的值计入摘要，解析器停在该值的最后一个记号上
+     */
+    private static void addRecord(JsonParser parser, Summary summary) throws IOException {
+        summary.count++;
+        switch (parser.currentToken()) {
+            case START_OBJECT -> {
+                summary.types[Type.OBJECT.ordinal()]++;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    Summary child = summary.property(parser.getCurrentName());
+                    parser.nextToken();
+                    addRecord(parser, child);
+                }
+            }
+            case START_ARRAY -> {
+                summary.types[Type.ARRAY.ordinal()]++;
+                long size = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    addRecord(parser, summary.items());
+                    size++;
+                }
+                summary.minItems = Math.min(summary.minItems, size);
+                summary.maxItems = Math.max(summary.maxItems, size);
+            }
+            case VALUE_STRING -> {
+                summary.types[Type.STRING.ordinal()]++;
+                String text = parser.getText();
+                int length = text.codePointCount(0, text.length());
+                summary.minLength = Math.min(summary.minLength, length);
+                summary.maxLength = Math.max(summary.maxLength, length);
+                if (summary.formats != 0) {
+                    summary.formats &= formatsOf(text);
+                }
+                summary.addScalar(text, 1);
+            }
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+                summary.types[(parser.currentToken() == JsonToken.VALUE_NUMBER_INT ? Type.INTEGER : Type.NUMBER)
+                        .ordinal()]++;
+                double value = parser.getDoubleValue();
+                summary.minimum = Math.min(summary.minimum, value);
+                summary.maximum = Math.max(summary.maximum, value);
+                summary.addScalar(parser.getText(), 2);
+            }
+            case VALUE_TRUE, VALUE_FALSE -> {
+                summary.types[Type.BOOLEAN.ordinal()]++;
+                summary.addScalar(parser.getText(), 3);
+            }
+            case VALUE_NULL -> summary.types[Type.NULL.ordinal()]++;
+            default -> throw new IOException("无法识别的记号: " + parser.currentToken());
+        }
+    }
+
+    /**
+     * 字符串符合的候选格式位图，只做字符级检查
+     */
+    private static int formatsOf(String s) {
+        int formats = 0;
+        int n = s.length();
+        if (n >= 10 && isDate(s)) {
+            if (n == 10) {
+                formats |= 1 << Format.DATE.ordinal();
+            } else if (isDateTimeSuffix(s)) {
+                formats |= 1 << Format.DATE_TIME.ordinal();
+            }
+        }
+        if (n == 36 && isUuid(s)) {
+            formats |= 1 << Format.UUID.ordinal();
+        }
+        int at = s.indexOf('@');
+        if (at > 0 && at == s.lastIndexOf('@') && s.indexOf('.', at) > at + 1 && !s.endsWith(".")
+                && s.indexOf(' ') < 0) {
+            formats |= 1 << Format.EMAIL.ordinal();
+        }
+        int scheme = s.indexOf("://");
+        if (scheme > 0 && s.indexOf(' ') < 0) {
+            boolean letters = true;
+            for (int i = 0; i < scheme && letters; i++) {
+                char c = s.charAt(i);
+                letters = Character.isLetterOrDigit(c) || c == '+' || c == '-' || c == '.';
+            }
+            if (letters && Character.isLetter(s.charAt(0))) {
+                formats |= 1 << Format.URI.ordinal();
+            }
+        }
+        return formats;
+    }
+
+    private static boolean isDate(String s) {
+        return digits(s, 0, 4) && s.charAt(4) == '-' && digits(s, 5, 7) && s.charAt(7) == '-' && digits(s, 8, 10);
+    }
+
+    /**
+     * 日期之后的 THH:MM:SS[.fraction](Z|±HH:MM)
+     */
+    private static boolean isDateTimeSuffix(String s) {
+        int n = s.length();
+        if (n < 20 || (s.charAt(10) != 'T' && s.charAt(10) != 't') || !digits(s, 11, 13) || s.charAt(13) != ':'
+                || !digits(s, 14, 16) || s.charAt(16) != ':' || !digits(s, 17, 19)) {
+            return false;
+        }
+        int i = 19;
+        if (s.charAt(i) == '.') {
+            i++;
+            int fraction = i;
+            while (i < n && Character.isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i == fraction) {
+                return false;
+            }
+        }
+        if (i == n - 1) {
+            return s.charAt(i) == 'Z' || s.charAt(i) == 'z';
+        }
+        return i == n - 6 && (s.charAt(i) == '+' || s.charAt(i) == '-') && digits(s, i + 1, i + 3)
+                && s.charAt(i + 3) == ':' && digits(s, i + 4, i + 6);
+    }
+
+    private static boolean isUuid(String s) {
+        for (int i = 0; i < 36; i++) {
+            char c = s.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean digits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------- 输出
+
+    private void writeSchema(Summary root, long records, Writer out) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out);
+        generator.setPrettyPrinter(new DefaultPrettyPrinter());
+        generator.writeStartObject();
+        generator.writeStringField("$schema", SCHEMA_URI);
+        generator.writeStringField("description", "根据 " + records + " 条记录推断");
+        writeBody(generator, root);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    private void writeSchema(JsonGenerator generator, Summary summary) throws IOException {
+        generator.writeStartObject();
+        writeBody(generator, summary);
+        generator.writeEndObject();
+    }
+
+    private void writeBody(JsonGenerator generator, Summary summary) throws IOException {
+        List<String> types = new ArrayList<>();
+        for (Type type : Type.values()) {
+            // 同时出现整数和小数时只写number
+            if (summary.types[type.ordinal()] > 0
+                    && !(type == Type.INTEGER && summary.types[Type.NUMBER.ordinal()] > 0)) {
+                types.add(type.schemaName);
+            }
+        }
+        if (types.size() == 1) {
+            generator.writeStringField("type", types.get(0));
+        } else if (!types.isEmpty()) {
+            generator.writeArrayFieldStart("type");
+            for (String type : types) {
+                generator.writeString(type);
+            }
+            generator.writeEndArray();
+        }
+
+        long strings = summary.types[Type.STRING.ordinal()];
+        long scalars = strings + summary.types[Type.INTEGER.ordinal()] + summary.types[Type.NUMBER.ordinal()]
+                + summary.types[Type.BOOLEAN.ordinal()];
+        if (strings > 0) {
+            if (summary.formats != 0) {
+                generator.writeStringField("format",
+                        Format.values()[Integer.numberOfTrailingZeros(summary.formats)].schemaName);
+            }
+            generator.writeNumberField("minLength", summary.minLength);
+            generator.writeNumberField("maxLength", summary.maxLength);
+        }
+        if (summary.types[Type.INTEGER.ordinal()] + summary.types[Type.NUMBER.ordinal()] > 0) {
+            writeNumber(generator, "minimum", summary.minimum);
+            writeNumber(generator, "maximum", summary.maximum);
+        }
+        // 反复出现的少量取值（如状态码、枚举字段）输出为enum
+        if (summary.values != null && scalars == summary.count - summary.types[Type.NULL.ordinal()]
+                && scalars >= 4L * summary.values.size() && strings == scalars) {
+            generator.writeArrayFieldStart("enum");
+            for (String value : summary.values) {
+                generator.writeString(value);
+            }
+            if (summary.types[Type.NULL.ordinal()] > 0) {
+                generator.writeNull();
+            }
+            generator.writeEndArray();
+        }
+
+        if (summary.types[Type.ARRAY.ordinal()] > 0) {
+            generator.writeNumberField("minItems", summary.minItems);
+            generator.writeNumberField("maxItems", summary.maxItems);
+            if (summary.items != null) {
+                generator.writeFieldName("items");
+                writeSchema(generator, summary.items);
+            }
+        }
+
+        long objects = summary.types[Type.OBJECT.ordinal()];
+        if (objects > 0) {
+            List<String> required = new ArrayList<>();
+            if (summary.properties != null) {
+                generator.writeObjectFieldStart("properties");
+                for (Map.Entry<String, Summary> entry : summary.properties.entrySet()) {
+                    generator.writeFieldName(entry.getKey());
+                    writeSchema(generator, entry.getValue());
+                    if (entry.getValue().count == objects) {
+                        required.add(entry.getKey());
+                    }
+                }
+                generator.writeEndObject();
+            }
+            if (!required.isEmpty()) {
+                generator.writeArrayFieldStart("required");
+                for (String name : required) {
+                    generator.writeString(name);
+                }
+                generator.writeEndArray();
+            }
+            if (summary.additional != null) {
+                generator.writeFieldName("additionalProperties");
+                writeSchema(generator, summary.additional);
+            }
+        }
+
+        if (statistics) {
+            generator.writeNumberField("x-count", summary.count);
+            if (summary.types[Type.NULL.ordinal()] > 0) {
+                generator.writeNumberField("x-nullCount", summary.types[Type.NULL.ordinal()]);
+            }
+            if (summary.distinct != null) {
+                generator.writeNumberField("x-distinct", summary.distinct.estimate());
+            }
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, String name, double value) throws IOException {
+        if (value == Math.rint(value) && Math.abs(value) < 1L << 53) {
+            generator.writeNumberField(name, (long) value);
+        } else {
+            generator.writeNumberField(name, value);
+        }
+    }
+}
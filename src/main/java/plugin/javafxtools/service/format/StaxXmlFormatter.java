@@ -0,0 +1,386 @@
+package plugin.javafxtools.service.format;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * 流式XML格式化器 - 基于StAX事件逐个读写，不构建DOM，内存占用与文档大小无关
+ * <p>
+ * 与原DOM实现一样禁止DOCTYPE声明、不解析外部实体；保留注释、CDATA和处理指令。
+ * 只含空白的文本按层级重新缩进；含有非空白文本的元素（混合内容）原样输出，不插入缩进。
+ */
+public class StaxXmlFormatter implements FileFormatter {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newDefaultFactory();
+    private static final String INDENT = "    ";
+    private static final int CHECK_INTERVAL = 4096;            // 每N个事件检查一次取消
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;      // 字符数
+
+    /**
+     * 固定使用JDK内置的StAX实现：模块路径上还有Woodstox（jackson-dataformat-xml的依赖），
+     * newInstance() 会选中它，而CDATA事件属性和注释、CDATA的输出行为都按JDK实现编写
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newDefaultFactory();
+        // 禁用DTD和外部实体防止XXE攻击
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        try {
+            // JDK内置实现默认把CDATA报告为普通文本，打开后才能原样保留
+            factory.setProperty("http://java.sun.com/xml/stream/properties/report-cdata-event", true);
+        } catch (IllegalArgumentException e) {
+            // 非JDK实现默认即报告CDATA事件
+        }
+        return factory;
+    }
+
+    /**
+     * 已读取但尚未写出的开始标签，用于在下一个事件是结束标签时输出为空元素
+     */
+    private static final class PendingElement {
+        String prefix;
+        String localName;
+        String namespaceUri;
+        final List<String> namespaces = new ArrayList<>();   // 前缀、URI交替存放
+        final List<String> attributes = new ArrayList<>();   // 前缀、URI、名称、值依次存放
+        boolean present;
+
+        void capture(XMLStreamReader reader) {
+            prefix = reader.getPrefix();
+            localName = reader.getLocalName();
+            namespaceUri = reader.getNamespaceURI();
+            namespaces.clear();
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                namespaces.add(reader.getNamespacePrefix(i));
+                namespaces.add(reader.getNamespaceURI(i));
+            }
+            attributes.clear();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                attributes.add(reader.getAttributePrefix(i));
+                attributes.add(reader.getAttributeNamespace(i));
+                attributes.add(reader.getAttributeLocalName(i));
+                attributes.add(reader.getAttributeValue(i));
+            }
+            present = true;
+        }
+
+        void write(XMLStreamWriter writer, boolean empty) throws XMLStreamException {
+            String p = prefix == null ? "" : prefix;
+            String ns = namespaceUri == null ? "" : namespaceUri;
+            if (empty) {
+                writer.writeEmptyElement(p, localName, ns);
+            } else {
+                writer.writeStartElement(p, localName, ns);
+            }
+            for (int i = 0; i < namespaces.size(); i += 2) {
+                String nsPrefix = namespaces.get(i);
+                if (nsPrefix == null || nsPrefix.isEmpty()) {
+                    writer.writeDefaultNamespace(namespaces.get(i + 1));
+                } else {
+                    writer.writeNamespace(nsPrefix, namespaces.get(i + 1));
+                }
+            }
+            for (int i = 0; i < attributes.size(); i += 4) {
+                String attrPrefix = attributes.get(i);
+                if (attrPrefix == null || attrPrefix.isEmpty()) {
+                    writer.writeAttribute(attributes.get(i + 2), attributes.get(i + 3));
+                } else {
+                    writer.writeAttribute(attrPrefix, attributes.get(i + 1), attributes.get(i + 2), attributes.get(i + 3));
+                }
+            }
+            present = false;
+        }
+    }
+
+    /**
+     * 统计已读取字节数的输入流
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final StaxXmlFormatter owner;
+
+        CountingInputStream(InputStream in, StaxXmlFormatter owner) {
+            super(in);
+            this.owner = owner;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) owner.bytesRead++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) owner.bytesRead += n;
+            return n;
+        }
+    }
+
+    private final PendingElement pending = new PendingElement();
+    private final StringBuilder whitespace = new StringBuilder();   // 尚未决定如何输出的空白
+    private boolean[] mixed = new boolean[64];      // 每层元素是否含非空白文本
+    private boolean[] hasChild = new boolean[64];   // 每层元素是否含子节点
+    private char[] indent = "\n".toCharArray();
+    private int depth;
+    private LongConsumer progressListener;
+    private boolean countingInput;                  // 文件输入按字节计进度，字符串按字符
+    private volatile boolean cancelled;
+    private volatile long bytesRead;
+    private volatile long bytesWritten;
+    private long events;
+
+    @Override
+    public void format(Path source, Path target) throws IOException {
+        boolean completed = false;
+        bytesRead = 0;
+        countingInput = true;
+        try (InputStream in = new CountingInputStream(Files.newInputStream(source), this);
+             Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(target),
+                     StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE)) {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+            // 交给Writer编码比StAX写出器自带的逐字符UTF-8输出快约一倍
+            XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out);
+            try {
+                copy(reader, writer);
+                writer.flush();
+            } finally {
+                reader.close();
+                writer.close();
+            }
+            out.write('\n');
+            completed = true;
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            if (completed) {
+                bytesWritten = Files.size(target);
+            } else {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    /**
+     * 格式化字符串
+     *
+     * @throws XMLStreamException XML语法错误或包含DOCTYPE
+     */
+    public String format(String xml) throws XMLStreamException {
+        StringWriter out = new StringWriter(xml.length() + xml.length() / 2);
+        format(xml, out);
+        bytesWritten = out.getBuffer().length();
+        return out.toString();
+    }
+
+    /**
+     * 格式化字符串并写入out，用于结果过大不宜整体保存在内存中的场景
+     *
+     * @throws XMLStreamException XML语法错误、包含DOCTYPE或写入失败
+     */
+    public void format(String xml, Writer out) throws XMLStreamException {
+        countingInput = false;
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+        XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out);
+        try {
+            copy(reader, writer);
+            writer.flush();
+        } finally {
+            reader.close();
+            writer.close();
+        }
+        try {
+            out.write('\n');
+        } catch (IOException e) {
+            throw new XMLStreamException(e.getMessage(), e);
+        }
+    }
+
+    private void copy(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+        events = 0;
+        depth = 0;
+        whitespace.setLength(0);
+        pending.present = false;
+        writer.writeStartDocument("UTF-8", reader.getVersion() == null ? "1.0" : reader.getVersion());
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    beforeMarkup(writer);
+                    markChild();
+                    depth++;
+                    ensureDepth();
+                    mixed[depth] = false;
+                    hasChild[depth] = false;
+                    pending.capture(reader);
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (pending.present) {
+                        // 开始标签后只有空白即遇到结束标签，输出为空元素
+                        whitespace.setLength(0);
+                        pending.write(writer, true);
+                    } else if (!mixed[depth] && hasChild[depth]) {
+                        whitespace.setLength(0);
+                        writeIndent(writer, depth - 1);
+                        writer.writeEndElement();
+                    } else {
+                        flushWhitespace(writer);
+                        writer.writeEndElement();
+                    }
+                    depth--;
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.SPACE -> {
+                    if (depth == 0 || (!mixed[depth] && reader.isWhiteSpace())) {
+                        // 文档级空白丢弃，元素内的空白暂存，等下一个事件决定缩进还是原样输出
+                        if (depth > 0) {
+                            whitespace.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    } else {
+                        startMixedContent(writer);
+                        writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                case XMLStreamConstants.CDATA -> {
+                    startMixedContent(writer);
+                    writer.writeCData(reader.getText());
+                }
+                case XMLStreamConstants.COMMENT -> {
+                    beforeMarkup(writer);
+                    markChild();
+                    writer.writeComment(reader.getText());
+                }
+                case XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                    beforeMarkup(writer);
+                    markChild();
+                    String data = reader.getPIData();
+                    if (data == null || data.isEmpty()) {
+                        writer.writeProcessingInstruction(reader.getPITarget());
+                    } else {
+                        writer.writeProcessingInstruction(reader.getPITarget(), data);
+                    }
+                }
+                case XMLStreamConstants.ENTITY_REFERENCE -> {
+                    startMixedContent(writer);
+                    writer.writeEntityRef(reader.getLocalName());
+                }
+                case XMLStreamConstants.DTD -> throw new XMLStreamException("不允许DOCTYPE声明", reader.getLocation());
+                // 文档结束后StAX不允许再写字符，结尾换行在关闭写出器后直接写入底层Writer
+                case XMLStreamConstants.END_DOCUMENT -> writer.writeEndDocument();
+                default -> {
+                }
+            }
+            if (++events % CHECK_INTERVAL == 0) {
+                if (cancelled) {
+                    throw new CancellationException("格式化已取消");
+                }
+                if (progressListener != null) {
+                    progressListener.accept(countingInput ? bytesRead : reader.getLocation().getCharacterOffset());
+                }
+            }
+        }
+    }
+
+    /**
+     * 写标签/注释/处理指令之前：父元素是混合内容时原样输出暂存的空白，否则换行缩进
+     */
+    private void beforeMarkup(XMLStreamWriter writer) throws XMLStreamException {
+        if (pending.present) {
+            pending.write(writer, false);
+        }
+        if (depth > 0 && mixed[depth]) {
+            flushWhitespace(writer);
+        } else {
+            whitespace.setLength(0);
+            writeIndent(writer, depth);
+        }
+    }
+
+    /**
+     * 当前元素出现非空白内容，此后该元素内部原样输出
+     */
+    private void startMixedContent(XMLStreamWriter writer) throws XMLStreamException {
+        if (pending.present) {
+            pending.write(writer, false);
+        }
+        mixed[depth] = true;
+        flushWhitespace(writer);
+    }
+
+    private void markChild() {
+        if (depth > 0) {
+            hasChild[depth] = true;
+        }
+    }
+
+    private void flushWhitespace(XMLStreamWriter writer) throws XMLStreamException {
+        if (whitespace.length() > 0) {
+            writer.writeCharacters(whitespace.toString());
+            whitespace.setLength(0);
+        }
+    }
+
+    private void writeIndent(XMLStreamWriter writer, int level) throws XMLStreamException {
+        int length = 1 + level * INDENT.length();
+        if (indent.length < length) {
+            indent = ("\n" + INDENT.repeat(level * 2)).toCharArray();
+        }
+        writer.writeCharacters(indent, 0, length);
+    }
+
+    private void ensureDepth() {
+        if (depth >= mixed.length) {
+            mixed = Arrays.copyOf(mixed, mixed.length * 2);
+            hasChild = Arrays.copyOf(hasChild, hasChild.length * 2);
+        }
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * 输出大小（文件为字节数，字符串为字符数）
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    @Override
+    public void setProgressListener(LongConsumer listener) {
+        this.progressListener = listener;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+}
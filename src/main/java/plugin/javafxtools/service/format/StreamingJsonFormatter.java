@@ -0,0 +1,140 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.function.LongConsumer;
+
+/**
+ * 流式JSON格式化器 - 解析器的记号直接写入带缩进的生成器，不构建对象树，内存占用与文档大小无关
+ * <p>
+ * 数字按原文输出，不会因转成double丢失精度；多个顶层值（如NDJSON）依次格式化，以换行分隔。
+ */
+public class StreamingJsonFormatter implements FileFormatter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int CHECK_INTERVAL = 4096;            // 每N个记号检查一次取消并更新进度
+    private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+    private LongConsumer progressListener;
+    private volatile boolean cancelled;
+    private volatile long bytesRead;
+    private volatile long bytesWritten;
+    private long tokens;
+
+    @Override
+    public void format(Path source, Path target) throws IOException {
+        boolean completed = false;
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), OUTPUT_BUFFER_SIZE);
+             JsonParser parser = JSON_FACTORY.createParser(in);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            copy(parser, generator);
+            completed = true;
+        } finally {
+            if (completed) {
+                bytesWritten = Files.size(target);
+            } else {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    /**
+     * 格式化字符串
+     *
+     * @throws IOException JSON语法错误
+     */
+    public String format(String json) throws IOException {
+        StringWriter out = new StringWriter(json.length() + json.length() / 2);
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            copy(parser, generator);
+        }
+        bytesWritten = out.getBuffer().length();
+        return out.toString();
+    }
+
+    /**
+     * 格式化字符串并写入out，用于结果过大不宜整体保存在内存中的场景
+     *
+     * @throws IOException JSON语法错误或写入失败
+     */
+    public void format(String json, Writer out) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            copy(parser, generator);
+        }
+    }
+
+    private void copy(JsonParser parser, JsonGenerator generator) throws IOException {
+        generator.setPrettyPrinter(new DefaultPrettyPrinter().withRootSeparator("\n"));
+        tokens = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                generator.writeNumber(parser.getText());
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+            if (++tokens % CHECK_INTERVAL == 0) {
+                if (cancelled) {
+                    throw new CancellationException("格式化已取消");
+                }
+                bytesRead = position(parser);
+                if (progressListener != null) {
+                    progressListener.accept(bytesRead);
+                }
+            }
+        }
+        bytesRead = position(parser);
+    }
+
+    /**
+     * 已消费的输入量：字节输入为字节偏移，字符串输入为字符偏移
+     */
+    private static long position(JsonParser parser) {
+        long offset = parser.currentLocation().getByteOffset();
+        return offset >= 0 ? offset : parser.currentLocation().getCharOffset();
+    }
+
+    @Override
+    public void setProgressListener(LongConsumer listener) {
+        this.progressListener = listener;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * 输出大小（文件为字节数，字符串为字符数）
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+}
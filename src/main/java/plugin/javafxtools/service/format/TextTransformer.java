@@ -0,0 +1,106 @@
+package plugin.javafxtools.service.format;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.LongConsumer;
+
+/**
+ * 字符串转换 - 按片处理大文本，每片处理后上报进度（可在回调中抛出取消异常终止）
+ */
+public final class TextTransformer {
+
+    private static final int SLICE_CHARS = 256 * 1024;
+    private static final int BOUNDARY_SEARCH_CHARS = 4096;   // 向后寻找空白作为分片边界的最大距离
+
+    /**
+     * 转换类型
+     */
+    public enum Operation {
+        REMOVE_WHITESPACE("普通"),
+        UPPER_CASE("转大写"),
+        LOWER_CASE("转小写");
+
+        private final String displayName;
+
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private TextTransformer() {
+    }
+
+    /**
+     * 执行转换
+     *
+     * @param text      输入
+     * @param operation 转换类型
+     * @param progress  每片处理后以已处理的字符数回调
+     */
+    public static String transform(String text, Operation operation, LongConsumer progress) {
+        StringBuilder out = new StringBuilder(text.length());
+        try {
+            transform(text, operation, out, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // StringBuilder不会抛出
+        }
+        return out.toString();
+    }
+
+    /**
+     * 执行转换并把结果追加到out，用于结果过大不宜整体保存在内存中的场景
+     */
+    public static void transform(String text, Operation operation, Appendable out, LongConsumer progress)
+            throws IOException {
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            int end = sliceEnd(text, start);
+            switch (operation) {
+                case REMOVE_WHITESPACE -> {
+                    // 与正则 \s 相同的空白字符集
+                    StringBuilder slice = new StringBuilder(end - start);
+                    for (int i = start; i < end; i++) {
+                        char c = text.charAt(i);
+                        if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+                            slice.append(c);
+                        }
+                    }
+                    out.append(slice);
+                }
+                case UPPER_CASE -> out.append(text.substring(start, end).toUpperCase());
+                case LOWER_CASE -> out.append(text.substring(start, end).toLowerCase());
+            }
+            start = end;
+            progress.accept(start);
+        }
+    }
+
+    /**
+     * 分片边界尽量落在空白处，大小写转换中依赖上下文的字符（如希腊字母词尾σ）结果与整体转换一致；
+     * 找不到空白时至少不拆开代理对
+     */
+    private static int sliceEnd(String text, int start) {
+        int length = text.length();
+        int end = start + SLICE_CHARS;
+        if (end >= length) {
+            return length;
+        }
+        int limit = Math.min(length, end + BOUNDARY_SEARCH_CHARS);
+        for (int i = end; i < limit; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return Character.isHighSurrogate(text.charAt(end - 1)) ? end - 1 : end;
+    }
+}
@@ -0,0 +1,81 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * 把Jackson解析器（JSON、YAML、CBOR、Smile、XML）的记号依次交给记号流
+ * <p>
+ * 数字原文符合JSON语法时按原文传递，否则（YAML的 0x1F、1_000 等，二进制格式的数值）取解析出的数值；
+ * 非有限浮点数（.inf、NaN）和二进制数据没有JSON表示，分别以字符串和Base64字符串传递。
+ */
+final class TokenReader {
+
+    private TokenReader() {
+    }
+
+    /**
+     * 读到输入结束，顶层可以有多个值
+     */
+    static void read(JsonParser parser, TokenSink sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            copy(parser, token, sink);
+        }
+    }
+
+    /**
+     * 传递当前这一个记号
+     */
+    static void copy(JsonParser parser, JsonToken token, TokenSink sink) throws IOException {
+        switch (token) {
+            case START_OBJECT -> sink.startObject();
+            case END_OBJECT -> sink.endObject();
+            case START_ARRAY -> sink.startArray();
+            case END_ARRAY -> sink.endArray();
+            case FIELD_NAME -> sink.field(parser.getCurrentName());
+            case VALUE_STRING -> sink.string(parser.getText());
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> number(parser, sink);
+            case VALUE_TRUE -> sink.bool(true);
+            case VALUE_FALSE -> sink.bool(false);
+            case VALUE_NULL -> sink.nullValue();
+            case VALUE_EMBEDDED_OBJECT -> embedded(parser, sink);
+            default -> throw new IOException("不支持的记号: " + token);
+        }
+    }
+
+    private static void number(JsonParser parser, TokenSink sink) throws IOException {
+        String text = parser.getText();
+        if (JsonCodec.isNumber(text)) {
+            sink.number(text);
+            return;
+        }
+        Number value;
+        try {
+            value = parser.getNumberValue();
+        } catch (StreamReadException e) {
+            sink.string(text);      // YAML的 .inf、.nan
+            return;
+        }
+        if ((value instanceof Double || value instanceof Float) && !Double.isFinite(value.doubleValue())) {
+            sink.string(text);
+            return;
+        }
+        sink.number(value.toString());
+    }
+
+    private static void embedded(JsonParser parser, TokenSink sink) throws IOException {
+        Object value = parser.getEmbeddedObject();
+        if (value == null) {
+            sink.nullValue();
+        } else if (value instanceof byte[] bytes) {
+            sink.string(Base64.getEncoder().encodeToString(bytes));
+        } else {
+            sink.string(value.toString());
+        }
+    }
+}
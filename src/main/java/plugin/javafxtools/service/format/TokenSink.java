@@ -0,0 +1,41 @@
+package plugin.javafxtools.service.format;
+
+import java.io.IOException;
+
+/**
+ * 格式转换的中间记号流 - 各格式的读取器把数据解析为这些事件，写出器按事件流式输出
+ * <p>
+ * 数字以JSON数字文本传递，保留原始精度；顶层可以有多个值。
+ */
+interface TokenSink {
+
+    void startObject() throws IOException;
+
+    void endObject() throws IOException;
+
+    void startArray() throws IOException;
+
+    void endArray() throws IOException;
+
+    /**
+     * 对象中下一个字段的名称
+     */
+    void field(String name) throws IOException;
+
+    void string(String value) throws IOException;
+
+    /**
+     * @param text 符合JSON语法的数字文本
+     */
+    void number(String text) throws IOException;
+
+    void bool(boolean value) throws IOException;
+
+    void nullValue() throws IOException;
+
+    /**
+     * 写出缓冲的内容，不关闭底层流
+     */
+    default void finish() throws IOException {
+    }
+}
@@ -0,0 +1,511 @@
+package plugin.javafxtools.service.format;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import com.ctc.wstx.stax.WstxOutputFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.xml.XmlFactory;
+import com.fasterxml.jackson.dataformat.xml.deser.FromXmlParser;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * XML读写 - 基于jackson-dataformat-xml的 {@link FromXmlParser} 和 {@link ToXmlGenerator}
+ * <p>
+ * 映射规则：根元素为 {@code <root>}（读取时不保留根元素名）；对象字段为子元素，{@code @name} 字段写为属性，
+ * {@code #text} 写为文本；字段中的数组写成同名的重复元素，其它位置的数组元素命名为 {@code item}；null为空元素。
+ * 读取时属性和子元素都成为字段（属性名不带 @），相邻的同名字段合并为数组，首个子元素为 {@code item} 的元素视为数组；
+ * 只含文本的元素为字符串（XML不区分数字和字符串），空元素为null。
+ * 判断是否为数组时只暂存相邻同名元素中的第一个，超过 {@value #MAX_PENDING_TOKENS} 个记号就直接输出为普通字段。
+ */
+final class XmlCodec {
+
+    private static final String ROOT = "root";
+    private static final String ITEM = "item";
+    private static final String TEXT = "#text";
+    /** 暂存的单个元素超过这么多记号就不再等待判断是否重复，避免大元素占满内存 */
+    private static final int MAX_PENDING_TOKENS = 65536;
+    private static final XmlFactory FACTORY = XmlFactory.builder()
+            .xmlInputFactory(createInputFactory())
+            .xmlOutputFactory(new WstxOutputFactory())
+            .nameForTextElement(TEXT)
+            .enable(FromXmlParser.Feature.EMPTY_ELEMENT_AS_NULL)
+            .enable(ToXmlGenerator.Feature.WRITE_XML_DECLARATION)
+            .build();
+
+    private XmlCodec() {
+    }
+
+    /**
+     * Jackson的XML模块依赖Stax2扩展，读写都固定使用Woodstox而不是JDK内置实现
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = new WstxInputFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    static void read(InputStream in, TokenSink sink) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            TokenReader.read(parser, new ShapingSink(sink));
+        }
+    }
+
+    static TokenSink writer(OutputStream out) throws IOException {
+        ToXmlGenerator generator = FACTORY.createGenerator(out);
+        generator.initGenerator();      // 写出XML声明
+        return new Sink(generator);
+    }
+
+    /**
+     * 把解析器产生的记号（重复元素是同名的重复字段）整理为JSON结构后交给下游
+     */
+    private static final class ShapingSink implements TokenSink {
+        private static final int PENDING = 0;      // 元素刚开始，尚未看到第一个字段
+        private static final int OBJECT = 1;
+        private static final int ITEMS = 2;        // 以 item 子元素表示的数组
+        private static final int ARRAY = 3;
+
+        private final TokenSink target;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+
+        ShapingSink(TokenSink target) {
+            this.target = target;
+        }
+
+        /**
+         * 一个打开的对象或数组；{@code out} 是它的值写往的地方（外层正在暂存时为外层的暂存区）
+         */
+        private static final class Frame {
+            final TokenSink out;
+            int mode;
+            boolean opened;         // 已向下游写出 startObject
+            String runName;         // 当前这组相邻同名字段的名称
+            boolean runArray;       // 这组字段已重复，正在作为数组输出
+            PendingValue pending;   // 这组的第一个值
+
+            Frame(TokenSink out, int mode) {
+                this.out = out;
+                this.mode = mode;
+            }
+        }
+
+        /**
+         * 暂存一组同名字段的第一个值；超过上限时把已暂存的内容作为普通字段写出，之后直接转发
+         */
+        private static final class PendingValue implements TokenSink {
+            final Frame owner;
+            final EventBuffer events = new EventBuffer();
+            boolean active;         // 值还没有结束
+            TokenSink direct;
+
+            PendingValue(Frame owner) {
+                this.owner = owner;
+            }
+
+            private TokenSink target() throws IOException {
+                if (direct == null && events.size() >= MAX_PENDING_TOKENS) {
+                    owner.out.field(owner.runName);
+                    events.replay(owner.out);
+                    events.clear();
+                    owner.runName = null;   // 已作为普通字段输出，后面的同名元素另起一组
+                    direct = owner.out;
+                }
+                return direct != null ? direct : events;
+            }
+
+            @Override
+            public void startObject() throws IOException {
+                target().startObject();
+            }
+
+            @Override
+            public void endObject() throws IOException {
+                target().endObject();
+            }
+
+            @Override
+            public void startArray() throws IOException {
+                target().startArray();
+            }
+
+            @Override
+            public void endArray() throws IOException {
+                target().endArray();
+            }
+
+            @Override
+            public void field(String name) throws IOException {
+                target().field(name);
+            }
+
+            @Override
+            public void string(String value) throws IOException {
+                target().string(value);
+            }
+
+            @Override
+            public void number(String text) throws IOException {
+                target().number(text);
+            }
+
+            @Override
+            public void bool(boolean value) throws IOException {
+                target().bool(value);
+            }
+
+            @Override
+            public void nullValue() throws IOException {
+                target().nullValue();
+            }
+        }
+
+        private TokenSink out() {
+            Frame frame = frames.peek();
+            if (frame == null) {
+                return target;
+            }
+            return frame.pending != null && frame.pending.active ? frame.pending : frame.out;
+        }
+
+        private void valueDone() {
+            Frame frame = frames.peek();
+            if (frame != null && frame.pending != null) {
+                frame.pending.active = false;
+            }
+        }
+
+        /**
+         * 结束当前这组同名字段：已是数组则闭合，否则写出暂存的单个值
+         */
+        private void closeRun(Frame frame) throws IOException {
+            if (frame.runName == null) {
+                return;
+            }
+            if (frame.runArray) {
+                frame.out.endArray();
+            } else {
+                frame.out.field(frame.runName);
+                frame.pending.events.replay(frame.out);
+            }
+            frame.runName = null;
+            frame.runArray = false;
+        }
+
+        @Override
+        public void startObject() {
+            frames.push(new Frame(out(), PENDING));
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            Frame frame = frames.pop();
+            switch (frame.mode) {
+                case PENDING -> {
+                    frame.out.startObject();
+                    frame.out.endObject();
+                }
+                case ITEMS -> frame.out.endArray();
+                default -> {
+                    if (frame.opened) {
+                        closeRun(frame);
+                        frame.out.endObject();
+                    } else {
+                        frame.pending.events.replay(frame.out);    // 只有文本
+                    }
+                }
+            }
+            valueDone();
+        }
+
+        @Override
+        public void startArray() throws IOException {
+            TokenSink out = out();
+            out.startArray();
+            frames.push(new Frame(out, ARRAY));
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            frames.pop().out.endArray();
+            valueDone();
+        }
+
+        @Override
+        public void field(String name) throws IOException {
+            Frame frame = frames.element();
+            if (frame.mode == PENDING) {
+                if (name.equals(ITEM)) {
+                    frame.mode = ITEMS;
+                    frame.out.startArray();
+                    return;
+                }
+                frame.mode = OBJECT;
+                frame.pending = new PendingValue(frame);
+                if (!name.equals(TEXT)) {
+                    frame.opened = true;
+                    frame.out.startObject();
+                }
+            } else if (frame.mode == ITEMS) {
+                return;
+            } else if (!frame.opened) {
+                frame.opened = true;
+                frame.out.startObject();
+            }
+            if (name.equals(frame.runName)) {
+                if (!frame.runArray) {
+                    frame.out.field(name);
+                    frame.out.startArray();
+                    frame.pending.events.replay(frame.out);
+                    frame.runArray = true;
+                }
+                return;
+            }
+            closeRun(frame);
+            frame.runName = name;
+            frame.pending.events.clear();
+            frame.pending.direct = null;
+            frame.pending.active = true;
+        }
+
+        @Override
+        public void string(String value) throws IOException {
+            out().string(value);
+            valueDone();
+        }
+
+        @Override
+        public void number(String text) throws IOException {
+            out().number(text);
+            valueDone();
+        }
+
+        @Override
+        public void bool(boolean value) throws IOException {
+            out().bool(value);
+            valueDone();
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            out().nullValue();
+            valueDone();
+        }
+    }
+
+    /**
+     * XML写出：对象为元素，字段中的数组为重复元素，其它位置的数组写成带 item 子元素的元素
+     */
+    private static final class Sink implements TokenSink {
+        private static final byte OBJECT = 0;
+        private static final byte FIELD_ARRAY = 1;
+        private static final byte ITEM_ARRAY = 2;
+
+        private final ToXmlGenerator generator;
+        private byte[] kinds = new byte[16];
+        private boolean[] hasElements = new boolean[16];   // 对象已写出子元素，之后不能再写属性
+        private int depth;
+        private String fieldName;       // 等待值类型确定后再写出的字段名
+        private boolean rootWritten;
+
+        Sink(ToXmlGenerator generator) {
+            this.generator = generator;
+        }
+
+        private void push(byte kind) {
+            if (depth == kinds.length) {
+                kinds = Arrays.copyOf(kinds, depth * 2);
+                hasElements = Arrays.copyOf(hasElements, depth * 2);
+            }
+            kinds[depth] = kind;
+            hasElements[depth] = false;
+            depth++;
+        }
+
+        /**
+         * 写出容器（元素）前确定它的名称
+         */
+        private void beforeElement() throws IOException {
+            if (depth == 0) {
+                if (rootWritten) {
+                    throw new IOException("XML只能有一个根元素，多个顶层值请先合并为数组");
+                }
+                rootWritten = true;
+                generator.setNextName(new QName(ROOT));
+                return;
+            }
+            switch (kinds[depth - 1]) {
+                case OBJECT -> {
+                    hasElements[depth - 1] = true;
+                    generator.writeFieldName(elementName(fieldName));
+                }
+                case ITEM_ARRAY -> generator.writeFieldName(ITEM);
+                default -> {
+                    // 字段中的数组：元素沿用字段名
+                }
+            }
+        }
+
+        /**
+         * 写出标量前确定它是属性、文本还是子元素
+         */
+        private void beforeScalar() throws IOException {
+            if (depth > 0 && kinds[depth - 1] == OBJECT) {
+                if (fieldName.startsWith("@") && fieldName.length() > 1 && !hasElements[depth - 1]) {
+                    generator.writeFieldName(elementName(fieldName.substring(1)));
+                    generator.setNextIsAttribute(true);
+                    return;
+                }
+                if (fieldName.equals(TEXT)) {
+                    generator.writeFieldName(TEXT);
+                    generator.setNextIsUnwrapped(true);
+                    return;
+                }
+            }
+            beforeElement();
+        }
+
+        private void afterScalar() {
+            generator.setNextIsAttribute(false);
+            generator.setNextIsUnwrapped(false);
+        }
+
+        @Override
+        public void startObject() throws IOException {
+            beforeElement();
+            generator.writeStartObject();
+            push(OBJECT);
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            generator.writeEndObject();
+            depth--;
+        }
+
+        @Override
+        public void startArray() throws IOException {
+            if (depth > 0 && kinds[depth - 1] == OBJECT) {
+                hasElements[depth - 1] = true;
+                generator.writeFieldName(elementName(fieldName));
+                generator.writeStartArray();
+                push(FIELD_ARRAY);
+                return;
+            }
+            beforeElement();
+            generator.writeStartObject();
+            push(ITEM_ARRAY);
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            if (kinds[--depth] == FIELD_ARRAY) {
+                generator.writeEndArray();
+            } else {
+                generator.writeEndObject();
+            }
+        }
+
+        @Override
+        public void field(String name) {
+            fieldName = name;
+        }
+
+        @Override
+        public void string(String value) throws IOException {
+            beforeScalar();
+            generator.writeString(text(value));
+            afterScalar();
+        }
+
+        @Override
+        public void number(String text) throws IOException {
+            beforeScalar();
+            generator.writeNumber(text);
+            afterScalar();
+        }
+
+        @Override
+        public void bool(boolean value) throws IOException {
+            beforeScalar();
+            generator.writeBoolean(value);
+            afterScalar();
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            beforeScalar();
+            generator.writeNull();
+            afterScalar();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+
+        /**
+         * 字段名转为合法的XML名称：非法字符（包括命名空间前缀的冒号）换成下划线，不能开头的字符前加下划线
+         */
+        private static String elementName(String name) {
+            if (name.isEmpty()) {
+                return "_";
+            }
+            StringBuilder builder = null;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                boolean valid = Character.isLetter(c) || c == '_'
+                        || i > 0 && (Character.isDigit(c) || c == '-' || c == '.');
+                if (valid && builder == null) {
+                    continue;
+                }
+                if (builder == null) {
+                    builder = new StringBuilder(name.length() + 1).append(name, 0, i);
+                }
+                if (valid) {
+                    builder.append(c);
+                } else if (i == 0 && (Character.isDigit(c) || c == '-' || c == '.')) {
+                    builder.append('_').append(c);
+                } else {
+                    builder.append('_');
+                }
+            }
+            return builder == null ? name : builder.toString();
+        }
+
+        /**
+         * XML 1.0不允许的控制字符和孤立代理换成U+FFFD
+         */
+        private static String text(String value) {
+            char[] chars = null;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                boolean valid;
+                if (Character.isHighSurrogate(c)) {
+                    valid = i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1));
+                    if (valid) {
+                        i++;
+                        continue;
+                    }
+                } else {
+                    valid = c >= 0x20 ? c < 0xFFFE && !Character.isLowSurrogate(c) : c == '\t' || c == '\n' || c == '\r';
+                }
+                if (!valid) {
+                    if (chars == null) {
+                        chars = value.toCharArray();
+                    }
+                    chars[i] = '\uFFFD';
+                }
+            }
+            return chars == null ? value : new String(chars);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package plugin.javafxtools.service.format;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+import com.fasterxml.jackson.dataformat.yaml.util.StringQuotingChecker;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * YAML读写 - 基于jackson-dataformat-yaml的流式解析器和生成器
+ * <p>
+ * 写出为块样式，多个顶层值以 {@code ---} 分隔；读回时会被推断为其它类型的字符串（布尔、null、
+ * 以数字或符号开头的文本）加引号，保证类型不变。读取时标量按YAML 1.1推断类型，支持多文档；
+ * 映射和序列上的锚点在读取时暂存，别名处按原样重放（解析器不报告标量上的锚点，指向标量的别名会报错）。
+ * 别名层层引用时展开量呈指数增长（billion laughs），累计重放的记号超过 {@value #MAX_ALIAS_TOKENS} 个即报错。
+ */
+final class YamlCodec {
+
+    private static final YAMLFactory FACTORY = YAMLFactory.builder()
+            .loaderOptions(loaderOptions())
+            .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
+            .enable(YAMLGenerator.Feature.ALWAYS_QUOTE_NUMBERS_AS_STRINGS)
+            .disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER)
+            .stringQuotingChecker(new TypeSafeQuoting())
+            .build();
+
+    static final int MAX_ALIAS_TOKENS = 10_000_000;                 // 别名累计重放的记号上限
+    private static final int MAX_DOCUMENT_CODE_POINTS = 1 << 30;    // 单个文档的字符上限
+
+    private YamlCodec() {
+    }
+
+    /**
+     * 解析是流式的，内存与文档大小无关，SnakeYAML默认的单文档300万字符上限放宽到约10亿字符，
+     * 只拒绝明显异常的输入；真正会放大内存和输出的别名展开由 {@link #MAX_ALIAS_TOKENS} 限制
+     */
+    private static LoaderOptions loaderOptions() {
+        LoaderOptions options = new LoaderOptions();
+        options.setCodePointLimit(MAX_DOCUMENT_CODE_POINTS);
+        return options;
+    }
+
+    static void read(Reader in, TokenSink sink) throws IOException {
+        try (YAMLParser parser = FACTORY.createParser(in)) {
+            Map<String, EventBuffer> anchors = new HashMap<>();
+            List<Recording> recordings = new ArrayList<>();
+            TokenSink out = sink;
+            int depth = 0;
+            long replayed = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (parser.isCurrentAlias()) {
+                    EventBuffer value = anchors.get(parser.getText());
+                    if (value == null) {
+                        throw new IOException("第" + parser.getCurrentLocation().getLineNr() + "行: 别名 *"
+                                + parser.getText() + " 没有对应的锚点（只支持映射和序列上的锚点）");
+                    }
+                    replayed += value.size();
+                    if (replayed > MAX_ALIAS_TOKENS) {
+                        throw new IOException("第" + parser.getCurrentLocation().getLineNr() + "行: 别名累计展开超过 "
+                                + MAX_ALIAS_TOKENS + " 个记号，疑似层层引用的锚点（billion laughs），已停止读取");
+                    }
+                    value.replay(out);
+                } else {
+                    String anchor = token.isStructStart() ? parser.getObjectId() : null;
+                    if (anchor != null) {
+                        anchors.remove(anchor);     // 重新定义的锚点以新值为准，记录期间的别名视为未定义
+                        recordings.add(new Recording(anchor, depth));
+                        out = fanOut(sink, recordings);
+                    }
+                    TokenReader.copy(parser, token, out);
+                    if (token.isStructStart()) {
+                        depth++;
+                    } else if (token.isStructEnd()) {
+                        depth--;
+                    }
+                }
+                if (token == JsonToken.FIELD_NAME || token.isStructStart()) {
+                    continue;
+                }
+                boolean finished = false;
+                while (!recordings.isEmpty() && recordings.get(recordings.size() - 1).depth == depth) {
+                    Recording recording = recordings.remove(recordings.size() - 1);
+                    anchors.put(recording.anchor, recording.value);
+                    finished = true;
+                }
+                if (finished) {
+                    out = fanOut(sink, recordings);
+                }
+            }
+        }
+    }
+
+    private static TokenSink fanOut(TokenSink sink, List<Recording> recordings) {
+        if (recordings.isEmpty()) {
+            return sink;
+        }
+        List<TokenSink> targets = new ArrayList<>();
+        targets.add(sink);
+        for (Recording recording : recordings) {
+            targets.add(recording.value);
+        }
+        return new FanOutSink(targets);
+    }
+
+    static TokenSink writer(Writer out) throws IOException {
+        return new GeneratorSink(FACTORY.createGenerator(out), false, false);
+    }
+
+    /**
+     * 正在记录的锚点值，回到开始时的嵌套深度即结束
+     */
+    private static final class Recording {
+        final String anchor;
+        final int depth;
+        final EventBuffer value = new EventBuffer();
+
+        Recording(String anchor, int depth) {
+            this.anchor = anchor;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * 在默认规则之外，给以数字或符号开头的字符串加引号：YAML 1.1会把 0x1F、1_000、.inf 等读成数字
+     */
+    private static final class TypeSafeQuoting extends StringQuotingChecker.Default {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean needToQuoteValue(String value) {
+            if (value.isEmpty() || super.needToQuoteValue(value)) {
+                return true;
+            }
+            char first = value.charAt(0);
+            return first >= '0' && first <= '9' || first == '-' || first == '+' || first == '.';
+        }
+    }
+
+    /**
+     * 把记号同时写入多个接收方（输出和正在记录的锚点）
+     */
+    private static final class FanOutSink implements TokenSink {
+        private final List<TokenSink> targets;
+
+        FanOutSink(List<TokenSink> targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public void startObject() throws IOException {
+            for (TokenSink target : targets) {
+                target.startObject();
+            }
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            for (TokenSink target : targets) {
+                target.endObject();
+            }
+        }
+
+        @Override
+        public void startArray() throws IOException {
+            for (TokenSink target : targets) {
+                target.startArray();
+            }
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            for (TokenSink target : targets) {
+                target.endArray();
+            }
+        }
+
+        @Override
+        public void field(String name) throws IOException {
+            for (TokenSink target : targets) {
+                target.field(name);
+            }
+        }
+
+        @Override
+        public void string(String value) throws IOException {
+            for (TokenSink target : targets) {
+                target.string(value);
+            }
+        }
+
+        @Override
+        public void number(String text) throws IOException {
+            for (TokenSink target : targets) {
+                target.number(text);
+            }
+        }
+
+        @Override
+        public void bool(boolean value) throws IOException {
+            for (TokenSink target : targets) {
+                target.bool(value);
+            }
+        }
+
+        @Override
+        public void nullValue() throws IOException {
+            for (TokenSink target : targets) {
+                target.nullValue();
+            }
+        }
+    }
+}
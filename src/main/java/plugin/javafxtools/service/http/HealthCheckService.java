@@ -0,0 +1,150 @@
+package plugin.javafxtools.service.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多端点健康检查服务 - 所有端点共用一个HttpClient（共享连接池，支持keep-alive和HTTP/2），
+ * 周期性并行发起轻量请求，并通过信号量限制同时进行的请求数
+ */
+public class HealthCheckService {
+
+    private final int maxConcurrent;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService clientExecutor;
+    private volatile HttpClient client;
+    private Semaphore permits;
+    private volatile List<HealthEndpoint> endpoints = List.of();
+
+    /**
+     * @param maxConcurrent 同时进行的最大请求数
+     */
+    public HealthCheckService(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * 启动周期检查，已在运行时先停止
+     *
+     * @param endpoints  端点列表
+     * @param intervalMs 每轮检查间隔
+     * @param timeoutMs  单次请求超时（连接+响应）
+     */
+    public synchronized void start(List<HealthEndpoint> endpoints, long intervalMs, int timeoutMs) {
+        stop();
+        this.endpoints = List.copyOf(endpoints);
+        AtomicInteger threadIndex = new AtomicInteger();
+        clientExecutor = Executors.newFixedThreadPool(Math.min(maxConcurrent, 16), r -> {
+            Thread t = new Thread(r, "health-check-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(clientExecutor)
+                .build();
+        permits = new Semaphore(maxConcurrent);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "health-check-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(() -> runRound(timeoutMs), 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止检查并释放连接池
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (client != null) {
+            // 关闭选择器线程和池中的连接，进行中的请求以异常结束
+            client.shutdownNow();
+            client = null;
+        }
+        if (clientExecutor != null) {
+            clientExecutor.shutdownNow();
+            clientExecutor = null;
+        }
+    }
+
+    public List<HealthEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 发起一轮检查；上一轮仍未返回的端点本轮跳过，避免慢端点请求堆积
+     */
+    private void runRound(int timeoutMs) {
+        HttpClient c = client;
+        Semaphore s = permits;
+        if (c == null) {
+            return;
+        }
+        for (HealthEndpoint endpoint : endpoints) {
+            if (endpoint.isInFlight()) {
+                continue;
+            }
+            try {
+                s.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            endpoint.setInFlight(true);
+            check(c, endpoint, timeoutMs).whenComplete((v, ex) -> {
+                endpoint.setInFlight(false);
+                s.release();
+            });
+        }
+    }
+
+    private CompletableFuture<Void> check(HttpClient c, HealthEndpoint endpoint, int timeoutMs) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(endpoint.getUrl()))
+                    .method(endpoint.getMethod(), HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .header("User-Agent", "JavaFX-Health-Check")
+                    .build();
+        } catch (IllegalArgumentException e) {
+            endpoint.recordFailure("无效URL: " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        // 丢弃响应体，只关心状态码和延迟
+        return c.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, ex) -> {
+                    if (client != c) {
+                        return null;    // 已停止，关闭客户端导致的失败不计入
+                    }
+                    if (ex == null) {
+                        int status = response.statusCode();
+                        endpoint.recordSuccess(status, System.nanoTime() - start, status < 400);
+                    } else {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        String msg = cause instanceof HttpTimeoutException ? "超时"
+                                : cause.getClass().getSimpleName() + (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+                        endpoint.recordFailure(msg);
+                    }
+                    return null;
+                });
+    }
+}
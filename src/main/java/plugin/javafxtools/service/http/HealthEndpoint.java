@@ -0,0 +1,159 @@
+package plugin.javafxtools.service.http;
+
+import plugin.javafxtools.util.LongRingBuffer;
+
+/**
+ * 健康检查端点 - 最近N次检查的延迟保存在定长环形缓冲区中（负值表示失败）
+ * <p>
+ * 检查线程写入、UI线程读取，方法均已同步；version在每次写入后递增，UI据此只刷新有变化的行。
+ */
+public class HealthEndpoint {
+
+    private final String method;
+    private final String url;
+    private final LongRingBuffer latencies;
+
+    private long totalChecks;
+    private long totalFailures;
+    private int lastStatus = -1;      // 最近一次HTTP状态码，未完成或失败为-1
+    private String lastError = "";
+    private volatile long version;
+    private volatile boolean inFlight;
+
+    public HealthEndpoint(String method, String url, int windowSize) {
+        this.method = method;
+        this.url = url;
+        this.latencies = new LongRingBuffer(windowSize);
+    }
+
+    /**
+     * 解析端点配置行："URL" 或 "METHOD URL"（METHOD 仅支持 HEAD/GET）
+     *
+     * @throws IllegalArgumentException 格式错误时抛出
+     */
+    public static HealthEndpoint parse(String line, int windowSize) {
+        String s = line.trim();
+        String method = "HEAD";
+        int space = s.indexOf(' ');
+        if (space > 0) {
+            method = s.substring(0, space).trim().toUpperCase();
+            s = s.substring(space + 1).trim();
+            if (!"HEAD".equals(method) && !"GET".equals(method)) {
+                throw new IllegalArgumentException("健康检查仅支持HEAD/GET: " + line);
+            }
+        }
+        if (!s.startsWith("http://") && !s.startsWith("https://")) {
+            throw new IllegalArgumentException("URL必须以http://或https://开头: " + line);
+        }
+        return new HealthEndpoint(method, s, windowSize);
+    }
+
+    synchronized void recordSuccess(int status, long latencyNanos, boolean healthy) {
+        totalChecks++;
+        lastStatus = status;
+        if (healthy) {
+            latencies.add(latencyNanos);
+            lastError = "";
+        } else {
+            latencies.add(-1);
+            totalFailures++;
+            lastError = "HTTP " + status;
+        }
+        version++;
+    }
+
+    synchronized void recordFailure(String error) {
+        totalChecks++;
+        totalFailures++;
+        lastStatus = -1;
+        lastError = error;
+        latencies.add(-1);
+        version++;
+    }
+
+    /**
+     * @return 窗口内可用率（百分比），无样本时为NaN
+     */
+    public synchronized double windowUptimePercent() {
+        int n = latencies.size();
+        if (n == 0) {
+            return Double.NaN;
+        }
+        int ok = 0;
+        for (int i = 0; i < n; i++) {
+            if (latencies.get(i) >= 0) ok++;
+        }
+        return ok * 100.0 / n;
+    }
+
+    /**
+     * @return 累计可用率（百分比），无样本时为NaN
+     */
+    public synchronized double totalUptimePercent() {
+        return totalChecks == 0 ? Double.NaN : (totalChecks - totalFailures) * 100.0 / totalChecks;
+    }
+
+    /**
+     * @return 窗口内成功检查的平均延迟（毫秒），无样本时为NaN
+     */
+    public synchronized double averageLatencyMillis() {
+        long sum = 0;
+        int ok = 0;
+        for (int i = 0; i < latencies.size(); i++) {
+            long v = latencies.get(i);
+            if (v >= 0) {
+                sum += v;
+                ok++;
+            }
+        }
+        return ok == 0 ? Double.NaN : sum / 1e6 / ok;
+    }
+
+    /**
+     * @return 最近一次延迟（毫秒），失败或无样本时为NaN
+     */
+    public synchronized double lastLatencyMillis() {
+        long v = latencies.latest(-1);
+        return v < 0 ? Double.NaN : v / 1e6;
+    }
+
+    public synchronized int copyLatencies(long[] dest) {
+        return latencies.copyTo(dest);
+    }
+
+    public synchronized int getLastStatus() {
+        return lastStatus;
+    }
+
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    public synchronized long getTotalChecks() {
+        return totalChecks;
+    }
+
+    public int getWindowSize() {
+        return latencies.capacity();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    boolean isInFlight() {
+        return inFlight;
+    }
+
+    void setInFlight(boolean inFlight) {
+        this.inFlight = inFlight;
+    }
+}
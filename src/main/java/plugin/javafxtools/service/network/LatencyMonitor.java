@@ -0,0 +1,147 @@
+package plugin.javafxtools.service.network;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 持续延迟监控服务 - 按固定间隔（可低于1秒）探测一组目标并写入各自的滚动统计
+ */
+public class LatencyMonitor {
+
+    private static final int MAX_PROBE_THREADS = 64;
+    /** 解析结果的缓存时间，过期后重新解析，长时间监控能跟上DNS切换 */
+    private static final long ADDRESS_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private ScheduledExecutorService scheduler;
+    private volatile List<ProbeTarget> targets = List.of();
+
+    /**
+     * 启动监控，已在运行时先停止旧任务
+     *
+     * @param targets    监控目标
+     * @param intervalMs 每个目标的探测间隔（毫秒）
+     * @param timeoutMs  单次探测超时（毫秒），超时记为丢包
+     */
+    public synchronized void start(List<ProbeTarget> targets, long intervalMs, int timeoutMs) {
+        stop();
+        this.targets = List.copyOf(targets);
+        if (targets.isEmpty()) {
+            return;
+        }
+        // 每个目标一个线程上限，避免慢目标拖慢其他目标的探测节奏
+        int threads = Math.min(targets.size(), MAX_PROBE_THREADS);
+        AtomicInteger threadIndex = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "latency-probe-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < targets.size(); i++) {
+            ProbeTarget target = targets.get(i);
+            // 错开各目标的首次探测时间，避免突发
+            long initialDelay = intervalMs * i / targets.size();
+            scheduler.scheduleAtFixedRate(() -> probeOnce(target, timeoutMs),
+                    initialDelay, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 停止所有探测任务
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return scheduler != null && !scheduler.isShutdown();
+    }
+
+    public List<ProbeTarget> getTargets() {
+        return targets;
+    }
+
+    /**
+     * 执行一次探测并记录结果（任何异常都不能逃逸，否则周期任务会被取消）
+     */
+    private void probeOnce(ProbeTarget target, int timeoutMs) {
+        try {
+            InetAddress address = resolve(target);
+            long rtt = target.isTcp()
+                    ? probeTcp(address, target.getPort(), timeoutMs)
+                    : probeIcmp(address, timeoutMs);
+            if (rtt >= 0) {
+                target.getStats().record(rtt);
+                target.setStatus("正常");
+            } else {
+                target.getStats().recordLoss();
+                target.setStatus("超时");
+            }
+        } catch (UnknownHostException e) {
+            target.getStats().recordLoss();
+            target.setStatus("无法解析");
+        } catch (IOException e) {
+            target.getStats().recordLoss();
+            target.setStatus(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (Exception e) {
+            target.getStats().recordLoss();
+            target.setStatus("错误: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 返回目标的缓存地址，未解析或已超过缓存时间时重新解析
+     */
+    private static InetAddress resolve(ProbeTarget target) throws UnknownHostException {
+        InetAddress address = target.getAddress();
+        long now = System.nanoTime();
+        if (address == null || now - target.getResolvedNanos() > ADDRESS_TTL_NANOS) {
+            address = InetAddress.getByName(target.getHost());
+            target.setAddress(address, now);
+        }
+        return address;
+    }
+
+    /**
+     * TCP连接计时：以三次握手完成（或收到RST）的时间作为往返时间
+     *
+     * @return 往返时间（纳秒），超时返回-1
+     */
+    static long probeTcp(InetAddress address, int port, int timeoutMs) throws IOException {
+        long start = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            // 关闭时直接发送RST，避免高频探测在本机堆积TIME_WAIT连接
+            socket.setSoLinger(true, 0);
+            socket.connect(new InetSocketAddress(address, port), timeoutMs);
+            return System.nanoTime() - start;
+        } catch (SocketTimeoutException e) {
+            return -1;
+        } catch (ConnectException e) {
+            // 端口拒绝说明对端已回复RST，同样是一次有效的往返；不可达主机是NoRouteToHostException，不在此列
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * ICMP探测：有权限时JDK发送ICMP Echo，否则回退为TCP echo端口探测
+     *
+     * @return 往返时间（纳秒），超时返回-1
+     */
+    static long probeIcmp(InetAddress address, int timeoutMs) throws IOException {
+        long start = System.nanoTime();
+        boolean reachable = address.isReachable(timeoutMs);
+        return reachable ? System.nanoTime() - start : -1;
+    }
+}
@@ -0,0 +1,130 @@
+package plugin.javafxtools.service.network;
+
+import plugin.javafxtools.util.LongRingBuffer;
+
+/**
+ * 单个目标的滚动延迟统计 - 最近N个样本保存在定长原始环形缓冲区中
+ * <p>
+ * 样本单位为纳秒，负值表示丢包。探测线程写入、UI线程读取，方法均已同步。
+ */
+public class LatencyStats {
+
+    /** 丢包样本标记 */
+    public static final long LOST = -1L;
+
+    // snapshot() 输出数组中各统计量的下标
+    public static final int LAST = 0;
+    public static final int MIN = 1;
+    public static final int AVG = 2;
+    public static final int MAX = 3;
+    public static final int JITTER = 4;
+    public static final int LOSS_PERCENT = 5;
+    public static final int SAMPLES = 6;
+    public static final int SNAPSHOT_SIZE = 7;
+
+    private final LongRingBuffer samples;
+    private long totalSent;  // 累计探测次数
+    private long totalLost;  // 累计丢包次数
+    // 窗口统计缓存：样本变化后首次读取时扫描一次窗口，同一次刷新中各列读取只复制结果
+    private final double[] cached = new double[SNAPSHOT_SIZE];
+    private boolean dirty = true;
+
+    public LatencyStats(int windowSize) {
+        this.samples = new LongRingBuffer(windowSize);
+    }
+
+    /**
+     * 记录一次成功的探测
+     *
+     * @param rttNanos 往返时间（纳秒）
+     */
+    public synchronized void record(long rttNanos) {
+        samples.add(Math.max(0, rttNanos));
+        totalSent++;
+        dirty = true;
+    }
+
+    /**
+     * 记录一次丢包（超时或不可达）
+     */
+    public synchronized void recordLoss() {
+        samples.add(LOST);
+        totalSent++;
+        totalLost++;
+        dirty = true;
+    }
+
+    /**
+     * 计算窗口内统计量并写入out数组（单位毫秒），避免每次刷新分配对象
+     * <p>
+     * 抖动采用相邻成功样本差值绝对值的平均数（类似RFC 3550的定义）。样本没有变化时直接复制上次的结果。
+     *
+     * @param out 长度至少为 {@link #SNAPSHOT_SIZE} 的数组；无有效样本时延迟类统计为NaN
+     */
+    public synchronized void snapshot(double[] out) {
+        if (dirty) {
+            compute(cached);
+            dirty = false;
+        }
+        System.arraycopy(cached, 0, out, 0, SNAPSHOT_SIZE);
+    }
+
+    private void compute(double[] out) {
+        int n = samples.size();
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE, sum = 0, jitterSum = 0;
+        int ok = 0, jitterCount = 0;
+        long prev = LOST;
+        for (int i = 0; i < n; i++) {
+            long v = samples.get(i);
+            if (v == LOST) {
+                continue;
+            }
+            ok++;
+            sum += v;
+            if (v < min) min = v;
+            if (v > max) max = v;
+            if (prev != LOST) {
+                jitterSum += Math.abs(v - prev);
+                jitterCount++;
+            }
+            prev = v;
+        }
+        long last = samples.latest(LOST);
+        out[LAST] = last == LOST ? Double.NaN : last / 1e6;
+        out[MIN] = ok == 0 ? Double.NaN : min / 1e6;
+        out[AVG] = ok == 0 ? Double.NaN : sum / 1e6 / ok;
+        out[MAX] = ok == 0 ? Double.NaN : max / 1e6;
+        out[JITTER] = jitterCount == 0 ? Double.NaN : jitterSum / 1e6 / jitterCount;
+        out[LOSS_PERCENT] = n == 0 ? 0 : (n - ok) * 100.0 / n;
+        out[SAMPLES] = n;
+    }
+
+    /**
+     * 按时间顺序复制窗口内样本（供曲线绘制使用）
+     *
+     * @param dest 目标数组
+     * @return 复制的样本数
+     */
+    public synchronized int copySamples(long[] dest) {
+        return samples.copyTo(dest);
+    }
+
+    public synchronized long getTotalSent() {
+        return totalSent;
+    }
+
+    public synchronized long getTotalLost() {
+        return totalLost;
+    }
+
+    public int getWindowSize() {
+        return samples.capacity();
+    }
+
+    public synchronized void reset() {
+        samples.clear();
+        totalSent = 0;
+        totalLost = 0;
+        dirty = true;
+    }
+}
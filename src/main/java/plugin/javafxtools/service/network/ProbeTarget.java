@@ -0,0 +1,118 @@
+package plugin.javafxtools.service.network;
+
+import java.net.InetAddress;
+
+/**
+ * 延迟监控目标 - "host:port" 使用TCP连接计时，仅 "host" 使用ICMP（不可用时由JDK回退为TCP echo）
+ */
+public class ProbeTarget {
+
+    private final String host;
+    private final int port;            // -1 表示ICMP探测
+    private final LatencyStats stats;
+
+    private volatile InetAddress address; // 探测前解析并缓存，避免把DNS时间计入延迟
+    private volatile long resolvedNanos;  // 上次解析的时间（System.nanoTime）
+    private volatile String status = "等待中";
+
+    public ProbeTarget(String host, int port, int windowSize) {
+        this.host = host;
+        this.port = port;
+        this.stats = new LatencyStats(windowSize);
+    }
+
+    /**
+     * 解析目标文本，支持 host、host:port、[IPv6]:port 以及裸IPv6地址
+     *
+     * @param text       目标文本
+     * @param windowSize 统计窗口样本数
+     * @return 目标对象
+     * @throws IllegalArgumentException 文本格式不正确时抛出
+     */
+    public static ProbeTarget parse(String text, int windowSize) {
+        String s = text.trim();
+        if (s.isEmpty()) {
+            throw new IllegalArgumentException("目标不能为空");
+        }
+        String host = s;
+        int port = -1;
+        if (s.startsWith("[")) {
+            int end = s.indexOf(']');
+            if (end < 0) {
+                throw new IllegalArgumentException("IPv6地址缺少 ']': " + s);
+            }
+            host = s.substring(1, end);
+            if (end + 1 < s.length()) {
+                if (s.charAt(end + 1) != ':') {
+                    throw new IllegalArgumentException("无效的目标: " + s);
+                }
+                port = parsePort(s.substring(end + 2), s);
+            }
+        } else if (s.indexOf(':') > 0 && s.indexOf(':') == s.lastIndexOf(':')) {
+            int idx = s.indexOf(':');
+            host = s.substring(0, idx);
+            port = parsePort(s.substring(idx + 1), s);
+        }
+        return new ProbeTarget(host, port, windowSize);
+    }
+
+    private static int parsePort(String portText, String original) {
+        try {
+            int port = Integer.parseInt(portText.trim());
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("端口超出范围: " + original);
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的端口: " + original);
+        }
+    }
+
+    public boolean isTcp() {
+        return port > 0;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getMethod() {
+        return isTcp() ? "TCP" : "ICMP";
+    }
+
+    public String getLabel() {
+        if (!isTcp()) {
+            return host;
+        }
+        return host.indexOf(':') >= 0 ? "[" + host + "]:" + port : host + ":" + port;
+    }
+
+    public LatencyStats getStats() {
+        return stats;
+    }
+
+    InetAddress getAddress() {
+        return address;
+    }
+
+    long getResolvedNanos() {
+        return resolvedNanos;
+    }
+
+    void setAddress(InetAddress address, long resolvedNanos) {
+        this.resolvedNanos = resolvedNanos;
+        this.address = address;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    void setStatus(String status) {
+        this.status = status;
+    }
+}
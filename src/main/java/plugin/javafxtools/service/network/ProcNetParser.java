@@ -0,0 +1,212 @@
+package plugin.javafxtools.service.network;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * /proc/net/{tcp,tcp6,udp,udp6} 解析器 - 固定大小的字节缓冲区分块读取，逐行就地解析为原始数组
+ * <p>
+ * 解析过程不创建String或包装对象，适合每秒刷新一次的大连接表。
+ */
+public class ProcNetParser {
+
+    private static final String[] FILES = {"/proc/net/tcp", "/proc/net/tcp6", "/proc/net/udp", "/proc/net/udp6"};
+    private static final int[] PROTOS = {SocketTable.PROTO_TCP, SocketTable.PROTO_TCP6,
+            SocketTable.PROTO_UDP, SocketTable.PROTO_UDP6};
+    // 内核按主机字节序打印地址的32位字
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private final byte[] buffer = new byte[64 * 1024];
+
+    /**
+     * @return 当前系统是否提供 /proc/net/tcp
+     */
+    public static boolean isSupported() {
+        return Files.isReadable(Path.of(FILES[0]));
+    }
+
+    /**
+     * 解析所有协议的套接字到表中（先清空表）
+     *
+     * @param table       目标表
+     * @param includeUdp  是否包含UDP
+     * @throws IOException 读取失败时抛出
+     */
+    public void parseAll(SocketTable table, boolean includeUdp) throws IOException {
+        table.clear();
+        for (int f = 0; f < FILES.length; f++) {
+            int proto = PROTOS[f];
+            if (!includeUdp && (proto == SocketTable.PROTO_UDP || proto == SocketTable.PROTO_UDP6)) {
+                continue;
+            }
+            Path path = Path.of(FILES[f]);
+            if (Files.isReadable(path)) {
+                parseFile(FILES[f], proto, table);
+            }
+        }
+    }
+
+    /**
+     * 分块读取并逐行解析，块末尾不完整的行移到缓冲区开头与下一块拼接
+     */
+    private void parseFile(String file, int proto, SocketTable table) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            int filled = 0;
+            boolean header = true;
+            int n;
+            while ((n = in.read(buffer, filled, buffer.length - filled)) > 0) {
+                filled += n;
+                int lineStart = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        if (header) {
+                            header = false; // 第一行为表头
+                        } else {
+                            parseLine(lineStart, i, proto, table);
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+                if (lineStart == 0 && filled == buffer.length) {
+                    throw new IOException("行长度超过缓冲区: " + file);
+                }
+                System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                filled -= lineStart;
+            }
+        }
+    }
+
+    /**
+     * 解析一行，格式：
+     * sl local_address rem_address st tx_queue:rx_queue tr:tm->when retrnsmt uid timeout inode ...
+     */
+    private void parseLine(int start, int end, int proto, SocketTable t) {
+        boolean v6 = proto == SocketTable.PROTO_TCP6 || proto == SocketTable.PROTO_UDP6;
+        int p = skipSpaces(start, end);
+        p = indexOf(':', p, end) + 1;         // sl:
+        p = skipSpaces(p, end);
+        if (p >= end) {
+            return;
+        }
+        int row = t.append();
+        t.proto[row] = proto;
+
+        // 本地地址
+        if (v6) {
+            t.localHi[row] = (word(p) << 32) | word(p + 8);
+            t.localLo[row] = (word(p + 16) << 32) | word(p + 24);
+            p += 32;
+        } else {
+            t.localHi[row] = 0;
+            t.localLo[row] = word(p);
+            p += 8;
+        }
+        t.localPort[row] = (int) parseHex(p + 1, p + 5);
+        p = skipSpaces(p + 5, end);
+
+        // 远端地址
+        if (v6) {
+            t.remoteHi[row] = (word(p) << 32) | word(p + 8);
+            t.remoteLo[row] = (word(p + 16) << 32) | word(p + 24);
+            p += 32;
+        } else {
+            t.remoteHi[row] = 0;
+            t.remoteLo[row] = word(p);
+            p += 8;
+        }
+        t.remotePort[row] = (int) parseHex(p + 1, p + 5);
+        p = skipSpaces(p + 5, end);
+
+        // 状态
+        int tokenEnd = tokenEnd(p, end);
+        t.state[row] = (int) parseHex(p, tokenEnd);
+        p = skipSpaces(tokenEnd, end);
+
+        // tx_queue:rx_queue
+        tokenEnd = tokenEnd(p, end);
+        int colon = indexOf(':', p, tokenEnd);
+        t.txQueue[row] = parseHex(p, colon);
+        t.rxQueue[row] = parseHex(colon + 1, tokenEnd);
+        p = skipSpaces(tokenEnd, end);
+
+        // 跳过 tr:tm->when 和 retrnsmt
+        p = skipSpaces(tokenEnd(p, end), end);
+        p = skipSpaces(tokenEnd(p, end), end);
+
+        // uid
+        tokenEnd = tokenEnd(p, end);
+        t.uid[row] = (int) parseDec(p, tokenEnd);
+        p = skipSpaces(tokenEnd, end);
+
+        // 跳过 timeout，读取 inode
+        p = skipSpaces(tokenEnd(p, end), end);
+        t.inode[row] = parseDec(p, tokenEnd(p, end));
+    }
+
+    /**
+     * 读取8个十六进制字符表示的32位字，并转换为网络字节序
+     */
+    private long word(int p) {
+        int v = (int) parseHex(p, p + 8);
+        if (LITTLE_ENDIAN) {
+            v = Integer.reverseBytes(v);
+        }
+        return v & 0xFFFFFFFFL;
+    }
+
+    private long parseHex(int from, int to) {
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int c = buffer[i];
+            int d;
+            if (c >= '0' && c <= '9') {
+                d = c - '0';
+            } else if (c >= 'A' && c <= 'F') {
+                d = c - 'A' + 10;
+            } else if (c >= 'a' && c <= 'f') {
+                d = c - 'a' + 10;
+            } else {
+                break;
+            }
+            v = (v << 4) | d;
+        }
+        return v;
+    }
+
+    private long parseDec(int from, int to) {
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int c = buffer[i];
+            if (c < '0' || c > '9') {
+                break;
+            }
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private int skipSpaces(int p, int end) {
+        while (p < end && buffer[p] == ' ') {
+            p++;
+        }
+        return p;
+    }
+
+    private int tokenEnd(int p, int end) {
+        while (p < end && buffer[p] != ' ') {
+            p++;
+        }
+        return p;
+    }
+
+    private int indexOf(char c, int p, int end) {
+        while (p < end && buffer[p] != c) {
+            p++;
+        }
+        return p;
+    }
+}
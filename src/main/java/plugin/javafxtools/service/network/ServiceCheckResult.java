@@ -0,0 +1,61 @@
+package plugin.javafxtools.service.network;
+
+/**
+ * 单个 host:port 的检测结果
+ */
+public class ServiceCheckResult {
+
+    /**
+     * 检测结论
+     */
+    public enum State {
+        OPEN("开放"),
+        REFUSED("拒绝"),
+        TIMEOUT("超时"),
+        ERROR("错误");
+
+        private final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final State state;
+    private final long latencyNanos; // 仅OPEN/REFUSED有意义，其余为-1
+    private final String detail;
+
+    public ServiceCheckResult(String host, int port, State state, long latencyNanos, String detail) {
+        this.host = host;
+        this.port = port;
+        this.state = state;
+        this.latencyNanos = latencyNanos;
+        this.detail = detail;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
@@ -0,0 +1,134 @@
+package plugin.javafxtools.service.network;
+
+import plugin.javafxtools.util.LongIntHashMap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 套接字归属进程解析 - 扫描 /proc/[pid]/fd 中的 socket:[inode] 链接建立 inode到PID 的映射
+ * <p>
+ * 全量扫描开销较大，仅在出现未知inode时才重新扫描，并限制最小扫描间隔。
+ * 无权限读取的进程（其他用户）会被跳过，对应连接显示为未知。
+ */
+public class SocketOwnerResolver {
+
+    private static final String SOCKET_PREFIX = "socket:[";
+
+    private LongIntHashMap inodeToPid = new LongIntHashMap(1024, -1);
+    private LongIntHashMap scanBuffer = new LongIntHashMap(1024, -1);
+    private final Map<Integer, String> pidNames = new HashMap<>();
+    private long lastScanNanos;
+
+    /**
+     * 表中存在未映射的inode且距上次扫描超过最小间隔时重新扫描
+     *
+     * @param table            当前套接字表
+     * @param minIntervalNanos 两次扫描的最小间隔
+     * @return 是否执行了扫描
+     */
+    public boolean refreshIfNeeded(SocketTable table, long minIntervalNanos) {
+        long now = System.nanoTime();
+        if (lastScanNanos != 0 && now - lastScanNanos < minIntervalNanos) {
+            return false;
+        }
+        boolean unknown = false;
+        for (int i = 0; i < table.size(); i++) {
+            long inode = table.getInode(i);
+            if (inode != 0 && !inodeToPid.containsKey(inode)) {
+                unknown = true;
+                break;
+            }
+        }
+        if (!unknown && lastScanNanos != 0) {
+            return false;
+        }
+        scan();
+        lastScanNanos = now;
+        return true;
+    }
+
+    /**
+     * 全量扫描所有进程的文件描述符
+     */
+    private void scan() {
+        LongIntHashMap result = scanBuffer;
+        result.clear();
+        pidNames.clear();
+        try (DirectoryStream<Path> procs = Files.newDirectoryStream(Path.of("/proc"))) {
+            for (Path proc : procs) {
+                String name = proc.getFileName().toString();
+                if (name.isEmpty() || !Character.isDigit(name.charAt(0))) {
+                    continue;
+                }
+                int pid;
+                try {
+                    pid = Integer.parseInt(name);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                scanProcess(proc, pid, result);
+            }
+        } catch (IOException ignore) {
+            // /proc 不可读时保持空映射
+        }
+        // 交换缓冲区，旧映射留作下次扫描复用
+        scanBuffer = inodeToPid;
+        inodeToPid = result;
+    }
+
+    private void scanProcess(Path proc, int pid, LongIntHashMap result) {
+        boolean hasSocket = false;
+        try (DirectoryStream<Path> fds = Files.newDirectoryStream(proc.resolve("fd"))) {
+            for (Path fd : fds) {
+                String target;
+                try {
+                    target = Files.readSymbolicLink(fd).toString();
+                } catch (IOException | UnsupportedOperationException e) {
+                    continue; // fd已关闭或无权限
+                }
+                if (target.startsWith(SOCKET_PREFIX)) {
+                    long inode = 0;
+                    for (int i = SOCKET_PREFIX.length(); i < target.length() && target.charAt(i) != ']'; i++) {
+                        inode = inode * 10 + (target.charAt(i) - '0');
+                    }
+                    result.put(inode, pid);
+                    hasSocket = true;
+                }
+            }
+        } catch (IOException | SecurityException ignore) {
+            return; // 其他用户的进程无权限读取fd目录
+        }
+        if (hasSocket) {
+            pidNames.put(pid, readComm(proc));
+        }
+    }
+
+    private static String readComm(Path proc) {
+        try {
+            return new String(Files.readAllBytes(proc.resolve("comm")), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            return "?";
+        }
+    }
+
+    /**
+     * @return inode所属进程PID，未知返回-1
+     */
+    public int pidOf(long inode) {
+        return inode == 0 ? -1 : inodeToPid.get(inode);
+    }
+
+    /**
+     * @return 进程名，未知返回空串
+     */
+    public String nameOf(int pid) {
+        String name = pidNames.get(pid);
+        return name == null ? "" : name;
+    }
+}
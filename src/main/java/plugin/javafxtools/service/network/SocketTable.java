@@ -0,0 +1,151 @@
+package plugin.javafxtools.service.network;
+
+import java.util.Arrays;
+
+/**
+ * 套接字表 - 以列式原始数组保存 /proc/net 解析结果，刷新时复用数组不产生对象
+ * <p>
+ * IPv4地址保存在低64位（高位为0），IPv6地址按网络字节序拆为高/低两个long。
+ */
+public class SocketTable {
+
+    public static final int PROTO_TCP = 0;
+    public static final int PROTO_TCP6 = 1;
+    public static final int PROTO_UDP = 2;
+    public static final int PROTO_UDP6 = 3;
+    private static final String[] PROTO_NAMES = {"tcp", "tcp6", "udp", "udp6"};
+
+    /** /proc/net/tcp 中的状态码（下标即状态值） */
+    private static final String[] STATE_NAMES = {
+            "UNKNOWN", "ESTABLISHED", "SYN_SENT", "SYN_RECV", "FIN_WAIT1", "FIN_WAIT2", "TIME_WAIT",
+            "CLOSE", "CLOSE_WAIT", "LAST_ACK", "LISTEN", "CLOSING", "NEW_SYN_RECV"
+    };
+    public static final int STATE_COUNT = STATE_NAMES.length;
+
+    int size;
+    int[] proto = new int[256];
+    long[] localHi = new long[256];
+    long[] localLo = new long[256];
+    int[] localPort = new int[256];
+    long[] remoteHi = new long[256];
+    long[] remoteLo = new long[256];
+    int[] remotePort = new int[256];
+    int[] state = new int[256];
+    long[] txQueue = new long[256];
+    long[] rxQueue = new long[256];
+    int[] uid = new int[256];
+    long[] inode = new long[256];
+
+    public static String protoName(int proto) {
+        return PROTO_NAMES[proto];
+    }
+
+    public static String stateName(int state) {
+        return state >= 0 && state < STATE_NAMES.length ? STATE_NAMES[state] : "UNKNOWN";
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * 追加一行并返回其下标，容量不足时按倍数扩容
+     */
+    int append() {
+        if (size == proto.length) {
+            int cap = size * 2;
+            proto = Arrays.copyOf(proto, cap);
+            localHi = Arrays.copyOf(localHi, cap);
+            localLo = Arrays.copyOf(localLo, cap);
+            localPort = Arrays.copyOf(localPort, cap);
+            remoteHi = Arrays.copyOf(remoteHi, cap);
+            remoteLo = Arrays.copyOf(remoteLo, cap);
+            remotePort = Arrays.copyOf(remotePort, cap);
+            state = Arrays.copyOf(state, cap);
+            txQueue = Arrays.copyOf(txQueue, cap);
+            rxQueue = Arrays.copyOf(rxQueue, cap);
+            uid = Arrays.copyOf(uid, cap);
+            inode = Arrays.copyOf(inode, cap);
+        }
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getProto(int i) {
+        return proto[i];
+    }
+
+    public int getLocalPort(int i) {
+        return localPort[i];
+    }
+
+    public int getRemotePort(int i) {
+        return remotePort[i];
+    }
+
+    public int getState(int i) {
+        return state[i];
+    }
+
+    public long getTxQueue(int i) {
+        return txQueue[i];
+    }
+
+    public long getRxQueue(int i) {
+        return rxQueue[i];
+    }
+
+    public int getUid(int i) {
+        return uid[i];
+    }
+
+    public long getInode(int i) {
+        return inode[i];
+    }
+
+    /**
+     * 计算连接的身份键（协议+四元组），用于刷新间比对同一连接
+     * <p>
+     * TIME_WAIT等连接的inode为0，因此不能只用inode作为键。
+     */
+    public long identityKey(int i) {
+        long h = proto[i];
+        h = h * 31 + localHi[i];
+        h = h * 31 + localLo[i];
+        h = h * 31 + localPort[i];
+        h = h * 31 + remoteHi[i];
+        h = h * 31 + remoteLo[i];
+        h = h * 31 + remotePort[i];
+        h ^= (h >>> 29);
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 32);
+    }
+
+    public String formatLocal(int i) {
+        return formatEndpoint(proto[i], localHi[i], localLo[i], localPort[i]);
+    }
+
+    public String formatRemote(int i) {
+        return formatEndpoint(proto[i], remoteHi[i], remoteLo[i], remotePort[i]);
+    }
+
+    private static String formatEndpoint(int proto, long hi, long lo, int port) {
+        if (proto == PROTO_TCP || proto == PROTO_UDP) {
+            return ((lo >>> 24) & 0xFF) + "." + ((lo >>> 16) & 0xFF) + "." + ((lo >>> 8) & 0xFF) + "." + (lo & 0xFF)
+                    + ":" + port;
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int g = 0; g < 8; g++) {
+            long word = g < 4 ? hi : lo;
+            int shift = 48 - (g % 4) * 16;
+            if (g > 0) {
+                sb.append(':');
+            }
+            sb.append(Long.toHexString((word >>> shift) & 0xFFFF));
+        }
+        return sb.append("]:").append(port).toString();
+    }
+}
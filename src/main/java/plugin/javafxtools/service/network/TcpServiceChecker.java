@@ -0,0 +1,345 @@
+package plugin.javafxtools.service.network;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * TCP服务可达性检测 - 单个Selector线程复用所有非阻塞连接，支持数千个并发进行中的连接
+ * <p>
+ * 每个目标单独计算超时截止时间；由于同一批次超时时长相同，按发起顺序排列的队列天然按截止时间有序，
+ * 只需检查队首即可完成超时判定。
+ * <p>
+ * 每个实例只执行一次检测：取消标志不在{@link #run}中复位，检测线程启动前的取消请求不会丢失。
+ */
+public class TcpServiceChecker {
+
+    /** 单次检测允许的最大目标数 */
+    public static final int MAX_TARGETS = 65536;
+    /** 并行解析主机名的最大线程数 */
+    private static final int RESOLVER_THREADS = 16;
+
+    private volatile boolean cancelled;
+    private volatile Selector selector;
+
+    /**
+     * 检测目标
+     */
+    public static class Target {
+        final String host;
+        final int port;
+
+        public Target(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+    }
+
+    /**
+     * 进行中的连接
+     */
+    private static final class Pending {
+        final Target target;
+        final SocketChannel channel;
+        final long start;
+        final long deadline;
+        boolean done;
+
+        Pending(Target target, SocketChannel channel, long start, long deadline) {
+            this.target = target;
+            this.channel = channel;
+            this.start = start;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 解析检测目标文本，每行一个，支持：
+     * host:port、host:8000-8100、host:22,80,443、[IPv6]:port，#开头为注释
+     *
+     * @param text 目标文本
+     * @return 展开后的目标列表
+     * @throws IllegalArgumentException 格式错误或目标数超过上限时抛出
+     */
+    public static List<Target> parseTargets(String text) {
+        List<Target> targets = new ArrayList<>();
+        for (String raw : text.split("\n")) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String host;
+            String ports;
+            if (line.startsWith("[")) {
+                int end = line.indexOf("]:");
+                if (end < 0) {
+                    throw new IllegalArgumentException("无效的IPv6目标（应为[地址]:端口）: " + line);
+                }
+                host = line.substring(1, end);
+                ports = line.substring(end + 2);
+            } else {
+                int idx = line.lastIndexOf(':');
+                if (idx <= 0) {
+                    throw new IllegalArgumentException("缺少端口: " + line);
+                }
+                host = line.substring(0, idx);
+                ports = line.substring(idx + 1);
+            }
+            for (String part : ports.split(",")) {
+                String p = part.trim();
+                int dash = p.indexOf('-');
+                int from = parsePort(dash < 0 ? p : p.substring(0, dash), line);
+                int to = dash < 0 ? from : parsePort(p.substring(dash + 1), line);
+                if (to < from) {
+                    throw new IllegalArgumentException("端口范围错误: " + line);
+                }
+                if (targets.size() + (to - from + 1) > MAX_TARGETS) {
+                    throw new IllegalArgumentException("目标数超过上限 " + MAX_TARGETS);
+                }
+                for (int port = from; port <= to; port++) {
+                    targets.add(new Target(host, port));
+                }
+            }
+        }
+        return targets;
+    }
+
+    private static int parsePort(String text, String line) {
+        try {
+            int port = Integer.parseInt(text.trim());
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("端口超出范围: " + line);
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的端口: " + line);
+        }
+    }
+
+    /**
+     * 执行检测（阻塞直到全部完成或被取消，应在后台线程调用）
+     *
+     * @param targets     检测目标
+     * @param timeoutMs   每个目标的连接超时
+     * @param maxInFlight 最大并发进行中连接数（受进程文件句柄上限约束）
+     * @param listener    结果回调，在检测线程中调用
+     * @throws IOException Selector无法打开时抛出
+     */
+    public void run(List<Target> targets, int timeoutMs, int maxInFlight,
+                    Consumer<ServiceCheckResult> listener) throws IOException {
+        long timeoutNanos = timeoutMs * 1_000_000L;
+        Map<String, InetAddress> dnsCache = resolveHosts(targets);
+        ArrayDeque<Pending> inFlight = new ArrayDeque<>();
+        int inFlightCount = 0;
+        int next = 0;
+
+        try (Selector sel = Selector.open()) {
+            selector = sel;
+            while (!cancelled && (next < targets.size() || inFlightCount > 0)) {
+                // 1. 补充新连接直到达到并发上限
+                while (next < targets.size() && inFlightCount < maxInFlight && !cancelled) {
+                    Target target = targets.get(next++);
+                    Pending p = startConnect(sel, target, dnsCache, timeoutNanos, listener);
+                    if (p != null) {
+                        inFlight.addLast(p);
+                        inFlightCount++;
+                    }
+                }
+
+                // 2. 处理超时（队首即最早的截止时间，已完成的惰性移除）
+                long now = System.nanoTime();
+                while (!inFlight.isEmpty()) {
+                    Pending head = inFlight.peekFirst();
+                    if (head.done) {
+                        inFlight.pollFirst();
+                    } else if (head.deadline - now <= 0) {
+                        inFlight.pollFirst();
+                        finish(head, ServiceCheckResult.State.TIMEOUT, -1, "连接超时", listener);
+                        inFlightCount--;
+                    } else {
+                        break;
+                    }
+                }
+                if (inFlight.isEmpty()) {
+                    continue;
+                }
+
+                // 3. 等待连接事件，最多等到最早的截止时间
+                long waitMs = Math.max(1, (inFlight.peekFirst().deadline - now) / 1_000_000L);
+                sel.select(waitMs);
+                Iterator<SelectionKey> it = sel.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Pending p = (Pending) key.attachment();
+                    if (p.done) {
+                        continue;
+                    }
+                    try {
+                        if (p.channel.finishConnect()) {
+                            finish(p, ServiceCheckResult.State.OPEN, System.nanoTime() - p.start, "", listener);
+                            inFlightCount--;
+                        }
+                    } catch (IOException e) {
+                        finishWithError(p, e, listener);
+                        inFlightCount--;
+                    }
+                }
+            }
+        } finally {
+            // 取消时关闭所有未完成的连接
+            for (Pending p : inFlight) {
+                if (!p.done) {
+                    closeQuietly(p.channel);
+                }
+            }
+            selector = null;
+        }
+    }
+
+    /**
+     * 取消正在进行的检测
+     */
+    public void cancel() {
+        cancelled = true;
+        Selector sel = selector;
+        if (sel != null) {
+            sel.wakeup();
+        }
+    }
+
+    /**
+     * 连接开始前并行解析所有不同的主机，Selector线程不做阻塞的DNS查询；
+     * 每个主机只解析一次，解析失败的主机也记录（值为null），端口范围扫描时不会重复查询
+     */
+    private Map<String, InetAddress> resolveHosts(List<Target> targets) {
+        Map<String, InetAddress> resolved = new HashMap<>();
+        Map<String, Future<InetAddress>> lookups = new LinkedHashMap<>();
+        for (Target target : targets) {
+            lookups.putIfAbsent(target.host, null);
+        }
+        ExecutorService resolver = Executors.newFixedThreadPool(Math.min(RESOLVER_THREADS, lookups.size() + 1), r -> {
+            Thread t = new Thread(r, "tcp-check-resolver");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            lookups.replaceAll((host, ignored) -> resolver.submit(() -> InetAddress.getByName(host)));
+            for (Map.Entry<String, Future<InetAddress>> entry : lookups.entrySet()) {
+                resolved.put(entry.getKey(), awaitLookup(entry.getValue()));
+                if (cancelled) {
+                    break;
+                }
+            }
+        } finally {
+            resolver.shutdownNow();
+        }
+        return resolved;
+    }
+
+    /**
+     * 等待一次解析完成，期间响应取消；解析失败或被取消时返回null
+     */
+    private InetAddress awaitLookup(Future<InetAddress> lookup) {
+        while (!cancelled) {
+            try {
+                return lookup.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 继续等待，顺便检查取消
+            } catch (ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 发起一个非阻塞连接；立即完成或立即失败时直接回调结果并返回null
+     */
+    private Pending startConnect(Selector sel, Target target, Map<String, InetAddress> dnsCache,
+                                 long timeoutNanos, Consumer<ServiceCheckResult> listener) {
+        InetAddress address = dnsCache.get(target.host);
+        if (address == null) {
+            listener.accept(new ServiceCheckResult(target.host, target.port,
+                    ServiceCheckResult.State.ERROR, -1, "无法解析主机"));
+            return null;
+        }
+
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            // 关闭时发送RST，大批量检测不在本机留下TIME_WAIT
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+            long start = System.nanoTime();
+            Pending p = new Pending(target, channel, start, start + timeoutNanos);
+            if (channel.connect(new InetSocketAddress(address, target.port))) {
+                finish(p, ServiceCheckResult.State.OPEN, System.nanoTime() - start, "", listener);
+                return null;
+            }
+            channel.register(sel, SelectionKey.OP_CONNECT, p);
+            return p;
+        } catch (IOException e) {
+            Pending failed = new Pending(target, channel, System.nanoTime(), 0);
+            finishWithError(failed, e, listener);
+            return null;
+        }
+    }
+
+    private void finishWithError(Pending p, IOException e, Consumer<ServiceCheckResult> listener) {
+        // 对端回复RST时JDK抛出ConnectException；不可达主机是NoRouteToHostException等其他SocketException
+        if (e instanceof ConnectException) {
+            finish(p, ServiceCheckResult.State.REFUSED, System.nanoTime() - p.start, "", listener);
+        } else {
+            String msg = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            finish(p, ServiceCheckResult.State.ERROR, -1, msg, listener);
+        }
+    }
+
+    private void finish(Pending p, ServiceCheckResult.State state, long latencyNanos, String detail,
+                        Consumer<ServiceCheckResult> listener) {
+        p.done = true;
+        closeQuietly(p.channel);
+        listener.accept(new ServiceCheckResult(p.target.host, p.target.port, state, latencyNanos, detail));
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+        }
+    }
+}
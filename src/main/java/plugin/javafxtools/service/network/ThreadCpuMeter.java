@@ -0,0 +1,51 @@
+package plugin.javafxtools.service.network;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一组工作线程的累计CPU时间统计 - 存活线程实时读取，已结束线程在退出前自行累加
+ */
+class ThreadCpuMeter {
+
+    private static final ThreadMXBean THREAD_MX = ManagementFactory.getThreadMXBean();
+
+    private final Set<Long> liveThreads = ConcurrentHashMap.newKeySet();
+    private final AtomicLong finishedCpuNanos = new AtomicLong();
+
+    /**
+     * 在工作线程开始时调用
+     */
+    void register() {
+        liveThreads.add(Thread.currentThread().threadId());
+    }
+
+    /**
+     * 在工作线程结束前调用（finally中）
+     */
+    void unregister() {
+        long cpu = THREAD_MX.isCurrentThreadCpuTimeSupported() ? THREAD_MX.getCurrentThreadCpuTime() : 0;
+        liveThreads.remove(Thread.currentThread().threadId());
+        finishedCpuNanos.addAndGet(Math.max(0, cpu));
+    }
+
+    /**
+     * @return 所有工作线程累计CPU时间（纳秒），平台不支持时返回-1
+     */
+    long totalCpuNanos() {
+        if (!THREAD_MX.isThreadCpuTimeSupported()) {
+            return -1;
+        }
+        long total = finishedCpuNanos.get();
+        for (Long id : liveThreads) {
+            long cpu = THREAD_MX.getThreadCpuTime(id);
+            if (cpu > 0) {
+                total += cpu;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,179 @@
+package plugin.javafxtools.service.network;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 吞吐测试客户端 - 多个并行流通过直接缓冲区持续写出固定时长，每秒输出一次区间报告
+ */
+public class ThroughputClient {
+
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+    private static final long MIN_REPORT_NANOS = 50_000_000L;
+    private static final int ACK_TIMEOUT_MS = 5000;
+
+    private final List<SocketChannel> channels = new ArrayList<>();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong ackedBytes = new AtomicLong();
+    private final ThreadCpuMeter cpuMeter = new ThreadCpuMeter();
+    private volatile boolean cancelled;
+
+    /**
+     * 执行测试（阻塞直到完成或取消，应在后台线程调用）
+     *
+     * @param target          服务端地址
+     * @param streams         并行流数
+     * @param bufferSize      每次写出的缓冲区大小
+     * @param durationSeconds 测试时长（秒）
+     * @param localPeer       同进程内的本地对端，用于实时统计有效吞吐和服务端CPU；远端测试传null
+     * @param listener        区间报告回调（在测试线程中调用）
+     * @return 最终汇总报告，接收字节为服务端确认的有效吞吐
+     * @throws IOException 连接失败时抛出
+     */
+    public ThroughputReport run(InetSocketAddress target, int streams, int bufferSize, int durationSeconds,
+                                ThroughputServer localPeer, Consumer<ThroughputReport> listener) throws IOException {
+        cancelled = false;
+        sentBytes.set(0);
+        ackedBytes.set(0);
+        synchronized (this) {
+            channels.clear();
+        }
+        try {
+            for (int i = 0; i < streams; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.setOption(StandardSocketOptions.SO_SNDBUF, Math.max(bufferSize, 64 * 1024));
+                synchronized (this) {
+                    channels.add(channel);
+                }
+                channel.connect(target);
+            }
+        } catch (IOException e) {
+            closeAll();
+            throw e;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + durationSeconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < streams; i++) {
+            SocketChannel channel = channels.get(i);
+            Thread t = new Thread(() -> sendStream(channel, bufferSize, deadline), "throughput-client-" + (i + 1));
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+
+        // 采样循环：每秒对比一次计数器差值
+        long serverBase = localPeer == null ? -1 : localPeer.getReceivedBytes();
+        long serverCpuBase = localPeer == null ? -1 : localPeer.getCpuNanos();
+        long lastTime = start;
+        long lastSent = 0;
+        long lastReceived = serverBase;
+        long lastCpu = 0;
+        long lastServerCpu = serverCpuBase;
+        while (!cancelled && anyAlive(workers)) {
+            long next = lastTime + REPORT_INTERVAL_NANOS;
+            joinUntil(workers, next);
+            long now = System.nanoTime();
+            long sent = sentBytes.get();
+            long cpu = cpuMeter.totalCpuNanos();
+            long received = localPeer == null ? -1 : localPeer.getReceivedBytes();
+            long serverCpu = localPeer == null ? -1 : localPeer.getCpuNanos();
+            if (now - lastTime < MIN_REPORT_NANOS) {
+                continue; // 结束时残留的极短区间不单独报告，计入汇总
+            }
+            listener.accept(new ThroughputReport(
+                    (lastTime - start) / 1e9, (now - start) / 1e9,
+                    sent - lastSent,
+                    received < 0 ? -1 : received - lastReceived,
+                    cpu < 0 ? -1 : cpu - lastCpu,
+                    serverCpu < 0 ? -1 : serverCpu - lastServerCpu));
+            lastTime = now;
+            lastSent = sent;
+            lastReceived = received;
+            lastCpu = cpu;
+            lastServerCpu = serverCpu;
+        }
+        closeAll();
+
+        long end = System.nanoTime();
+        return new ThroughputReport(0, (end - start) / 1e9, sentBytes.get(), ackedBytes.get(),
+                cpuMeter.totalCpuNanos(),
+                localPeer == null ? -1 : localPeer.getCpuNanos() - serverCpuBase);
+    }
+
+    /**
+     * 单个流的发送循环，结束后半关闭并读取服务端确认的接收字节数
+     */
+    private void sendStream(SocketChannel channel, int bufferSize, long deadline) {
+        cpuMeter.register();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            for (int i = 0; i < bufferSize; i++) {
+                buffer.put(i, (byte) i);
+            }
+            while (!cancelled && System.nanoTime() < deadline) {
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    sentBytes.addAndGet(channel.write(buffer));
+                }
+            }
+            channel.shutdownOutput();
+            channel.socket().setSoTimeout(ACK_TIMEOUT_MS);
+            DataInputStream in = new DataInputStream(channel.socket().getInputStream());
+            ackedBytes.addAndGet(in.readLong());
+        } catch (IOException ignore) {
+            // 取消或对端未回写确认时，有效吞吐按已确认部分统计
+        } finally {
+            cpuMeter.unregister();
+        }
+    }
+
+    /**
+     * 取消测试
+     */
+    public void cancel() {
+        cancelled = true;
+        closeAll();
+    }
+
+    private synchronized void closeAll() {
+        for (SocketChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private static boolean anyAlive(List<Thread> threads) {
+        for (Thread t : threads) {
+            if (t.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void joinUntil(List<Thread> threads, long deadlineNanos) {
+        try {
+            for (Thread t : threads) {
+                long remainingMs = (deadlineNanos - System.nanoTime()) / 1_000_000L;
+                if (remainingMs <= 0) {
+                    return;
+                }
+                t.join(remainingMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
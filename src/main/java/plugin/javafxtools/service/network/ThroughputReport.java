@@ -0,0 +1,74 @@
+package plugin.javafxtools.service.network;
+
+/**
+ * 吞吐测试的单个统计区间（或最终汇总）
+ */
+public class ThroughputReport {
+
+    private final double startSeconds;
+    private final double endSeconds;
+    private final long sentBytes;       // 客户端写出的字节
+    private final long receivedBytes;   // 对端应用层实际收到的字节（有效吞吐），未知为-1
+    private final long clientCpuNanos;  // 区间内客户端工作线程CPU时间，未知为-1
+    private final long serverCpuNanos;  // 区间内本地对端工作线程CPU时间，未知为-1
+
+    public ThroughputReport(double startSeconds, double endSeconds, long sentBytes, long receivedBytes,
+                            long clientCpuNanos, long serverCpuNanos) {
+        this.startSeconds = startSeconds;
+        this.endSeconds = endSeconds;
+        this.sentBytes = sentBytes;
+        this.receivedBytes = receivedBytes;
+        this.clientCpuNanos = clientCpuNanos;
+        this.serverCpuNanos = serverCpuNanos;
+    }
+
+    /**
+     * 字节数换算为 Gbit/s
+     */
+    public static double toGbps(long bytes, double seconds) {
+        return seconds <= 0 ? 0 : bytes * 8 / 1e9 / seconds;
+    }
+
+    public double getStartSeconds() {
+        return startSeconds;
+    }
+
+    public double getEndSeconds() {
+        return endSeconds;
+    }
+
+    public long getSentBytes() {
+        return sentBytes;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public long getClientCpuNanos() {
+        return clientCpuNanos;
+    }
+
+    public long getServerCpuNanos() {
+        return serverCpuNanos;
+    }
+
+    /**
+     * 格式化为一行iperf风格的报告
+     */
+    public String format() {
+        double seconds = endSeconds - startSeconds;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("[%6.1f-%6.1fs] 发送 %8.3f Gbit/s", startSeconds, endSeconds, toGbps(sentBytes, seconds)));
+        if (receivedBytes >= 0) {
+            sb.append(String.format("  有效吞吐 %8.3f Gbit/s", toGbps(receivedBytes, seconds)));
+        }
+        if (clientCpuNanos >= 0) {
+            sb.append(String.format("  客户端CPU %6.1f%%", clientCpuNanos / 1e7 / seconds));
+        }
+        if (serverCpuNanos >= 0) {
+            sb.append(String.format("  服务端CPU %6.1f%%", serverCpuNanos / 1e7 / seconds));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package plugin.javafxtools.service.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 吞吐测试服务端（本地对端）- 每个流一个线程，使用直接缓冲区读取并丢弃数据
+ * <p>
+ * 协议：客户端发送完毕后半关闭写方向，服务端回写8字节的本连接实际接收字节数，作为有效吞吐确认。
+ */
+public class ThroughputServer {
+
+    private final InetSocketAddress bindAddress;
+    private final int bufferSize;
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final ThreadCpuMeter cpuMeter = new ThreadCpuMeter();
+    private final Set<SocketChannel> channels = ConcurrentHashMap.newKeySet();
+
+    private volatile ServerSocketChannel serverChannel;
+    private volatile boolean running;
+
+    /**
+     * @param bindAddress 监听地址，自测时应使用127.0.0.1，端口为0表示随机端口
+     * @param bufferSize  每个流的读缓冲区大小
+     */
+    public ThroughputServer(InetSocketAddress bindAddress, int bufferSize) {
+        this.bindAddress = bindAddress;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 绑定端口并在后台线程接受连接
+     *
+     * @throws IOException 绑定失败时抛出
+     */
+    public void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.setOption(StandardSocketOptions.SO_RCVBUF, Math.max(bufferSize, 64 * 1024));
+        serverChannel.bind(bindAddress);
+        running = true;
+        Thread acceptThread = new Thread(this::acceptLoop, "throughput-server-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    private void acceptLoop() {
+        AtomicInteger streamIndex = new AtomicInteger();
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channels.add(channel);
+                Thread t = new Thread(() -> handleStream(channel), "throughput-server-" + streamIndex.incrementAndGet());
+                t.setDaemon(true);
+                t.start();
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                if (!running) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void handleStream(SocketChannel channel) {
+        cpuMeter.register();
+        activeStreams.incrementAndGet();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        long streamBytes = 0;
+        try (channel) {
+            int n;
+            while ((n = channel.read(buffer)) >= 0) {
+                if (n > 0) {
+                    streamBytes += n;
+                    receivedBytes.addAndGet(n);
+                }
+                buffer.clear();
+            }
+            // 对端半关闭后回写确认
+            ByteBuffer ack = ByteBuffer.allocate(Long.BYTES).putLong(0, streamBytes);
+            while (ack.hasRemaining()) {
+                channel.write(ack);
+            }
+        } catch (IOException ignore) {
+            // 客户端中断或服务停止
+        } finally {
+            channels.remove(channel);
+            activeStreams.decrementAndGet();
+            cpuMeter.unregister();
+        }
+    }
+
+    /**
+     * 停止服务并关闭所有连接
+     */
+    public void stop() {
+        running = false;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException ignore) {
+        }
+        for (SocketChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return 实际监听端口
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    public long getCpuNanos() {
+        return cpuMeter.totalCpuNanos();
+    }
+}
@@ -0,0 +1,82 @@
+package plugin.javafxtools.service.websocket;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个连接的压缩统计 - 负载字节与压缩后（线路上）字节、压缩/解压耗时
+ */
+public class CompressionStats {
+
+    final LongAdder sentPayload = new LongAdder();
+    final LongAdder sentWire = new LongAdder();
+    final LongAdder receivedPayload = new LongAdder();
+    final LongAdder receivedWire = new LongAdder();
+    final LongAdder compressNanos = new LongAdder();
+    final LongAdder decompressNanos = new LongAdder();
+    final LongAdder compressedFrames = new LongAdder();
+    final LongAdder decompressedFrames = new LongAdder();
+    private volatile boolean negotiated;
+
+    public long getSentPayload() {
+        return sentPayload.sum();
+    }
+
+    public long getSentWire() {
+        return sentWire.sum();
+    }
+
+    public long getReceivedPayload() {
+        return receivedPayload.sum();
+    }
+
+    public long getReceivedWire() {
+        return receivedWire.sum();
+    }
+
+    public long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    public long getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+
+    public long getCompressedFrames() {
+        return compressedFrames.sum();
+    }
+
+    public long getDecompressedFrames() {
+        return decompressedFrames.sum();
+    }
+
+    /**
+     * @return 服务端是否接受了permessage-deflate
+     */
+    public boolean isNegotiated() {
+        return negotiated;
+    }
+
+    void setNegotiated(boolean negotiated) {
+        this.negotiated = negotiated;
+    }
+
+    /**
+     * 汇总文本，如 "发送 10.0KB→2.1KB(21%) 接收 ... 压缩 1.2ms 解压 0.8ms"
+     */
+    public String format() {
+        return String.format("发送 %s→%s(%s) 接收 %s→%s(%s) 压缩耗时 %.2fms/%d帧 解压耗时 %.2fms/%d帧",
+                formatBytes(getSentPayload()), formatBytes(getSentWire()), ratio(getSentWire(), getSentPayload()),
+                formatBytes(getReceivedWire()), formatBytes(getReceivedPayload()), ratio(getReceivedWire(), getReceivedPayload()),
+                getCompressNanos() / 1e6, getCompressedFrames(), getDecompressNanos() / 1e6, getDecompressedFrames());
+    }
+
+    private static String ratio(long wire, long payload) {
+        return payload == 0 ? "-" : String.format("%.0f%%", wire * 100.0 / payload);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + "B";
+        if (bytes < 1024 * 1024) return String.format("%.1fKB", bytes / 1024.0);
+        return String.format("%.1fMB", bytes / 1024.0 / 1024.0);
+    }
+}
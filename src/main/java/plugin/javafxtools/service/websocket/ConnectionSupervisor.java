@@ -0,0 +1,331 @@
+package plugin.javafxtools.service.websocket;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.PingFrame;
+import plugin.javafxtools.util.LongRingBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * WebSocket连接守护 - 断线后按指数退避（带随机抖动）重连，定时发送ping测量往返时延，
+ * 长时间无任何入站流量时判定连接停滞并主动断开重连
+ * <p>
+ * 客户端需在 onOpen/onMessage/onWebsocketPong/onClose 中分别调用
+ * {@link #connected}、{@link #traffic}、{@link #pong}、{@link #closed}。
+ */
+public class ConnectionSupervisor {
+
+    private static final long TICK_MILLIS = 250;
+    private static final long INITIAL_BACKOFF_MILLIS = 500;
+    private static final long STABLE_MILLIS = 10_000;   // 连接保持超过该时长才重置退避
+    private static final int RTT_HISTORY = 120;
+    private static final int SESSION_HISTORY = 50;
+
+    /**
+     * 一次连接的在线记录
+     */
+    public static class Session {
+        private final long openedAt;
+        private final long closedAt;
+        private final int code;
+        private final String reason;
+
+        Session(long openedAt, long closedAt, int code, String reason) {
+            this.openedAt = openedAt;
+            this.closedAt = closedAt;
+            this.code = code;
+            this.reason = reason;
+        }
+
+        public long getOpenedAt() {
+            return openedAt;
+        }
+
+        public long getClosedAt() {
+            return closedAt;
+        }
+
+        public long getDurationMillis() {
+            return closedAt - openedAt;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    private final Runnable reconnectAction;
+    private final Consumer<String> log;
+    private final long maxBackoffMillis;
+    private final long pingIntervalNanos;
+    private final long stallTimeoutNanos;
+    private final LongRingBuffer rttHistory = new LongRingBuffer(RTT_HISTORY);   // 纳秒，-1表示ping未收到pong
+    private final Deque<Session> sessions = new ArrayDeque<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+    private volatile WebSocket connection;       // 当前已建立的连接
+    private volatile long openedAt;              // 当前连接建立时刻（毫秒），未连接为0
+    private volatile long lastTrafficNanos;
+    private long lastPingNanos;
+    private volatile long pendingPingNanos;      // 未收到pong的ping发送时刻，0表示无
+    private int attempt;                         // 连续失败次数，决定退避时长
+    private int reconnects;
+    private long closedUptimeMillis;             // 已结束连接的累计在线时长
+    private long rttSum;
+    private long rttCount;
+    private long rttMax;
+    private long lostPings;
+
+    /**
+     * @param reconnectAction  发起一次新连接（创建新的客户端并connect）
+     * @param log              日志输出（在守护线程或客户端线程中调用）
+     * @param maxBackoffMillis 重连退避上限（毫秒）
+     * @param pingIntervalMs   ping间隔（毫秒），0表示不发送ping
+     * @param stallTimeoutMs   无入站流量多久判定停滞（毫秒），0表示不检测
+     */
+    public ConnectionSupervisor(Runnable reconnectAction, Consumer<String> log,
+                                long maxBackoffMillis, long pingIntervalMs, long stallTimeoutMs) {
+        this.reconnectAction = reconnectAction;
+        this.log = log;
+        this.maxBackoffMillis = Math.max(INITIAL_BACKOFF_MILLIS, maxBackoffMillis);
+        this.pingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pingIntervalMs);
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMs);
+    }
+
+    /**
+     * 启动守护线程
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ws-supervisor");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止守护，之后的断线不再重连（用户主动断开前调用）
+     */
+    public synchronized void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 连接已建立
+     */
+    public synchronized void connected(WebSocket conn) {
+        connection = conn;
+        openedAt = System.currentTimeMillis();
+        lastTrafficNanos = System.nanoTime();
+        lastPingNanos = lastTrafficNanos;
+        pendingPingNanos = 0;
+    }
+
+    /**
+     * 收到任意数据帧
+     */
+    public void traffic() {
+        lastTrafficNanos = System.nanoTime();
+    }
+
+    /**
+     * 收到pong帧：负载为本类发送的时间戳时计算往返时延，其他pong（如库自身的心跳）只计为流量
+     */
+    public void pong(Framedata frame) {
+        long now = System.nanoTime();
+        lastTrafficNanos = now;
+        ByteBuffer payload = frame.getPayloadData();
+        if (payload.remaining() != Long.BYTES) {
+            return;
+        }
+        long sentAt = payload.getLong(payload.position());
+        synchronized (this) {
+            if (sentAt != pendingPingNanos) {
+                return;
+            }
+            pendingPingNanos = 0;
+            long rtt = now - sentAt;
+            rttHistory.add(rtt);
+            rttSum += rtt;
+            rttCount++;
+            rttMax = Math.max(rttMax, rtt);
+        }
+    }
+
+    /**
+     * 连接关闭或连接失败：记录在线时长，守护运行中则按退避时长安排重连
+     */
+    public void closed(int code, String reason) {
+        long delay;
+        int currentAttempt;
+        ScheduledExecutorService s;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (openedAt > 0) {
+                Session session = new Session(openedAt, now, code, reason);
+                closedUptimeMillis += session.getDurationMillis();
+                sessions.addLast(session);
+                if (sessions.size() > SESSION_HISTORY) {
+                    sessions.removeFirst();
+                }
+                // 短暂连上又断开的不算恢复，避免负载均衡反复踢连接时高频重连
+                if (session.getDurationMillis() >= STABLE_MILLIS) {
+                    attempt = 0;
+                }
+            }
+            connection = null;
+            openedAt = 0;
+            pendingPingNanos = 0;
+            if (!running) {
+                return;
+            }
+            currentAttempt = ++attempt;
+            reconnects++;
+            delay = backoffMillis(currentAttempt);
+            s = scheduler;
+        }
+        log.accept(String.format("第 %d 次重连将在 %.1f 秒后进行", currentAttempt, delay / 1000.0));
+        if (s != null && !s.isShutdown()) {
+            s.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 指数退避：min(上限, 初始值 * 2^(attempt-1))，在其一半到全长之间随机，避免大量客户端同时重连
+     */
+    long backoffMillis(int attempt) {
+        long base = INITIAL_BACKOFF_MILLIS << Math.min(attempt - 1, 20);
+        long capped = Math.min(maxBackoffMillis, base);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private void reconnect() {
+        if (!running) {
+            return;
+        }
+        try {
+            reconnectAction.run();
+        } catch (Exception e) {
+            log.accept("重连失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 周期任务：发送ping、检测停滞（任何异常都不能逃逸，否则周期任务会被取消）
+     */
+    private void tick() {
+        try {
+            WebSocket conn = connection;
+            if (conn == null || !conn.isOpen()) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (stallTimeoutNanos > 0 && now - lastTrafficNanos >= stallTimeoutNanos) {
+                log.accept(String.format("连接停滞: %.1f 秒未收到任何数据，主动断开", (now - lastTrafficNanos) / 1e9));
+                connection = null;
+                conn.closeConnection(CloseFrame.ABNORMAL_CLOSE, "连接停滞");
+                return;
+            }
+            if (pingIntervalNanos > 0 && now - lastPingNanos >= pingIntervalNanos) {
+                sendPing(conn, now);
+            }
+        } catch (Exception e) {
+            log.accept("连接守护异常: " + e.getMessage());
+        }
+    }
+
+    private void sendPing(WebSocket conn, long now) {
+        synchronized (this) {
+            if (pendingPingNanos != 0) {
+                // 上一个ping在一个间隔内没有回应
+                rttHistory.add(-1);
+                lostPings++;
+            }
+            pendingPingNanos = now;
+            lastPingNanos = now;
+        }
+        PingFrame ping = new PingFrame();
+        ping.setPayload(ByteBuffer.allocate(Long.BYTES).putLong(0, now));
+        conn.sendFrame(ping);
+    }
+
+    /**
+     * 复制RTT历史（纳秒，-1表示丢失）
+     *
+     * @return 实际复制的样本数
+     */
+    public synchronized int copyRttHistory(long[] dest) {
+        return rttHistory.copyTo(dest);
+    }
+
+    public static int getRttHistoryCapacity() {
+        return RTT_HISTORY;
+    }
+
+    public synchronized List<Session> getSessions() {
+        return new ArrayList<>(sessions);
+    }
+
+    /**
+     * @return 当前连接已在线的毫秒数，未连接为0
+     */
+    public long getCurrentUptimeMillis() {
+        long opened = openedAt;
+        return opened == 0 ? 0 : System.currentTimeMillis() - opened;
+    }
+
+    /**
+     * 汇总文本：在线时长、可用率、RTT和重连次数
+     */
+    public synchronized String format() {
+        long uptime = getCurrentUptimeMillis();
+        long elapsed = Math.max(1, System.currentTimeMillis() - startedAt);
+        long last = rttHistory.latest(-1);
+        return String.format("%s %s | 可用率 %.1f%% | RTT 最近 %s 平均 %s 最大 %s | ping丢失 %d | 重连 %d 次",
+                openedAt == 0 ? "离线" : "在线", formatMillis(uptime),
+                (closedUptimeMillis + uptime) * 100.0 / elapsed,
+                last < 0 ? "-" : formatNanos(last),
+                rttCount == 0 ? "-" : formatNanos(rttSum / rttCount),
+                rttCount == 0 ? "-" : formatNanos(rttMax),
+                lostPings, reconnects);
+    }
+
+    private static String formatMillis(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format("%.1fms", nanos / 1e6);
+    }
+}
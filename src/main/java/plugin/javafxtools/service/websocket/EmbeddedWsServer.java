@@ -0,0 +1,268 @@
+package plugin.javafxtools.service.websocket;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 内嵌WebSocket服务端 - 在本机提供回显、广播和合成推送，用于离线、可重复的压测
+ * <p>
+ * 合成推送消息格式为 {@code FEED|序号|发送纳秒|填充}，时间戳取自 {@link LoadGenerator#timestampNanos()}，
+ * 同进程的压测客户端据此统计扇出延迟。广播使用库的 broadcast，每条消息只组帧一次再写给所有连接。
+ */
+public class EmbeddedWsServer {
+
+    private static final long START_TIMEOUT_SECONDS = 3;
+    private static final int STOP_TIMEOUT_MILLIS = 1000;
+    private static final long MAX_PARK_NANOS = 10_000_000L;
+
+    /**
+     * 收到客户端消息时的处理方式
+     */
+    public enum InboundMode {
+        ECHO("回显给发送方"),
+        BROADCAST("广播给所有连接"),
+        DISCARD("丢弃");
+
+        private final String displayName;
+
+        InboundMode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder feedSkipped = new LongAdder();
+    private final Consumer<String> log;
+
+    private volatile InboundMode inboundMode = InboundMode.ECHO;
+    private volatile ServerImpl server;
+    private volatile Thread feedThread;
+
+    /**
+     * @param log 日志输出（在服务端线程中调用）
+     */
+    public EmbeddedWsServer(Consumer<String> log) {
+        this.log = log;
+    }
+
+    /**
+     * 启动服务端，等待端口绑定完成
+     *
+     * @param bindAddress 监听地址
+     * @param mode        入站消息处理方式
+     * @param feedRate    合成推送速率（条/秒），0表示不推送
+     * @param payloadSize 推送消息填充字节数
+     * @throws IOException 端口绑定失败或启动超时
+     */
+    public synchronized void start(InetSocketAddress bindAddress, InboundMode mode,
+                                   double feedRate, int payloadSize) throws IOException {
+        stop();
+        received.reset();
+        sent.reset();
+        feedSkipped.reset();
+        inboundMode = mode;
+        ServerImpl s = new ServerImpl(bindAddress);
+        s.setReuseAddr(true);
+        s.setTcpNoDelay(true);
+        s.setDaemon(true);
+        s.start();
+        try {
+            if (!s.started.await(START_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                stopQuietly(s);
+                throw new IOException("服务端启动超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopQuietly(s);
+            throw new IOException("启动被中断");
+        }
+        if (s.startError != null) {
+            stopQuietly(s);
+            throw new IOException(s.startError.getMessage(), s.startError);
+        }
+        server = s;
+        if (feedRate > 0) {
+            Thread t = new Thread(() -> runFeed(s, feedRate, payloadSize), "ws-server-feed");
+            t.setDaemon(true);
+            feedThread = t;
+            t.start();
+        }
+    }
+
+    /**
+     * 停止推送并关闭所有连接
+     */
+    public synchronized void stop() {
+        Thread t = feedThread;
+        feedThread = null;
+        if (t != null) {
+            t.interrupt();
+        }
+        ServerImpl s = server;
+        server = null;
+        if (s != null) {
+            stopQuietly(s);
+        }
+    }
+
+    private static void stopQuietly(ServerImpl s) {
+        try {
+            s.stop(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 推送线程：按目标速率计算应发条数，落后超过1秒的部分直接跳过，不追赶
+     */
+    private void runFeed(ServerImpl s, double rate, int payloadSize) {
+        String padding = "x".repeat(payloadSize);
+        StringBuilder sb = new StringBuilder(32 + payloadSize);
+        double nanosPerMessage = 1e9 / rate;
+        long begin = System.nanoTime();
+        long seq = 0;
+        while (feedThread == Thread.currentThread()) {
+            long now = System.nanoTime();
+            long due = (long) ((now - begin) / nanosPerMessage);
+            if (due - seq > rate) {
+                long skip = due - seq - (long) rate;
+                feedSkipped.add(skip);
+                seq += skip;
+            }
+            while (seq < due) {
+                int subscribers = s.getConnections().size();
+                seq++;
+                if (subscribers == 0) {
+                    continue;
+                }
+                sb.setLength(0);
+                sb.append(LoadGenerator.FEED_PREFIX).append(seq).append('|')
+                        .append(LoadGenerator.timestampNanos()).append('|').append(padding);
+                s.broadcast(sb.toString());
+                sent.add(subscribers);
+            }
+            long next = begin + (long) ((seq + 1) * nanosPerMessage);
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, next - System.nanoTime()));
+        }
+    }
+
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public void setInboundMode(InboundMode inboundMode) {
+        this.inboundMode = inboundMode;
+    }
+
+    public int getConnectionCount() {
+        ServerImpl s = server;
+        return s == null ? 0 : s.getConnections().size();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * @return 发出的消息数（广播按接收连接数计）
+     */
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getFeedSkipped() {
+        return feedSkipped.sum();
+    }
+
+    private class ServerImpl extends WebSocketServer {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile Exception startError;
+
+        ServerImpl(InetSocketAddress address) {
+            super(address);
+        }
+
+        @Override
+        public void onStart() {
+            log.accept("内嵌服务端已启动: ws://" + getAddress().getHostString() + ":" + getPort());
+            started.countDown();
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            received.increment();
+            switch (inboundMode) {
+                case ECHO -> {
+                    conn.send(message);
+                    sent.increment();
+                }
+                case BROADCAST -> {
+                    int subscribers = getConnections().size();
+                    broadcast(message);
+                    sent.add(subscribers);
+                }
+                case DISCARD -> {
+                }
+            }
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, ByteBuffer message) {
+            received.increment();
+            switch (inboundMode) {
+                case ECHO -> {
+                    conn.send(message);
+                    sent.increment();
+                }
+                case BROADCAST -> {
+                    int subscribers = getConnections().size();
+                    broadcast(message);
+                    sent.add(subscribers);
+                }
+                case DISCARD -> {
+                }
+            }
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+            if (conn == null && started.getCount() > 0) {
+                // 绑定端口失败等启动错误
+                startError = ex;
+                started.countDown();
+                return;
+            }
+            log.accept("内嵌服务端错误: " + ex.getMessage());
+        }
+    }
+}
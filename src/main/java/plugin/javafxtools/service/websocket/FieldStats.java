@@ -0,0 +1,62 @@
+package plugin.javafxtools.service.websocket;
+
+/**
+ * 单列聚合统计 - 出现次数、缺失次数、数值最小/最大值和最新值
+ * <p>
+ * 由接收线程写入、界面线程读取，方法均为同步方法。
+ */
+public class FieldStats {
+
+    private long count;
+    private long missing;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private String last;
+
+    /**
+     * 记录一条消息中该列的取值
+     *
+     * @param text   文本值，null表示该消息中没有此列
+     * @param number 数值，NaN表示不是数字
+     */
+    public synchronized void record(String text, double number) {
+        if (text == null) {
+            missing++;
+            return;
+        }
+        count++;
+        last = text;
+        if (!Double.isNaN(number)) {
+            if (Double.isNaN(min) || number < min) min = number;
+            if (Double.isNaN(max) || number > max) max = number;
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMissing() {
+        return missing;
+    }
+
+    public synchronized double getMin() {
+        return min;
+    }
+
+    public synchronized double getMax() {
+        return max;
+    }
+
+    public synchronized String getLast() {
+        return last;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        missing = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+        last = null;
+    }
+}
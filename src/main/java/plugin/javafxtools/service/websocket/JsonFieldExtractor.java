@@ -0,0 +1,236 @@
+package plugin.javafxtools.service.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON字段提取器 - 用流式解析器按列路径从每条消息中取值
+ * <p>
+ * 路径语法：字段名以'.'分隔，数组下标写作 [n]，如 {@code price}、{@code data.bid}、{@code items[0].qty}、{@code [0].id}。
+ * 所有路径编译为一棵前缀树，解析时不在树上的子树直接跳过，全部列取到后立即停止解析，不构建对象树。
+ */
+public class JsonFieldExtractor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String OBJECT_TEXT = "{...}";
+    private static final String ARRAY_TEXT = "[...]";
+
+    /**
+     * 前缀树节点
+     */
+    private static final class Node {
+        Map<String, Node> fields;
+        Map<Integer, Node> indexes;
+        int column = -1;
+
+        Node field(String name) {
+            if (fields == null) fields = new HashMap<>();
+            return fields.computeIfAbsent(name, k -> new Node());
+        }
+
+        Node index(int i) {
+            if (indexes == null) indexes = new HashMap<>();
+            return indexes.computeIfAbsent(i, k -> new Node());
+        }
+
+        boolean hasChildren() {
+            return fields != null || indexes != null;
+        }
+    }
+
+    private final List<String> paths;
+    private final Node root = new Node();
+
+    /**
+     * @param paths 列路径
+     * @throws IllegalArgumentException 路径为空、语法错误或重复
+     */
+    public JsonFieldExtractor(List<String> paths) {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个字段路径");
+        }
+        this.paths = List.copyOf(paths);
+        for (int c = 0; c < paths.size(); c++) {
+            Node node = compile(paths.get(c));
+            if (node.column >= 0) {
+                throw new IllegalArgumentException("字段路径重复: " + paths.get(c));
+            }
+            node.column = c;
+        }
+    }
+
+    private Node compile(String path) {
+        Node node = root;
+        int i = 0;
+        int n = path.length();
+        if (n == 0) {
+            throw new IllegalArgumentException("字段路径为空");
+        }
+        while (i < n) {
+            char c = path.charAt(i);
+            if (c == '[') {
+                int close = path.indexOf(']', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("缺少']': " + path);
+                }
+                int index;
+                try {
+                    index = Integer.parseInt(path.substring(i + 1, close).trim());
+                } catch (NumberFormatException e) {
+                    index = -1;
+                }
+                if (index < 0) {
+                    throw new IllegalArgumentException("数组下标必须是非负整数: " + path);
+                }
+                node = node.index(index);
+                i = close + 1;
+                if (i < n && path.charAt(i) == '.') {
+                    i++;
+                    if (i == n) throw new IllegalArgumentException("路径不能以'.'结尾: " + path);
+                }
+            } else {
+                int end = i;
+                while (end < n && path.charAt(end) != '.' && path.charAt(end) != '[') end++;
+                if (end == i) {
+                    throw new IllegalArgumentException("字段名为空: " + path);
+                }
+                node = node.field(path.substring(i, end));
+                i = end;
+                if (i < n && path.charAt(i) == '.') {
+                    i++;
+                    if (i == n) throw new IllegalArgumentException("路径不能以'.'结尾: " + path);
+                }
+            }
+        }
+        return node;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public int getColumnCount() {
+        return paths.size();
+    }
+
+    /**
+     * 提取一条消息
+     *
+     * @param json    消息正文
+     * @param text    输出：各列的文本值，未找到为null
+     * @param numbers 输出：各列的数值（数字或可解析为数字的字符串），否则为NaN
+     * @return 取到的列数；不是JSON对象/数组时返回-1
+     */
+    public int extract(String json, String[] text, double[] numbers) {
+        for (int c = 0; c < text.length; c++) {
+            text[c] = null;
+            numbers[c] = Double.NaN;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            JsonToken first = parser.nextToken();
+            if (first != JsonToken.START_OBJECT && first != JsonToken.START_ARRAY) {
+                return -1;
+            }
+            return walk(parser, root, text, numbers, 0);
+        } catch (IOException e) {
+            // 截断或非法JSON：保留已取到的列
+            int found = 0;
+            for (String t : text) {
+                if (t != null) found++;
+            }
+            return found == 0 ? -1 : found;
+        }
+    }
+
+    /**
+     * 遍历当前对象/数组（当前记号为START_OBJECT或START_ARRAY）
+     *
+     * @return 累计取到的列数，等于列总数时调用方应立即返回
+     */
+    private int walk(JsonParser parser, Node node, String[] text, double[] numbers, int found) throws IOException {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Node child = node.fields == null ? null : node.fields.get(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (child == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                found = visit(parser, child, value, text, numbers, found);
+                if (found == text.length) {
+                    return found;
+                }
+            }
+        } else {
+            int index = 0;
+            JsonToken value;
+            while ((value = parser.nextToken()) != JsonToken.END_ARRAY && value != null) {
+                Node child = node.indexes == null ? null : node.indexes.get(index++);
+                if (child == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                found = visit(parser, child, value, text, numbers, found);
+                if (found == text.length) {
+                    return found;
+                }
+            }
+        }
+        return found;
+    }
+
+    private int visit(JsonParser parser, Node node, JsonToken value, String[] text, double[] numbers,
+                      int found) throws IOException {
+        boolean structured = value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY;
+        // 重复的键只取第一次出现的值，每列只计一次
+        if (node.column >= 0 && text[node.column] == null) {
+            int c = node.column;
+            if (structured) {
+                text[c] = value == JsonToken.START_OBJECT ? OBJECT_TEXT : ARRAY_TEXT;
+            } else {
+                text[c] = parser.getText();
+                if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+                    numbers[c] = parser.getDoubleValue();
+                } else if (value == JsonToken.VALUE_STRING) {
+                    numbers[c] = parseNumber(text[c]);
+                }
+            }
+            found++;
+            if (found == text.length) {
+                return found;
+            }
+        }
+        if (structured) {
+            if (node.hasChildren()) {
+                found = walk(parser, node, text, numbers, found);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 行情类推送常把数字写成字符串，能解析则按数字统计
+     */
+    private static double parseNumber(String s) {
+        if (s.isEmpty()) {
+            return Double.NaN;
+        }
+        char c = s.charAt(0);
+        if ((c < '0' || c > '9') && c != '-' && c != '.') {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package plugin.javafxtools.service.websocket;
+
+import plugin.javafxtools.util.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket压测引擎 - 按爬坡速率建立N个并发连接，每个连接按目标速率发送带序号和时间戳的消息，
+ * 根据回显消息计算往返延迟
+ * <p>
+ * 基于JDK的 java.net.http.WebSocket：所有连接共用一个HttpClient的选择器线程和一个小线程池，
+ * 数千连接也不需要每连接一个线程。消息格式为 {@code LG|连接ID|序号|发送纳秒|填充}，
+ * 只有连接ID与接收连接相同、序号已由该连接发出的回显才计入往返延迟（服务端广播给其他连接的消息不算）；
+ * 同时识别内嵌服务端推送的 {@code FEED|序号|发送纳秒|填充} 以统计扇出延迟。
+ */
+public class LoadGenerator {
+
+    public static final String MESSAGE_PREFIX = "LG|";
+    public static final String FEED_PREFIX = "FEED|";
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    // 时间戳基准：nanoTime可能为负，消息中统一写入相对该基准的正值
+    private static final long TIMESTAMP_BASE = System.nanoTime() - 1;
+
+    private final List<LoadConnection> connections = new CopyOnWriteArrayList<>();
+    private final LatencyHistogram rttTotal = new LatencyHistogram();
+    private final LatencyHistogram rttInterval = new LatencyHistogram();
+    private final LatencyHistogram connectTimes = new LatencyHistogram();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder sendSkipped = new LongAdder();   // 上一条未发完而跳过的发送
+    private final LongAdder errors = new LongAdder();
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final AtomicInteger connectFailures = new AtomicInteger();
+    private final AtomicInteger attempted = new AtomicInteger();
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private ScheduledFuture<?> rampTask;
+    private volatile boolean running;
+    private volatile int generation;       // 每次启动递增，忽略上一轮连接的迟到回调
+
+    /**
+     * 启动压测，已在运行时先停止
+     *
+     * @param uri               目标地址
+     * @param connectionCount   连接总数
+     * @param rampPerSecond     每秒新建连接数，0表示一次性全部建立
+     * @param ratePerConnection 每个连接每秒发送消息数，0表示只建连不发送（可用于订阅推送）
+     * @param payloadSize       每条消息的填充字节数
+     */
+    public synchronized void start(URI uri, int connectionCount, int rampPerSecond,
+                                   double ratePerConnection, int payloadSize) {
+        stop();
+        reset();
+        running = true;
+        int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        clientExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ws-load-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+                .executor(clientExecutor)
+                .build();
+        scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "ws-load-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+
+        String padding = "x".repeat(Math.max(0, payloadSize));
+        long sendPeriodNanos = ratePerConnection > 0 ? (long) (1_000_000_000L / ratePerConnection) : 0;
+        AtomicReference<ScheduledFuture<?>> ramp = new AtomicReference<>();
+        Runnable openOne = () -> {
+            int id = attempted.getAndIncrement();
+            if (id < connectionCount && running) {
+                open(uri, id, padding, sendPeriodNanos);
+            }
+            ScheduledFuture<?> task = ramp.get();
+            if (id >= connectionCount - 1 && task != null) {
+                task.cancel(false);
+            }
+        };
+        if (rampPerSecond <= 0) {
+            scheduler.execute(() -> {
+                for (int i = 0; i < connectionCount; i++) {
+                    openOne.run();
+                }
+            });
+        } else {
+            rampTask = scheduler.scheduleAtFixedRate(openOne, 0, 1_000_000_000L / rampPerSecond, TimeUnit.NANOSECONDS);
+            ramp.set(rampTask);
+            // 连接数很少时最后一次建连可能早于上面的赋值，此时由这里取消
+            if (attempted.get() >= connectionCount) {
+                rampTask.cancel(false);
+            }
+        }
+    }
+
+    private void open(URI uri, int id, String padding, long sendPeriodNanos) {
+        LoadConnection connection = new LoadConnection(id, padding);
+        long begin = System.nanoTime();
+        client.newWebSocketBuilder()
+                .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+                .buildAsync(uri, connection)
+                .whenComplete((ws, ex) -> {
+                    if (connection.connectionGeneration != generation) {
+                        if (ws != null) ws.abort();
+                        return;
+                    }
+                    if (ex != null) {
+                        connectFailures.incrementAndGet();
+                        return;
+                    }
+                    connectTimes.recordNanos(System.nanoTime() - begin);
+                    connection.webSocket = ws;
+                    connections.add(connection);
+                    if (!running) {
+                        ws.abort();
+                        return;
+                    }
+                    if (sendPeriodNanos > 0 && scheduler != null) {
+                        // 首次发送随机错开，避免所有连接同一时刻突发
+                        long delay = (long) (Math.random() * sendPeriodNanos);
+                        try {
+                            connection.sendTask = scheduler.scheduleAtFixedRate(connection::sendNext,
+                                    delay, sendPeriodNanos, TimeUnit.NANOSECONDS);
+                        } catch (RejectedExecutionException ignore) {
+                            ws.abort(); // 建连完成时压测已停止
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 停止压测并关闭所有连接
+     */
+    public synchronized void stop() {
+        running = false;
+        generation++;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        rampTask = null;
+        for (LoadConnection connection : connections) {
+            WebSocket ws = connection.webSocket;
+            if (ws != null && !ws.isOutputClosed()) {
+                ws.sendClose(WebSocket.NORMAL_CLOSURE, "load test stopped")
+                        .orTimeout(2, TimeUnit.SECONDS)
+                        .whenComplete((w, ex) -> ws.abort());
+            }
+        }
+        connections.clear();
+        openCount.set(0);
+        if (client != null) {
+            // 留出时间完成关闭握手后再关闭客户端（选择器线程和连接）和线程池
+            HttpClient httpClient = client;
+            ExecutorService executor = clientExecutor;
+            CompletableFuture.delayedExecutor(3, TimeUnit.SECONDS).execute(() -> {
+                httpClient.shutdownNow();
+                executor.shutdownNow();
+            });
+            client = null;
+            clientExecutor = null;
+        }
+    }
+
+    private void reset() {
+        connections.clear();
+        rttTotal.reset();
+        rttInterval.reset();
+        connectTimes.reset();
+        sent.reset();
+        received.reset();
+        sendSkipped.reset();
+        errors.reset();
+        openCount.set(0);
+        connectFailures.set(0);
+        attempted.set(0);
+    }
+
+    /**
+     * @return 写入消息的发送时间戳（纳秒，同进程内单调递增且为正）
+     */
+    public static long timestampNanos() {
+        return System.nanoTime() - TIMESTAMP_BASE;
+    }
+
+    /**
+     * 解析回显或推送消息中的发送时间戳并记录延迟；回显的连接ID或序号与接收连接不符时只计数不记录延迟
+     *
+     * @param connectionId 接收消息的连接ID
+     * @param lastSeq      该连接已发出的最大序号
+     */
+    void onPayload(CharSequence message, long nowNanos, int connectionId, long lastSeq) {
+        received.increment();
+        int tsField;
+        if (startsWith(message, MESSAGE_PREFIX)) {
+            long seq = parseField(message, 2);
+            if (parseField(message, 1) != connectionId || seq < 1 || seq > lastSeq) {
+                return;
+            }
+            tsField = 3;
+        } else if (startsWith(message, FEED_PREFIX)) {
+            tsField = 2;
+        } else {
+            return;
+        }
+        long ts = parseField(message, tsField);
+        if (ts > 0) {
+            long rtt = nowNanos - ts;
+            rttTotal.recordNanos(rtt);
+            rttInterval.recordNanos(rtt);
+        }
+    }
+
+    private static boolean startsWith(CharSequence s, String prefix) {
+        if (s.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (s.charAt(i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 不创建子串地解析第index个'|'分隔字段中的十进制数，格式错误返回-1
+     */
+    static long parseField(CharSequence s, int index) {
+        int field = 0;
+        int i = 0;
+        int n = s.length();
+        while (field < index && i < n) {
+            if (s.charAt(i++) == '|') field++;
+        }
+        if (field < index || i >= n) {
+            return -1;
+        }
+        long v = 0;
+        boolean digits = false;
+        for (; i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '|') break;
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+            digits = true;
+        }
+        return digits ? v : -1;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public LatencyHistogram getRttTotal() {
+        return rttTotal;
+    }
+
+    /**
+     * @return 区间延迟直方图，调用方读取后自行reset
+     */
+    public LatencyHistogram getRttInterval() {
+        return rttInterval;
+    }
+
+    public LatencyHistogram getConnectTimes() {
+        return connectTimes;
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getSendSkipped() {
+        return sendSkipped.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public int getOpenCount() {
+        return openCount.get();
+    }
+
+    public int getConnectFailures() {
+        return connectFailures.get();
+    }
+
+    /**
+     * 单个压测连接 - 同时是JDK WebSocket的监听器
+     */
+    private class LoadConnection implements WebSocket.Listener {
+        final int id;
+        final String padding;
+        final StringBuilder partial = new StringBuilder();
+        final AtomicLong seq = new AtomicLong();
+        final int connectionGeneration = generation;
+        volatile WebSocket webSocket;
+        volatile ScheduledFuture<?> sendTask;
+        volatile CompletableFuture<WebSocket> pendingSend;
+
+        LoadConnection(int id, String padding) {
+            this.id = id;
+            this.padding = padding;
+        }
+
+        /**
+         * 发送下一条消息；JDK WebSocket不允许并发发送，上一条未完成时跳过本次并计数
+         */
+        void sendNext() {
+            WebSocket ws = webSocket;
+            if (ws == null || ws.isOutputClosed()) {
+                return;
+            }
+            CompletableFuture<WebSocket> pending = pendingSend;
+            if (pending != null && !pending.isDone()) {
+                sendSkipped.increment();
+                return;
+            }
+            String message = MESSAGE_PREFIX + id + '|' + seq.incrementAndGet() + '|' + timestampNanos() + '|' + padding;
+            pendingSend = ws.sendText(message, true);
+            pendingSend.whenComplete((w, ex) -> {
+                if (ex == null) {
+                    sent.increment();
+                } else {
+                    errors.increment();
+                }
+            });
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            if (generation == connectionGeneration) {
+                openCount.incrementAndGet();
+            }
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            if (generation != connectionGeneration) {
+                webSocket.request(1);
+                return null;
+            }
+            long now = timestampNanos();
+            if (last && partial.isEmpty()) {
+                onPayload(data, now, id, seq.get());
+            } else {
+                partial.append(data);
+                if (last) {
+                    onPayload(partial, now, id, seq.get());
+                    partial.setLength(0);
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            if (last) {
+                received.increment();
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            closed();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            errors.increment();
+            closed();
+        }
+
+        private void closed() {
+            ScheduledFuture<?> task = sendTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+            if (generation == connectionGeneration) {
+                openCount.decrementAndGet();
+            }
+        }
+    }
+}
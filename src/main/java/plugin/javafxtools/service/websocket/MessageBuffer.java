@@ -0,0 +1,127 @@
+package plugin.javafxtools.service.websocket;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 收到消息的有界缓冲区 - 套接字线程写入，UI线程每帧批量取出渲染
+ * <p>
+ * UI跟不上时按溢出策略丢弃或采样，队列和渲染积压都不会无限增长。
+ */
+public class MessageBuffer<T> {
+
+    private static final int SAMPLE_EVERY = 10;
+
+    /**
+     * 溢出策略
+     */
+    public enum Policy {
+        DROP_NEWEST("丢弃新消息"),
+        DROP_OLDEST("丢弃旧消息"),
+        SAMPLE("积压时采样(1/" + SAMPLE_EVERY + ")");
+
+        private final String displayName;
+
+        Policy(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private final ArrayBlockingQueue<T> queue;
+    private final int capacity;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Policy policy = Policy.DROP_OLDEST;
+    private long sampleCounter;                 // 仅生产者线程访问
+
+    public MessageBuffer(int capacity) {
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * 写入一条消息（套接字线程调用，不阻塞）
+     */
+    public void offer(T message) {
+        received.incrementAndGet();
+        switch (policy) {
+            case DROP_NEWEST -> {
+                if (!queue.offer(message)) {
+                    dropped.incrementAndGet();
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(message)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            }
+            case SAMPLE -> {
+                // 积压超过一半时只保留每N条中的一条
+                if (queue.size() >= capacity / 2 && sampleCounter++ % SAMPLE_EVERY != 0) {
+                    dropped.incrementAndGet();
+                } else if (!queue.offer(message)) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * 取出最多max条消息交给消费者（UI线程调用）
+     *
+     * @return 取出的条数
+     */
+    public int drain(int max, Consumer<T> consumer) {
+        int n = 0;
+        T message;
+        while (n < max && (message = queue.poll()) != null) {
+            consumer.accept(message);
+            n++;
+        }
+        rendered.addAndGet(n);
+        return n;
+    }
+
+    public void setPolicy(Policy policy) {
+        this.policy = policy;
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getRendered() {
+        return rendered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    /**
+     * 清空积压并重置计数
+     */
+    public void reset() {
+        queue.clear();
+        received.set(0);
+        rendered.set(0);
+        dropped.set(0);
+    }
+}
@@ -0,0 +1,705 @@
+package plugin.javafxtools.service.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * WebSocket消息历史 - 消息正文以UTF-8写入堆外分块区，元数据存放在定长原始数组中，
+ * 由单独的索引线程增量维护倒排索引（分词 + JSON字段=值），支持毫秒级检索
+ * <p>
+ * 写入只复制正文，分词和JSON解析在索引线程中进行，不占用WebSocket读线程；索引线程从分块区读回正文，
+ * 积压时不额外占用内存。尚未建立索引的最新消息不参与带条件的查询。
+ * <p>
+ * 容量有上限：消息条数或分块区写满、词典和倒排表的估算内存超出预算后淘汰最旧的消息，
+ * 索引中的过期编号在查询时跳过、并定期压缩。超长消息只保存前64KB、索引前16K个字符。
+ * <p>
+ * 查询语法：空格分隔的多个条件同时满足；{@code 字段=值} 精确匹配JSON字段值（字段取最内层字段名），
+ * 其他条件按子串匹配——在分词字典中查找包含该子串的词并合并其倒排表，跨越分隔符的条件再回查正文确认。
+ * 字典同时以换行分隔拼接成一个字符串，子串查找用一次 indexOf 扫描代替逐词比较。
+ */
+public class MessageHistory {
+
+    public static final int MAX_MESSAGES = 1 << 20;            // 最多保留条数
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024;      // 每个堆外分块的字节数
+    private static final int MAX_CHUNKS = 32;                   // 分块区上限 256MB
+    private static final int MAX_STORED_BYTES = 64 * 1024;      // 单条消息最多保存的字节数
+    private static final int MAX_INDEXED_CHARS = 16 * 1024;     // 单条消息最多分词的字符数
+    private static final int MIN_TOKEN = 2;
+    private static final int MAX_TOKEN = 64;
+    private static final int MAX_FIELD_VALUE = 64;
+    private static final long MAX_INDEX_BYTES = 64L * 1024 * 1024;  // 词典和倒排表的估算内存上限
+    private static final int ENTRY_OVERHEAD = 96;               // 每个词条的固定开销：哈希表节点、键字符串、倒排表对象
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ByteBuffer[] chunks = new ByteBuffer[MAX_CHUNKS];
+    private final int[] chunkStartId = new int[MAX_CHUNKS];     // 每个分块中第一条消息的编号
+    // 元数据按编号 & (MAX_MESSAGES-1) 存放，数组按需倍增到MAX_MESSAGES后循环覆盖
+    private long[] locations = new long[INITIAL_CAPACITY];       // 高32位分块槽位，低32位块内偏移
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private byte[] directions = new byte[INITIAL_CAPACITY];
+    private final Map<String, IntList> tokens = new HashMap<>();
+    private final Map<String, IntList> fields = new HashMap<>();
+    private final StringBuilder dictText = new StringBuilder();   // 所有词以'\n'结尾依次拼接
+    private int[] dictOffsets = new int[1024];                     // 第i个词在dictText中的起始位置
+    private final List<IntList> dictLists = new ArrayList<>();     // 第i个词的倒排表
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ws-history-indexer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean indexScheduled = new AtomicBoolean();
+
+    private int nextId;            // 下一条消息的编号
+    private int firstId;           // 最旧的有效消息编号
+    private int chunkSeq = -1;     // 当前写入分块的序号（递增）
+    private int compactedFirstId;  // 上次压缩索引时的firstId
+    private int indexedId;         // 下一条待索引的消息编号
+    private long storedBytes;
+    private long indexBytes;       // 词典和倒排表的估算内存
+
+    /**
+     * 查询结果
+     */
+    public static class Result {
+        private final int[] ids;
+        private final int total;
+        private final boolean fullScan;
+        private final boolean approximate;
+        private final int pending;
+
+        Result(int[] ids, int total, boolean fullScan, boolean approximate, int pending) {
+            this.ids = ids;
+            this.total = total;
+            this.fullScan = fullScan;
+            this.approximate = approximate;
+            this.pending = pending;
+        }
+
+        /**
+         * @return 命中的消息编号（新到旧），最多为查询时给定的上限
+         */
+        public int[] getIds() {
+            return ids;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * @return 是否因条件无法分词而逐条扫描了正文
+         */
+        public boolean isFullScan() {
+            return fullScan;
+        }
+
+        /**
+         * @return 需回查正文的条件在取满上限后停止确认，此时total为候选数（上界）
+         */
+        public boolean isApproximate() {
+            return approximate;
+        }
+
+        /**
+         * @return 尚未建立索引、未参与本次查询的最新消息数
+         */
+        public int getPending() {
+            return pending;
+        }
+    }
+
+    /**
+     * 追加一条文本消息，索引由索引线程随后建立
+     *
+     * @param direction {@link SessionRecorder#DIRECTION_IN} 或 {@link SessionRecorder#DIRECTION_OUT}
+     * @param text      消息正文
+     * @return 消息编号
+     */
+    public int add(byte direction, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STORED_BYTES);
+        int id;
+        lock.writeLock().lock();
+        try {
+            id = nextId++;
+            if (id >= locations.length && locations.length < MAX_MESSAGES) {
+                grow();
+            }
+            ByteBuffer chunk = reserve(length);
+            int position = chunk.position();
+            chunk.put(bytes, 0, length);
+            int slot = id & (MAX_MESSAGES - 1);
+            locations[slot] = ((long) (chunkSeq % MAX_CHUNKS) << 32) | position;
+            lengths[slot] = length;
+            timestamps[slot] = System.currentTimeMillis();
+            directions[slot] = direction;
+            storedBytes += length;
+            if (nextId - firstId > MAX_MESSAGES) {
+                firstId = nextId - MAX_MESSAGES;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (indexScheduled.compareAndSet(false, true)) {
+            try {
+                indexer.execute(this::indexPending);
+            } catch (RejectedExecutionException e) {
+                // 已关闭，只保存正文
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 索引线程：依次为尚未索引的消息分词，复制正文时持读锁，解码和分词不持锁，只在写入索引时持写锁
+     */
+    private void indexPending() {
+        indexScheduled.set(false);
+        byte[] buffer = new byte[MAX_STORED_BYTES];
+        List<String> tokenKeys = new ArrayList<>();
+        List<String> fieldKeys = new ArrayList<>();
+        while (true) {
+            int id;
+            int length;
+            lock.readLock().lock();
+            try {
+                id = Math.max(indexedId, firstId);
+                if (id >= nextId) {
+                    return;
+                }
+                length = copyBody(id, buffer);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            tokenKeys.clear();
+            fieldKeys.clear();
+            String text = new String(buffer, 0, length, StandardCharsets.UTF_8);
+            collectTokens(text, tokenKeys);
+            char first = firstNonBlank(text);
+            if (first == '{' || first == '[') {
+                collectFields(buffer, length, fieldKeys);
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (id >= firstId) {    // 分词期间可能已被淘汰或清空
+                    for (String token : tokenKeys) {
+                        postToken(token, id);
+                    }
+                    for (String field : fieldKeys) {
+                        postField(field, id);
+                    }
+                }
+                indexedId = Math.max(indexedId, id + 1);
+                if (indexBytes > MAX_INDEX_BYTES && nextId - firstId > 1) {
+                    // 索引超出预算：淘汰最旧的四分之一消息
+                    firstId += (nextId - firstId) / 4;
+                    compact();
+                } else if (firstId - compactedFirstId > MAX_MESSAGES / 4) {
+                    compact();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = locations.length * 2;
+        locations = Arrays.copyOf(locations, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+    }
+
+    /**
+     * 在当前分块中预留空间，写满时切换到下一个分块（复用槽位时淘汰其中的全部消息）
+     */
+    private ByteBuffer reserve(int length) {
+        ByteBuffer chunk = chunkSeq < 0 ? null : chunks[chunkSeq % MAX_CHUNKS];
+        if (chunk != null && chunk.remaining() >= length) {
+            return chunk;
+        }
+        chunkSeq++;
+        int slot = chunkSeq % MAX_CHUNKS;
+        if (chunkSeq >= MAX_CHUNKS) {
+            // 被覆盖分块之后那个分块的首条消息即为新的最旧消息
+            firstId = Math.max(firstId, chunkStartId[(slot + 1) % MAX_CHUNKS]);
+            storedBytes -= chunks[slot].position();
+            chunks[slot].clear();
+        } else if (chunks[slot] == null) {
+            chunks[slot] = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        }
+        chunkStartId[slot] = nextId - 1;
+        return chunks[slot];
+    }
+
+    private static char firstNonBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static void collectTokens(String text, List<String> out) {
+        int n = Math.min(text.length(), MAX_INDEXED_CHARS);
+        int start = -1;
+        for (int i = 0; i <= n; i++) {
+            boolean tokenChar = i < n && isTokenChar(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                int len = i - start;
+                if (len >= MIN_TOKEN && len <= MAX_TOKEN) {
+                    out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * 流式解析JSON，为每个标量值建立 "字段=值" 索引；非法JSON只保留已解析部分
+     */
+    private static void collectFields(byte[] bytes, int length, List<String> out) {
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes, 0, length)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token.isScalarValue()) {
+                    String name = parser.getParsingContext().inArray()
+                            ? parser.getParsingContext().getParent().getCurrentName()
+                            : parser.currentName();
+                    if (name != null) {
+                        String value = parser.getText();
+                        if (value.length() <= MAX_FIELD_VALUE) {
+                            out.add((name + '=' + value).toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 截断或不是JSON，忽略剩余部分
+        }
+    }
+
+    private void postToken(String token, int id) {
+        IntList list = tokens.get(token);
+        if (list == null) {
+            list = new IntList();
+            tokens.put(token, list);
+            appendDictionary(token, list);
+            indexBytes += entryBytes(token, true);
+        }
+        if (list.addIfLast(id)) {
+            indexBytes += Integer.BYTES;
+        }
+    }
+
+    private void appendDictionary(String token, IntList list) {
+        int index = dictLists.size();
+        if (index == dictOffsets.length) {
+            dictOffsets = Arrays.copyOf(dictOffsets, index * 2);
+        }
+        dictOffsets[index] = dictText.length();
+        dictLists.add(list);
+        dictText.append(token).append('\n');
+    }
+
+    private void postField(String key, int id) {
+        IntList list = fields.get(key);
+        if (list == null) {
+            list = new IntList();
+            fields.put(key, list);
+            indexBytes += entryBytes(key, false);
+        }
+        if (list.addIfLast(id)) {
+            indexBytes += Integer.BYTES;
+        }
+    }
+
+    /**
+     * 词条的估算内存（不含倒排项），分词词条还要算上字典中的拷贝和偏移
+     */
+    private static long entryBytes(String key, boolean inDictionary) {
+        long bytes = ENTRY_OVERHEAD + 2L * key.length();
+        return inDictionary ? bytes + 2L * (key.length() + 1) + Integer.BYTES * 2 : bytes;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * 去掉倒排表中已淘汰的编号，删除空词条
+     */
+    private void compact() {
+        compactIndex(tokens);
+        compactIndex(fields);
+        dictText.setLength(0);
+        dictLists.clear();
+        indexBytes = 0;
+        for (Map.Entry<String, IntList> e : tokens.entrySet()) {
+            appendDictionary(e.getKey(), e.getValue());
+            indexBytes += entryBytes(e.getKey(), true) + (long) Integer.BYTES * e.getValue().size;
+        }
+        for (Map.Entry<String, IntList> e : fields.entrySet()) {
+            indexBytes += entryBytes(e.getKey(), false) + (long) Integer.BYTES * e.getValue().size;
+        }
+        dictText.trimToSize();
+        compactedFirstId = firstId;
+    }
+
+    private void compactIndex(Map<String, IntList> index) {
+        Iterator<IntList> it = index.values().iterator();
+        while (it.hasNext()) {
+            IntList list = it.next();
+            list.dropBelow(firstId);
+            if (list.size == 0) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 执行查询
+     * <p>
+     * 索引求交和方向过滤在读锁内完成；需要回查正文的条件逐条复制正文后释放锁再解码比对，不阻塞写入和索引线程。
+     *
+     * @param query     查询条件
+     * @param direction 只返回该方向的消息，-1表示全部
+     * @param limit     最多返回的编号数
+     * @return 查询结果，条件为空时返回全部消息
+     */
+    public Result search(String query, int direction, int limit) {
+        List<String> terms = new ArrayList<>();
+        for (String term : query.trim().split("\\s+")) {
+            if (!term.isEmpty()) {
+                terms.add(term.toLowerCase(Locale.ROOT));
+            }
+        }
+        List<String> verifyTerms = new ArrayList<>();
+        boolean fullScan = false;
+        int base;
+        int span;
+        int pending;
+        BitSet matches;
+        lock.readLock().lock();
+        try {
+            base = firstId;
+            int end = terms.isEmpty() ? nextId : Math.max(indexedId, base);
+            span = end - base;
+            pending = nextId - end;
+            matches = new BitSet(span);
+            matches.set(0, span);
+            for (String term : terms) {
+                fullScan |= !applyTerm(term, matches, base, verifyTerms);
+            }
+            if (direction >= 0) {
+                for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                    if (directions[(base + i) & (MAX_MESSAGES - 1)] != direction) {
+                        matches.clear(i);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 新到旧遍历候选并回查正文，取满上限即停止
+        int candidates = matches.cardinality();
+        int[] ids = new int[Math.min(candidates, limit)];
+        int k = 0;
+        int i = matches.previousSetBit(span - 1);
+        if (verifyTerms.isEmpty()) {
+            for (; i >= 0 && k < ids.length; i = matches.previousSetBit(i - 1)) {
+                ids[k++] = base + i;
+            }
+            return new Result(ids, candidates, fullScan, false, pending);
+        }
+        byte[] buffer = new byte[MAX_STORED_BYTES];
+        for (; i >= 0 && k < ids.length; i = matches.previousSetBit(i - 1)) {
+            int length = copyIfPresent(base + i, buffer);
+            if (length >= 0 && containsAll(new String(buffer, 0, length, StandardCharsets.UTF_8), verifyTerms)) {
+                ids[k++] = base + i;
+            }
+        }
+        if (i < 0) {
+            return new Result(Arrays.copyOf(ids, k), k, fullScan, false, pending);
+        }
+        // 剩余候选未确认，total为上界
+        return new Result(ids, k + matches.get(0, i + 1).cardinality(), fullScan, true, pending);
+    }
+
+    /**
+     * 用一个条件通过索引缩小候选集，索引不能精确表达的条件加入回查列表
+     *
+     * @return 是否使用了索引（false表示只能逐条回查正文）
+     */
+    private boolean applyTerm(String term, BitSet matches, int base, List<String> verifyTerms) {
+        if (term.indexOf('=') > 0) {
+            BitSet hits = new BitSet();
+            IntList list = fields.get(term);
+            if (list != null) {
+                list.setBits(hits, base);
+            }
+            matches.and(hits);
+            return true;
+        }
+
+        boolean indexed = false;
+        boolean needsVerify = false;
+        int n = term.length();
+        int start = -1;
+        for (int i = 0; i <= n; i++) {
+            boolean tokenChar = i < n && isTokenChar(term.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                if (start > 0 || i < n || i - start > MAX_TOKEN) {
+                    needsVerify = true;
+                }
+                if (i - start <= MAX_TOKEN) {
+                    matches.and(tokensContaining(term.substring(start, i), base));
+                    indexed = true;
+                }
+                start = -1;
+            } else if (!tokenChar && i < n) {
+                needsVerify = true;
+            }
+        }
+        if (needsVerify || !indexed) {
+            verifyTerms.add(term);
+        }
+        return indexed;
+    }
+
+    /**
+     * 合并字典中所有包含子串part的词的倒排表（单字符子串也能通过包含它的长词命中）
+     */
+    private BitSet tokensContaining(String part, int base) {
+        BitSet hits = new BitSet();
+        int from = 0;
+        int idx;
+        while ((idx = dictText.indexOf(part, from)) >= 0) {
+            int token = Arrays.binarySearch(dictOffsets, 0, dictLists.size(), idx);
+            if (token < 0) {
+                token = -token - 2;   // 命中位置所在的词
+            }
+            dictLists.get(token).setBits(hits, base);
+            from = token + 1 < dictLists.size() ? dictOffsets[token + 1] : dictText.length();
+        }
+        return hits;
+    }
+
+    private static boolean containsAll(String text, List<String> terms) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (String term : terms) {
+            if (!lower.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取消息正文
+     *
+     * @return 正文，已淘汰时返回null
+     */
+    public String getText(int id) {
+        lock.readLock().lock();
+        try {
+            return read(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 持读锁复制一条消息的正文
+     *
+     * @return 正文字节数，已淘汰时返回-1
+     */
+    private int copyIfPresent(int id, byte[] dest) {
+        lock.readLock().lock();
+        try {
+            return id < firstId || id >= nextId ? -1 : copyBody(id, dest);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int copyBody(int id, byte[] dest) {
+        int slot = id & (MAX_MESSAGES - 1);
+        long location = locations[slot];
+        int length = lengths[slot];
+        chunks[(int) (location >>> 32)].get((int) location, dest, 0, length);
+        return length;
+    }
+
+    private String read(int id) {
+        if (id < firstId || id >= nextId) {
+            return null;
+        }
+        int slot = id & (MAX_MESSAGES - 1);
+        long location = locations[slot];
+        ByteBuffer view = chunks[(int) (location >>> 32)].duplicate();
+        int position = (int) location;
+        view.limit(position + lengths[slot]).position(position);
+        return StandardCharsets.UTF_8.decode(view).toString();
+    }
+
+    /**
+     * @return 消息时间（毫秒），已淘汰时返回0
+     */
+    public long getTimestamp(int id) {
+        lock.readLock().lock();
+        try {
+            return id < firstId || id >= nextId ? 0 : timestamps[id & (MAX_MESSAGES - 1)];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public byte getDirection(int id) {
+        lock.readLock().lock();
+        try {
+            return directions[id & (MAX_MESSAGES - 1)];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nextId - firstId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 汇总文本：条数、字典大小、正文与索引占用
+     */
+    public String format() {
+        lock.readLock().lock();
+        try {
+            long postings = 0;
+            for (IntList list : tokens.values()) postings += list.size;
+            for (IntList list : fields.values()) postings += list.size;
+            return String.format("%d 条消息，正文 %.1fMB（堆外），词 %d 个，字段值 %d 个，倒排项 %d，索引约 %.1fMB，待索引 %d 条",
+                    nextId - firstId, storedBytes / 1024.0 / 1024.0, tokens.size(), fields.size(), postings,
+                    indexBytes / 1024.0 / 1024.0, nextId - Math.max(indexedId, firstId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 清空历史（保留已分配的分块以便复用）
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            firstId = nextId;
+            compactedFirstId = nextId;
+            indexedId = nextId;
+            indexBytes = 0;
+            tokens.clear();
+            fields.clear();
+            dictText.setLength(0);
+            dictLists.clear();
+            for (ByteBuffer chunk : chunks) {
+                if (chunk != null) chunk.clear();
+            }
+            chunkSeq = -1;
+            storedBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 停止索引线程，之后追加的消息只保存正文
+     */
+    public void close() {
+        indexer.shutdownNow();
+    }
+
+    /**
+     * 递增int列表 - 倒排表，编号按写入顺序递增
+     */
+    private static final class IntList {
+        int[] data = new int[2];
+        int size;
+
+        /**
+         * @return 是否新增了一项（同一消息重复出现的词只记一次）
+         */
+        boolean addIfLast(int id) {
+            if (size > 0 && data[size - 1] == id) {
+                return false;
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = id;
+            return true;
+        }
+
+        void setBits(BitSet bits, int base) {
+            int from = lowerBound(base);
+            for (int i = from; i < size; i++) {
+                bits.set(data[i] - base);
+            }
+        }
+
+        void dropBelow(int minId) {
+            int from = lowerBound(minId);
+            if (from > 0) {
+                System.arraycopy(data, from, data, 0, size - from);
+                size -= from;
+            }
+            if (data.length > 16 && size < data.length / 4) {
+                data = Arrays.copyOf(data, Math.max(2, size * 2));
+            }
+        }
+
+        private int lowerBound(int id) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (data[mid] < id) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
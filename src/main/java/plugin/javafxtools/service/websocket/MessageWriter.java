@@ -0,0 +1,148 @@
+package plugin.javafxtools.service.websocket;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.TextFrame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 单写线程发送器 - 所有待发送的文本消息先入队，由一个线程批量取出后组帧，一次 sendFrame 写给连接
+ * <p>
+ * 突发的成千上万条消息只唤醒一次写线程、每批只加一次连接的写锁，不再每条消息一次界面调用。
+ */
+public class MessageWriter {
+
+    private static final int MAX_BATCH = 1000;
+    private static final long POLL_MILLIS = 200;
+
+    private final BlockingQueue<String> queue;
+    private final Consumer<String> sentListener;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile WebSocket target;
+    private volatile Thread thread;
+
+    /**
+     * @param capacity     队列容量
+     * @param sentListener 每条消息写出后回调（在写线程中调用），可用于录制等
+     */
+    public MessageWriter(int capacity, Consumer<String> sentListener) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sentListener = sentListener;
+    }
+
+    /**
+     * 启动写线程
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        Thread t = new Thread(this::run, "ws-writer");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    /**
+     * 停止写线程，丢弃未发送的消息
+     */
+    public synchronized void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t != null) {
+            t.interrupt();
+        }
+        dropped.add(queue.size());
+        queue.clear();
+    }
+
+    /**
+     * 设置写出目标，连接断开后设为null
+     */
+    public void setTarget(WebSocket target) {
+        this.target = target;
+    }
+
+    /**
+     * 入队一条消息，队列满时立即返回false
+     */
+    public boolean offer(String message) {
+        return queue.offer(message);
+    }
+
+    /**
+     * 入队一条消息，队列满时最多等待给定时间（用于需要保证不丢的脚本发送）
+     *
+     * @return 超时仍未入队时返回false
+     */
+    public boolean offer(String message, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(message, timeout, unit);
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        List<Framedata> frames = new ArrayList<>(MAX_BATCH);
+        while (thread == Thread.currentThread()) {
+            try {
+                String first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                WebSocket ws = target;
+                if (ws == null || !ws.isOpen()) {
+                    dropped.add(batch.size());
+                } else {
+                    for (String message : batch) {
+                        TextFrame frame = new TextFrame();
+                        frame.setPayload(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+                        frame.setTransferemasked(true);   // 客户端发出的帧必须掩码
+                        frames.add(frame);
+                    }
+                    ws.sendFrame(frames);
+                    sent.add(batch.size());
+                    batches.increment();
+                    for (String message : batch) {
+                        sentListener.accept(message);
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                // 连接在取出后断开等情况，本批计为丢弃，写线程继续
+                dropped.add(batch.size());
+            } finally {
+                batch.clear();
+                frames.clear();
+            }
+        }
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public int getBacklog() {
+        return queue.size();
+    }
+}
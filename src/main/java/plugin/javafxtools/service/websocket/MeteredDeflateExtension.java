@@ -0,0 +1,117 @@
+package plugin.javafxtools.service.websocket;
+
+import org.java_websocket.enums.Opcode;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.framing.Framedata;
+
+/**
+ * 带统计的客户端 permessage-deflate 扩展
+ * <p>
+ * 库自带实现按服务端视角使用上下文接管参数（serverNoContextTakeover 控制本端压缩器重置，
+ * clientNoContextTakeover 控制本端解压器重置），并且客户端总是请求两个参数。
+ * 这里按用户选择生成握手请求，协商完成后把服务端响应的参数映射到客户端视角。
+ */
+public class MeteredDeflateExtension extends PerMessageDeflateExtension {
+
+    private static final String EXTENSION_NAME = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+
+    private final boolean requestServerNoContext;
+    private final boolean requestClientNoContext;
+    private final CompressionStats stats;
+
+    /**
+     * @param requestServerNoContext 请求服务端每条消息重置压缩上下文
+     * @param requestClientNoContext 客户端每条消息重置压缩上下文
+     * @param threshold              小于该字节数的消息不压缩
+     * @param stats                  统计输出
+     */
+    public MeteredDeflateExtension(boolean requestServerNoContext, boolean requestClientNoContext,
+                                   int threshold, CompressionStats stats) {
+        this.requestServerNoContext = requestServerNoContext;
+        this.requestClientNoContext = requestClientNoContext;
+        this.stats = stats;
+        setThreshold(threshold);
+        // 协商前按请求值设置（库字段含义见类注释）
+        setServerNoContextTakeover(requestClientNoContext);
+        setClientNoContextTakeover(false);
+    }
+
+    @Override
+    public String getProvidedExtensionAsClient() {
+        StringBuilder sb = new StringBuilder(EXTENSION_NAME);
+        if (requestServerNoContext) sb.append("; ").append(SERVER_NO_CONTEXT_TAKEOVER);
+        if (requestClientNoContext) sb.append("; ").append(CLIENT_NO_CONTEXT_TAKEOVER);
+        return sb.toString();
+    }
+
+    @Override
+    public boolean acceptProvidedExtensionAsClient(String inputExtension) {
+        if (!super.acceptProvidedExtensionAsClient(inputExtension)) {
+            return false;
+        }
+        String response = inputExtension.toLowerCase();
+        // 服务端声明不保留上下文时才能重置解压器；客户端不保留上下文总是安全的
+        setClientNoContextTakeover(response.contains(SERVER_NO_CONTEXT_TAKEOVER));
+        setServerNoContextTakeover(requestClientNoContext || response.contains(CLIENT_NO_CONTEXT_TAKEOVER));
+        stats.setNegotiated(true);
+        return true;
+    }
+
+    @Override
+    public void encodeFrame(Framedata frame) {
+        if (!isDataFrame(frame)) {
+            super.encodeFrame(frame);
+            return;
+        }
+        int payload = frame.getPayloadData().remaining();
+        long begin = System.nanoTime();
+        super.encodeFrame(frame);
+        int wire = frame.getPayloadData().remaining();
+        stats.sentPayload.add(payload);
+        stats.sentWire.add(wire);
+        if (frame.isRSV1()) {
+            stats.compressNanos.add(System.nanoTime() - begin);
+            stats.compressedFrames.increment();
+        }
+    }
+
+    @Override
+    public void decodeFrame(Framedata frame) throws InvalidDataException {
+        if (!isDataFrame(frame)) {
+            super.decodeFrame(frame);
+            return;
+        }
+        boolean compressed = frame.isRSV1() || frame.getOpcode() == Opcode.CONTINUOUS;
+        int wire = frame.getPayloadData().remaining();
+        long begin = System.nanoTime();
+        super.decodeFrame(frame);
+        int payload = frame.getPayloadData().remaining();
+        stats.receivedWire.add(wire);
+        stats.receivedPayload.add(payload);
+        if (compressed && payload != wire) {
+            stats.decompressNanos.add(System.nanoTime() - begin);
+            stats.decompressedFrames.increment();
+        }
+    }
+
+    private static boolean isDataFrame(Framedata frame) {
+        Opcode op = frame.getOpcode();
+        return op == Opcode.TEXT || op == Opcode.BINARY || op == Opcode.CONTINUOUS;
+    }
+
+    /**
+     * 重连时库会复制扩展实例，复制品共用同一统计对象
+     */
+    @Override
+    public IExtension copyInstance() {
+        return new MeteredDeflateExtension(requestServerNoContext, requestClientNoContext, getThreshold(), stats);
+    }
+
+    public CompressionStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,337 @@
+package plugin.javafxtools.service.websocket;
+
+import plugin.javafxtools.util.SpinWait;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 消息序列执行器 - 解析并执行发送脚本，消息经 {@link MessageWriter} 单线程批量写出
+ * <p>
+ * 脚本每行一条命令，'#' 开头为注释：
+ * <pre>
+ * send 消息模板                      发送一条消息
+ * expect 子串模板 [超时毫秒]          等待收到包含该子串的消息（默认5000毫秒），超时则中止；只取走匹配的那条消息
+ * wait 毫秒                         暂停
+ * every 间隔毫秒 次数 消息模板         按固定间隔发送，次数为0表示直到停止
+ * </pre>
+ * 模板变量：${counter} 每条消息递增的序号，${timestamp} 毫秒时间戳，${uuid} 随机UUID，${random} 0-999999随机数。
+ * <p>
+ * 发送队列满（连接写不出去）超过5秒时脚本失败，不会无限阻塞。
+ */
+public class SequenceRunner {
+
+    private static final long DEFAULT_EXPECT_TIMEOUT_MILLIS = 5000;
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+    private static final int INBOX_CAPACITY = 10_000;
+    private static final long SEND_TIMEOUT_MILLIS = 5000;
+
+    private enum Command { SEND, EXPECT, WAIT, EVERY }
+
+    /**
+     * 一条已解析的命令
+     */
+    private static final class Step {
+        final Command command;
+        final String template;
+        final long millis;
+        final long count;
+        final int line;
+
+        Step(Command command, String template, long millis, long count, int line) {
+            this.command = command;
+            this.template = template;
+            this.millis = millis;
+            this.count = count;
+            this.line = line;
+        }
+    }
+
+    private final List<Step> steps;
+    private final AtomicLong counter = new AtomicLong();
+    private final ArrayDeque<String> inbox = new ArrayDeque<>();   // 以自身为锁，新消息到达时notifyAll
+    private long inboxAppended;    // 累计放入收件箱的消息数，用于识别尚未比对过的消息
+    private volatile boolean running;
+    private volatile boolean cancelled;
+
+    /**
+     * @param script 脚本文本
+     * @throws IllegalArgumentException 脚本语法错误（消息中含行号）
+     */
+    public SequenceRunner(String script) {
+        this.steps = parse(script);
+    }
+
+    private static List<Step> parse(String script) {
+        List<Step> steps = new ArrayList<>();
+        String[] lines = script.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            int lineNo = i + 1;
+            String line = lines[i].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+", 2);
+            String rest = parts.length > 1 ? parts[1] : "";
+            try {
+                switch (parts[0].toLowerCase()) {
+                    case "send" -> steps.add(new Step(Command.SEND, requireText(rest), 0, 1, lineNo));
+                    case "wait" -> steps.add(new Step(Command.WAIT, null, parseNonNegative(rest), 0, lineNo));
+                    case "expect" -> {
+                        // 末尾为数字时视为超时
+                        String text = requireText(rest);
+                        long timeout = DEFAULT_EXPECT_TIMEOUT_MILLIS;
+                        int space = text.lastIndexOf(' ');
+                        if (space > 0 && text.substring(space + 1).chars().allMatch(Character::isDigit)) {
+                            timeout = Long.parseLong(text.substring(space + 1));
+                            text = text.substring(0, space).strip();
+                        }
+                        steps.add(new Step(Command.EXPECT, text, timeout, 0, lineNo));
+                    }
+                    case "every" -> {
+                        String[] args = rest.split("\\s+", 3);
+                        if (args.length < 3) {
+                            throw new IllegalArgumentException("格式为 every 间隔毫秒 次数 消息模板");
+                        }
+                        long interval = parseNonNegative(args[0]);
+                        if (interval == 0) {
+                            throw new IllegalArgumentException("间隔必须大于0");
+                        }
+                        steps.add(new Step(Command.EVERY, args[2], interval, parseNonNegative(args[1]), lineNo));
+                    }
+                    default -> throw new IllegalArgumentException("未知命令: " + parts[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("第" + lineNo + "行: " + e.getMessage());
+            }
+        }
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("脚本中没有命令");
+        }
+        return steps;
+    }
+
+    private static String requireText(String s) {
+        if (s.isEmpty()) {
+            throw new IllegalArgumentException("缺少消息内容");
+        }
+        return s;
+    }
+
+    private static long parseNonNegative(String s) {
+        try {
+            long v = Long.parseLong(s.trim());
+            if (v < 0) {
+                throw new IllegalArgumentException("不能为负数: " + s);
+            }
+            return v;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("不是有效的整数: " + s);
+        }
+    }
+
+    public int getStepCount() {
+        return steps.size();
+    }
+
+    /**
+     * 替换模板变量，同一条消息中的 ${counter} 取同一个值
+     */
+    String render(String template) {
+        if (template.indexOf("${") < 0) {
+            return template;
+        }
+        StringBuilder sb = new StringBuilder(template.length() + 32);
+        long seq = -1;
+        int i = 0;
+        while (i < template.length()) {
+            int start = template.indexOf("${", i);
+            int end = start < 0 ? -1 : template.indexOf('}', start);
+            if (start < 0 || end < 0) {
+                sb.append(template, i, template.length());
+                break;
+            }
+            sb.append(template, i, start);
+            String name = template.substring(start + 2, end);
+            switch (name) {
+                case "counter" -> {
+                    if (seq < 0) seq = counter.incrementAndGet();
+                    sb.append(seq);
+                }
+                case "timestamp" -> sb.append(System.currentTimeMillis());
+                case "uuid" -> sb.append(UUID.randomUUID());
+                case "random" -> sb.append(ThreadLocalRandom.current().nextInt(1_000_000));
+                default -> sb.append(template, start, end + 1);
+            }
+            i = end + 1;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 收到一条消息（在接收线程调用），执行中时放入收件箱供 expect 匹配，满时丢弃最旧的
+     */
+    public void onIncoming(String message) {
+        if (!running) {
+            return;
+        }
+        synchronized (inbox) {
+            if (inbox.size() == INBOX_CAPACITY) {
+                inbox.pollFirst();
+            }
+            inbox.addLast(message);
+            inboxAppended++;
+            inbox.notifyAll();
+        }
+    }
+
+    /**
+     * 执行脚本（阻塞直到完成、失败或取消，应在后台线程调用）
+     *
+     * @param writer   发送器
+     * @param progress 进度输出
+     * @return 是否完整执行
+     */
+    public boolean run(MessageWriter writer, Consumer<String> progress) {
+        cancelled = false;
+        synchronized (inbox) {
+            inbox.clear();
+        }
+        running = true;
+        long sent = 0;
+        long maxLateNanos = 0;
+        long begin = System.nanoTime();
+        long lastReport = begin;
+        try {
+            for (Step step : steps) {
+                if (cancelled) {
+                    break;
+                }
+                switch (step.command) {
+                    case SEND -> {
+                        if (!enqueue(writer, render(step.template), step, progress)) {
+                            if (cancelled) {
+                                break;
+                            }
+                            return false;
+                        }
+                        sent++;
+                    }
+                    case WAIT -> waitUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(step.millis));
+                    case EXPECT -> {
+                        String expected = render(step.template);
+                        if (!awaitMessage(expected, step.millis)) {
+                            if (!cancelled) {
+                                progress.accept(String.format("第%d行: %d 毫秒内未收到包含 \"%s\" 的消息，序列中止",
+                                        step.line, step.millis, expected));
+                            }
+                            return false;
+                        }
+                        progress.accept("已收到期望的响应: " + expected);
+                    }
+                    case EVERY -> {
+                        // 按绝对时刻排期，单次延迟不会累积成漂移
+                        long interval = TimeUnit.MILLISECONDS.toNanos(step.millis);
+                        long start = System.nanoTime();
+                        for (long k = 0; (step.count == 0 || k < step.count) && !cancelled; k++) {
+                            long due = start + k * interval;
+                            long late = waitUntil(due);
+                            if (late > maxLateNanos) maxLateNanos = late;
+                            if (!enqueue(writer, render(step.template), step, progress)) {
+                                if (cancelled) {
+                                    break;
+                                }
+                                return false;
+                            }
+                            sent++;
+                            long now = System.nanoTime();
+                            if (now - lastReport >= REPORT_INTERVAL_NANOS) {
+                                progress.accept(String.format("第%d行: 已发送 %d 条，最大滞后 %.3f ms",
+                                        step.line, sent, maxLateNanos / 1e6));
+                                lastReport = now;
+                            }
+                        }
+                    }
+                }
+            }
+            progress.accept(String.format("序列%s: 共入队 %d 条，耗时 %.3f 秒，定时发送最大滞后 %.3f ms",
+                    cancelled ? "已停止" : "执行完成", sent, (System.nanoTime() - begin) / 1e9, maxLateNanos / 1e6));
+            return !cancelled;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * 消息入队，发送队列持续满时分段等待以便响应取消，超时后输出原因
+     *
+     * @return 是否已入队；超时或取消时返回false
+     */
+    private boolean enqueue(MessageWriter writer, String message, Step step, Consumer<String> progress)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MILLIS);
+        while (!cancelled) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                progress.accept(String.format("第%d行: 发送队列 %d 毫秒内一直是满的，连接可能已停止写出，序列中止",
+                        step.line, SEND_TIMEOUT_MILLIS));
+                return false;
+            }
+            if (writer.offer(message, Math.min(remaining, 100_000_000L), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在收件箱中按到达顺序查找第一条包含期望子串的消息并只移除它，其余消息留给后续的expect
+     */
+    private boolean awaitMessage(String expected, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (inbox) {
+            long checked = inboxAppended - inbox.size();    // 此编号之前的消息已比对过
+            while (!cancelled) {
+                long seq = inboxAppended - inbox.size();
+                for (Iterator<String> it = inbox.iterator(); it.hasNext(); seq++) {
+                    String message = it.next();
+                    if (seq >= checked && message.contains(expected)) {
+                        it.remove();
+                        return true;
+                    }
+                }
+                checked = inboxAppended;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                // 分段等待以便及时响应取消
+                TimeUnit.NANOSECONDS.timedWait(inbox, Math.min(remaining, 100_000_000L));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 等待到指定时刻，取消时提前返回
+     *
+     * @return 实际到达时刻比预定时刻晚的纳秒数
+     */
+    private long waitUntil(long due) {
+        return SpinWait.waitUntil(due, () -> cancelled);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+}
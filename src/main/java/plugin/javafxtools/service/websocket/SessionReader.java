@@ -0,0 +1,150 @@
+package plugin.javafxtools.service.websocket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 录制会话读取器 - 以只读内存映射顺序遍历一个会话的全部分段
+ * <p>
+ * 游标式访问：{@link #next()} 之后通过访问器读取当前记录，负载为映射区的切片，不复制。
+ */
+public class SessionReader implements AutoCloseable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(.+)-(\\d{3})" + Pattern.quote(SessionRecorder.FILE_SUFFIX));
+
+    private final List<Path> segments;
+    private int segmentIndex = -1;
+    private MappedByteBuffer current;
+    private long startEpochMillis;
+
+    private long nanos;
+    private byte direction;
+    private byte opcode;
+    private ByteBuffer payload;
+
+    /**
+     * @param anySegment 会话中任意一个分段文件，自动找到同一会话的全部分段
+     */
+    public SessionReader(Path anySegment) throws IOException {
+        this.segments = findSegments(anySegment);
+        if (segments.isEmpty()) {
+            throw new IOException("未找到录制分段: " + anySegment);
+        }
+    }
+
+    /**
+     * 根据文件名 基础名-NNN.wsrec 从000开始收集连续分段
+     */
+    public static List<Path> findSegments(Path anySegment) {
+        List<Path> result = new ArrayList<>();
+        Path dir = anySegment.toAbsolutePath().getParent();
+        Matcher m = SEGMENT_NAME.matcher(anySegment.getFileName().toString());
+        if (!m.matches()) {
+            if (Files.isRegularFile(anySegment)) {
+                result.add(anySegment);
+            }
+            return result;
+        }
+        for (int i = 0; ; i++) {
+            Path p = SessionRecorder.segmentPath(dir, m.group(1), i);
+            if (!Files.isRegularFile(p)) {
+                break;
+            }
+            result.add(p);
+        }
+        return result;
+    }
+
+    /**
+     * 移动到下一条记录
+     *
+     * @return 没有更多记录时返回false
+     * @throws IOException 文件格式错误或读取失败
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (current != null && current.remaining() >= SessionRecorder.RECORD_HEADER_SIZE) {
+                // 0为段尾；长度字段存负载长度+1，空消息也是有效记录
+                int stored = current.getInt(current.position());
+                int length = stored - 1;
+                if (stored > 0 && current.remaining() >= SessionRecorder.RECORD_HEADER_SIZE + length) {
+                    current.getInt();
+                    nanos = current.getLong();
+                    direction = current.get();
+                    opcode = current.get();
+                    payload = current.slice(current.position(), length);
+                    current.position(current.position() + length);
+                    return true;
+                }
+            }
+            if (!openNextSegment()) {
+                return false;
+            }
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        if (++segmentIndex >= segments.size()) {
+            current = null;
+            return false;
+        }
+        Path file = segments.get(segmentIndex);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            current = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (current.remaining() < SessionRecorder.SEGMENT_HEADER_SIZE || current.getInt() != SessionRecorder.MAGIC) {
+            throw new IOException("不是有效的录制文件: " + file);
+        }
+        int version = current.getInt();
+        if (version != SessionRecorder.VERSION) {
+            throw new IOException("不支持的录制文件版本 " + version + ": " + file);
+        }
+        startEpochMillis = current.getLong();
+        return true;
+    }
+
+    public List<Path> getSegments() {
+        return segments;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * @return 当前记录相对会话开始的纳秒数
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public byte getDirection() {
+        return direction;
+    }
+
+    public byte getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * @return 当前记录负载（映射区只读切片，移动到下一条后仍然有效）
+     */
+    public ByteBuffer getPayload() {
+        return payload;
+    }
+
+    @Override
+    public void close() {
+        current = null;
+        payload = null;
+    }
+}
@@ -0,0 +1,158 @@
+package plugin.javafxtools.service.websocket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * WebSocket会话录制器 - 追加写入内存映射的分段文件
+ * <p>
+ * 段文件格式：16字节段头 [魔数(4)][版本(4)][会话开始epoch毫秒(8)]，之后依次为记录
+ * [负载长度+1(4)][相对会话开始的纳秒(8)][方向(1)][操作码(1)][负载]。
+ * 长度字段为0表示段内数据结束（未截断的零填充尾部即为结束），因此空消息存为1；
+ * 段写满后自动切换到下一段（-000、-001 ...）。读取时只接受当前版本。
+ */
+public class SessionRecorder {
+
+    public static final int MAGIC = 0x57535231;        // "WSR1"
+    public static final int VERSION = 2;
+    public static final int SEGMENT_HEADER_SIZE = 16;
+    public static final int RECORD_HEADER_SIZE = 14;
+    public static final byte DIRECTION_IN = 0;
+    public static final byte DIRECTION_OUT = 1;
+    public static final byte OPCODE_TEXT = 1;           // 与RFC 6455的操作码一致
+    public static final byte OPCODE_BINARY = 2;
+    public static final String FILE_SUFFIX = ".wsrec";
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final String baseName;
+    private final int segmentSize;
+    private final long startNanos = System.nanoTime();
+    private final long startEpochMillis = System.currentTimeMillis();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex = -1;
+    private long recordCount;
+    private long totalBytes;
+    private boolean closed;
+
+    /**
+     * 在目录下创建新会话，文件名为 ws-时间-段号.wsrec
+     */
+    public SessionRecorder(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SessionRecorder(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.baseName = "ws-" + LocalDateTime.now().format(NAME_FORMAT);
+        Files.createDirectories(directory);
+        openSegment(0);
+    }
+
+    /**
+     * 记录一条文本消息
+     */
+    public void recordText(byte direction, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        record(direction, OPCODE_TEXT, ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 记录一条消息，负载从position读到limit（不改变调用方缓冲区的position）
+     */
+    public synchronized void record(byte direction, byte opcode, ByteBuffer payload) {
+        if (closed) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        int length = payload.remaining();
+        try {
+            if (segment.remaining() < RECORD_HEADER_SIZE + length + 4) {
+                openSegment(RECORD_HEADER_SIZE + length + 4);
+            }
+        } catch (IOException e) {
+            closed = true;
+            throw new IllegalStateException("创建录制分段失败: " + e.getMessage(), e);
+        }
+        segment.putInt(length + 1);
+        segment.putLong(nanos);
+        segment.put(direction);
+        segment.put(opcode);
+        segment.put(payload.duplicate());
+        recordCount++;
+        totalBytes += length;
+    }
+
+    /**
+     * 结束当前段（若有）并打开下一段
+     *
+     * @param minPayload 新段至少需要容纳的字节数
+     */
+    private void openSegment(int minPayload) throws IOException {
+        finishSegment();
+        segmentIndex++;
+        Path file = segmentPath(directory, baseName, segmentIndex);
+        int size = Math.max(segmentSize, SEGMENT_HEADER_SIZE + minPayload);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        segment.putLong(startEpochMillis);
+    }
+
+    private void finishSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        int used = segment.position();
+        segment.force();
+        segment = null;
+        try {
+            // 去掉未使用的映射空间；部分平台不允许截断仍被映射的文件，失败时保留零填充尾部
+            channel.truncate(used);
+        } catch (IOException ignore) {
+        }
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * 结束录制并落盘
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        finishSegment();
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public Path getFirstSegment() {
+        return segmentPath(directory, baseName, 0);
+    }
+
+    public static Path segmentPath(Path directory, String baseName, int index) {
+        return directory.resolve(String.format("%s-%03d%s", baseName, index, FILE_SUFFIX));
+    }
+}
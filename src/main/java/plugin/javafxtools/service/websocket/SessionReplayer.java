@@ -0,0 +1,183 @@
+package plugin.javafxtools.service.websocket;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import plugin.javafxtools.util.SpinWait;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 会话回放器 - 将录制的消息按原始时间间隔、倍速或尽快发送到目标服务
+ */
+public class SessionReplayer {
+
+    private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+    private static final int FLUSH_EVERY = 1000;                 // 尽快模式下每N条等待发送缓冲清空
+
+    /**
+     * 回放节奏
+     */
+    public enum Mode {
+        ORIGINAL("原始时间"),
+        SPEED("倍速"),
+        ASAP("尽快");
+
+        private final String displayName;
+
+        Mode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 回放哪个方向的消息
+     */
+    public enum DirectionFilter {
+        OUTGOING("仅发出的消息"),
+        INCOMING("仅收到的消息"),
+        ALL("全部消息");
+
+        private final String displayName;
+
+        DirectionFilter(String displayName) {
+            this.displayName = displayName;
+        }
+
+        boolean accepts(byte direction) {
+            return this == ALL
+                    || (this == OUTGOING && direction == SessionRecorder.DIRECTION_OUT)
+                    || (this == INCOMING && direction == SessionRecorder.DIRECTION_IN);
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private volatile boolean cancelled;
+
+    /**
+     * 执行回放（阻塞直到完成或取消，应在后台线程调用）
+     *
+     * @param target   目标地址
+     * @param session  会话的任意分段文件
+     * @param mode     回放节奏
+     * @param speed    倍速模式下的倍数，其余模式忽略
+     * @param filter   方向过滤
+     * @param progress 进度输出（在回放线程中调用）
+     * @throws Exception 连接或读取失败时抛出
+     */
+    public void run(URI target, Path session, Mode mode, double speed, DirectionFilter filter,
+                    Consumer<String> progress) throws Exception {
+        cancelled = false;
+        double factor = mode == Mode.SPEED ? speed : 1.0;
+        WebSocketClient client = new WebSocketClient(target) {
+            @Override
+            public void onOpen(ServerHandshake handshakedata) {
+            }
+
+            @Override
+            public void onMessage(String message) {
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+                if (remote) {
+                    progress.accept("目标服务关闭了连接: " + reason + " (code: " + code + ")");
+                }
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                progress.accept("回放连接错误: " + ex.getMessage());
+            }
+        };
+        if (!client.connectBlocking(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("连接目标失败: " + target);
+        }
+
+        long sent = 0;
+        long bytes = 0;
+        long maxLateNanos = 0;
+        try (SessionReader reader = new SessionReader(session)) {
+            progress.accept(String.format("开始回放: %d 个分段，模式 %s%s，%s",
+                    reader.getSegments().size(), mode, mode == Mode.SPEED ? " x" + speed : "", filter));
+            long firstNanos = -1;
+            long begin = System.nanoTime();
+            long lastReport = begin;
+            long lastReportSent = 0;
+            while (!cancelled && reader.next()) {
+                if (!filter.accepts(reader.getDirection())) {
+                    continue;
+                }
+                if (firstNanos < 0) {
+                    firstNanos = reader.getNanos();
+                    begin = System.nanoTime();
+                }
+                if (mode != Mode.ASAP) {
+                    long due = begin + (long) ((reader.getNanos() - firstNanos) / factor);
+                    long late = waitUntil(due);
+                    if (late > maxLateNanos) maxLateNanos = late;
+                } else if (sent % FLUSH_EVERY == 0) {
+                    // 尽快模式下防止发送队列无限堆积
+                    while (client.hasBufferedData() && !cancelled && client.isOpen()) {
+                        LockSupport.parkNanos(100_000);
+                    }
+                }
+                if (!client.isOpen()) {
+                    throw new IllegalStateException("回放连接已断开");
+                }
+                ByteBuffer payload = reader.getPayload();
+                if (reader.getOpcode() == SessionRecorder.OPCODE_TEXT) {
+                    client.send(StandardCharsets.UTF_8.decode(payload.duplicate()).toString());
+                } else {
+                    client.send(payload.duplicate());
+                }
+                sent++;
+                bytes += payload.remaining();
+
+                long now = System.nanoTime();
+                if (now - lastReport >= REPORT_INTERVAL_NANOS) {
+                    progress.accept(String.format("已发送 %d 条（%.0f 条/秒），最大滞后 %.3f ms",
+                            sent, (sent - lastReportSent) * 1e9 / (now - lastReport), maxLateNanos / 1e6));
+                    lastReport = now;
+                    lastReportSent = sent;
+                }
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            progress.accept(String.format("回放%s: 发送 %d 条 / %d 字节，耗时 %.3f 秒，最大滞后 %.3f ms",
+                    cancelled ? "已取消" : "完成", sent, bytes, seconds, maxLateNanos / 1e6));
+        } finally {
+            client.closeBlocking();
+        }
+    }
+
+    /**
+     * 等待到指定时刻，取消时提前返回
+     *
+     * @return 实际到达时刻比预定时刻晚的纳秒数
+     */
+    private long waitUntil(long due) {
+        return SpinWait.waitUntil(due, () -> cancelled);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+}
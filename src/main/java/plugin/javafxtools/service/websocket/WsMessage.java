@@ -0,0 +1,81 @@
+package plugin.javafxtools.service.websocket;
+
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 一条WebSocket消息 - 文本或二进制
+ * <p>
+ * 二进制内容保存为只读视图，直接引用收到的帧缓冲区，不复制到字节数组。
+ */
+public class WsMessage {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private final String text;
+    private final ByteBuffer data;
+    private final LocalTime time = LocalTime.now();
+
+    private WsMessage(String text, ByteBuffer data) {
+        this.text = text;
+        this.data = data;
+    }
+
+    public static WsMessage text(String text) {
+        return new WsMessage(text, null);
+    }
+
+    /**
+     * @param data 帧内容，从当前position到limit；调用方之后不应再修改该缓冲区
+     */
+    public static WsMessage binary(ByteBuffer data) {
+        return new WsMessage(null, data.asReadOnlyBuffer());
+    }
+
+    public boolean isBinary() {
+        return data != null;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return 内容的只读副本视图（独立的position/limit，可安全读取）
+     */
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    public int getSize() {
+        return data != null ? data.remaining() : text.length();
+    }
+
+    public String getTimeText() {
+        return time.format(TIME_FORMAT);
+    }
+
+    /**
+     * 二进制内容前若干字节的十六进制预览
+     */
+    public String hexPreview(int maxBytes) {
+        StringBuilder sb = new StringBuilder();
+        int n = Math.min(maxBytes, data.remaining());
+        int base = data.position();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(' ');
+            int b = data.get(base + i) & 0xFF;
+            sb.append(Character.forDigit(b >>> 4, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        if (data.remaining() > n) {
+            sb.append(" ...");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getTimeText() + "  " + getSize() + " 字节";
+    }
+}
@@ -0,0 +1,129 @@
+package plugin.javafxtools.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数分桶延迟直方图 - 以微秒为单位记录，线程安全且记录时无锁、不分配对象
+ * <p>
+ * 0-127us 每微秒一个桶；更大的值按2的幂分段，每段64个子桶，相对误差约1.6%，
+ * 可覆盖约19小时的延迟范围，占用约2300个long。
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BITS = 7;                  // 2^7 = LINEAR_BUCKETS
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLongArray summary = new AtomicLongArray(3); // 0:次数 1:总和 2:最大值
+
+    /**
+     * 记录一个延迟样本
+     *
+     * @param nanos 延迟（纳秒），负值忽略
+     */
+    public void recordNanos(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        long micros = nanos / 1000;
+        buckets.incrementAndGet(indexOf(micros));
+        summary.incrementAndGet(0);
+        summary.addAndGet(1, micros);
+        long max;
+        while (micros > (max = summary.get(2))) {
+            if (summary.compareAndSet(2, max, micros)) {
+                break;
+            }
+        }
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * 桶对应区间的中点（微秒）
+     */
+    private static double valueOf(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (1L << exponent) + sub * width;
+        return lower + width / 2.0;
+    }
+
+    /**
+     * 计算多个百分位（一次遍历）
+     *
+     * @param percentiles 升序的百分位，如 {50, 90, 99}
+     * @param result      输出的延迟值（毫秒），无样本时为NaN
+     */
+    public void percentilesMillis(double[] percentiles, double[] result) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            Arrays.fill(result, Double.NaN);
+            return;
+        }
+        int p = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT && p < percentiles.length; i++) {
+            seen += buckets.get(i);
+            while (p < percentiles.length && seen >= Math.ceil(total * percentiles[p] / 100.0)) {
+                result[p++] = valueOf(i) / 1000.0;
+            }
+        }
+        while (p < percentiles.length) {
+            result[p++] = getMaxMillis();
+        }
+    }
+
+    public long getCount() {
+        return summary.get(0);
+    }
+
+    /**
+     * @return 平均值（毫秒），无样本时为NaN
+     */
+    public double getMeanMillis() {
+        long count = summary.get(0);
+        return count == 0 ? Double.NaN : summary.get(1) / 1000.0 / count;
+    }
+
+    /**
+     * @return 最大值（毫秒），无样本时为NaN
+     */
+    public double getMaxMillis() {
+        return summary.get(0) == 0 ? Double.NaN : summary.get(2) / 1000.0;
+    }
+
+    /**
+     * 清空所有样本（与记录并发时可能丢失少量样本）
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        for (int i = 0; i < 3; i++) {
+            summary.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package plugin.javafxtools.util;
+
+import java.util.Arrays;
+
+/**
+ * long到int的开放寻址哈希表 - 无装箱，clear后复用内部数组，适合高频刷新的索引场景
+ * <p>
+ * 本类不做同步，由调用方负责并发控制。
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private final int missingValue;
+
+    /**
+     * @param initialCapacity 预期元素数
+     * @param missingValue    get未命中时返回的值
+     */
+    public LongIntHashMap(int initialCapacity, int missingValue) {
+        int cap = Integer.highestOneBit(Math.max(4, (int) (initialCapacity / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[cap];
+        this.values = new int[cap];
+        this.used = new boolean[cap];
+        this.missingValue = missingValue;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 写入键值，已存在时覆盖
+     */
+    public void put(long key, int value) {
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int idx = mix(key) & mask;
+        while (used[idx]) {
+            if (keys[idx] == key) {
+                values[idx] = value;
+                return;
+            }
+            idx = (idx + 1) & mask;
+        }
+        used[idx] = true;
+        keys[idx] = key;
+        values[idx] = value;
+        size++;
+    }
+
+    /**
+     * @return 键对应的值，不存在时返回构造时指定的missingValue
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        int idx = mix(key) & mask;
+        while (used[idx]) {
+            if (keys[idx] == key) {
+                return values[idx];
+            }
+            idx = (idx + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        int mask = keys.length - 1;
+        int idx = mix(key) & mask;
+        while (used[idx]) {
+            if (keys[idx] == key) {
+                return true;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空但保留已分配的数组
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[newCapacity];
+        values = new int[newCapacity];
+        used = new boolean[newCapacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package plugin.javafxtools.util;
+
+/**
+ * 定长long环形缓冲区 - 基于原始数组，写满后覆盖最旧的数据，长时间运行也不会增长内存
+ * <p>
+ * 本类不做同步，由调用方负责并发控制。
+ */
+public class LongRingBuffer {
+
+    private final long[] data;
+    private int head;   // 下一个写入位置
+    private int size;   // 当前有效元素数
+
+    /**
+     * @param capacity 缓冲区容量（必须大于0）
+     */
+    public LongRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于0: " + capacity);
+        }
+        this.data = new long[capacity];
+    }
+
+    /**
+     * 追加一个值，缓冲区已满时覆盖最旧的值
+     *
+     * @param value 要写入的值
+     */
+    public void add(long value) {
+        data[head] = value;
+        head = (head + 1) % data.length;
+        if (size < data.length) {
+            size++;
+        }
+    }
+
+    /**
+     * 按时间顺序获取元素
+     *
+     * @param index 0表示最旧的元素，size()-1表示最新的元素
+     * @return 对应位置的值
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("索引越界: " + index + ", 当前大小: " + size);
+        }
+        int start = head - size;
+        if (start < 0) {
+            start += data.length;
+        }
+        return data[(start + index) % data.length];
+    }
+
+    /**
+     * 获取最新写入的值
+     *
+     * @param defaultValue 缓冲区为空时返回的默认值
+     * @return 最新值
+     */
+    public long latest(long defaultValue) {
+        if (size == 0) {
+            return defaultValue;
+        }
+        return data[(head - 1 + data.length) % data.length];
+    }
+
+    /**
+     * 按时间顺序（旧到新）复制到目标数组，不分配新对象
+     *
+     * @param dest 目标数组
+     * @return 实际复制的元素数
+     */
+    public int copyTo(long[] dest) {
+        int count = Math.min(size, dest.length);
+        int skip = size - count; // 目标数组不够大时保留最新的部分
+        for (int i = 0; i < count; i++) {
+            dest[i] = get(skip + i);
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return data.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,34 @@
+package plugin.javafxtools.util;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 高精度定时等待 - 距目标时刻较远时park，最后一段自旋，按录制或设定的时刻发送消息时使用
+ */
+public final class SpinWait {
+
+    /** 最后100微秒自旋等待以保证时间精度 */
+    public static final long SPIN_THRESHOLD_NANOS = 100_000;
+
+    private SpinWait() {
+    }
+
+    /**
+     * 等待到指定时刻
+     *
+     * @param due       目标时刻（{@link System#nanoTime()}）
+     * @param cancelled 返回true时提前结束等待
+     * @return 实际到达时刻比预定时刻晚的纳秒数
+     */
+    public static long waitUntil(long due, BooleanSupplier cancelled) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > SPIN_THRESHOLD_NANOS && !cancelled.getAsBoolean()) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+        }
+        while (due - System.nanoTime() > 0 && !cancelled.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+        return Math.max(0, System.nanoTime() - due);
+    }
+}
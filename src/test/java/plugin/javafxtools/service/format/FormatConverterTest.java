@@ -0,0 +1,107 @@
+package plugin.javafxtools.service.format;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static plugin.javafxtools.service.format.FormatConverter.Format.CSV;
+import static plugin.javafxtools.service.format.FormatConverter.Format.JSON;
+import static plugin.javafxtools.service.format.FormatConverter.Format.NDJSON;
+import static plugin.javafxtools.service.format.FormatConverter.Format.XML;
+import static plugin.javafxtools.service.format.FormatConverter.Format.YAML;
+
+/**
+ * 格式转换：单列CSV的null记录、YAML锚点与别名展开上限、XML重复元素合并，以及格式对比的往返摘要规则
+ */
+class FormatConverterTest {
+
+    @TempDir
+    Path directory;
+
+    private static String convert(String text, FormatConverter.Format from, FormatConverter.Format to)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FormatConverter().convert(text, from, out, to);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void singleColumnCsvKeepsNullRecords() throws Exception {
+        String csv = convert("[{\"a\": 1}, {\"a\": null}, {\"a\": 3}]", JSON, CSV);
+        assertEquals("a\r\n1\r\n\r\n3\r\n", csv);
+        assertEquals("[{\"a\":1},{\"a\":null},{\"a\":3}]", convert(csv, CSV, JSON));
+        assertEquals("{\"a\":1}\n{\"a\":null}\n{\"a\":3}\n", convert(csv, CSV, NDJSON));
+    }
+
+    @Test
+    void yamlAliasesReplayAnchoredValues() throws Exception {
+        String yaml = """
+                base: &b {x: 1, y: [1, 2]}
+                use: *b
+                list: &l [a, b]
+                again: *l
+                """;
+        assertEquals("{\"base\":{\"x\":1,\"y\":[1,2]},\"use\":{\"x\":1,\"y\":[1,2]},"
+                + "\"list\":[\"a\",\"b\"],\"again\":[\"a\",\"b\"]}", convert(yaml, YAML, JSON));
+    }
+
+    @Test
+    void yamlAliasExpansionIsCapped() {
+        // 每层引用上一层10次，第9层展开约10亿个记号
+        StringBuilder yaml = new StringBuilder("l0: &l0 [x, x, x, x, x, x, x, x, x, x]\n");
+        for (int level = 1; level <= 9; level++) {
+            yaml.append('l').append(level).append(": &l").append(level).append(" [");
+            for (int i = 0; i < 10; i++) {
+                yaml.append(i > 0 ? ", " : "").append("*l").append(level - 1);
+            }
+            yaml.append("]\n");
+        }
+        IOException e = assertThrows(IOException.class, () -> convert(yaml.toString(), YAML, JSON));
+        assertTrue(e.getMessage().contains(String.valueOf(YamlCodec.MAX_ALIAS_TOKENS)), e.getMessage());
+    }
+
+    @Test
+    void xmlMergesAdjacentRepeatedElements() throws Exception {
+        String xml = "<root><a>1</a><a>2</a><b>x</b><c><item>1</item><item>2</item></c><a>3</a><d/></root>";
+        assertEquals("{\"a\":[\"1\",\"2\"],\"b\":\"x\",\"c\":[\"1\",\"2\"],\"a\":\"3\",\"d\":null}",
+                convert(xml, XML, JSON));
+    }
+
+    @Test
+    void compareChecksRoundTripAgainstReshapedSource() throws Exception {
+        Path source = directory.resolve("records.json");
+        Files.writeString(source, "[{\"id\": \"a\", \"n\": {\"x\": \"y\"}, \"v\": 1.50}, {\"id\": \"b\", \"n\": {\"x\": \"z\"}, \"v\": 2}]");
+
+        List<FormatConverter.FormatStats> report = new FormatConverter()
+                .compare(source, JSON, List.of(FormatConverter.Format.values()));
+
+        assertEquals(FormatConverter.Format.values().length, report.size());
+        for (FormatConverter.FormatStats stats : report) {
+            assertNull(stats.getError(), stats.getFormat().toString());
+            assertTrue(stats.getSize() > 0);
+            // 记录格式展开顶层数组后与来源比较，1.50与1.5视为相同；XML不区分数字和字符串，无法还原
+            assertEquals(stats.getFormat() != XML, stats.isRoundTrip(), stats.getFormat().toString());
+        }
+    }
+
+    @Test
+    void compareFromRecordsWrapsThemIntoOneArray() throws Exception {
+        Path source = directory.resolve("records.ndjson");
+        Files.writeString(source, "{\"id\": \"a\"}\n{\"id\": \"b\"}\n");
+
+        for (FormatConverter.FormatStats stats : new FormatConverter()
+                .compare(source, NDJSON, List.of(FormatConverter.Format.values()))) {
+            assertTrue(stats.isRoundTrip(), stats.getFormat().toString());
+        }
+    }
+}
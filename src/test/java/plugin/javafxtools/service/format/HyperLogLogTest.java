@@ -0,0 +1,59 @@
+package plugin.javafxtools.service.format;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HyperLogLog：少量值精确计数、大基数误差范围，以及合并等同于全部加入同一个估计器
+ */
+class HyperLogLogTest {
+
+    private static HyperLogLog of(int from, int to) {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            hll.add(HyperLogLog.hash("value-" + i, 0));
+        }
+        return hll;
+    }
+
+    @Test
+    void countsFewValuesExactly() {
+        HyperLogLog hll = of(0, 64);
+        for (int i = 0; i < 64; i++) {
+            hll.add(HyperLogLog.hash("value-" + i, 0));
+        }
+        assertEquals(64, hll.estimate());
+    }
+
+    @Test
+    void estimatesLargeCardinalityWithinThreePercent() {
+        for (int n : new int[]{1000, 20_000, 200_000}) {
+            long estimate = of(0, n).estimate();
+            assertTrue(Math.abs(estimate - n) <= n * 0.03, n + " -> " + estimate);
+        }
+    }
+
+    @Test
+    void mergeMatchesAddingEverything() {
+        HyperLogLog left = of(0, 30_000);
+        left.merge(of(20_000, 50_000));
+        assertEquals(of(0, 50_000).estimate(), left.estimate());
+    }
+
+    @Test
+    void mergesSparseAndDenseInEitherDirection() {
+        HyperLogLog sparse = of(0, 40);
+        sparse.merge(of(30, 70));
+        assertEquals(of(0, 70).estimate(), sparse.estimate());
+
+        HyperLogLog small = of(0, 10);
+        small.merge(of(5, 5000));
+        assertEquals(of(0, 5000).estimate(), small.estimate());
+
+        HyperLogLog large = of(5, 5000);
+        large.merge(of(0, 10));
+        assertEquals(of(0, 5000).estimate(), large.estimate());
+    }
+}
@@ -0,0 +1,68 @@
+package plugin.javafxtools.service.format;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JSON结构化对比：字段增删改、数值按值比较、数组按顺序对齐和按键匹配、忽略路径
+ */
+class JsonDiffTest {
+
+    private static List<String> diff(JsonDiff diff, String left, String right) throws Exception {
+        List<String> changes = new ArrayList<>();
+        diff.diff(left, right, change -> changes.add(change.toString()));
+        return changes;
+    }
+
+    private static List<String> diff(String left, String right) throws Exception {
+        return diff(new JsonDiff(JsonDiff.ArrayMode.LCS, null, List.of()), left, right);
+    }
+
+    @Test
+    void reportsAddedRemovedAndChangedFields() throws Exception {
+        assertEquals(List.of("~ $.b: 2 -> 3", "- $.c: true", "+ $['d e']: {\"x\":null}"),
+                diff("{\"a\": 1, \"b\": 2, \"c\": true}", "{\"b\": 3, \"a\": 1, \"d e\": {\"x\": null}}"));
+    }
+
+    @Test
+    void comparesNumbersByValue() throws Exception {
+        assertEquals(List.of(), diff("{\"a\": 1.0, \"b\": [1e2]}", "{\"a\": 1, \"b\": [100]}"));
+    }
+
+    @Test
+    void alignsArraysByCommonSubsequence() throws Exception {
+        assertEquals(List.of("+ $[1]: 9", "~ $[3]: 4 -> 5"), diff("[1, 2, 3, 4]", "[1, 9, 2, 3, 5]"));
+    }
+
+    @Test
+    void matchesArrayItemsByKeyInLeftOrder() throws Exception {
+        JsonDiff diff = new JsonDiff(JsonDiff.ArrayMode.KEY, "id", List.of());
+        List<String> changes = diff(diff,
+                "[{\"id\": 3, \"v\": \"c\"}, {\"id\": 1, \"v\": \"a\"}, {\"id\": 2, \"v\": \"b\"}]",
+                "[{\"id\": 2, \"v\": \"B\"}, {\"id\": 4, \"v\": \"d\"}, {\"id\": 1.0, \"v\": \"a\"}]");
+        assertEquals(List.of("- $[id=3]: {\"id\":3,\"v\":\"c\"}", "~ $[id=2].v: \"b\" -> \"B\"",
+                "+ $[id=4]: {\"id\":4,\"v\":\"d\"}"), changes);
+        assertEquals(3, diff.getChanges());
+    }
+
+    @Test
+    void fallsBackToOrderWhenKeysRepeat() throws Exception {
+        JsonDiff diff = new JsonDiff(JsonDiff.ArrayMode.KEY, "id", List.of());
+        assertEquals(List.of("~ $[1].v: 2 -> 3"),
+                diff(diff, "[{\"id\": 1, \"v\": 1}, {\"id\": 1, \"v\": 2}]", "[{\"id\": 1, \"v\": 1}, {\"id\": 1, \"v\": 3}]"));
+    }
+
+    @Test
+    void skipsIgnoredPaths() throws Exception {
+        JsonDiff diff = new JsonDiff(JsonDiff.ArrayMode.LCS, null,
+                JsonDiff.parseIgnorePaths("$..time, $.meta['a,b']"));
+        List<String> changes = diff(diff,
+                "{\"meta\": {\"a,b\": 1, \"c\": 1}, \"items\": [{\"time\": 1, \"v\": 1}]}",
+                "{\"meta\": {\"a,b\": 2, \"c\": 2}, \"items\": [{\"time\": 2, \"v\": 1}]}");
+        assertEquals(List.of("~ $.meta.c: 1 -> 2"), changes);
+    }
+}
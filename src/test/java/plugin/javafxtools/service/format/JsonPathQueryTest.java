@@ -0,0 +1,83 @@
+package plugin.javafxtools.service.format;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式JSON查询：字段、下标、切片、通配、递归下降、jq风格写法、多个顶层值和语法错误
+ */
+class JsonPathQueryTest {
+
+    private static final String STORE = """
+            {"store": {"book": [
+              {"title": "A", "price": 8.50, "tags": ["x"]},
+              {"title": "B", "price": 12},
+              {"title": "C", "price": 3, "isbn": "c-1"}
+            ], "bicycle": {"price": 19.95}}}
+            """;
+
+    private static String query(String expression, String json) throws Exception {
+        StringWriter out = new StringWriter();
+        JsonPathQuery.compile(expression).evaluate(json, out);
+        return out.toString();
+    }
+
+    @Test
+    void selectsFieldsIndexesAndSlices() throws Exception {
+        assertEquals("\"A\"\n\"B\"\n\"C\"\n", query("$.store.book[*].title", STORE));
+        assertEquals("\"B\"\n", query("$.store.book[1].title", STORE));
+        assertEquals("\"A\"\n\"C\"\n", query("$['store']['book'][0,2]['title']", STORE));
+        assertEquals("\"B\"\n\"C\"\n", query("$.store.book[1:].title", STORE));
+        assertEquals("\"A\"\n", query("$.store.book[:1].title", STORE));
+    }
+
+    @Test
+    void recursiveDescentKeepsNumbersAsWritten() throws Exception {
+        assertEquals("8.50\n12\n3\n19.95\n", query("$..price", STORE));
+        assertEquals("\"c-1\"\n", query("$..isbn", STORE));
+    }
+
+    @Test
+    void matchedValueIsWrittenWholeWithoutNestedMatches() throws Exception {
+        String json = "{\"a\": {\"a\": 1}}";
+        assertEquals("{\"a\":1}\n", query("$..a", json));
+    }
+
+    @Test
+    void acceptsJqStyle() throws Exception {
+        assertEquals("\"A\"\n\"B\"\n\"C\"\n", query(".store.book[].title", STORE));
+        assertEquals("\"A\"\n", query(".store.book.[0].title", STORE));
+        assertEquals("[1,2]\n", query(".", "[1, 2]"));
+    }
+
+    @Test
+    void evaluatesEachTopLevelValue() throws Exception {
+        JsonPathQuery query = JsonPathQuery.compile("$.id");
+        StringWriter out = new StringWriter();
+        long matches = query.evaluate("{\"id\": 1}\n{\"name\": \"x\"}\n{\"id\": 3}\n", out);
+        assertEquals(2, matches);
+        assertEquals("1\n3\n", out.toString());
+    }
+
+    @Test
+    void skipsSubtreesThatCannotMatch() throws Exception {
+        JsonPathQuery query = JsonPathQuery.compile("$.wanted");
+        query.evaluate("{\"big\": [[1, 2], {\"x\": 3}], \"wanted\": true}", new StringWriter());
+        assertEquals(1, query.getMatches());
+        assertEquals(1, query.getSkipped());
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        for (String expression : new String[]{"store", "$.", "$[0", "$[-1]", "$[a]", "$[1:2:3]", "$['a]"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> JsonPathQuery.compile(expression), expression);
+            assertTrue(e.getMessage().startsWith("查询表达式第"), e.getMessage());
+        }
+    }
+}
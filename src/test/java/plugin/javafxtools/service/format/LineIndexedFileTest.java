@@ -0,0 +1,124 @@
+package plugin.javafxtools.service.format;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按行索引的文件：换行和\r\n、超长行在字符边界折行、偏移定位行号，以及被取代任务的结果文件删除
+ */
+class LineIndexedFileTest {
+
+    @TempDir
+    Path directory;
+
+    private LineIndexedFile open(String text) throws Exception {
+        Path path = directory.resolve("lines.txt");
+        Files.writeString(path, text, StandardCharsets.UTF_8);
+        return LineIndexedFile.open(path, null);
+    }
+
+    @Test
+    void splitsLinesWithoutTrailingEmptyLine() throws Exception {
+        try (LineIndexedFile file = open("a\r\n\nb\n")) {
+            assertEquals(3, file.getLineCount());
+            assertEquals("a", file.getLine(0));
+            assertEquals("", file.getLine(1));
+            assertEquals("b", file.getLine(2));
+        }
+    }
+
+    @Test
+    void wrapsLongLineAtCharacterBoundary() throws Exception {
+        // 每个汉字3字节，16KB不是3的倍数，折行处必须退到字符边界
+        String longLine = "中".repeat(LineIndexedFile.MAX_LINE_BYTES);
+        try (LineIndexedFile file = open(longLine + "\ntail")) {
+            StringBuilder joined = new StringBuilder();
+            int lines = file.getLineCount();
+            for (int i = 0; i < lines - 1; i++) {
+                String part = file.getLine(i);
+                assertFalse(part.contains("�"));
+                assertTrue(part.getBytes(StandardCharsets.UTF_8).length <= LineIndexedFile.MAX_LINE_BYTES);
+                joined.append(part);
+            }
+            assertEquals(longLine, joined.toString());
+            assertEquals("tail", file.getLine(lines - 1));
+            assertEquals(lines - 1, file.lineOf(file.find("tail".getBytes(StandardCharsets.UTF_8), 0, false)));
+        }
+    }
+
+    @Test
+    void lineOfMatchesLineStartAcrossCheckpoints() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < LineIndexedFile.STRIDE * 3 + 5; i++) {
+            text.append("line").append(i).append('\n');
+        }
+        try (LineIndexedFile file = open(text.toString())) {
+            for (int i = 0; i < file.getLineCount(); i++) {
+                assertEquals("line" + i, file.getLine(i));
+                assertEquals(i, file.lineOf(file.lineStart(i)));
+            }
+        }
+    }
+
+    @Test
+    void supersededTaskDeletesItsResultFile() throws Exception {
+        FormatTaskRunner runner = new FormatTaskRunner(Runnable::run);
+        AtomicReference<LineIndexedFile> result = new AtomicReference<>();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch superseded = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        runner.submit(1, progress -> {
+            try {
+                result.set(progress.own(LineIndexedFile.fromTempFile(out -> out.write("x"))));
+                written.countDown();
+                superseded.await();
+            } finally {
+                done.countDown();
+            }
+            return null;
+        }, new NoopListener());
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        runner.submit(1, progress -> null, new NoopListener());
+        superseded.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        Path path = result.get().getPath();
+        for (int i = 0; i < 100 && Files.exists(path); i++) {
+            Thread.sleep(20);
+        }
+        assertFalse(Files.exists(path));
+    }
+
+    private static class NoopListener implements FormatTaskRunner.Listener {
+        @Override
+        public void progress(long consumed, long total) {
+        }
+
+        @Override
+        public void chunk(String text, boolean first) {
+        }
+
+        @Override
+        public void completed(long resultLength, long elapsedNanos) {
+        }
+
+        @Override
+        public void failed(Exception e) {
+        }
+
+        @Override
+        public void cancelled() {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package plugin.javafxtools.service.format;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式XML格式化：保留注释、CDATA和处理指令，混合内容原样输出，拒绝DOCTYPE
+ */
+class StaxXmlFormatterTest {
+
+    private static final String SOURCE = "<?xml version=\"1.0\"?><root><!-- note --><?target data?>"
+            + "<a><![CDATA[x < y]]></a><b>text <i>mixed</i> tail</b><c>  </c></root>";
+
+    private static final String FORMATTED = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <root>
+                <!-- note -->
+                <?target data?>
+                <a><![CDATA[x < y]]></a>
+                <b>text <i>mixed</i> tail</b>
+                <c/>
+            </root>
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsCdataCommentsAndProcessingInstructions() throws Exception {
+        assertEquals(FORMATTED, new StaxXmlFormatter().format(SOURCE));
+    }
+
+    @Test
+    void fileOutputMatchesStringOutput() throws Exception {
+        Path source = directory.resolve("in.xml");
+        Path target = directory.resolve("out.xml");
+        Files.writeString(source, SOURCE, StandardCharsets.UTF_8);
+
+        new StaxXmlFormatter().format(source, target);
+
+        assertEquals(FORMATTED, Files.readString(target, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rejectsDoctype() {
+        String xml = "<!DOCTYPE root [<!ENTITY e \"x\">]><root>&e;</root>";
+        XMLStreamException e = assertThrows(XMLStreamException.class, () -> new StaxXmlFormatter().format(xml));
+        assertTrue(e.getMessage().contains("不允许DOCTYPE声明"), e.getMessage());
+    }
+
+    @Test
+    void rejectedFileLeavesNoOutput() throws Exception {
+        Path source = directory.resolve("doctype.xml");
+        Path target = directory.resolve("out.xml");
+        Files.writeString(source, "<!DOCTYPE root><root/>", StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> new StaxXmlFormatter().format(source, target));
+        assertFalse(Files.exists(target));
+    }
+}
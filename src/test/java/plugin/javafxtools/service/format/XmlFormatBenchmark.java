@@ -0,0 +1,94 @@
+package plugin.javafxtools.service.format;
+
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * XML格式化对比测试 - 在同一输入上比较原 DOM+Transformer 实现与 {@link StaxXmlFormatter} 的耗时
+ * <p>
+ * 只用于开发时手动运行：{@code XmlFormatBenchmark 文件 [轮数]}
+ */
+final class XmlFormatBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int DEFAULT_ROUNDS = 5;
+
+    private XmlFormatBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("用法: XmlFormatBenchmark 文件 [轮数]");
+            return;
+        }
+        String xml = Files.readString(Path.of(args[0]), StandardCharsets.UTF_8);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+        System.out.println(run(xml, rounds));
+    }
+
+    /**
+     * 原实现：每次新建工厂，解析为完整DOM后经恒等Transformer缩进输出
+     */
+    static String formatWithDom(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document document = builder.parse(new InputSource(new StringReader(xml)));
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
+        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        StringWriter writer = new StringWriter();
+        transformer.transform(new DOMSource(document), new StreamResult(writer));
+        return writer.toString();
+    }
+
+    /**
+     * 执行对比测试（阻塞，应在后台线程调用）
+     *
+     * @param xml    输入文档
+     * @param rounds 每种实现的计时轮数
+     * @return 结果描述
+     */
+    static String run(String xml, int rounds) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            formatWithDom(xml);
+            new StaxXmlFormatter().format(xml);
+        }
+        long domNanos = 0;
+        long staxNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            // 交替执行，减少GC和JIT时机对某一方的偏向
+            long begin = System.nanoTime();
+            formatWithDom(xml);
+            domNanos += System.nanoTime() - begin;
+            begin = System.nanoTime();
+            new StaxXmlFormatter().format(xml);
+            staxNanos += System.nanoTime() - begin;
+        }
+        double domMs = domNanos / 1e6 / rounds;
+        double staxMs = staxNanos / 1e6 / rounds;
+        double mb = xml.length() / 1048576.0;
+        return String.format("XML格式化对比（输入 %d 字符，%d 轮）: DOM+Transformer 平均 %.2f ms (%.1f MB/s)，"
+                        + "StAX流式 平均 %.2f ms (%.1f MB/s)，提速 %.1f 倍",
+                xml.length(), rounds, domMs, mb / (domMs / 1000), staxMs, mb / (staxMs / 1000), domMs / staxMs);
+    }
+}
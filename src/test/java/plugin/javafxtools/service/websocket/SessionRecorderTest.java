@@ -0,0 +1,67 @@
+package plugin.javafxtools.service.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 录制文件读写往返，包括空消息和跨段
+ */
+class SessionRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void emptyMessagesSurviveRoundTrip() throws Exception {
+        List<String> messages = List.of("a", "", "b", "", "", "c");
+        SessionRecorder recorder = new SessionRecorder(directory);
+        for (String message : messages) {
+            recorder.recordText(SessionRecorder.DIRECTION_IN, message);
+        }
+        recorder.record(SessionRecorder.DIRECTION_OUT, SessionRecorder.OPCODE_BINARY, ByteBuffer.allocate(0));
+        recorder.close();
+
+        try (SessionReader reader = new SessionReader(recorder.getFirstSegment())) {
+            for (String message : messages) {
+                reader.next();
+                assertEquals(SessionRecorder.OPCODE_TEXT, reader.getOpcode());
+                assertEquals(message, StandardCharsets.UTF_8.decode(reader.getPayload()).toString());
+            }
+            reader.next();
+            assertEquals(SessionRecorder.OPCODE_BINARY, reader.getOpcode());
+            assertEquals(SessionRecorder.DIRECTION_OUT, reader.getDirection());
+            assertEquals(0, reader.getPayload().remaining());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void readsAcrossSegments() throws Exception {
+        SessionRecorder recorder = new SessionRecorder(directory, 64);
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String message = i % 3 == 0 ? "" : "message-" + i;
+            written.add(message);
+            recorder.recordText(SessionRecorder.DIRECTION_IN, message);
+        }
+        recorder.close();
+
+        List<String> read = new ArrayList<>();
+        try (SessionReader reader = new SessionReader(recorder.getFirstSegment())) {
+            while (reader.next()) {
+                read.add(StandardCharsets.UTF_8.decode(reader.getPayload()).toString());
+            }
+            assertEquals(true, reader.getSegments().size() > 1);
+        }
+        assertEquals(written, read);
+    }
+}